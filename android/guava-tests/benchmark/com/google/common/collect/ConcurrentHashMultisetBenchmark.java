@@ -53,6 +53,8 @@ public class ConcurrentHashMultisetBenchmark {
 
   @Param MultisetSupplier implSupplier;
 
+  @Param KeyDistribution distribution;
+
   private Multiset<Integer> multiset;
   private ImmutableList<Integer> keys;
   private ExecutorService threadPool;
@@ -110,7 +112,7 @@ public class ConcurrentHashMultisetBenchmark {
     int nKeys = keys.size();
     long blah = 0;
     for (int i = 0; i < reps; i++) {
-      Integer key = keys.get(random.nextInt(nKeys));
+      Integer key = keys.get(distribution.nextIndex(random, nKeys));
       int delta = random.nextInt(5);
       blah += delta;
       multiset.add(key, delta);
@@ -123,7 +125,7 @@ public class ConcurrentHashMultisetBenchmark {
     int nKeys = keys.size();
     long blah = 0;
     for (int i = 0; i < reps; i++) {
-      Integer key = keys.get(random.nextInt(nKeys));
+      Integer key = keys.get(distribution.nextIndex(random, nKeys));
       // This range is [-5, 4] - slight negative bias so we often hit zero, which brings the
       // auto-removal of zeroes into play.
       int delta = random.nextInt(10) - 5;
@@ -137,6 +139,27 @@ public class ConcurrentHashMultisetBenchmark {
     return blah;
   }
 
+  private enum KeyDistribution {
+    UNIFORM {
+      @Override
+      int nextIndex(Random random, int nKeys) {
+        return random.nextInt(nKeys);
+      }
+    },
+    /**
+     * Half of the operations update the first key, a quarter of them the second key, and so on, as
+     * when counting requests to a few popular pages.
+     */
+    SKEWED {
+      @Override
+      int nextIndex(Random random, int nKeys) {
+        return Math.min(Integer.numberOfTrailingZeros(random.nextInt()), nKeys - 1);
+      }
+    };
+
+    abstract int nextIndex(Random random, int nKeys);
+  }
+
   private enum MultisetSupplier {
     CONCURRENT_HASH_MULTISET() {
       @Override
@@ -156,6 +179,12 @@ public class ConcurrentHashMultisetBenchmark {
         return Synchronized.multiset(HashMultiset.<Integer>create(), null);
       }
     },
+    STRIPED_COUNT_MAP() {
+      @Override
+      Multiset<Integer> get() {
+        return new StripedCountMapMultiset();
+      }
+    },
     ;
 
     abstract Multiset<Integer> get();
@@ -537,4 +566,44 @@ public class ConcurrentHashMultisetBenchmark {
       return (i == null) ? 0 : i;
     }
   }
+
+  /**
+   * Adapts a {@link StripedCountMap} to the multiset operations of this benchmark. Unlike a
+   * multiset, it lets counts become negative, and does not return previous counts.
+   */
+  private static final class StripedCountMapMultiset extends AbstractMultiset<Integer> {
+    private final StripedCountMap<Integer> counts = StripedCountMap.create();
+
+    @Override
+    public int count(@NullableDecl Object element) {
+      return Ints.saturatedCast(counts.count(element));
+    }
+
+    @Override
+    public int add(Integer element, int occurrences) {
+      counts.add(element, occurrences);
+      return 0;
+    }
+
+    @Override
+    public int remove(@NullableDecl Object element, int occurrences) {
+      counts.add((Integer) element, -occurrences);
+      return 0;
+    }
+
+    @Override
+    public void clear() {
+      counts.clear();
+    }
+
+    @Override
+    int distinctElements() {
+      return counts.size();
+    }
+
+    @Override
+    Iterator<Entry<Integer>> entryIterator() {
+      throw new UnsupportedOperationException();
+    }
+  }
 }
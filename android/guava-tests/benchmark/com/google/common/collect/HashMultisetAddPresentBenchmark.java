@@ -17,11 +17,14 @@ package com.google.common.collect;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
- * Benchmark for HashMultiset.add for an already-present element.
+ * Benchmark for HashMultiset.add for an already-present element, compared to the same update on an
+ * {@link ObjectIntCountMap} and on a boxed {@code Map<Integer, Integer>}.
  *
  * @author Louis Wasserman
  */
@@ -29,17 +32,27 @@ public class HashMultisetAddPresentBenchmark {
   private static final int ARRAY_MASK = 0x0ffff;
   private static final int ARRAY_SIZE = 0x10000;
   List<Multiset<Integer>> multisets = new ArrayList<>(0x10000);
+  List<ObjectIntCountMap<Integer>> counters = new ArrayList<>(0x10000);
+  List<Map<Integer, Integer>> maps = new ArrayList<>(0x10000);
   int[] queries = new int[ARRAY_SIZE];
 
   @BeforeExperiment
   void setUp() {
     Random random = new Random();
     multisets.clear();
+    counters.clear();
+    maps.clear();
     for (int i = 0; i < ARRAY_SIZE; i++) {
       HashMultiset<Integer> multiset = HashMultiset.<Integer>create();
       multisets.add(multiset);
       queries[i] = random.nextInt();
       multiset.add(queries[i]);
+      ObjectIntCountMap<Integer> counter = ObjectIntCountMap.create();
+      counters.add(counter);
+      counter.increment(queries[i]);
+      Map<Integer, Integer> map = new HashMap<>();
+      maps.add(map);
+      map.put(queries[i], 1);
     }
   }
 
@@ -52,4 +65,26 @@ public class HashMultisetAddPresentBenchmark {
     }
     return tmp;
   }
+
+  @Benchmark
+  int addToCounter(int reps) {
+    int tmp = 0;
+    for (int i = 0; i < reps; i++) {
+      int j = i & ARRAY_MASK;
+      tmp += counters.get(j).addTo(queries[j], 4);
+    }
+    return tmp;
+  }
+
+  @Benchmark
+  int putInBoxedMap(int reps) {
+    int tmp = 0;
+    for (int i = 0; i < reps; i++) {
+      int j = i & ARRAY_MASK;
+      Map<Integer, Integer> map = maps.get(j);
+      Integer oldCount = map.put(queries[j], map.get(queries[j]) + 4);
+      tmp += oldCount;
+    }
+    return tmp;
+  }
 }
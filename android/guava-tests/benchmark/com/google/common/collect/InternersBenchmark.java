@@ -16,7 +16,18 @@
 
 package com.google.common.collect;
 
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Benchmarking interners.
@@ -24,6 +35,37 @@ import com.google.caliper.Benchmark;
  * @author Dimitris Andreou
  */
 public class InternersBenchmark {
+  /** The number of threads interning concurrently, in the multithreaded benchmarks. */
+  @Param({"1", "4", "16"})
+  int threads;
+
+  /**
+   * The number of distinct strings that the multithreaded benchmarks intern, out of which the
+   * bounded interner holds at most {@link #BOUNDED_MAXIMUM_SIZE}.
+   */
+  @Param({"1000", "1000000"})
+  int distinctStrings;
+
+  private static final int BOUNDED_MAXIMUM_SIZE = 1 << 16;
+
+  private String[] strings;
+  private ExecutorService threadPool;
+
+  @BeforeExperiment
+  void setUp() {
+    strings = new String[distinctStrings];
+    for (int i = 0; i < distinctStrings; i++) {
+      strings[i] = Integer.toHexString(i * 0x9E3779B9);
+    }
+    threadPool =
+        Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).build());
+  }
+
+  @AfterExperiment
+  void tearDown() {
+    threadPool.shutdownNow();
+  }
+
   @Benchmark
   int weakInterner(int reps) {
     Interner<String> interner = Interners.newWeakInterner();
@@ -49,4 +91,58 @@ public class InternersBenchmark {
     }
     return reps;
   }
+
+  @Benchmark
+  int weakInternerConcurrent(int reps) throws ExecutionException, InterruptedException {
+    return internConcurrently(Interners.<String>newWeakInterner(), reps);
+  }
+
+  @Benchmark
+  int strongInternerConcurrent(int reps) throws ExecutionException, InterruptedException {
+    return internConcurrently(Interners.<String>newStrongInterner(), reps);
+  }
+
+  @Benchmark
+  int boundedInternerConcurrent(int reps) throws ExecutionException, InterruptedException {
+    return internConcurrently(
+        Interners.newBuilder().maximumSize(BOUNDED_MAXIMUM_SIZE).<String>build(), reps);
+  }
+
+  @Benchmark
+  int boundedInternerWithStatsConcurrent(int reps)
+      throws ExecutionException, InterruptedException {
+    return internConcurrently(
+        Interners.newBuilder().maximumSize(BOUNDED_MAXIMUM_SIZE).recordStats().<String>build(),
+        reps);
+  }
+
+  /**
+   * Interns {@code reps} strings on each of {@link #threads} threads, as a parser would: each
+   * sample is a fresh copy of one of {@link #distinctStrings} strings.
+   */
+  private int internConcurrently(final Interner<String> interner, final int reps)
+      throws ExecutionException, InterruptedException {
+    List<Future<Integer>> futures = Lists.newArrayListWithCapacity(threads);
+    for (int i = 0; i < threads; i++) {
+      futures.add(
+          threadPool.submit(
+              new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                  Random random = new Random();
+                  int result = 0;
+                  for (int i = 0; i < reps; i++) {
+                    String sample = new String(strings[random.nextInt(strings.length)]);
+                    result += System.identityHashCode(interner.intern(sample));
+                  }
+                  return result;
+                }
+              }));
+    }
+    int total = 0;
+    for (Future<Integer> future : futures) {
+      total += future.get();
+    }
+    return total;
+  }
 }
@@ -21,6 +21,7 @@ import static com.google.common.collect.Lists.newArrayList;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
+import com.google.caliper.api.Footprint;
 import com.google.common.collect.CollectionBenchmarkSampleData.Element;
 import java.util.Collection;
 import java.util.Collections;
@@ -31,8 +32,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
- * A microbenchmark that tests the performance of get() and iteration on various map
- * implementations. Forked from {@link SetContainsBenchmark}.
+ * A microbenchmark that tests the performance of get() and iteration, and the footprint, of various
+ * map implementations. Forked from {@link SetContainsBenchmark}.
  *
  * @author Nicholaus Shupe
  */
@@ -264,4 +265,9 @@ public class MapBenchmark {
     }
     return dummy;
   }
+
+  @Footprint(exclude = Element.class)
+  Object footprint() {
+    return impl.create(values);
+  }
 }
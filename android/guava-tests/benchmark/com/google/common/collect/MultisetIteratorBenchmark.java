@@ -37,11 +37,14 @@ public class MultisetIteratorBenchmark {
   // TreeMultiset requires a Comparable element.
   TreeMultiset<Integer> treeMultiset;
 
+  ObjectIntCountMap<Object> counter;
+
   @BeforeExperiment
   void setUp() {
     hashMultiset = HashMultiset.create(size);
     linkedHashMultiset = LinkedHashMultiset.create(size);
     treeMultiset = TreeMultiset.create();
+    counter = ObjectIntCountMap.createWithExpectedSize(size);
 
     Random random = new Random();
 
@@ -56,6 +59,7 @@ public class MultisetIteratorBenchmark {
       hashMultiset.add(value, count);
       linkedHashMultiset.add(value, count);
       treeMultiset.add(value, count);
+      counter.addTo(value, count);
     }
 
     // TODO(kevinb): convert to assert once benchmark tests enable asserts by default
@@ -94,4 +98,37 @@ public class MultisetIteratorBenchmark {
     }
     return sum;
   }
+
+  @Benchmark
+  int hashMultisetEntries(int reps) {
+    int sum = 0;
+    for (int i = 0; i < reps; i++) {
+      for (Multiset.Entry<Object> entry : hashMultiset.entrySet()) {
+        sum += entry.getElement().hashCode() * entry.getCount();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  int linkedHashMultisetEntries(int reps) {
+    int sum = 0;
+    for (int i = 0; i < reps; i++) {
+      for (Multiset.Entry<Object> entry : linkedHashMultiset.entrySet()) {
+        sum += entry.getElement().hashCode() * entry.getCount();
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  int counterElements(int reps) {
+    int sum = 0;
+    for (int i = 0; i < reps; i++) {
+      for (Object value : counter.elementSet()) {
+        sum += value.hashCode() * counter.count(value);
+      }
+    }
+    return sum;
+  }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.caliper.api.Footprint;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the footprint and the throughput of {@link LongLongMap} and {@link LongObjectMap} with
+ * boxed {@code Map<Long, Long>} implementations. See {@link MapBenchmark} for the object-keyed
+ * maps.
+ */
+public class PrimitiveMapBenchmark {
+  @Param({"100", "10000", "1000000"})
+  private int size;
+
+  @Param private Impl impl;
+
+  /** A minimal common interface over the map implementations. */
+  interface LongMap {
+    void put(long key, long value);
+
+    long get(long key);
+  }
+
+  public enum Impl {
+    HASH_MAP {
+      @Override
+      LongMap create() {
+        return new BoxedLongMap(new HashMap<Long, Long>());
+      }
+    },
+    COMPACT_HASH_MAP {
+      @Override
+      LongMap create() {
+        return new BoxedLongMap(CompactHashMap.<Long, Long>create());
+      }
+    },
+    LONG_OBJECT_MAP {
+      @Override
+      LongMap create() {
+        final LongObjectMap<Long> map = LongObjectMap.create();
+        return new LongMap() {
+          @Override
+          public void put(long key, long value) {
+            map.put(key, value);
+          }
+
+          @Override
+          public long get(long key) {
+            Long value = map.get(key);
+            return (value == null) ? -1 : value;
+          }
+        };
+      }
+    },
+    LONG_LONG_MAP {
+      @Override
+      LongMap create() {
+        final LongLongMap map = LongLongMap.create();
+        return new LongMap() {
+          @Override
+          public void put(long key, long value) {
+            map.put(key, value);
+          }
+
+          @Override
+          public long get(long key) {
+            return map.getOrDefault(key, -1);
+          }
+        };
+      }
+    };
+
+    abstract LongMap create();
+  }
+
+  private static final class BoxedLongMap implements LongMap {
+    private final Map<Long, Long> map;
+
+    BoxedLongMap(Map<Long, Long> map) {
+      this.map = map;
+    }
+
+    @Override
+    public void put(long key, long value) {
+      map.put(key, value);
+    }
+
+    @Override
+    public long get(long key) {
+      Long value = map.get(key);
+      return (value == null) ? -1 : value;
+    }
+  }
+
+  private long[] keys;
+  private long[] queries;
+  private LongMap map;
+
+  @BeforeExperiment
+  void setUp() {
+    Random random = new Random(0);
+    keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = random.nextLong();
+    }
+    // half hits, half misses
+    queries = new long[1024];
+    for (int i = 0; i < queries.length; i++) {
+      queries[i] = (i % 2 == 0) ? keys[random.nextInt(size)] : random.nextLong();
+    }
+    map = newPopulatedMap();
+  }
+
+  private LongMap newPopulatedMap() {
+    LongMap map = impl.create();
+    for (long key : keys) {
+      map.put(key, key);
+    }
+    return map;
+  }
+
+  @Benchmark
+  long get(int reps) {
+    LongMap map = this.map;
+    long[] queries = this.queries;
+    long result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += map.get(queries[i & 1023]);
+    }
+    return result;
+  }
+
+  @Benchmark
+  int populate(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += System.identityHashCode(newPopulatedMap());
+    }
+    return result;
+  }
+
+  @Footprint
+  Object footprint() {
+    return newPopulatedMap();
+  }
+}
@@ -19,12 +19,16 @@ package com.google.common.collect;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
+import com.google.caliper.api.Footprint;
+import com.google.common.base.Functions;
 import com.google.common.collect.BenchmarkHelpers.SetImpl;
 import com.google.common.collect.CollectionBenchmarkSampleData.Element;
+import java.util.Collection;
 import java.util.Set;
 
 /**
- * A microbenchmark that tests the performance of contains() on various Set implementations.
+ * A microbenchmark that tests the performance of contains() on various Set implementations, and
+ * compares it with containsKey() on an {@link ImmutableMap} with the same keys.
  *
  * @author Kevin Bourrillion
  */
@@ -51,14 +55,18 @@ public class SetContainsBenchmark {
   // the following must be set during setUp
   private Element[] queries;
   private Set<Element> setToTest;
+  private Collection<Element> values;
+  private ImmutableMap<Element, Element> mapToTest;
 
   @BeforeExperiment
   void setUp() {
     CollectionBenchmarkSampleData sampleData =
         new CollectionBenchmarkSampleData(isUserTypeFast, random, hitRate, size);
 
-    this.setToTest = (Set<Element>) impl.create(sampleData.getValuesInSet());
+    this.values = sampleData.getValuesInSet();
+    this.setToTest = (Set<Element>) impl.create(values);
     this.queries = sampleData.getQueries();
+    this.mapToTest = Maps.toMap(values, Functions.<Element>identity());
   }
 
   @Benchmark
@@ -76,4 +84,23 @@ public class SetContainsBenchmark {
     }
     return dummy;
   }
+
+  @Benchmark
+  boolean immutableMapContainsKey(int reps) {
+    ImmutableMap<Element, Element> map = mapToTest;
+    Element[] queries = this.queries;
+
+    int mask = queries.length - 1;
+
+    boolean dummy = false;
+    for (int i = 0; i < reps; i++) {
+      dummy ^= map.containsKey(queries[i & mask]);
+    }
+    return dummy;
+  }
+
+  @Footprint(exclude = Element.class)
+  Object footprint() {
+    return impl.create(values);
+  }
 }
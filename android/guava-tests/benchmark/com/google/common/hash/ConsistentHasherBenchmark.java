@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks for the lookups of the {@link ConsistentHasher} strategies, compared to {@link
+ * Hashing#consistentHash(long, int)}.
+ */
+public class ConsistentHasherBenchmark {
+
+  @Param({"4", "32", "256"})
+  int nodes;
+
+  private final long[] hashes = new long[1024];
+  private ConsistentHasher<Integer> rendezvous;
+  private ConsistentHasher<Integer> maglev;
+  private BoundedLoadRing<Integer> ring;
+
+  @BeforeExperiment
+  void setUp() {
+    List<Integer> nodeList = new ArrayList<>();
+    Map<Integer, Integer> weights = new LinkedHashMap<>();
+    for (int i = 0; i < nodes; i++) {
+      nodeList.add(i);
+      weights.put(i, 1);
+    }
+    rendezvous = ConsistentHasher.weightedRendezvous(weights, Funnels.integerFunnel());
+    maglev = ConsistentHasher.maglev(nodeList, Funnels.integerFunnel());
+    ring = BoundedLoadRing.create(nodeList, Funnels.integerFunnel(), 1.25);
+    Random random = new Random(42);
+    for (int i = 0; i < hashes.length; i++) {
+      hashes[i] = random.nextLong();
+    }
+  }
+
+  @Benchmark
+  int jumpConsistentHash(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += Hashing.consistentHash(hashes[i & 1023], nodes);
+    }
+    return result;
+  }
+
+  @Benchmark
+  int weightedRendezvous(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += rendezvous.nodeFor(hashes[i & 1023]);
+    }
+    return result;
+  }
+
+  @Benchmark
+  int maglev(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += maglev.nodeFor(hashes[i & 1023]);
+    }
+    return result;
+  }
+
+  @Benchmark
+  int ringNodeFor(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += ring.nodeFor(hashes[i & 1023]);
+    }
+    return result;
+  }
+
+  @Benchmark
+  int ringAcquireRelease(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      Integer node = ring.acquire(hashes[i & 1023]);
+      ring.release(node);
+      result += node;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.testing.features.CollectionFeature;
+import com.google.common.collect.testing.features.CollectionSize;
+import com.google.common.collect.testing.features.MapFeature;
+import com.google.common.collect.testing.google.SetMultimapTestSuiteBuilder;
+import com.google.common.collect.testing.google.TestStringSetMultimapGenerator;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** Tests for {@link ConcurrentSetMultimap}. */
+public class ConcurrentSetMultimapTest extends TestCase {
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite();
+    suite.addTest(
+        SetMultimapTestSuiteBuilder.using(
+                new TestStringSetMultimapGenerator() {
+                  @Override
+                  protected SetMultimap<String, String> create(Entry<String, String>[] entries) {
+                    SetMultimap<String, String> multimap = ConcurrentSetMultimap.create();
+                    for (Entry<String, String> entry : entries) {
+                      multimap.put(entry.getKey(), entry.getValue());
+                    }
+                    return multimap;
+                  }
+                })
+            .named("ConcurrentSetMultimap")
+            .withFeatures(
+                MapFeature.GENERAL_PURPOSE,
+                MapFeature.ALLOWS_ANY_NULL_QUERIES,
+                CollectionFeature.KNOWN_ORDER,
+                CollectionFeature.SUPPORTS_ITERATOR_REMOVE,
+                CollectionFeature.SERIALIZABLE,
+                CollectionSize.ANY)
+            .createTestSuite());
+    suite.addTestSuite(ConcurrentSetMultimapTest.class);
+    return suite;
+  }
+
+  public void testCreateFromMultimap() {
+    Multimap<String, Integer> multimap = LinkedHashMultimap.create();
+    multimap.put("foo", 1);
+    multimap.put("bar", 2);
+    multimap.put("foo", 3);
+    ConcurrentSetMultimap<String, Integer> copy = ConcurrentSetMultimap.create(multimap);
+    assertEquals(multimap, copy);
+    assertThat(copy.get("foo")).containsExactly(1, 3).inOrder();
+  }
+
+  public void testNullsRejected() {
+    ConcurrentSetMultimap<String, Integer> multimap = ConcurrentSetMultimap.create();
+    try {
+      multimap.put(null, 1);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    try {
+      multimap.put("foo", null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    try {
+      multimap.putAll("foo", Arrays.asList(1, null));
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    assertTrue(multimap.isEmpty());
+  }
+
+  public void testGetIsLiveView() {
+    ConcurrentSetMultimap<String, Integer> multimap = ConcurrentSetMultimap.create();
+    Set<Integer> foo = multimap.get("foo");
+    assertTrue(foo.isEmpty());
+    multimap.put("foo", 1);
+    assertThat(foo).containsExactly(1);
+    foo.add(2);
+    assertThat(multimap.get("foo")).containsExactly(1, 2).inOrder();
+    foo.clear();
+    assertFalse(multimap.containsKey("foo"));
+  }
+
+  public void testIteratorIsWeaklyConsistent() {
+    ConcurrentSetMultimap<String, Integer> multimap = ConcurrentSetMultimap.create();
+    multimap.putAll("foo", ImmutableList.of(1, 2, 3));
+    Iterator<Integer> iterator = multimap.get("foo").iterator();
+    assertEquals(1, (int) iterator.next());
+    multimap.remove("foo", 2);
+    multimap.put("foo", 4);
+    assertEquals(2, (int) iterator.next());
+    iterator.remove(); // already removed
+    assertEquals(3, (int) iterator.next());
+    iterator.remove();
+    assertFalse(iterator.hasNext());
+    assertThat(multimap.get("foo")).containsExactly(1, 4).inOrder();
+  }
+
+  public void testRemoveAllReturnsRemovedValues() {
+    ConcurrentSetMultimap<String, Integer> multimap = ConcurrentSetMultimap.create();
+    multimap.putAll("foo", ImmutableList.of(1, 2));
+    Set<Integer> removed = multimap.removeAll("foo");
+    multimap.put("foo", 3);
+    assertThat(removed).containsExactly(1, 2).inOrder();
+  }
+
+  public void testConcurrentPutAndRemove() throws Exception {
+    final ConcurrentSetMultimap<Integer, Integer> multimap = ConcurrentSetMultimap.create();
+    final int nThreads = 8;
+    final int valuesPerThread = 500;
+    ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < nThreads; i++) {
+        final int thread = i;
+        futures.add(
+            pool.submit(
+                new Callable<Void>() {
+                  @Override
+                  public Void call() {
+                    for (int value = 0; value < valuesPerThread; value++) {
+                      // every thread adds its values to the same few keys, and removes half of them
+                      int key = value % 3;
+                      int tagged = thread * valuesPerThread + value;
+                      assertTrue(multimap.put(key, tagged));
+                      if (value % 2 == 0) {
+                        assertTrue(multimap.remove(key, tagged));
+                      }
+                    }
+                    return null;
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(nThreads * valuesPerThread / 2, multimap.size());
+    for (Entry<Integer, Integer> entry : multimap.entries()) {
+      int value = entry.getValue() % valuesPerThread;
+      assertEquals(1, value % 2);
+      assertEquals(value % 3, (int) entry.getKey());
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.ImmutableDoubleArray;
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** Tests for {@link DoubleTopKSelector}. */
+@GwtIncompatible
+public class DoubleTopKSelectorTest extends TestCase {
+
+  public void testSpecialValues() {
+    double[] values = {
+      1.5, Double.NaN, -0.0, 0.0, Double.NEGATIVE_INFINITY, -1.5, Double.POSITIVE_INFINITY,
+      Double.MIN_VALUE, -Double.MAX_VALUE
+    };
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+
+    DoubleTopKSelector least = DoubleTopKSelector.least(values.length);
+    least.offerAll(values);
+    assertEquals(ImmutableDoubleArray.copyOf(sorted), least.topK());
+    DoubleTopKSelector greatest = DoubleTopKSelector.greatest(3);
+    greatest.offerAll(values);
+    assertEquals(
+        ImmutableDoubleArray.of(Double.NaN, Double.POSITIVE_INFINITY, 1.5), greatest.topK());
+  }
+
+  public void testRandomAgainstSort() {
+    Random random = new Random(0);
+    double[] values = new double[5000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextGaussian();
+    }
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+
+    DoubleTopKSelector least = DoubleTopKSelector.least(50);
+    DoubleTopKSelector other = DoubleTopKSelector.least(50);
+    least.offerAll(Arrays.copyOf(values, 1000));
+    other.offerAll(Arrays.copyOfRange(values, 1000, values.length));
+    assertEquals(
+        ImmutableDoubleArray.copyOf(Arrays.copyOf(sorted, 50)), least.combine(other).topK());
+  }
+}
@@ -348,6 +348,25 @@ public class ImmutableMapTest extends TestCase {
       assertSame(builderArray, mapInternalArray);
     }
 
+    public void testBuilder_hashTableSizes() {
+      // crosses the byte[], short[] and int[] hash table thresholds
+      for (int size : new int[] {179, 180, 45875, 45876, 100000}) {
+        ImmutableMap.Builder<Integer, Integer> builder = ImmutableMap.builder();
+        for (int i = 0; i < size; i++) {
+          builder.put(i, -i);
+        }
+        ImmutableMap<Integer, Integer> map = builder.build();
+        assertEquals(size, map.size());
+        for (int i = 0; i < size; i++) {
+          assertEquals(Integer.valueOf(-i), map.get(i));
+        }
+        assertNull(map.get(size));
+        assertNull(map.get(-1));
+        assertEquals(Integer.valueOf(size - 1), map.keySet().asList().get(size - 1));
+        assertEquals(Integer.valueOf(1 - size), map.values().asList().get(size - 1));
+      }
+    }
+
     public void testBuilder_orderEntriesByValue() {
       ImmutableMap<String, Integer> map =
           new Builder<String, Integer>()
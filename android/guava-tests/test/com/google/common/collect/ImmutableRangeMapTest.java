@@ -20,6 +20,7 @@ import com.google.common.annotations.GwtIncompatible;
 import com.google.common.testing.SerializableTester;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import junit.framework.TestCase;
 
 /**
@@ -179,6 +180,68 @@ public class ImmutableRangeMapTest extends TestCase {
     }
   }
 
+  public void testGetLongKeys() {
+    ImmutableRangeMap<Long, String> map =
+        ImmutableRangeMap.<Long, String>builder()
+            .put(Range.atMost(Long.MIN_VALUE), "a")
+            .put(Range.open(Long.MIN_VALUE, -5L), "b")
+            .put(Range.closed(0L, 0L), "c")
+            .put(Range.openClosed(0L, 10L), "d")
+            .put(Range.open(10L, Long.MAX_VALUE), "e")
+            .put(Range.atLeast(Long.MAX_VALUE), "f")
+            .build();
+    long[] keys = {
+      Long.MIN_VALUE, Long.MIN_VALUE + 1, -6, -5, -1, 0, 1, 10, 11, Long.MAX_VALUE - 1
+    };
+    for (long key : keys) {
+      assertGetMatchesScan(map, key);
+    }
+    assertEquals("f", map.get(Long.MAX_VALUE));
+    assertNull(map.get(-5L));
+  }
+
+  public void testGetRandomLongRanges() {
+    Random random = new Random(0);
+    for (int trial = 0; trial < 100; trial++) {
+      TreeRangeMap<Long, Integer> expected = TreeRangeMap.create();
+      for (int i = 0; i < 20; i++) {
+        long a = random.nextInt(100) - 50;
+        long b = a + random.nextInt(5);
+        BoundType lowerType = random.nextBoolean() ? BoundType.OPEN : BoundType.CLOSED;
+        BoundType upperType = random.nextBoolean() ? BoundType.OPEN : BoundType.CLOSED;
+        if (a < b || (lowerType == BoundType.CLOSED && upperType == BoundType.CLOSED)) {
+          expected.put(Range.range(a, lowerType, b, upperType), i);
+        }
+      }
+      ImmutableRangeMap<Long, Integer> map = ImmutableRangeMap.copyOf(expected);
+      for (long key = -60; key <= 60; key++) {
+        assertEquals(expected.get(key), map.get(key));
+        assertEquals(expected.getEntry(key), map.getEntry(key));
+      }
+    }
+  }
+
+  public void testGetNonIntegralKeys() {
+    ImmutableRangeMap<String, Integer> map =
+        ImmutableRangeMap.<String, Integer>builder()
+            .put(Range.closedOpen("a", "c"), 1)
+            .put(Range.atLeast("x"), 2)
+            .build();
+    assertEquals((Integer) 1, map.get("b"));
+    assertNull(map.get("c"));
+    assertEquals((Integer) 2, map.get("xyz"));
+  }
+
+  private static void assertGetMatchesScan(ImmutableRangeMap<Long, String> map, long key) {
+    String expected = null;
+    for (Entry<Range<Long>, String> entry : map.asMapOfRanges().entrySet()) {
+      if (entry.getKey().contains(key)) {
+        expected = entry.getValue();
+      }
+    }
+    assertEquals(expected, map.get(key));
+  }
+
   @AndroidIncompatible // slow
   public void testAsMapOfRanges() {
     for (Range<Integer> range1 : RANGES) {
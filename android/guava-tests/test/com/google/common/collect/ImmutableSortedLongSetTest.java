@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.Longs;
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import junit.framework.TestCase;
+
+/** Tests for {@link ImmutableSortedLongSet}. */
+@GwtIncompatible
+public class ImmutableSortedLongSetTest extends TestCase {
+
+  public void testEmpty() {
+    ImmutableSortedLongSet set = ImmutableSortedLongSet.of();
+    assertTrue(set.isEmpty());
+    assertEquals(0, set.size());
+    assertFalse(set.contains(0));
+    assertEquals(-1, set.ceilingIndex(Long.MIN_VALUE));
+    assertEquals(-1, set.floorIndex(Long.MAX_VALUE));
+    assertEquals("[]", set.toString());
+    assertSame(ImmutableSortedSet.of(), set.asImmutableSortedSet());
+    try {
+      set.first();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+    try {
+      set.get(0);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testOf_sortsAndRemovesDuplicates() {
+    ImmutableSortedLongSet set = ImmutableSortedLongSet.of(5, 3, 9, 3, -1);
+    assertEquals(4, set.size());
+    assertThat(Longs.asList(set.toArray())).containsExactly(-1L, 3L, 5L, 9L).inOrder();
+    assertEquals("[-1, 3, 5, 9]", set.toString());
+    assertEquals(-1, set.first());
+    assertEquals(9, set.last());
+  }
+
+  public void testNavigation() {
+    ImmutableSortedLongSet set = ImmutableSortedLongSet.of(10, 20, 30);
+    assertEquals(1, set.indexOf(20));
+    assertEquals(-1, set.indexOf(25));
+    assertEquals(1, set.ceilingIndex(20));
+    assertEquals(2, set.ceilingIndex(21));
+    assertEquals(-1, set.ceilingIndex(31));
+    assertEquals(2, set.higherIndex(20));
+    assertEquals(1, set.floorIndex(20));
+    assertEquals(1, set.floorIndex(29));
+    assertEquals(-1, set.floorIndex(9));
+    assertEquals(0, set.lowerIndex(20));
+    assertEquals(-1, set.lowerIndex(10));
+    assertEquals(-1, set.higherIndex(Long.MAX_VALUE));
+  }
+
+  public void testExtremeValues() {
+    ImmutableSortedLongSet set =
+        ImmutableSortedLongSet.of(Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE);
+    assertThat(Longs.asList(set.toArray()))
+        .containsExactly(Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE)
+        .inOrder();
+    assertTrue(set.contains(Long.MIN_VALUE));
+    assertTrue(set.contains(Long.MAX_VALUE));
+    assertFalse(set.contains(Long.MAX_VALUE - 1));
+    assertEquals(4, set.floorIndex(Long.MAX_VALUE));
+  }
+
+  public void testClosed() {
+    ImmutableSortedLongSet set = ImmutableSortedLongSet.closed(-100, 1000);
+    assertEquals(1101, set.size());
+    assertEquals(1000, set.last());
+    assertEquals(150, set.indexOf(50));
+    assertEquals(ImmutableSortedLongSet.copyOf(set.toArray()), set);
+    assertEquals(ContiguousSet.closed(-100L, 1000L), set.asImmutableSortedSet());
+    assertThat(set.asImmutableSortedSet()).isInstanceOf(ContiguousSet.class);
+    try {
+      ImmutableSortedLongSet.closed(1, 0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testClosed_tooManyValues() {
+    for (long[] bounds :
+        new long[][] {
+          {0, Integer.MAX_VALUE},
+          {Long.MIN_VALUE, 0},
+          {-1, Long.MAX_VALUE},
+          {Long.MIN_VALUE, Long.MAX_VALUE}
+        }) {
+      try {
+        ImmutableSortedLongSet.closed(bounds[0], bounds[1]);
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+  }
+
+  public void testCopyOf_contiguousSet() {
+    ImmutableSortedLongSet set = ImmutableSortedLongSet.copyOf(ContiguousSet.closed(5L, 500L));
+    assertEquals(ImmutableSortedLongSet.closed(5, 500), set);
+  }
+
+  public void testBuilder() {
+    ImmutableSortedLongSet set =
+        ImmutableSortedLongSet.builder()
+            .add(7)
+            .addAll(3, 1, 3)
+            .addAll(ImmutableList.of(100L, 7L))
+            .build();
+    assertEquals(ImmutableSortedLongSet.of(1, 3, 7, 100), set);
+  }
+
+  public void testRandomAgainstTreeSet() {
+    Random random = new Random(0);
+    for (int bound : new int[] {10, 1000, 1 << 20, Integer.MAX_VALUE}) {
+      TreeSet<Long> expected = new TreeSet<>();
+      ImmutableSortedLongSet.Builder builder = ImmutableSortedLongSet.builder();
+      for (int i = 0; i < 3000; i++) {
+        long value = (bound == Integer.MAX_VALUE) ? random.nextLong() : random.nextInt(bound);
+        expected.add(value);
+        builder.add(value);
+      }
+      ImmutableSortedLongSet set = builder.build();
+      assertSameElements(expected, set);
+      for (int i = 0; i < 1000; i++) {
+        long probe =
+            (bound == Integer.MAX_VALUE) ? random.nextLong() : random.nextInt(bound + 2) - 1;
+        assertEquals(expected.contains(probe), set.contains(probe));
+        assertIndex(expected.ceiling(probe), set, set.ceilingIndex(probe));
+        assertIndex(expected.higher(probe), set, set.higherIndex(probe));
+        assertIndex(expected.floor(probe), set, set.floorIndex(probe));
+        assertIndex(expected.lower(probe), set, set.lowerIndex(probe));
+      }
+    }
+  }
+
+  public void testSubSets() {
+    Random random = new Random(1);
+    TreeSet<Long> expected = new TreeSet<>();
+    for (int i = 0; i < 2000; i++) {
+      expected.add((long) random.nextInt(100000));
+    }
+    ImmutableSortedLongSet set = ImmutableSortedLongSet.copyOf(expected);
+    for (int i = 0; i < 100; i++) {
+      long from = random.nextInt(100000);
+      long to = from + random.nextInt(20000);
+      ImmutableSortedLongSet subSet = set.subSet(from, to);
+      NavigableSet<Long> expectedSubSet = expected.subSet(from, true, to, false);
+      assertSameElements(expectedSubSet, subSet);
+      assertSameElements(expectedSubSet, subSet.trimmed());
+      assertEquals(set.intersection(ImmutableSortedLongSet.closed(from, to - 1)), subSet);
+      long middle = (from + to) / 2;
+      assertSameElements(expectedSubSet.headSet(middle, false), subSet.headSet(middle));
+      assertSameElements(expectedSubSet.tailSet(middle, true), subSet.tailSet(middle));
+      assertSameElements(expected.headSet(to, false), set.headSet(to));
+      assertSameElements(expected.tailSet(from, true), set.tailSet(from));
+    }
+    assertSame(set, set.subSet(Long.MIN_VALUE, Long.MAX_VALUE));
+    assertSame(set, set.trimmed());
+  }
+
+  public void testSetAlgebra() {
+    Random random = new Random(2);
+    for (int sizeB : new int[] {0, 5, 100, 5000}) {
+      TreeSet<Long> a = new TreeSet<>();
+      TreeSet<Long> b = new TreeSet<>();
+      for (int i = 0; i < 3000; i++) {
+        a.add((long) random.nextInt(10000));
+      }
+      for (int i = 0; i < sizeB; i++) {
+        b.add((long) random.nextInt(10000));
+      }
+      ImmutableSortedLongSet setA = ImmutableSortedLongSet.copyOf(a);
+      ImmutableSortedLongSet setB = ImmutableSortedLongSet.copyOf(b);
+      assertSameElements(new TreeSet<>(Sets.union(a, b)), setA.union(setB));
+      assertSameElements(new TreeSet<>(Sets.union(a, b)), setB.union(setA));
+      assertSameElements(new TreeSet<>(Sets.intersection(a, b)), setA.intersection(setB));
+      assertSameElements(new TreeSet<>(Sets.intersection(a, b)), setB.intersection(setA));
+      assertSameElements(new TreeSet<>(Sets.difference(a, b)), setA.difference(setB));
+      assertSameElements(new TreeSet<>(Sets.difference(b, a)), setB.difference(setA));
+    }
+  }
+
+  public void testAsImmutableSortedSet() {
+    ImmutableSortedLongSet set = ImmutableSortedLongSet.of(1, 5, 9, 100);
+    ImmutableSortedSet<Long> view = set.asImmutableSortedSet();
+    assertEquals(ImmutableSortedSet.of(1L, 5L, 9L, 100L), view);
+    assertEquals(ImmutableSortedSet.of(5L, 9L), view.subSet(2L, 50L));
+    assertEquals((Long) 9L, view.ceiling(6L));
+    assertTrue(view.contains(100L));
+    assertFalse(view.contains(100));
+    assertSame(view, ImmutableSortedSet.copyOf(view));
+    assertEquals(set, ImmutableSortedLongSet.copyOf(view));
+    assertEquals(view, SerializableTester.reserialize(view));
+  }
+
+  public void testEqualsAndHashCode() {
+    new EqualsTester()
+        .addEqualityGroup(
+            ImmutableSortedLongSet.of(), ImmutableSortedLongSet.of(1, 2).subSet(3, 4))
+        .addEqualityGroup(
+            ImmutableSortedLongSet.of(1, 2, 3),
+            ImmutableSortedLongSet.closed(1, 3),
+            ImmutableSortedLongSet.of(0, 1, 2, 3, 4).subSet(1, 4))
+        .addEqualityGroup(ImmutableSortedLongSet.of(1, 2, 4))
+        .testEquals();
+    ImmutableSortedLongSet set = ImmutableSortedLongSet.of(-5, 1, 1L << 40);
+    assertEquals(ImmutableSet.of(-5L, 1L, 1L << 40).hashCode(), set.hashCode());
+  }
+
+  public void testSerialization() {
+    ImmutableSortedLongSet set =
+        ImmutableSortedLongSet.closed(0, 1000)
+            .union(ImmutableSortedLongSet.of(5000, 7000, 1L << 50));
+    SerializableTester.reserializeAndAssert(set);
+    SerializableTester.reserializeAndAssert(set.subSet(500, 6000));
+    assertSame(ImmutableSortedLongSet.of(), SerializableTester.reserialize(set.subSet(1, 1)));
+  }
+
+  public void testNulls() {
+    new NullPointerTester().testAllPublicStaticMethods(ImmutableSortedLongSet.class);
+    new NullPointerTester().testAllPublicInstanceMethods(ImmutableSortedLongSet.of(1, 2));
+  }
+
+  private static void assertSameElements(Set<Long> expected, ImmutableSortedLongSet actual) {
+    assertEquals(expected.size(), actual.size());
+    assertThat(Longs.asList(actual.toArray())).containsExactlyElementsIn(expected).inOrder();
+    assertEquals(expected, actual.asImmutableSortedSet());
+  }
+
+  private static void assertIndex(Long expected, ImmutableSortedLongSet set, int index) {
+    if (expected == null) {
+      assertEquals(-1, index);
+    } else {
+      assertEquals((long) expected, set.get(index));
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.ImmutableIntArray;
+import java.util.Arrays;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** Tests for {@link IntTopKSelector}. */
+@GwtIncompatible
+public class IntTopKSelectorTest extends TestCase {
+
+  public void testLeastAndGreatest() {
+    Random random = new Random(0);
+    int[] values = new int[5000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt();
+    }
+    values[17] = Integer.MIN_VALUE;
+    values[42] = Integer.MAX_VALUE;
+    int[] sorted = values.clone();
+    Arrays.sort(sorted);
+
+    IntTopKSelector least = IntTopKSelector.least(20);
+    least.offerAll(values);
+    assertEquals(ImmutableIntArray.copyOf(Arrays.copyOf(sorted, 20)), least.topK());
+    IntTopKSelector greatest = IntTopKSelector.greatest(3);
+    greatest.offerAll(values);
+    int n = sorted.length;
+    assertEquals(
+        ImmutableIntArray.of(Integer.MAX_VALUE, sorted[n - 2], sorted[n - 3]), greatest.topK());
+  }
+
+  public void testCombine() {
+    IntTopKSelector left = IntTopKSelector.least(2);
+    left.offerAll(5, -3);
+    IntTopKSelector right = IntTopKSelector.least(2);
+    right.offerAll(4, -7, 9);
+    assertEquals(ImmutableIntArray.of(-7, -3), left.combine(right).topK());
+  }
+}
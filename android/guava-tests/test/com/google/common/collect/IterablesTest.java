@@ -37,11 +37,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Random;
 import java.util.RandomAccess;
 import java.util.Set;
 import java.util.SortedSet;
@@ -1395,6 +1397,41 @@ public class IterablesTest extends TestCase {
     verifyMergeSorted(iterables, allIntegers);
   }
 
+  public void testMergeSorted_stable() {
+    Comparator<String> byLength =
+        Ordering.natural()
+            .onResultOf(
+                new Function<String, Integer>() {
+                  @Override
+                  public Integer apply(String input) {
+                    return input.length();
+                  }
+                });
+    Iterable<String> merged =
+        Iterables.mergeSorted(
+            ImmutableList.of(
+                ImmutableList.of("a", "bb"), ImmutableList.of("c", "dd"), ImmutableList.of("e")),
+            byLength);
+    assertEquals(ImmutableList.of("a", "c", "e", "bb", "dd"), ImmutableList.copyOf(merged));
+  }
+
+  public void testMergeSorted_random() {
+    Random random = new Random(0);
+    for (int size = 1; size <= 37; size++) {
+      List<Iterable<Integer>> iterables = Lists.newArrayList();
+      List<Integer> allIntegers = Lists.newArrayList();
+      for (int i = 0; i < size; i++) {
+        List<Integer> list = Lists.newArrayList();
+        for (int j = random.nextInt(10); j > 0; j--) {
+          list.add(random.nextInt(50));
+        }
+        allIntegers.addAll(list);
+        iterables.add(Ordering.natural().sortedCopy(list));
+      }
+      verifyMergeSorted(iterables, allIntegers);
+    }
+  }
+
   @GwtIncompatible // reflection
   public void testIterables_nullCheck() throws Exception {
     new ClassSanityTester()
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link LongHashSet}.
+ */
+public class LongHashSetTest extends TestCase {
+  public void testBasic() {
+    LongHashSet set = LongHashSet.of(3, 1, 3, Long.MIN_VALUE);
+    assertEquals(3, set.size());
+    assertTrue(set.contains(1));
+    assertFalse(set.contains(2));
+    assertEquals("[3, 1, " + Long.MIN_VALUE + "]", set.toString());
+    assertFalse(set.add(1));
+    assertTrue(set.add(2));
+    assertTrue(set.remove(3));
+    assertFalse(set.remove(3));
+    assertEquals(2, set.elementAt(0));
+    assertEquals(3, set.toArray().length);
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(1));
+  }
+
+  public void testAgainstHashSet() {
+    LongHashSet set = LongHashSet.create();
+    Set<Long> expected = new HashSet<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100_000; i++) {
+      long element = (long) random.nextInt(2_000) << 40;
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(element), set.remove(element));
+      } else {
+        assertEquals(expected.add(element), set.add(element));
+      }
+      assertEquals(expected.size(), set.size());
+    }
+    for (long element = 0; element < 2_000; element++) {
+      assertEquals(expected.contains(element << 40), set.contains(element << 40));
+    }
+    assertEquals(expected.hashCode(), set.hashCode());
+    LongHashSet copy = LongHashSet.of(set.toArray());
+    copy.trimToSize();
+    assertEquals(set, copy);
+    assertEquals(set.hashCode(), copy.hashCode());
+  }
+}
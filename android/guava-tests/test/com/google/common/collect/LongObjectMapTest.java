@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link LongObjectMap}.
+ */
+public class LongObjectMapTest extends TestCase {
+  public void testBasic() {
+    LongObjectMap<String> map = LongObjectMap.create();
+    assertTrue(map.isEmpty());
+    assertNull(map.put(1, "one"));
+    assertNull(map.put(-7, "minus seven"));
+    assertEquals("one", map.put(1, "uno"));
+    assertEquals(2, map.size());
+    assertEquals("uno", map.get(1));
+    assertNull(map.get(2));
+    assertEquals("default", map.getOrDefault(2, "default"));
+    assertTrue(map.containsKey(-7));
+    assertFalse(map.containsKey(7));
+    assertEquals("{1=uno, -7=minus seven}", map.toString());
+    assertEquals("minus seven", map.remove(-7));
+    assertNull(map.remove(-7));
+    assertEquals(1, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(1));
+  }
+
+  public void testInsertionOrder() {
+    LongObjectMap<Integer> map = LongObjectMap.createWithExpectedSize(0);
+    for (int i = 0; i < 100; i++) {
+      map.put(i * 31L, i);
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i * 31L, map.keyAt(i));
+      assertEquals((Integer) i, map.valueAt(i));
+    }
+    assertEquals(100, map.keys().length);
+    try {
+      map.keyAt(100);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testAgainstHashMap() {
+    LongObjectMap<Integer> map = LongObjectMap.create();
+    Map<Long, Integer> expected = new HashMap<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100_000; i++) {
+      // keys differing only in their high 32 bits stress the bucket chains
+      long key = (long) random.nextInt(2_000) << 40;
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        assertEquals(expected.put(key, i), map.put(key, i));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (int i = 0; i < map.size(); i++) {
+      assertEquals(expected.get(map.keyAt(i)), map.valueAt(i));
+    }
+    for (long key = 0; key < 2_000; key++) {
+      assertEquals(expected.get(key << 40), map.get(key << 40));
+    }
+    assertEquals(expected.hashCode(), map.hashCode());
+    map.trimToSize();
+    for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+  }
+
+  public void testEqualsAndHashCode() {
+    LongObjectMap<String> map1 = LongObjectMap.create();
+    LongObjectMap<String> map2 = LongObjectMap.create();
+    map1.put(1, "a");
+    map1.put(2, "b");
+    map2.put(2, "b");
+    map2.put(1, "a");
+    assertEquals(map1, map2);
+    assertEquals(map1.hashCode(), map2.hashCode());
+    map2.put(1, "c");
+    assertFalse(map1.equals(map2));
+  }
+
+  public void testNullValue() {
+    LongObjectMap<String> map = LongObjectMap.create();
+    try {
+      map.put(1, null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testCreateWithExpectedSize_negative() {
+    try {
+      LongObjectMap.createWithExpectedSize(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
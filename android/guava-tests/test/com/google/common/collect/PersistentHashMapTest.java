@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.testing.MapTestSuiteBuilder;
+import com.google.common.collect.testing.TestStringMapGenerator;
+import com.google.common.collect.testing.features.CollectionFeature;
+import com.google.common.collect.testing.features.CollectionSize;
+import com.google.common.collect.testing.features.MapFeature;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** Tests for {@link PersistentHashMap}. */
+@GwtIncompatible
+public class PersistentHashMapTest extends TestCase {
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite();
+    suite.addTestSuite(PersistentHashMapTest.class);
+
+    suite.addTest(
+        MapTestSuiteBuilder.using(
+                new TestStringMapGenerator() {
+                  @Override
+                  protected Map<String, String> create(Entry<String, String>[] entries) {
+                    PersistentHashMap<String, String> map = PersistentHashMap.of();
+                    for (Entry<String, String> entry : entries) {
+                      map = map.with(entry.getKey(), entry.getValue());
+                    }
+                    return map;
+                  }
+                })
+            .withFeatures(
+                CollectionSize.ANY,
+                CollectionFeature.SERIALIZABLE_INCLUDING_VIEWS,
+                CollectionFeature.ALLOWS_NULL_QUERIES)
+            .named("PersistentHashMap.with")
+            .createTestSuite());
+
+    suite.addTest(
+        MapTestSuiteBuilder.using(
+                new TestStringMapGenerator() {
+                  @Override
+                  protected Map<String, String> create(Entry<String, String>[] entries) {
+                    return PersistentHashMap.copyOf(ImmutableList.copyOf(entries));
+                  }
+                })
+            .withFeatures(
+                CollectionSize.ANY,
+                MapFeature.REJECTS_DUPLICATES_AT_CREATION,
+                CollectionFeature.SERIALIZABLE_INCLUDING_VIEWS,
+                CollectionFeature.ALLOWS_NULL_QUERIES)
+            .named("PersistentHashMap.copyOf[Iterable<Entry>]")
+            .createTestSuite());
+
+    return suite;
+  }
+
+  /** A key whose hash code may be shared by unequal keys. */
+  private static final class Key {
+    final int id;
+    final int hash;
+
+    Key(int id, int hash) {
+      this.id = id;
+      this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+      return object instanceof Key && ((Key) object).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return "Key" + id;
+    }
+  }
+
+  public void testWithAndWithout() {
+    PersistentHashMap<String, Integer> empty = PersistentHashMap.of();
+    PersistentHashMap<String, Integer> one = empty.with("a", 1);
+    PersistentHashMap<String, Integer> two = one.with("b", 2);
+    PersistentHashMap<String, Integer> replaced = two.with("a", 3);
+    PersistentHashMap<String, Integer> removed = replaced.without("b");
+
+    assertThat(empty).isEmpty();
+    assertEquals(ImmutableMap.of("a", 1), one);
+    assertEquals(ImmutableMap.of("a", 1, "b", 2), two);
+    assertEquals(ImmutableMap.of("a", 3, "b", 2), replaced);
+    assertEquals(ImmutableMap.of("a", 3), removed);
+    assertSame(empty, removed.without("a"));
+  }
+
+  public void testWithAndWithout_unchanged() {
+    Integer value = 1;
+    PersistentHashMap<String, Integer> map =
+        PersistentHashMap.<String, Integer>of().with("a", value);
+    assertSame(map, map.with("a", value));
+    assertSame(map, map.without("b"));
+    assertSame(map, map.without(null));
+    assertSame(map, map.withAll(ImmutableMap.<String, Integer>of()));
+  }
+
+  public void testWithAll() {
+    PersistentHashMap<String, Integer> map =
+        PersistentHashMap.copyOf(ImmutableMap.of("a", 1, "b", 2));
+    assertEquals(
+        ImmutableMap.of("a", 1, "b", 3, "c", 4), map.withAll(ImmutableMap.of("b", 3, "c", 4)));
+    assertEquals(ImmutableMap.of("a", 1, "b", 2), map);
+  }
+
+  public void testCollisions() {
+    Key a = new Key(1, 7);
+    Key b = new Key(2, 7);
+    Key c = new Key(3, 7);
+    Key d = new Key(4, 7 + (1 << 20));
+    PersistentHashMap<Key, String> map =
+        PersistentHashMap.<Key, String>of().with(a, "a").with(b, "b").with(c, "c").with(d, "d");
+    assertEquals(4, map.size());
+    assertEquals("b", map.get(b));
+    assertEquals("d", map.get(d));
+    assertNull(map.get(new Key(5, 7)));
+    assertEquals("x", map.with(b, "x").get(b));
+    assertEquals(ImmutableMap.of(a, "a", c, "c", d, "d"), map.without(b));
+    assertEquals(ImmutableMap.of(d, "d"), map.without(a).without(b).without(c));
+    assertEquals(ImmutableMap.of(c, "c"), map.without(a).without(d).without(b));
+  }
+
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    for (int keyRange : new int[] {16, 1000, 100000}) {
+      Map<Key, Integer> expected = new HashMap<>();
+      PersistentHashMap<Key, Integer> map = PersistentHashMap.of();
+      List<PersistentHashMap<Key, Integer>> versions = Lists.newArrayList();
+      List<Map<Key, Integer>> expectedVersions = Lists.newArrayList();
+      for (int i = 0; i < 20000; i++) {
+        int id = random.nextInt(keyRange);
+        // Few distinct hash codes, so that many keys collide.
+        Key key = new Key(id, id % 4099);
+        if (random.nextInt(3) == 0) {
+          expected.remove(key);
+          map = map.without(key);
+        } else {
+          expected.put(key, i);
+          map = map.with(key, i);
+        }
+        if (i % 1000 == 0) {
+          versions.add(map);
+          expectedVersions.add(new HashMap<>(expected));
+        }
+      }
+      assertEquals(expected, map);
+      assertEquals(expected.hashCode(), map.hashCode());
+      assertEquals(expected.size(), Iterators.size(map.entrySet().iterator()));
+      for (int i = 0; i < versions.size(); i++) {
+        assertEquals(expectedVersions.get(i), versions.get(i));
+        assertEquals(expectedVersions.get(i).hashCode(), versions.get(i).hashCode());
+      }
+    }
+  }
+
+  public void testBuilder() {
+    PersistentHashMap.Builder<String, Integer> builder = PersistentHashMap.builder();
+    builder.put("a", 1).put("b", 2).put("a", 3).remove("b").remove("c");
+    PersistentHashMap<String, Integer> first = builder.build();
+    builder.put("c", 4).put("a", 5);
+    PersistentHashMap<String, Integer> second = builder.build();
+    assertEquals(ImmutableMap.of("a", 3), first);
+    assertEquals(ImmutableMap.of("a", 5, "c", 4), second);
+    assertEquals(ImmutableMap.of("a", 5, "c", 4).hashCode(), second.hashCode());
+  }
+
+  public void testBuilder_isImmutableMapBuilder() {
+    ImmutableMap.Builder<String, Integer> builder = PersistentHashMap.builder();
+    ImmutableMap<String, Integer> map = builder.put("a", 1).putAll(ImmutableMap.of("b", 2)).build();
+    assertThat(map).isInstanceOf(PersistentHashMap.class);
+    assertEquals(ImmutableMap.of("a", 1, "b", 2), map);
+    try {
+      builder.orderEntriesByValue(Ordering.natural());
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  public void testToBuilder_doesNotChangeOriginal() {
+    PersistentHashMap.Builder<Integer, Integer> builder = PersistentHashMap.builder();
+    for (int i = 0; i < 1000; i++) {
+      builder.put(i, i);
+    }
+    PersistentHashMap<Integer, Integer> original = builder.build();
+    PersistentHashMap.Builder<Integer, Integer> copy = original.toBuilder();
+    for (int i = 0; i < 1000; i += 2) {
+      copy.put(i, -i).remove(i + 1);
+      builder.remove(i);
+    }
+    PersistentHashMap<Integer, Integer> changed = copy.build();
+    assertEquals(1000, original.size());
+    assertEquals(500, changed.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals((Integer) i, original.get(i));
+      assertEquals((i % 2 == 0) ? (Integer) (-i) : null, changed.get(i));
+    }
+    assertEquals(500, builder.build().size());
+  }
+
+  public void testCopyOf() {
+    PersistentHashMap<String, Integer> map = PersistentHashMap.copyOf(ImmutableMap.of("a", 1));
+    assertSame(map, PersistentHashMap.copyOf(map));
+    assertSame(map, ImmutableMap.copyOf(map));
+    assertSame(PersistentHashMap.of(), PersistentHashMap.copyOf(ImmutableMap.of()));
+  }
+
+  public void testCopyOf_duplicateKeys() {
+    try {
+      PersistentHashMap.copyOf(
+          ImmutableList.of(Maps.immutableEntry("a", 1), Maps.immutableEntry("a", 2)));
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testNullKeysAndValues() {
+    PersistentHashMap<String, Integer> map = PersistentHashMap.of();
+    try {
+      map.with(null, 1);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    try {
+      map.with("a", null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    assertNull(map.get(null));
+    assertFalse(map.containsKey(null));
+  }
+
+  public void testSerialization() {
+    PersistentHashMap<String, Integer> map = PersistentHashMap.copyOf(ImmutableMap.of("a", 1));
+    Object copy = SerializableTester.reserializeAndAssert(map);
+    assertThat(copy).isInstanceOf(PersistentHashMap.class);
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicStaticMethods(PersistentHashMap.class);
+    tester.testAllPublicInstanceMethods(PersistentHashMap.copyOf(ImmutableMap.of("a", 1)));
+  }
+}
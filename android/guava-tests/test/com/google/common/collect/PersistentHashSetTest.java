@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.testing.SetTestSuiteBuilder;
+import com.google.common.collect.testing.TestStringSetGenerator;
+import com.google.common.collect.testing.features.CollectionFeature;
+import com.google.common.collect.testing.features.CollectionSize;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** Tests for {@link PersistentHashSet}. */
+@GwtIncompatible
+public class PersistentHashSetTest extends TestCase {
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite();
+    suite.addTestSuite(PersistentHashSetTest.class);
+
+    suite.addTest(
+        SetTestSuiteBuilder.using(
+                new TestStringSetGenerator() {
+                  @Override
+                  protected Set<String> create(String[] elements) {
+                    PersistentHashSet<String> set = PersistentHashSet.of();
+                    for (String element : elements) {
+                      set = set.with(element);
+                    }
+                    return set;
+                  }
+                })
+            .withFeatures(
+                CollectionSize.ANY,
+                CollectionFeature.SERIALIZABLE,
+                CollectionFeature.ALLOWS_NULL_QUERIES)
+            .named("PersistentHashSet.with")
+            .createTestSuite());
+
+    suite.addTest(
+        SetTestSuiteBuilder.using(
+                new TestStringSetGenerator() {
+                  @Override
+                  protected Set<String> create(String[] elements) {
+                    return PersistentHashSet.<String>builder().add(elements).build();
+                  }
+                })
+            .withFeatures(
+                CollectionSize.ANY,
+                CollectionFeature.SERIALIZABLE,
+                CollectionFeature.ALLOWS_NULL_QUERIES)
+            .named("PersistentHashSet.Builder")
+            .createTestSuite());
+
+    return suite;
+  }
+
+  public void testWithAndWithout() {
+    PersistentHashSet<String> empty = PersistentHashSet.of();
+    PersistentHashSet<String> one = empty.with("a");
+    PersistentHashSet<String> two = one.with("b");
+    PersistentHashSet<String> removed = two.without("a");
+
+    assertThat(empty).isEmpty();
+    assertEquals(ImmutableSet.of("a"), one);
+    assertEquals(ImmutableSet.of("a", "b"), two);
+    assertEquals(ImmutableSet.of("b"), removed);
+    assertSame(two, two.with("b"));
+    assertSame(two, two.without("c"));
+    assertSame(empty, removed.without("b"));
+  }
+
+  public void testWithAll() {
+    PersistentHashSet<String> set = PersistentHashSet.copyOf(ImmutableSet.of("a", "b"));
+    assertEquals(ImmutableSet.of("a", "b", "c"), set.withAll(ImmutableList.of("b", "c")));
+    assertEquals(ImmutableSet.of("a", "b"), set);
+  }
+
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    Set<Integer> expected = new HashSet<>();
+    PersistentHashSet<Integer> set = PersistentHashSet.of();
+    List<PersistentHashSet<Integer>> versions = Lists.newArrayList();
+    List<Set<Integer>> expectedVersions = Lists.newArrayList();
+    for (int i = 0; i < 20000; i++) {
+      Integer element = random.nextInt(5000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(element);
+        set = set.without(element);
+      } else {
+        expected.add(element);
+        set = set.with(element);
+      }
+      if (i % 1000 == 0) {
+        versions.add(set);
+        expectedVersions.add(new HashSet<>(expected));
+      }
+    }
+    assertEquals(expected, set);
+    assertEquals(expected.hashCode(), set.hashCode());
+    for (int i = 0; i < versions.size(); i++) {
+      assertEquals(expectedVersions.get(i), versions.get(i));
+      assertEquals(expectedVersions.get(i).hashCode(), versions.get(i).hashCode());
+    }
+  }
+
+  public void testBuilder() {
+    PersistentHashSet.Builder<String> builder = PersistentHashSet.builder();
+    builder.add("a", "b", "a").remove("b");
+    PersistentHashSet<String> first = builder.build();
+    builder.addAll(ImmutableList.of("c", "d"));
+    PersistentHashSet<String> second = builder.build();
+    assertEquals(ImmutableSet.of("a"), first);
+    assertEquals(ImmutableSet.of("a", "c", "d"), second);
+  }
+
+  public void testBuilder_isImmutableSetBuilder() {
+    ImmutableSet.Builder<String> builder = PersistentHashSet.builder();
+    ImmutableSet<String> set = builder.add("a").addAll(ImmutableList.of("b", "a")).build();
+    assertThat(set).isInstanceOf(PersistentHashSet.class);
+    assertEquals(ImmutableSet.of("a", "b"), set);
+  }
+
+  public void testToBuilder_doesNotChangeOriginal() {
+    PersistentHashSet<Integer> original =
+        PersistentHashSet.copyOf(ContiguousSet.closedOpen(0, 1000));
+    PersistentHashSet.Builder<Integer> copy = original.toBuilder();
+    for (int i = 0; i < 1000; i += 2) {
+      copy.remove(i).add(-i - 1);
+    }
+    PersistentHashSet<Integer> changed = copy.build();
+    assertEquals(1000, original.size());
+    assertEquals(1000, changed.size());
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(original.contains(i));
+      assertEquals(i % 2 == 1, changed.contains(i));
+    }
+  }
+
+  public void testCopyOf() {
+    PersistentHashSet<String> set = PersistentHashSet.copyOf(new String[] {"a", "b", "a"});
+    assertEquals(2, set.size());
+    assertSame(set, PersistentHashSet.copyOf(set));
+    assertSame(set, ImmutableSet.copyOf(set));
+    assertEquals(set, PersistentHashSet.copyOf(set.iterator()));
+  }
+
+  public void testSerialization() {
+    PersistentHashSet<String> set = PersistentHashSet.copyOf(ImmutableSet.of("a", "b"));
+    Object copy = SerializableTester.reserializeAndAssert(set);
+    assertThat(copy).isInstanceOf(PersistentHashSet.class);
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicStaticMethods(PersistentHashSet.class);
+    tester.testAllPublicInstanceMethods(PersistentHashSet.copyOf(ImmutableSet.of("a")));
+  }
+}
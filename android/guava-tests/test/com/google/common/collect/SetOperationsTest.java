@@ -21,12 +21,18 @@ import static java.util.Arrays.asList;
 
 import com.google.common.annotations.GwtCompatible;
 import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.testing.AnEnum;
 import com.google.common.collect.testing.SetTestSuiteBuilder;
 import com.google.common.collect.testing.TestStringSetGenerator;
 import com.google.common.collect.testing.features.CollectionFeature;
 import com.google.common.collect.testing.features.CollectionSize;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -378,5 +384,149 @@ public class SetOperationsTest extends TestCase {
       assertEquals(3, immut.size());
       assertEquals(3, mut.size());
     }
+
+    public void testIntersectionOfMany() {
+      Set<String> friends = Sets.newHashSet("Tom", "Joe", "Dave", "Dick");
+      Set<String> enemies = Sets.newHashSet("Dick", "Harry", "Tom", "Joe");
+      Set<String> neighbors = Sets.newLinkedHashSet(asList("Joe", "Dick"));
+
+      Set<String> all = Sets.intersection(ImmutableList.of(friends, enemies, neighbors));
+      assertEquals(ImmutableList.of("Joe", "Dick"), ImmutableList.copyOf(all));
+      assertEquals(2, all.size());
+      assertTrue(all.contains("Dick"));
+      assertFalse(all.contains("Tom"));
+
+      ImmutableSet<String> immut =
+          Sets.intersection(ImmutableList.of(friends, enemies, neighbors)).immutableCopy();
+      assertEquals(ImmutableList.of("Joe", "Dick"), immut.asList());
+
+      neighbors.add("Tom");
+      friends.remove("Joe");
+      assertEquals(ImmutableSet.of("Dick", "Tom"), all);
+      assertEquals(2, immut.size());
+
+      enemies.clear();
+      assertTrue(all.isEmpty());
+      assertEquals(ImmutableSet.of(friends), ImmutableSet.of(Sets.intersection(asList(friends))));
+    }
+
+    public void testIntersectionOfMany_empty() {
+      try {
+        Sets.intersection(ImmutableList.<Set<String>>of());
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+
+    @GwtIncompatible // bulk operations
+    public void testImmutableCopy_enumSets() {
+      EnumSet<AnEnum> set1 = EnumSet.of(AnEnum.A, AnEnum.C, AnEnum.E);
+      Set<AnEnum> set2 = Sets.immutableEnumSet(AnEnum.F, AnEnum.C, AnEnum.B);
+
+      // The union copy iterates like the view, not in enum order.
+      ImmutableSet<AnEnum> union = Sets.union(set1, set2).immutableCopy();
+      assertEquals(
+          ImmutableList.of(AnEnum.A, AnEnum.C, AnEnum.E, AnEnum.F, AnEnum.B), union.asList());
+      assertEquals(ImmutableSet.of(AnEnum.C), Sets.intersection(set1, set2).immutableCopy());
+      assertEquals(
+          ImmutableSet.of(AnEnum.A, AnEnum.E), Sets.difference(set1, set2).immutableCopy());
+      assertEquals(
+          ImmutableSet.of(AnEnum.B, AnEnum.F), Sets.difference(set2, set1).immutableCopy());
+      assertTrue(
+          Sets.intersection(set1, EnumSet.of(AnEnum.B)).immutableCopy() instanceof ImmutableSet);
+      assertEquals(
+          ImmutableSet.of(AnEnum.C),
+          Sets.intersection(ImmutableList.of(set1, set2, EnumSet.of(AnEnum.C, AnEnum.D)))
+              .immutableCopy());
+
+      // The result doesn't share the backing sets.
+      set1.add(AnEnum.B);
+      assertEquals(5, union.size());
+    }
+
+    @GwtIncompatible // bulk operations
+    public void testImmutableCopy_sortedSets() {
+      Random random = new Random(0);
+      for (int trial = 0; trial < 100; trial++) {
+        SortedSet<Integer> set1 = randomSortedSet(random, random.nextInt(50), 100);
+        // Some small sets, which are looked up in the other set rather than merged with it.
+        SortedSet<Integer> set2 =
+            randomSortedSet(random, random.nextBoolean() ? random.nextInt(3) : 50, 100);
+        Set<Integer> union = new HashSet<>(set1);
+        union.addAll(set2);
+        Set<Integer> intersection = new HashSet<>(set1);
+        intersection.retainAll(set2);
+        Set<Integer> difference = new HashSet<>(set1);
+        difference.removeAll(set2);
+
+        assertEquals(
+            ImmutableList.copyOf(Sets.union(set1, set2)),
+            Sets.union(set1, set2).immutableCopy().asList());
+        assertEquals(union, Sets.union(set1, set2).immutableCopy());
+        assertSortedCopy(intersection, Sets.intersection(set1, set2).immutableCopy());
+        assertSortedCopy(intersection, Sets.intersection(set2, set1).immutableCopy());
+        assertSortedCopy(difference, Sets.difference(set1, set2).immutableCopy());
+      }
+    }
+
+    @GwtIncompatible // bulk operations
+    public void testImmutableCopy_sortedSetsWithDifferentComparators() {
+      SortedSet<Integer> set1 = ImmutableSortedSet.of(1, 2, 3, 4);
+      SortedSet<Integer> set2 = ImmutableSortedSet.<Integer>reverseOrder().add(4, 3, 5).build();
+      assertEquals(
+          ImmutableList.of(1, 2, 3, 4, 5), Sets.union(set1, set2).immutableCopy().asList());
+      assertEquals(
+          ImmutableList.of(4, 3, 5, 1, 2), Sets.union(set2, set1).immutableCopy().asList());
+      assertEquals(ImmutableList.of(4, 3), Sets.intersection(set2, set1).immutableCopy().asList());
+      assertEquals(ImmutableList.of(1, 2), Sets.difference(set1, set2).immutableCopy().asList());
+    }
+
+    @GwtIncompatible // bulk operations
+    public void testImmutableCopy_sortedSetsWithNull() {
+      Comparator<Integer> nullsFirst = Ordering.<Integer>natural().nullsFirst();
+      SortedSet<Integer> set1 = new TreeSet<>(nullsFirst);
+      set1.addAll(asList(null, 1, 2));
+      SortedSet<Integer> set2 = new TreeSet<>(nullsFirst);
+      set2.addAll(asList(null, 2, 3));
+      try {
+        Sets.intersection(set1, set2).immutableCopy();
+        fail();
+      } catch (NullPointerException expected) {
+      }
+      try {
+        Sets.difference(set1, ImmutableSortedSet.orderedBy(nullsFirst).add(2).build())
+            .immutableCopy();
+        fail();
+      } catch (NullPointerException expected) {
+      }
+    }
+
+    @GwtIncompatible // bulk operations
+    public void testImmutableCopy_contiguousSets() {
+      ContiguousSet<Integer> set1 =
+          ContiguousSet.create(Range.closed(1, 10), DiscreteDomain.integers());
+      ContiguousSet<Integer> set2 =
+          ContiguousSet.create(Range.closed(5, 20), DiscreteDomain.integers());
+      assertEquals(
+          ContiguousSet.create(Range.closed(5, 10), DiscreteDomain.integers()),
+          Sets.intersection(set1, set2).immutableCopy());
+      assertEquals(
+          ContiguousSet.create(Range.closed(1, 4), DiscreteDomain.integers()),
+          Sets.difference(set1, set2).immutableCopy());
+    }
+
+    private static SortedSet<Integer> randomSortedSet(Random random, int size, int bound) {
+      SortedSet<Integer> result = new TreeSet<>();
+      while (result.size() < size) {
+        result.add(random.nextInt(bound));
+      }
+      return random.nextBoolean() ? result : ImmutableSortedSet.copyOfSorted(result);
+    }
+
+    private static void assertSortedCopy(Set<Integer> expected, ImmutableSet<Integer> actual) {
+      assertEquals(expected, actual);
+      assertTrue(actual instanceof ImmutableSortedSet);
+      assertTrue(Ordering.natural().isStrictlyOrdered(actual));
+    }
   }
 }
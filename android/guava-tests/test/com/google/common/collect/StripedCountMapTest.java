@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.testing.NullPointerTester;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import junit.framework.TestCase;
+
+/** Tests for {@link StripedCountMap}. */
+public class StripedCountMapTest extends TestCase {
+
+  public void testEmpty() {
+    StripedCountMap<String> map = StripedCountMap.create();
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.size());
+    assertEquals(0, map.count("a"));
+    assertEquals(0, map.count(null));
+    assertEquals(0, map.total());
+    assertEquals(ImmutableMap.of(), map.snapshot());
+    assertEquals("{}", map.toString());
+  }
+
+  public void testIncrementAndAdd() {
+    StripedCountMap<String> map = StripedCountMap.create();
+    map.increment("a");
+    map.add("b", 5);
+    map.increment("a");
+    map.add("c", 0);
+    assertEquals(2, map.count("a"));
+    assertEquals(5, map.count("b"));
+    assertEquals(0, map.count("c"));
+    assertEquals(3, map.size());
+    assertEquals(7, map.total());
+    assertEquals(ImmutableMap.of("a", 2L, "b", 5L), map.snapshot());
+    assertEquals(ImmutableMultiset.of("a", "a", "b", "b", "b", "b", "b"), map.toImmutableMultiset());
+  }
+
+  public void testNegativeCounts() {
+    StripedCountMap<String> map = StripedCountMap.create();
+    map.add("a", -3);
+    assertEquals(-3, map.count("a"));
+    assertEquals(ImmutableMap.of("a", -3L), map.snapshot());
+    try {
+      map.toImmutableMultiset();
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    map.add("a", 3);
+    assertEquals(ImmutableMap.of(), map.snapshot());
+    assertEquals(1, map.size());
+  }
+
+  public void testRemoveAndClear() {
+    StripedCountMap<String> map = StripedCountMap.create();
+    map.add("a", 2);
+    map.add("b", 3);
+    assertEquals(2, map.remove("a"));
+    assertEquals(0, map.remove("a"));
+    assertEquals(0, map.remove(null));
+    assertEquals(ImmutableMap.of("b", 3L), map.snapshot());
+    map.clear();
+    assertTrue(map.isEmpty());
+  }
+
+  public void testConcurrentIncrements() throws Exception {
+    final StripedCountMap<Integer> map = StripedCountMap.create();
+    int nThreads = 8;
+    final int incrementsPerThread = 10000;
+    ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < nThreads; i++) {
+        futures.add(
+            pool.submit(
+                new Callable<Void>() {
+                  @Override
+                  public Void call() {
+                    for (int j = 0; j < incrementsPerThread; j++) {
+                      // a hot element, and a colder one
+                      map.increment((j % 4 == 0) ? 1 : 0);
+                    }
+                    return null;
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(ImmutableMap.of(0, 60000L, 1, 20000L), map.snapshot());
+    assertEquals(nThreads * incrementsPerThread, map.total());
+  }
+
+  public void testNullPointers() {
+    new NullPointerTester().testAllPublicInstanceMethods(StripedCountMap.create());
+  }
+}
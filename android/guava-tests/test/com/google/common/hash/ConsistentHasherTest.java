@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ConsistentHasher}.
+ */
+public class ConsistentHasherTest extends TestCase {
+  private static final Funnel<CharSequence> FUNNEL = Funnels.stringFunnel(StandardCharsets.UTF_8);
+  private static final int KEYS = 100_000;
+
+  private static List<String> nodes(int count) {
+    List<String> nodes = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      nodes.add("node-" + i);
+    }
+    return nodes;
+  }
+
+  private static Multiset<String> distribution(ConsistentHasher<String> hasher) {
+    Multiset<String> counts = HashMultiset.create();
+    Random random = new Random(0);
+    for (int i = 0; i < KEYS; i++) {
+      counts.add(hasher.nodeFor(random.nextLong()));
+    }
+    return counts;
+  }
+
+  public void testWeightedRendezvous_proportionalToWeights() {
+    ConsistentHasher<String> hasher =
+        ConsistentHasher.weightedRendezvous(ImmutableMap.of("a", 1, "b", 2, "c", 5), FUNNEL);
+    Multiset<String> counts = distribution(hasher);
+    assertEquals(KEYS / 8, counts.count("a"), KEYS / 100);
+    assertEquals(KEYS / 4, counts.count("b"), KEYS / 100);
+    assertEquals(KEYS * 5 / 8, counts.count("c"), KEYS / 100);
+  }
+
+  public void testWeightedRendezvous_removalOnlyMovesKeysOfRemovedNode() {
+    ImmutableMap.Builder<String, Double> weights = ImmutableMap.builder();
+    ImmutableMap.Builder<String, Double> weightsWithoutLast = ImmutableMap.builder();
+    for (String node : nodes(10)) {
+      weights.put(node, 1.0);
+      if (!node.equals("node-9")) {
+        weightsWithoutLast.put(node, 1.0);
+      }
+    }
+    ConsistentHasher<String> before = ConsistentHasher.weightedRendezvous(weights.build(), FUNNEL);
+    ConsistentHasher<String> after =
+        ConsistentHasher.weightedRendezvous(weightsWithoutLast.build(), FUNNEL);
+    Random random = new Random(0);
+    for (int i = 0; i < KEYS; i++) {
+      long hash = random.nextLong();
+      String oldNode = before.nodeFor(hash);
+      if (!oldNode.equals("node-9")) {
+        assertEquals(oldNode, after.nodeFor(hash));
+      }
+    }
+    assertEquals(0.1, after.movedFraction(before), 0.01);
+    assertEquals(0.0, before.movedFraction(before));
+  }
+
+  public void testWeightedRendezvous_independentOfOrder() {
+    ConsistentHasher<String> hasher1 =
+        ConsistentHasher.weightedRendezvous(ImmutableMap.of("a", 1, "b", 2, "c", 3), FUNNEL);
+    ConsistentHasher<String> hasher2 =
+        ConsistentHasher.weightedRendezvous(ImmutableMap.of("c", 3, "a", 1, "b", 2), FUNNEL);
+    assertEquals(0.0, hasher1.movedFraction(hasher2));
+  }
+
+  public void testWeightedRendezvous_invalidWeights() {
+    try {
+      ConsistentHasher.weightedRendezvous(ImmutableMap.<String, Integer>of(), FUNNEL);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      ConsistentHasher.weightedRendezvous(ImmutableMap.of("a", 0), FUNNEL);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      ConsistentHasher.weightedRendezvous(ImmutableMap.of("a", Double.POSITIVE_INFINITY), FUNNEL);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      ConsistentHasher.weightedRendezvous(ImmutableMap.of("a", Double.NaN), FUNNEL);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testMaglev_balanced() {
+    ConsistentHasher<String> hasher = ConsistentHasher.maglev(nodes(7), FUNNEL, 1009);
+    assertEquals(ImmutableSet.copyOf(nodes(7)), hasher.nodes());
+    Multiset<String> counts = distribution(hasher);
+    for (String node : nodes(7)) {
+      assertEquals(KEYS / 7, counts.count(node), KEYS / 100);
+    }
+  }
+
+  public void testMaglev_smallMovementOnMembershipChange() {
+    ConsistentHasher<String> before = ConsistentHasher.maglev(nodes(20), FUNNEL);
+    ConsistentHasher<String> removed = ConsistentHasher.maglev(nodes(19), FUNNEL);
+    ConsistentHasher<String> added = ConsistentHasher.maglev(nodes(21), FUNNEL);
+    // The minimum movement is 1/20 and 1/21 respectively; Maglev moves slightly more.
+    double movedByRemoval = removed.movedFraction(before);
+    assertTrue(movedByRemoval >= 1.0 / 20);
+    assertTrue(movedByRemoval < 1.5 / 20);
+    double movedByAddition = added.movedFraction(before);
+    assertTrue(movedByAddition >= 1.0 / 21);
+    assertTrue(movedByAddition < 1.5 / 21);
+  }
+
+  public void testMaglev_independentOfOrder() {
+    ConsistentHasher<String> hasher = ConsistentHasher.maglev(nodes(5), FUNNEL);
+    ConsistentHasher<String> reversed =
+        ConsistentHasher.maglev(ImmutableList.copyOf(nodes(5)).reverse(), FUNNEL);
+    assertEquals(0.0, hasher.movedFraction(reversed));
+    Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      long hash = random.nextLong();
+      assertEquals(hasher.nodeFor(hash), reversed.nodeFor(hash));
+    }
+  }
+
+  public void testMaglev_movedFractionAcrossTableSizes() {
+    ConsistentHasher<String> small = ConsistentHasher.maglev(nodes(5), FUNNEL, 101);
+    ConsistentHasher<String> large = ConsistentHasher.maglev(nodes(5), FUNNEL);
+    double moved = small.movedFraction(large);
+    assertTrue(moved > 0.0);
+    assertTrue(moved < 1.0);
+  }
+
+  public void testMaglev_invalidArguments() {
+    try {
+      ConsistentHasher.maglev(ImmutableList.<String>of(), FUNNEL);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      ConsistentHasher.maglev(nodes(3), FUNNEL, 100);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      ConsistentHasher.maglev(nodes(4), FUNNEL, 3);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testNodeForHashCode() {
+    ConsistentHasher<String> hasher = ConsistentHasher.maglev(nodes(5), FUNNEL);
+    HashCode hashCode = Hashing.murmur3_128().hashUnencodedChars("key");
+    assertEquals(hasher.nodeFor(hashCode.padToLong()), hasher.nodeFor(hashCode));
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link CountMinSketch}.
+ */
+public class CountMinSketchTest extends TestCase {
+
+  public void testCreate_dimensions() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.001, 0.99);
+    assertEquals(2719, sketch.width());
+    assertEquals(5, sketch.depth());
+    assertTrue(sketch.relativeError() <= 0.001);
+    assertTrue(sketch.confidence() >= 0.99);
+  }
+
+  public void testStripes() {
+    int maximum = Runtime.getRuntime().availableProcessors() * 4;
+    assertEquals(1, CountMinSketch.stripes(1));
+    assertEquals(1, CountMinSketch.stripes(64));
+    assertEquals(Math.min(2, maximum), CountMinSketch.stripes(128));
+    assertEquals(maximum, CountMinSketch.stripes(Integer.MAX_VALUE));
+  }
+
+  public void testCreate_defaultConfidence() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01);
+    assertEquals(5, sketch.depth());
+  }
+
+  public void testCreate_invalidArguments() {
+    try {
+      CountMinSketch.create(Funnels.integerFunnel(), 0.0, 0.9);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      CountMinSketch.create(Funnels.integerFunnel(), 1.0, 0.9);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      CountMinSketch.create(Funnels.integerFunnel(), 0.1, 0.0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      CountMinSketch.create(Funnels.integerFunnel(), 0.1, 1.0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      CountMinSketch.create(Funnels.integerFunnel(), Double.MIN_VALUE, 0.9);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testAdd_negativeOccurrences() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01);
+    try {
+      sketch.add(1, -1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testEmpty() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01);
+    assertEquals(0, sketch.estimateCount(42));
+    assertEquals(0, sketch.totalCount());
+    assertEquals(0, sketch.add(42, 0));
+  }
+
+  public void testAdd_exactWithoutCollisions() {
+    CountMinSketch<String> sketch =
+        CountMinSketch.create(Funnels.unencodedCharsFunnel(), 0.0001, 0.999);
+    assertEquals(1, sketch.add("a"));
+    assertEquals(2, sketch.add("a"));
+    assertEquals(7, sketch.add("a", 5));
+    assertEquals(3, sketch.add("b", 3));
+    assertEquals(7, sketch.estimateCount("a"));
+    assertEquals(3, sketch.estimateCount("b"));
+    assertEquals(0, sketch.estimateCount("c"));
+    assertEquals(10, sketch.totalCount());
+  }
+
+  public void testEstimatesAreUpperBoundsWithinError() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01, 0.99);
+    Random random = new Random(0);
+    int[] actual = new int[10_000];
+    for (int i = 0; i < 200_000; i++) {
+      // skewed distribution: low keys are much more frequent
+      int key = (int) Math.abs(random.nextGaussian() * 1_000) % actual.length;
+      actual[key]++;
+      sketch.add(key);
+    }
+    assertEquals(200_000, sketch.totalCount());
+
+    long bound = (long) (sketch.relativeError() * sketch.totalCount());
+    int outOfBounds = 0;
+    for (int key = 0; key < actual.length; key++) {
+      long estimate = sketch.estimateCount(key);
+      assertTrue(estimate >= actual[key]);
+      if (estimate - actual[key] > bound) {
+        outOfBounds++;
+      }
+    }
+    assertTrue("Too many estimates out of bounds: " + outOfBounds, outOfBounds < 100);
+  }
+
+  public void testPutAll() {
+    CountMinSketch<String> sketch1 = CountMinSketch.create(Funnels.unencodedCharsFunnel(), 0.001);
+    CountMinSketch<String> sketch2 = CountMinSketch.create(Funnels.unencodedCharsFunnel(), 0.001);
+    sketch1.add("a", 3);
+    sketch1.add("b", 1);
+    sketch2.add("a", 4);
+    sketch2.add("c", 2);
+    assertTrue(sketch1.isCompatible(sketch2));
+
+    sketch1.putAll(sketch2);
+    assertEquals(7, sketch1.estimateCount("a"));
+    assertEquals(1, sketch1.estimateCount("b"));
+    assertEquals(2, sketch1.estimateCount("c"));
+    assertEquals(10, sketch1.totalCount());
+    // the argument is not mutated
+    assertEquals(4, sketch2.estimateCount("a"));
+    assertEquals(6, sketch2.totalCount());
+  }
+
+  public void testPutAll_incompatible() {
+    CountMinSketch<String> sketch1 = CountMinSketch.create(Funnels.unencodedCharsFunnel(), 0.001);
+    CountMinSketch<String> sketch2 = CountMinSketch.create(Funnels.unencodedCharsFunnel(), 0.01);
+    assertFalse(sketch1.isCompatible(sketch2));
+    assertFalse(sketch1.isCompatible(sketch1));
+    try {
+      sketch1.putAll(sketch2);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      sketch1.putAll(sketch1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testCopyAndEquals() {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01);
+    sketch.add(1, 10);
+    CountMinSketch<Integer> copy = sketch.copy();
+    assertEquals(sketch, copy);
+    assertEquals(sketch.hashCode(), copy.hashCode());
+    assertEquals(10, copy.totalCount());
+
+    copy.add(2);
+    assertFalse(sketch.equals(copy));
+    assertEquals(0, sketch.estimateCount(2));
+  }
+
+  public void testWriteToAndReadFrom() throws IOException {
+    CountMinSketch<Integer> sketch = CountMinSketch.create(Funnels.integerFunnel(), 0.01);
+    for (int i = 0; i < 1_000; i++) {
+      sketch.add(i % 37, i % 5);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sketch.writeTo(out);
+    CountMinSketch<Integer> copy =
+        CountMinSketch.readFrom(
+            new ByteArrayInputStream(out.toByteArray()), Funnels.integerFunnel());
+    assertEquals(sketch, copy);
+    assertEquals(sketch.totalCount(), copy.totalCount());
+  }
+
+  public void testReadFrom_truncated() {
+    try {
+      CountMinSketch.readFrom(new ByteArrayInputStream(new byte[] {1}), Funnels.integerFunnel());
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  public void testConcurrentAdds() throws InterruptedException {
+    final CountMinSketch<Integer> sketch =
+        CountMinSketch.create(Funnels.integerFunnel(), 0.001, 0.999);
+    final int numThreads = 8;
+    final int perThread = 10_000;
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < numThreads; t++) {
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                start.await();
+              } catch (InterruptedException e) {
+                throw new AssertionError(e);
+              }
+              for (int i = 0; i < perThread; i++) {
+                sketch.add(i % 10);
+              }
+            }
+          };
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(numThreads * perThread, sketch.totalCount());
+    for (int i = 0; i < 10; i++) {
+      assertTrue(sketch.estimateCount(i) >= numThreads * perThread / 10);
+    }
+  }
+}
@@ -614,6 +614,22 @@ final class HashTestUtils {
     assertEquals(
         hashFunction.hashBytes(ByteBuffer.wrap(bytes, off, len)),
         hashFunction.newHasher(size).putBytes(ByteBuffer.wrap(bytes, off, len)).hash());
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(size);
+    direct.put(bytes);
+    direct.position(off);
+    direct.limit(off + len);
+    assertEquals(hashFunction.hashBytes(bytes, off, len), hashFunction.hashBytes(direct));
+    assertEquals(off + len, direct.position());
+    direct.position(off);
+    Hasher hasher = hashFunction.newHasher(size);
+    while (direct.hasRemaining()) {
+      // feed the hasher uneven slices of the direct buffer
+      direct.limit(Math.min(off + len, direct.position() + 1 + (direct.position() % 37)));
+      hasher.putBytes(direct);
+      direct.limit(off + len);
+    }
+    assertEquals(hashFunction.hashBytes(bytes, off, len), hasher.hash());
   }
 
   private static void assertHashIntEquivalence(HashFunction hashFunction, Random random) {
@@ -91,6 +91,11 @@ public class HashingTest extends TestCase {
     assertEquals("Hashing.crc32()", Hashing.crc32().toString());
   }
 
+  public void testCrc32c() {
+    HashTestUtils.assertInvariants(Hashing.crc32c());
+    assertEquals("Hashing.crc32c()", Hashing.crc32c().toString());
+  }
+
   public void testAdler32() {
     HashTestUtils.assertInvariants(Hashing.adler32());
     assertEquals("Hashing.adler32()", Hashing.adler32().toString());
@@ -125,6 +130,29 @@ public class HashingTest extends TestCase {
         Hashing.sipHash24().toString());
   }
 
+  public void testFarmHashFingerprint64() {
+    HashTestUtils.assertInvariants(Hashing.farmHashFingerprint64());
+    assertEquals("Hashing.farmHashFingerprint64()", Hashing.farmHashFingerprint64().toString());
+  }
+
+  public void testXxHash64() {
+    HashTestUtils.check2BitAvalanche(Hashing.xxHash64(), 250, 0.20);
+    HashTestUtils.checkAvalanche(Hashing.xxHash64(), 250, 0.17);
+    HashTestUtils.checkNo2BitCharacteristics(Hashing.xxHash64());
+    HashTestUtils.checkNoFunnels(Hashing.xxHash64());
+    HashTestUtils.assertInvariants(Hashing.xxHash64());
+    assertEquals("Hashing.xxHash64(0)", Hashing.xxHash64().toString());
+  }
+
+  public void testXxh3_64() {
+    HashTestUtils.check2BitAvalanche(Hashing.xxh3_64(), 250, 0.20);
+    HashTestUtils.checkAvalanche(Hashing.xxh3_64(), 250, 0.17);
+    HashTestUtils.checkNo2BitCharacteristics(Hashing.xxh3_64());
+    HashTestUtils.checkNoFunnels(Hashing.xxh3_64());
+    HashTestUtils.assertInvariants(Hashing.xxh3_64());
+    assertEquals("Hashing.xxh3_64(0)", Hashing.xxh3_64().toString());
+  }
+
   @AndroidIncompatible // slow TODO(cpovirk): Maybe just reduce iterations under Android.
   public void testGoodFastHash() {
     for (int i = 1; i < 200; i += 17) {
@@ -489,6 +517,12 @@ public class HashingTest extends TestCase {
           .put(Hashing.farmHashFingerprint64(), EMPTY_STRING, "4f40902f3b6ae19a")
           .put(Hashing.farmHashFingerprint64(), TQBFJOTLD, "34511b3bf383beab")
           .put(Hashing.farmHashFingerprint64(), TQBFJOTLDP, "737d7e5f8660653e")
+          .put(Hashing.xxHash64(), EMPTY_STRING, "99e9d85137db46ef")
+          .put(Hashing.xxHash64(), TQBFJOTLD, "bc71da1f362d240b")
+          .put(Hashing.xxHash64(), TQBFJOTLDP, "73ad51577033ad44")
+          .put(Hashing.xxh3_64(), EMPTY_STRING, "c294d3380580062d")
+          .put(Hashing.xxh3_64(), TQBFJOTLD, "65b38f41a5197dce")
+          .put(Hashing.xxh3_64(), TQBFJOTLDP, "19db515d22e014b6")
           .build();
 
   public void testAllHashFunctionsHaveKnownHashes() throws Exception {
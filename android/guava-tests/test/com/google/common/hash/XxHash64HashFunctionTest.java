@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/** Unit test for {@link XxHash64HashFunction}. */
+public class XxHash64HashFunctionTest extends TestCase {
+
+  private static final long SEED = 0x0123456789ABCDEFL;
+
+  /**
+   * Hashes of the first {@code length} bytes of {@link #testBytes}, as computed by {@code XXH64()}
+   * of the C reference implementation (version 0.8.1), with seeds 0 and {@link #SEED}. The lengths
+   * cover inputs shorter and longer than a 32-byte stripe and every tail length.
+   */
+  private static final long[][] REFERENCE_HASHES = {
+    {0, 0xef46db3751d8e999L, 0x51e24c0e9077a48cL},
+    {1, 0x6a81b47405b648edL, 0x84d61a16e0b65a63L},
+    {3, 0x66da7b0a364ee4f1L, 0xc402bebf3b55c505L},
+    {4, 0x1905671d7bf9c1d8L, 0xac6d90ffe517ee12L},
+    {7, 0x69ea41813444fe70L, 0xd0d936302d0cf1e1L},
+    {8, 0x72081c8a5c7cc651L, 0xc268ce38ce5376b6L},
+    {9, 0x49f22eadcf5567afL, 0x7b279969b1e5f2a8L},
+    {15, 0xe8a000a0f9448321L, 0x58601c0bb4a6e85dL},
+    {16, 0x029006bc188dc10eL, 0xaa6829e1c61f1374L},
+    {17, 0x66d3cf9099e757e4L, 0xc132649d0724b8a8L},
+    {31, 0x176d55d38fe9d16dL, 0x01d0eced71323f30L},
+    {32, 0xa1ee919a0b0d27faL, 0x784ffc50cfaa4ef2L},
+    {33, 0xa6a9d94c25e9c76cL, 0xb627355d68c36c37L},
+    {63, 0x29ce2df2cc7fd80fL, 0x0457fa7ec4392068L},
+    {64, 0xec96bee15f08f14aL, 0xceaa31230d52b4b1L},
+    {65, 0x04eae3856a0c9da9L, 0xbc6151c4f8e243fbL},
+    {96, 0xcff9f281801bb1d1L, 0x90613a965486d3baL},
+    {97, 0xf907e60b32b1ce57L, 0xbc3202d849f41083L},
+    {127, 0x0acc4f12c6851974L, 0xaef4afe0fc3ba3b4L},
+    {128, 0x368994585422d870L, 0x0ddbe00bdab0b0f9L},
+    {129, 0x5335617223715b73L, 0x9c9fec67fb71c077L},
+    {200, 0x41f00af9539b5128L, 0xc2d0be81b4e4ed44L},
+    {239, 0x4303482b57be27e6L, 0x4cdcbcc01f24d454L},
+    {240, 0x4e2857cddf8551f1L, 0xb9cd897075274014L},
+    {241, 0x5af98b3efee10c5bL, 0xf80e444d57c63858L},
+    {255, 0x2197b5fde5eb07b4L, 0x89713e990cdd5315L},
+    {256, 0x99e65c51b8a15a85L, 0x41d4e6e22ec62583L},
+    {1023, 0x0957620875f1b255L, 0x46247fb6c3de8913L},
+    {1024, 0x21a23a99c89c9271L, 0x89ab07d890f20b58L},
+    {1025, 0x88e0f4c8772ed4e2L, 0x790e794c7abd4a5bL},
+    {1087, 0x548d3b9347905c38L, 0x95e709f7b024cd91L},
+    {1088, 0x112bfaf128841e85L, 0x68b9e4fa2be47cd4L},
+    {1089, 0x178e53f3bdd1c989L, 0x2df4df82048066fcL},
+    {2048, 0x79dac635bc606503L, 0xfcae85d07ea6e8dbL},
+    {5000, 0xb1fd3e5b3656e1d6L, 0x298cf14a96297411L},
+  };
+
+  private static byte[] testBytes(int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) (i * 0x9E + 0x35);
+    }
+    return bytes;
+  }
+
+  public void testReferenceHashes() {
+    for (long[] row : REFERENCE_HASHES) {
+      byte[] bytes = testBytes((int) row[0]);
+      String message = "length " + row[0];
+      assertEquals(message, row[1], XxHash64HashFunction.hash64(bytes, 0, bytes.length, 0));
+      assertEquals(message, row[2], XxHash64HashFunction.hash64(bytes, 0, bytes.length, SEED));
+      assertEquals(row[1], Hashing.xxHash64().hashBytes(bytes).asLong());
+      assertEquals(row[2], Hashing.xxHash64(SEED).hashBytes(bytes).asLong());
+    }
+  }
+
+  public void testReferenceHashes_withOffset() {
+    for (long[] row : REFERENCE_HASHES) {
+      byte[] bytes = testBytes((int) row[0]);
+      byte[] padded = new byte[bytes.length + 10];
+      System.arraycopy(bytes, 0, padded, 3, bytes.length);
+      assertEquals(row[1], Hashing.xxHash64().hashBytes(padded, 3, bytes.length).asLong());
+    }
+  }
+
+  public void testReferenceHashes_streaming() {
+    for (int step : new int[] {1, 3, 8, 63, 64, 65, 100}) {
+      for (long[] row : REFERENCE_HASHES) {
+        byte[] bytes = testBytes((int) row[0]);
+        Hasher hasher = Hashing.xxHash64(SEED).newHasher();
+        for (int off = 0; off < bytes.length; off += step) {
+          hasher.putBytes(bytes, off, Math.min(step, bytes.length - off));
+        }
+        assertEquals("length " + row[0] + ", step " + step, row[2], hasher.hash().asLong());
+      }
+    }
+  }
+
+  public void testKnownStrings() {
+    assertEquals("99e9d85137db46ef", Hashing.xxHash64().hashString("", UTF_8).toString());
+    assertEquals(
+        "bc71da1f362d240b",
+        Hashing.xxHash64()
+            .hashString("The quick brown fox jumps over the lazy dog", UTF_8)
+            .toString());
+  }
+
+  public void testPrimitivesMatchBytes() {
+    for (long value : new long[] {0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0x0123456789ABCDEFL}) {
+      byte[] longBytes =
+          ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array();
+      byte[] intBytes =
+          ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt((int) value).array();
+      for (HashFunction function : Arrays.asList(Hashing.xxHash64(), Hashing.xxHash64(SEED))) {
+        assertEquals(function.hashBytes(longBytes), function.hashLong(value));
+        assertEquals(function.newHasher().putLong(value).hash(), function.hashLong(value));
+        assertEquals(function.hashBytes(intBytes), function.hashInt((int) value));
+        assertEquals(
+            function.newHasher().putInt((int) value).hash(), function.hashInt((int) value));
+      }
+    }
+  }
+
+  public void testEqualsAndToString() {
+    assertEquals(Hashing.xxHash64(), Hashing.xxHash64(0));
+    assertEquals(Hashing.xxHash64(SEED), Hashing.xxHash64(SEED));
+    assertEquals(Hashing.xxHash64(SEED).hashCode(), Hashing.xxHash64(SEED).hashCode());
+    assertFalse(Hashing.xxHash64().equals(Hashing.xxHash64(SEED)));
+    assertEquals("Hashing.xxHash64(0)", Hashing.xxHash64().toString());
+  }
+}
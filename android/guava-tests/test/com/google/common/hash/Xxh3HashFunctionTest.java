@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/** Unit test for {@link Xxh3HashFunction}. */
+public class Xxh3HashFunctionTest extends TestCase {
+
+  private static final long SEED = 0x0123456789ABCDEFL;
+
+  /**
+   * Hashes of the first {@code length} bytes of {@link #testBytes}, as computed by {@code
+   * XXH3_64bits_withSeed()} of the C reference implementation (version 0.8.1), with seeds 0 and
+   * {@link #SEED}. The lengths cover each of the length-specific code paths and the boundaries of
+   * stripes and blocks.
+   */
+  private static final long[][] REFERENCE_HASHES = {
+    {0, 0x2d06800538d394c2L, 0xcc1ca35a1b089c5cL},
+    {1, 0xdedb980100c87e72L, 0x7d8a89123ebb8e77L},
+    {3, 0x7a2c2f2e5b630ebfL, 0xd7e88229890e4af6L},
+    {4, 0x6dc1d627e1211e1eL, 0x75904be00cc8b509L},
+    {7, 0x92ec41e0562ce7bbL, 0x0ac536f681615433L},
+    {8, 0xdf401e5c08ac92b6L, 0x253429d441950639L},
+    {9, 0xe107d5cb62835b5eL, 0xde33a30772a6c7ccL},
+    {15, 0x3906fd25388848a4L, 0x206f6d8ae86f8c9fL},
+    {16, 0x030262b052a46c41L, 0x4070d09d4666ea72L},
+    {17, 0xe7aa28be46df4a4cL, 0x16ddbe1f48af124dL},
+    {31, 0x4c420059b2541607L, 0x2ad2ce5561665638L},
+    {32, 0x1efff55778e9b15eL, 0x7b94fa611dc75e90L},
+    {33, 0xca50a8be8ac16c26L, 0x3479149528bcf0f3L},
+    {63, 0x943146c36ef11505L, 0xa7614110e89f3e55L},
+    {64, 0xb3bd5efc55e1c50eL, 0xee3314ba01e419b1L},
+    {65, 0x28faa6ed3523e8b4L, 0xc927e56e327c20fcL},
+    {96, 0xf92ed43ce773dd11L, 0x847ddd84c1bb1c06L},
+    {97, 0xf7358e240898b9dfL, 0x8d5fa2b049d2f315L},
+    {127, 0xc4a0cdadae68c6afL, 0x12a00eb44ed4339dL},
+    {128, 0xa772e12307abe717L, 0xf6c282aec6adb126L},
+    {129, 0x62480679ac9599b3L, 0x4e200273176fa1ddL},
+    {200, 0x74f199d7d77cf684L, 0xce292cb2f6eb0e50L},
+    {239, 0xa10f1b7e882a7cf5L, 0xbf10c1cf1417abc9L},
+    {240, 0xd971b0a57c7fb11fL, 0x363e4e679083a50fL},
+    {241, 0x0b170801e7941471L, 0x6a0ebb71193f4f23L},
+    {255, 0x90e49f6dc7c12bdbL, 0xe632111e7377b785L},
+    {256, 0x97098e1bee8fee7bL, 0x218499d9e0be7a30L},
+    {1023, 0x7dfb60331f01e75dL, 0x10f03d81bfb8cfffL},
+    {1024, 0xab1829d9cf76dad6L, 0x228d7a9f7e695abdL},
+    {1025, 0x5e429d5cdbd8502aL, 0xa2e0809be5bcd75fL},
+    {1087, 0xe62585321b68bbe3L, 0x5407109083b87a7bL},
+    {1088, 0x3c0a67b4f94f4643L, 0xb12d53ef4ac2aa7dL},
+    {1089, 0x7c8d4919a3643d0eL, 0xdfe9b585e513a7e7L},
+    {2048, 0x5512052d7505945fL, 0xb75a4e3a71200aceL},
+    {5000, 0x3bca7e79a8e8c77aL, 0x0131df36cf0751d6L},
+  };
+
+  private static byte[] testBytes(int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) (i * 0x9E + 0x35);
+    }
+    return bytes;
+  }
+
+  public void testReferenceHashes() {
+    for (long[] row : REFERENCE_HASHES) {
+      byte[] bytes = testBytes((int) row[0]);
+      String message = "length " + row[0];
+      assertEquals(message, row[1], Xxh3HashFunction.hash64(bytes, 0, bytes.length, 0));
+      assertEquals(message, row[2], Xxh3HashFunction.hash64(bytes, 0, bytes.length, SEED));
+      assertEquals(row[1], Hashing.xxh3_64().hashBytes(bytes).asLong());
+      assertEquals(row[2], Hashing.xxh3_64(SEED).hashBytes(bytes).asLong());
+    }
+  }
+
+  public void testReferenceHashes_withOffset() {
+    for (long[] row : REFERENCE_HASHES) {
+      byte[] bytes = testBytes((int) row[0]);
+      byte[] padded = new byte[bytes.length + 10];
+      System.arraycopy(bytes, 0, padded, 3, bytes.length);
+      assertEquals(row[1], Hashing.xxh3_64().hashBytes(padded, 3, bytes.length).asLong());
+    }
+  }
+
+  public void testReferenceHashes_streaming() {
+    for (int step : new int[] {1, 3, 8, 63, 64, 65, 100}) {
+      for (long[] row : REFERENCE_HASHES) {
+        byte[] bytes = testBytes((int) row[0]);
+        Hasher hasher = Hashing.xxh3_64(SEED).newHasher();
+        for (int off = 0; off < bytes.length; off += step) {
+          hasher.putBytes(bytes, off, Math.min(step, bytes.length - off));
+        }
+        assertEquals("length " + row[0] + ", step " + step, row[2], hasher.hash().asLong());
+      }
+    }
+  }
+
+  public void testKnownStrings() {
+    assertEquals("c294d3380580062d", Hashing.xxh3_64().hashString("", UTF_8).toString());
+    assertEquals(
+        "65b38f41a5197dce",
+        Hashing.xxh3_64()
+            .hashString("The quick brown fox jumps over the lazy dog", UTF_8)
+            .toString());
+  }
+
+  public void testPrimitivesMatchBytes() {
+    for (long value : new long[] {0, 1, -1, Long.MIN_VALUE, Long.MAX_VALUE, 0x0123456789ABCDEFL}) {
+      byte[] longBytes =
+          ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array();
+      byte[] intBytes =
+          ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt((int) value).array();
+      for (HashFunction function : Arrays.asList(Hashing.xxh3_64(), Hashing.xxh3_64(SEED))) {
+        assertEquals(function.hashBytes(longBytes), function.hashLong(value));
+        assertEquals(function.newHasher().putLong(value).hash(), function.hashLong(value));
+        assertEquals(function.hashBytes(intBytes), function.hashInt((int) value));
+        assertEquals(
+            function.newHasher().putInt((int) value).hash(), function.hashInt((int) value));
+      }
+    }
+  }
+
+  public void testEqualsAndToString() {
+    assertEquals(Hashing.xxh3_64(), Hashing.xxh3_64(0));
+    assertEquals(Hashing.xxh3_64(SEED), Hashing.xxh3_64(SEED));
+    assertEquals(Hashing.xxh3_64(SEED).hashCode(), Hashing.xxh3_64(SEED).hashCode());
+    assertFalse(Hashing.xxh3_64().equals(Hashing.xxh3_64(SEED)));
+    assertEquals("Hashing.xxh3_64(0)", Hashing.xxh3_64().toString());
+  }
+}
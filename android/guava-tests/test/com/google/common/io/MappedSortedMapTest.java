@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.base.Charsets.US_ASCII;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.testing.Helpers;
+import com.google.common.collect.testing.NavigableMapTestSuiteBuilder;
+import com.google.common.collect.testing.SampleElements;
+import com.google.common.collect.testing.TestSortedMapGenerator;
+import com.google.common.collect.testing.features.CollectionFeature;
+import com.google.common.collect.testing.features.CollectionSize;
+import com.google.common.collect.testing.features.MapFeature;
+import com.google.common.testing.NullPointerTester;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/** Tests for {@link MappedSortedMap}. */
+public class MappedSortedMapTest extends IoTestCase {
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite();
+    suite.addTestSuite(MappedSortedMapTest.class);
+    suite.addTest(
+        NavigableMapTestSuiteBuilder.using(new MappedSortedMapGenerator())
+            .withFeatures(
+                CollectionSize.ANY,
+                CollectionFeature.KNOWN_ORDER,
+                MapFeature.ALLOWS_ANY_NULL_QUERIES,
+                MapFeature.REJECTS_DUPLICATES_AT_CREATION)
+            .named("MappedSortedMap")
+            .createTestSuite());
+    return suite;
+  }
+
+  /**
+   * Returns a read-only direct buffer of the bytes of {@code string}, whose {@code toString} is
+   * that of the keys and values of a {@code MappedSortedMap}.
+   */
+  private static ByteBuffer bytes(String string) {
+    byte[] bytes = string.getBytes(US_ASCII);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    return buffer.asReadOnlyBuffer();
+  }
+
+  private static Entry<ByteBuffer, ByteBuffer> entry(String key, String value) {
+    return Helpers.mapEntry(bytes(key), bytes(value));
+  }
+
+  private static final class MappedSortedMapGenerator
+      implements TestSortedMapGenerator<ByteBuffer, ByteBuffer> {
+    @Override
+    public SampleElements<Entry<ByteBuffer, ByteBuffer>> samples() {
+      return new SampleElements<>(
+          entry("a", "A"), entry("b", "B"), entry("c", "C"), entry("d", "D"), entry("e", "E"));
+    }
+
+    @Override
+    public NavigableMap<ByteBuffer, ByteBuffer> create(Object... elements) {
+      List<Entry<ByteBuffer, ByteBuffer>> entries = Lists.newArrayList();
+      for (Object element : elements) {
+        @SuppressWarnings("unchecked")
+        Entry<ByteBuffer, ByteBuffer> entry = (Entry<ByteBuffer, ByteBuffer>) element;
+        entries.add(entry);
+      }
+      try {
+        File file = File.createTempFile("MappedSortedMapTest", ".map");
+        file.deleteOnExit();
+        try (MappedSortedMap.Builder builder = MappedSortedMap.builder(file)) {
+          for (Entry<ByteBuffer, ByteBuffer> entry : order(entries)) {
+            builder.put(entry.getKey(), entry.getValue());
+          }
+          return builder.build();
+        }
+      } catch (IOException e) {
+        throw new AssertionError(e);
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Entry<ByteBuffer, ByteBuffer>[] createArray(int length) {
+      return new Entry[length];
+    }
+
+    @Override
+    public Iterable<Entry<ByteBuffer, ByteBuffer>> order(
+        List<Entry<ByteBuffer, ByteBuffer>> insertionOrder) {
+      return new Ordering<Entry<ByteBuffer, ?>>() {
+        @Override
+        public int compare(Entry<ByteBuffer, ?> left, Entry<ByteBuffer, ?> right) {
+          return MappedSortedMap.keyOrder().compare(left.getKey(), right.getKey());
+        }
+      }.sortedCopy(insertionOrder);
+    }
+
+    @Override
+    public ByteBuffer[] createKeyArray(int length) {
+      return new ByteBuffer[length];
+    }
+
+    @Override
+    public ByteBuffer[] createValueArray(int length) {
+      return new ByteBuffer[length];
+    }
+
+    @Override
+    public Entry<ByteBuffer, ByteBuffer> belowSamplesLesser() {
+      return entry("0", "below");
+    }
+
+    @Override
+    public Entry<ByteBuffer, ByteBuffer> belowSamplesGreater() {
+      return entry("1", "below");
+    }
+
+    @Override
+    public Entry<ByteBuffer, ByteBuffer> aboveSamplesLesser() {
+      return entry("y", "above");
+    }
+
+    @Override
+    public Entry<ByteBuffer, ByteBuffer> aboveSamplesGreater() {
+      return entry("z", "above");
+    }
+  }
+
+  private static byte[] randomBytes(Random random, int maxLength) {
+    byte[] bytes = new byte[random.nextInt(maxLength + 1)];
+    random.nextBytes(bytes);
+    // Few distinct bytes, so that keys share long prefixes.
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] &= (byte) 0x81;
+    }
+    return bytes;
+  }
+
+  private static TreeMap<ByteBuffer, ByteBuffer> randomEntries(
+      Random random, int count, int maxLength) {
+    TreeMap<ByteBuffer, ByteBuffer> entries = new TreeMap<>(MappedSortedMap.keyOrder());
+    for (int i = 0; i < count; i++) {
+      entries.put(
+          ByteBuffer.wrap(randomBytes(random, maxLength)),
+          ByteBuffer.wrap(randomBytes(random, maxLength)));
+    }
+    return entries;
+  }
+
+  private static MappedSortedMap build(
+      File file, int segmentShift, NavigableMap<ByteBuffer, ByteBuffer> map) throws IOException {
+    try (MappedSortedMap.Builder builder = MappedSortedMap.builder(file, segmentShift)) {
+      for (Entry<ByteBuffer, ByteBuffer> entry : map.entrySet()) {
+        builder.put(entry.getKey(), entry.getValue());
+      }
+      return builder.build();
+    }
+  }
+
+  public void testKeyOrder() {
+    assertTrue(
+        Ordering.from(MappedSortedMap.keyOrder())
+            .isStrictlyOrdered(
+                ImmutableList.of(
+                    bytes(""), bytes("a"), bytes("aaaaaaaaa"), bytes("aaaaaaaab"), bytes("ab"))));
+    assertTrue(
+        MappedSortedMap.keyOrder()
+                .compare(ByteBuffer.wrap(new byte[] {(byte) 0x80}), ByteBuffer.wrap(new byte[] {1}))
+            > 0);
+    ByteBuffer littleEndian = bytes("aaaaaaaab").order(ByteOrder.LITTLE_ENDIAN);
+    assertTrue(MappedSortedMap.keyOrder().compare(littleEndian, bytes("aaaaaaaaa")) > 0);
+  }
+
+  public void testEmpty() throws IOException {
+    File file = createTempFile();
+    MappedSortedMap map = MappedSortedMap.builder(file).build();
+    assertThat(map).isEmpty();
+    assertNull(map.firstEntry());
+    assertNull(map.get(bytes("a")));
+    assertThat(MappedSortedMap.map(file)).isEmpty();
+  }
+
+  public void testRandomLookups() throws IOException {
+    Random random = new Random(0);
+    TreeMap<ByteBuffer, ByteBuffer> expected = randomEntries(random, 5000, 24);
+    // Segments of 64 bytes, so that most entries are padded to start a new segment.
+    MappedSortedMap map = build(createTempFile(), 6, expected);
+    assertEquals(expected, map);
+    assertEquals(expected.hashCode(), map.hashCode());
+    assertThat(map.keySet()).containsExactlyElementsIn(expected.keySet()).inOrder();
+    for (int i = 0; i < 2000; i++) {
+      ByteBuffer key = ByteBuffer.wrap(randomBytes(random, 24));
+      assertEquals(expected.get(key), map.get(key));
+      assertEquals(expected.floorKey(key), map.floorKey(key));
+      assertEquals(expected.ceilingKey(key), map.ceilingKey(key));
+      assertEquals(expected.lowerEntry(key), map.lowerEntry(key));
+      assertEquals(expected.higherEntry(key), map.higherEntry(key));
+      assertEquals(expected.descendingMap().floorKey(key), map.descendingMap().floorKey(key));
+      assertEquals(expected.descendingMap().higherKey(key), map.descendingMap().higherKey(key));
+    }
+  }
+
+  public void testRandomRanges() throws IOException {
+    Random random = new Random(1);
+    TreeMap<ByteBuffer, ByteBuffer> expected = randomEntries(random, 1000, 12);
+    MappedSortedMap map = build(createTempFile(), 30, expected);
+    for (int i = 0; i < 500; i++) {
+      ByteBuffer from = ByteBuffer.wrap(randomBytes(random, 12));
+      ByteBuffer to = ByteBuffer.wrap(randomBytes(random, 12));
+      if (MappedSortedMap.keyOrder().compare(from, to) > 0) {
+        ByteBuffer swap = from;
+        from = to;
+        to = swap;
+      }
+      boolean fromInclusive = random.nextBoolean();
+      boolean toInclusive = random.nextBoolean();
+      NavigableMap<ByteBuffer, ByteBuffer> expectedRange =
+          expected.subMap(from, fromInclusive, to, toInclusive);
+      NavigableMap<ByteBuffer, ByteBuffer> range = map.subMap(from, fromInclusive, to, toInclusive);
+      assertEquals(expectedRange, range);
+      assertThat(range.entrySet()).containsExactlyElementsIn(expectedRange.entrySet()).inOrder();
+      assertThat(range.descendingMap().entrySet())
+          .containsExactlyElementsIn(expectedRange.descendingMap().entrySet())
+          .inOrder();
+      assertThat(map.descendingMap().subMap(to, toInclusive, from, fromInclusive).keySet())
+          .containsExactlyElementsIn(expectedRange.descendingKeySet())
+          .inOrder();
+      assertEquals(expected.headMap(to, toInclusive), map.headMap(to, toInclusive));
+      assertEquals(expected.tailMap(from, fromInclusive), map.tailMap(from, fromInclusive));
+    }
+  }
+
+  public void testReopen() throws IOException {
+    File file = createTempFile();
+    TreeMap<ByteBuffer, ByteBuffer> expected = randomEntries(new Random(2), 100, 100);
+    build(file, 8, expected);
+    MappedSortedMap first = MappedSortedMap.map(file);
+    MappedSortedMap second = MappedSortedMap.map(file);
+    assertEquals(expected, first);
+    assertEquals(expected, second);
+  }
+
+  public void testKeysAndValuesAreReadOnlySlices() throws IOException {
+    File file = createTempFile();
+    MappedSortedMap map;
+    try (MappedSortedMap.Builder builder = MappedSortedMap.builder(file)) {
+      map = builder.put(bytes("key"), bytes("value")).build();
+    }
+    ByteBuffer key = map.firstKey();
+    ByteBuffer value = map.get(key);
+    assertTrue(key.isReadOnly());
+    assertTrue(value.isReadOnly());
+    assertEquals(0, key.position());
+    assertEquals(3, key.remaining());
+    assertEquals(bytes("value"), value);
+
+    ByteBuffer probe = ByteBuffer.allocateDirect(5);
+    probe.put((byte) 'x').put(bytes("key")).flip();
+    probe.position(1);
+    assertEquals(bytes("value"), map.get(probe));
+    assertEquals(1, probe.position());
+    assertNull(map.get("key"));
+    assertFalse(map.containsKey(null));
+  }
+
+  public void testBuilder_keysOutOfOrder() throws IOException {
+    File file = createTempFile();
+    try (MappedSortedMap.Builder builder = MappedSortedMap.builder(file)) {
+      builder.put(bytes("b"), bytes("B"));
+      try {
+        builder.put(bytes("a"), bytes("A"));
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+      try {
+        builder.put(bytes("b"), bytes("C"));
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+      builder.put(bytes("c"), bytes("C"));
+      assertThat(builder.build().keySet()).containsExactly(bytes("b"), bytes("c")).inOrder();
+    }
+  }
+
+  public void testBuilder_entryTooLarge() throws IOException {
+    File file = createTempFile();
+    try (MappedSortedMap.Builder builder = MappedSortedMap.builder(file, 4)) {
+      builder.put(new byte[4], new byte[4]);
+      try {
+        builder.put(new byte[5], new byte[4]);
+        fail();
+      } catch (IllegalArgumentException expected) {
+      }
+      assertEquals(1, builder.build().size());
+    }
+  }
+
+  public void testBuilder_closeWithoutBuild() throws IOException {
+    File directory = createTempDir();
+    File file = new File(directory, "map");
+    MappedSortedMap.Builder builder = MappedSortedMap.builder(file);
+    builder.put(bytes("a"), bytes("A"));
+    builder.close();
+    assertEquals(0, directory.list().length);
+    try {
+      builder.put(bytes("b"), bytes("B"));
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      builder.build();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testBuilder_cannotCreateFile() throws IOException {
+    File directory = createTempDir();
+    File file = new File(directory, "map");
+    assertTrue(file.mkdir());
+    try {
+      MappedSortedMap.builder(file);
+      fail();
+    } catch (IOException expected) {
+    }
+    assertThat(directory.list()).asList().containsExactly("map");
+  }
+
+  public void testBuilder_build() throws IOException {
+    File directory = createTempDir();
+    File file = new File(directory, "map");
+    MappedSortedMap.Builder builder = MappedSortedMap.builder(file);
+    builder.put(bytes("a"), bytes("A"));
+    builder.build();
+    builder.close();
+    assertThat(directory.list()).asList().containsExactly("map");
+    try {
+      builder.build();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testMap_notAMap() throws IOException {
+    File file = createTempFile();
+    Files.write(new byte[100], file);
+    try {
+      MappedSortedMap.map(file);
+      fail();
+    } catch (IOException expected) {
+    }
+    Files.write(new byte[3], file);
+    try {
+      MappedSortedMap.map(file);
+      fail();
+    } catch (IOException expected) {
+    }
+  }
+
+  public void testUnmodifiable() throws IOException {
+    MappedSortedMap map;
+    try (MappedSortedMap.Builder builder = MappedSortedMap.builder(createTempFile())) {
+      map = builder.put(bytes("a"), bytes("A")).build();
+    }
+    try {
+      map.pollFirstEntry();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      map.put(bytes("b"), bytes("B"));
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      map.keySet().iterator().remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  public void testNullPointers() throws IOException {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicStaticMethods(MappedSortedMap.class);
+    try (MappedSortedMap.Builder builder = MappedSortedMap.builder(createTempFile())) {
+      tester.testAllPublicInstanceMethods(builder);
+      tester.testAllPublicInstanceMethods(builder.put(bytes("a"), bytes("A")).build());
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.primitives;
+
+import com.google.common.annotations.GwtCompatible;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link IntArrayList}.
+ */
+@GwtCompatible(emulated = true)
+public class IntArrayListTest extends TestCase {
+  public void testAddAndGet() {
+    IntArrayList list = IntArrayList.createWithCapacity(0);
+    assertTrue(list.isEmpty());
+    for (int i = 0; i < 100; i++) {
+      list.add(i * 2);
+    }
+    assertEquals(100, list.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i * 2, list.get(i));
+    }
+    try {
+      list.get(100);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testInsertSetAndRemove() {
+    IntArrayList list = IntArrayList.of(1, 2, 3);
+    list.add(0, 0);
+    list.add(4, 4);
+    assertEquals("[0, 1, 2, 3, 4]", list.toString());
+    assertEquals(2, list.set(2, 20));
+    assertEquals(20, list.removeAt(2));
+    assertEquals("[0, 1, 3, 4]", list.toString());
+    list.removeRange(1, 3);
+    assertEquals("[0, 4]", list.toString());
+    list.clear();
+    assertEquals("[]", list.toString());
+    list.add(7);
+    assertEquals(IntArrayList.of(7), list);
+  }
+
+  public void testAddAll() {
+    IntArrayList list = IntArrayList.create();
+    list.addAll(new int[] {1, 2});
+    list.addAll(new int[] {0, 3, 4, 0}, 1, 3);
+    list.addAll(ImmutableIntArray.of(5, 6));
+    list.addAll(IntArrayList.of(7));
+    assertEquals(IntArrayList.of(1, 2, 3, 4, 5, 6, 7), list);
+    assertEquals(IntArrayList.of(1, 2, 3), IntArrayList.copyOf(Arrays.asList(1, 2, 3)));
+    assertEquals(IntArrayList.of(1, 2, 3), IntArrayList.copyOf(ImmutableIntArray.of(1, 2, 3)));
+  }
+
+  public void testSearch() {
+    IntArrayList list = IntArrayList.of(5, 3, 9, 3, 1);
+    assertEquals(1, list.indexOf(3));
+    assertEquals(3, list.lastIndexOf(3));
+    assertEquals(-1, list.indexOf(4));
+    assertTrue(list.contains(9));
+    list.sort();
+    assertEquals(IntArrayList.of(1, 3, 3, 5, 9), list);
+    assertEquals(3, list.binarySearch(5));
+    assertEquals(-4, list.binarySearch(4));
+  }
+
+  public void testToImmutableArray_sharesUntilOverwritten() {
+    IntArrayList list = IntArrayList.of(3, 1, 2);
+    ImmutableIntArray snapshot = list.toImmutableArray();
+    assertEquals(ImmutableIntArray.of(3, 1, 2), snapshot);
+    list.add(4);
+    list.sort();
+    list.set(0, 0);
+    list.removeAt(1);
+    assertEquals(ImmutableIntArray.of(3, 1, 2), snapshot);
+    assertEquals(IntArrayList.of(0, 3, 4), list);
+
+    ImmutableIntArray second = list.toImmutableArray();
+    list.removeRange(1, 3);
+    list.add(5);
+    assertEquals(ImmutableIntArray.of(0, 3, 4), second);
+    assertEquals(IntArrayList.of(0, 5), list);
+    assertEquals(ImmutableIntArray.of(), IntArrayList.create().toImmutableArray());
+  }
+
+  public void testCapacity() {
+    IntArrayList list = IntArrayList.create();
+    list.ensureCapacity(1000);
+    list.add(1);
+    list.trimToSize();
+    list.add(2);
+    assertEquals(IntArrayList.of(1, 2), list);
+    try {
+      IntArrayList.createWithCapacity(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testAsList() {
+    IntArrayList list = IntArrayList.of(1, 2, 3);
+    List<Integer> view = list.asList();
+    assertEquals(Arrays.asList(1, 2, 3), view);
+    view.add(4);
+    view.remove(0);
+    view.set(0, 20);
+    assertEquals(IntArrayList.of(20, 3, 4), list);
+    view.subList(0, 2).clear();
+    assertEquals(IntArrayList.of(4), list);
+    assertEquals(0, view.indexOf(4));
+    assertFalse(view.contains("4"));
+    try {
+      view.add(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testEqualsAndHashCode() {
+    IntArrayList list = IntArrayList.of(1, 2, 3);
+    list.add(4);
+    list.removeAt(3);
+    assertEquals(IntArrayList.of(1, 2, 3), list);
+    assertFalse(list.equals(IntArrayList.of(1, 2)));
+    assertEquals(ImmutableIntArray.of(1, 2, 3).hashCode(), list.hashCode());
+  }
+}
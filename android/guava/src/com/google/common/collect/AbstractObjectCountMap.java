@@ -182,7 +182,7 @@ abstract class AbstractObjectCountMap<K> {
   }
 
   int firstIndex() {
-    return 0;
+    return (size == 0) ? -1 : 0;
   }
 
   int nextIndex(int index) {
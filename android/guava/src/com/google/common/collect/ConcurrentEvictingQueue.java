@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.CollectPreconditions.checkNonnegative;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A thread-safe, non-blocking queue which automatically evicts elements from the head of the queue
+ * when new elements are added to it and it is full. Like {@link EvictingQueue}, which is not
+ * thread-safe, it orders elements FIFO and holds up to a maximum number of them.
+ *
+ * <p>The queue is a ring buffer, which is updated without locks. Each added element is assigned the
+ * next position in the ring with a single atomic increment, so that producers don't wait for each
+ * other or for consumers, and {@link #offerAll} reserves the positions of a whole batch at once.
+ * Elements are removed by advancing the head of the queue, which is how {@link
+ * #drainTo(Collection)} removes all of the elements present at a single point in time. A consumer
+ * may briefly wait for a producer that has reserved the position of the element at the head of the
+ * queue, but not yet stored the element there.
+ *
+ * <p>The size of the queue, and its iterators, are weakly consistent. The iterators iterate over a
+ * snapshot of the queue, and don't support {@link Iterator#remove}; nor does the queue support
+ * {@link #remove(Object)}. The queue does not accept null elements.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class ConcurrentEvictingQueue<E> extends AbstractQueue<E> {
+
+  /**
+   * Creates and returns a new evicting queue that will hold up to {@code maxSize} elements.
+   *
+   * <p>When {@code maxSize} is zero, elements will be evicted immediately after being added to the
+   * queue.
+   */
+  public static <E> ConcurrentEvictingQueue<E> create(int maxSize) {
+    return new ConcurrentEvictingQueue<E>(maxSize);
+  }
+
+  /**
+   * An element of the queue, and the position in the queue it was added at. The element is cleared
+   * once it is removed, so that the queue does not retain it until its slot is reused.
+   */
+  private static final class Slot<E> {
+    final long position;
+    @NullableDecl E element;
+
+    Slot(long position, E element) {
+      this.position = position;
+      this.element = element;
+    }
+  }
+
+  @VisibleForTesting final int maxSize;
+
+  /** The element at each position is in the slot at that position modulo {@code maxSize}. */
+  private final AtomicReferenceArray<Slot<E>> slots;
+
+  /** The position of the next element added. */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * The position of the head of the queue, unless elements past it have since been evicted, in
+   * which case the head is at {@code tail - maxSize}. The elements before it have been removed.
+   */
+  private final AtomicLong head = new AtomicLong();
+
+  private ConcurrentEvictingQueue(int maxSize) {
+    checkArgument(maxSize >= 0, "maxSize (%s) must >= 0", maxSize);
+    this.maxSize = maxSize;
+    this.slots = new AtomicReferenceArray<Slot<E>>(maxSize);
+  }
+
+  /**
+   * Returns the number of additional elements that this queue can accept without evicting; zero if
+   * the queue is currently full.
+   */
+  public int remainingCapacity() {
+    return maxSize - size();
+  }
+
+  @Override
+  public int size() {
+    long head = this.head.get();
+    long tail = this.tail.get();
+    return (int) Math.min(maxSize, tail - head);
+  }
+
+  /**
+   * Adds the given element to this queue. If the queue is currently full, the element at the head
+   * of the queue is evicted to make room.
+   *
+   * @return {@code true} always
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public boolean offer(E element) {
+    checkNotNull(element);
+    if (maxSize > 0) {
+      store(tail.getAndIncrement(), element);
+    }
+    return true;
+  }
+
+  /**
+   * Adds all of the given elements to this queue, in order, reserving their positions at once.
+   * Elements are evicted from the head of the queue to make room for them; if there are more than
+   * {@code maxSize} of them, the first are evicted immediately.
+   *
+   * @return {@code true} if {@code elements} wasn't empty
+   */
+  @CanIgnoreReturnValue
+  public boolean offerAll(Iterable<? extends E> elements) {
+    Object[] array = ObjectArrays.checkElementsNotNull(Iterables.toArray(elements));
+    if (maxSize > 0 && array.length > 0) {
+      long first = tail.getAndAdd(array.length);
+      for (int i = Math.max(0, array.length - maxSize); i < array.length; i++) {
+        @SuppressWarnings("unchecked") // the elements are of type E
+        E element = (E) array[i];
+        store(first + i, element);
+      }
+    }
+    return array.length > 0;
+  }
+
+  @CanIgnoreReturnValue
+  @Override
+  public boolean addAll(Collection<? extends E> collection) {
+    checkArgument(collection != this, "cannot add a queue to itself");
+    return offerAll(collection);
+  }
+
+  private void store(long position, E element) {
+    Slot<E> slot = new Slot<E>(position, element);
+    int index = (int) (position % maxSize);
+    while (true) {
+      Slot<E> current = slots.get(index);
+      if (current != null && current.position > position) {
+        return; // a later element has already evicted this one
+      }
+      if (slots.compareAndSet(index, current, slot)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the slot of the element added at the given position, waiting for it to be stored if
+   * necessary, or null if it has been evicted.
+   */
+  @NullableDecl
+  private Slot<E> slotAt(long position) {
+    int index = (int) (position % maxSize);
+    while (true) {
+      Slot<E> slot = slots.get(index);
+      if (slot != null && slot.position >= position) {
+        return (slot.position == position) ? slot : null;
+      }
+      // The element's producer has reserved its position but not yet stored it.
+      Thread.yield();
+    }
+  }
+
+  /**
+   * Returns the element added at the given position, waiting for it to be stored if necessary, or
+   * null if it has been evicted or removed.
+   */
+  @NullableDecl
+  private E elementAt(long position) {
+    Slot<E> slot = slotAt(position);
+    return (slot == null) ? null : slot.element;
+  }
+
+  /**
+   * Clears and returns the element of {@code slot}, whose position the caller has just removed from
+   * the queue by advancing the head past it.
+   */
+  @NullableDecl
+  private static <E> E take(Slot<E> slot) {
+    E element = slot.element;
+    slot.element = null;
+    return element;
+  }
+
+  @Override
+  @NullableDecl
+  public E poll() {
+    while (true) {
+      long head = this.head.get();
+      long tail = this.tail.get();
+      long first = Math.max(head, tail - maxSize);
+      if (first >= tail) {
+        return null;
+      }
+      Slot<E> slot = slotAt(first);
+      if (this.head.compareAndSet(head, first + 1) && slot != null) {
+        return take(slot);
+      }
+    }
+  }
+
+  @Override
+  @NullableDecl
+  public E peek() {
+    while (true) {
+      long head = this.head.get();
+      long tail = this.tail.get();
+      long first = Math.max(head, tail - maxSize);
+      if (first >= tail) {
+        return null;
+      }
+      E element = elementAt(first);
+      if (element != null && this.head.get() == head) {
+        return element;
+      }
+    }
+  }
+
+  /**
+   * Removes all of the elements of this queue and adds them to {@code collection}, in order. The
+   * elements removed are those in this queue at a single point in time, except that any that are
+   * evicted by concurrent additions before they are transferred are lost, as they would have been
+   * had they stayed in the queue.
+   *
+   * @return the number of elements transferred
+   */
+  @CanIgnoreReturnValue
+  public int drainTo(Collection<? super E> collection) {
+    return drainTo(collection, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Removes up to {@code maxElements} elements from the head of this queue and adds them to {@code
+   * collection}, in order, as {@link #drainTo(Collection)} does.
+   *
+   * @return the number of elements transferred
+   */
+  @CanIgnoreReturnValue
+  public int drainTo(Collection<? super E> collection, int maxElements) {
+    checkNotNull(collection);
+    checkArgument(collection != this, "cannot drain a queue to itself");
+    checkNonnegative(maxElements, "maxElements");
+    long first;
+    long end;
+    while (true) {
+      long head = this.head.get();
+      long tail = this.tail.get();
+      first = Math.max(head, tail - maxSize);
+      end = Math.min(tail, first + maxElements);
+      if (first >= end || this.head.compareAndSet(head, end)) {
+        break;
+      }
+    }
+    int count = 0;
+    for (long position = first; position < end; position++) {
+      Slot<E> slot = slotAt(position);
+      E element = (slot == null) ? null : take(slot);
+      if (element != null) {
+        collection.add(element);
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void clear() {
+    long first;
+    long tail;
+    while (true) {
+      long head = this.head.get();
+      tail = this.tail.get();
+      first = Math.max(head, tail - maxSize);
+      if (first >= tail) {
+        return;
+      } else if (this.head.compareAndSet(head, tail)) {
+        break;
+      }
+    }
+    for (long position = first; position < tail; position++) {
+      Slot<E> slot = slotAt(position);
+      if (slot != null) {
+        take(slot);
+      }
+    }
+  }
+
+  /**
+   * Returns an iterator over a snapshot of the elements of this queue, from its head to its tail.
+   * The iterator does not support {@link Iterator#remove}.
+   */
+  @Override
+  public UnmodifiableIterator<E> iterator() {
+    List<E> snapshot = new ArrayList<E>();
+    long tail = this.tail.get();
+    for (long position = Math.max(head.get(), tail - maxSize); position < tail; position++) {
+      E element = elementAt(position);
+      if (element != null) {
+        snapshot.add(element);
+      }
+    }
+    return Iterators.unmodifiableIterator(snapshot.iterator());
+  }
+
+  /**
+   * Unsupported, since elements are only removed from the head of the queue.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Deprecated
+  @Override
+  public boolean remove(@NullableDecl Object object) {
+    throw new UnsupportedOperationException();
+  }
+}
@@ -47,6 +47,9 @@ import org.checkerframework.checker.nullness.compatqual.NullableDecl;
  * A multiset that supports concurrent modifications and that provides atomic versions of most
  * {@code Multiset} operations (exceptions where noted). Null elements are not supported.
  *
+ * <p>If many threads update the counts of the same few elements at once, and do not need the
+ * previous counts that the updates return, a {@link StripedCountMap} contends less.
+ *
  * <p>See the Guava User Guide article on <a href=
  * "https://github.com/google/guava/wiki/NewCollectionTypesExplained#multiset"> {@code
  * Multiset}</a>.
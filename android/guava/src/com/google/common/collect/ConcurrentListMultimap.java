@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkPositionIndex;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.CollectPreconditions.checkRemove;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.j2objc.annotations.WeakOuter;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A {@link ListMultimap} that supports concurrent access, and whose updates are atomic. Null keys
+ * and values are not supported.
+ *
+ * <p>The values of each key are kept in an immutable list, which every update of that key replaces
+ * with an updated copy, using the atomic operations of a {@link
+ * java.util.concurrent.ConcurrentHashMap}. Retrieval operations therefore take no lock, and
+ * updates of different keys do not contend with each other. As with any copy-on-write collection,
+ * an update takes time linear in the number of values of its key, so this implementation is best
+ * suited to multimaps that are read far more often than they are updated, and whose keys have few
+ * values each.
+ *
+ * <p>The views returned by {@link #get}, {@link #keySet}, {@link #entries}, {@link #asMap} and so
+ * on reflect later updates, and their iterators are weakly consistent: they traverse the values of
+ * each key as they were when the iterator reached that key. Since equal values may occur several
+ * times in a list, the updates made through an iterator apply to the position it last returned:
+ * they fail with {@link ConcurrentModificationException} if the values of that key were modified by
+ * any other means since the iterator read them. Likewise, the positional operations of the lists
+ * returned by {@link #get}, such as {@link List#set} and {@link List#add(int, Object)}, are atomic
+ * but may observe concurrent updates between calls.
+ *
+ * <p>{@link #size} traverses the keys and is not atomic. Bulk operations such as {@link
+ * #putAll(Multimap)} are not atomic either, but the single-key operations {@link #put}, {@link
+ * #remove}, {@link #putAll(Object, Iterable)}, {@link #removeAll} and {@link #replaceValues} are.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class ConcurrentListMultimap<K, V> extends AbstractConcurrentMultimap<K, V>
+    implements ListMultimap<K, V> {
+  /** Creates a new, empty {@code ConcurrentListMultimap}. */
+  public static <K, V> ConcurrentListMultimap<K, V> create() {
+    return new ConcurrentListMultimap<>();
+  }
+
+  /**
+   * Constructs a {@code ConcurrentListMultimap} with the same mappings as the specified multimap.
+   *
+   * @throws NullPointerException if any key or value in {@code multimap} is null
+   */
+  public static <K, V> ConcurrentListMultimap<K, V> create(
+      Multimap<? extends K, ? extends V> multimap) {
+    ConcurrentListMultimap<K, V> result = new ConcurrentListMultimap<>();
+    for (Map.Entry<? extends K, ? extends Collection<? extends V>> entry :
+        multimap.asMap().entrySet()) {
+      result.putAll(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  private ConcurrentListMultimap() {}
+
+  /**
+   * Returns a copy of {@code list}, in which the elements from {@code fromIndex}, inclusive, to
+   * {@code toIndex}, exclusive, are replaced with {@code replacement}.
+   */
+  private static <V> ImmutableList<V> splice(
+      ImmutableList<V> list, int fromIndex, int toIndex, Collection<? extends V> replacement) {
+    return ImmutableList.<V>builderWithExpectedSize(
+            list.size() - (toIndex - fromIndex) + replacement.size())
+        .addAll(list.subList(0, fromIndex))
+        .addAll(replacement)
+        .addAll(list.subList(toIndex, list.size()))
+        .build();
+  }
+
+  @Override
+  ImmutableList<V> emptyValues() {
+    return ImmutableList.of();
+  }
+
+  @Override
+  ImmutableList<V> with(ImmutableCollection<V> values, V value) {
+    ImmutableList<V> list = (ImmutableList<V>) values;
+    return splice(list, list.size(), list.size(), ImmutableList.of(value));
+  }
+
+  @Override
+  ImmutableList<V> withAll(
+      ImmutableCollection<V> values, ImmutableCollection<? extends V> newValues) {
+    ImmutableList<V> list = (ImmutableList<V>) values;
+    return newValues.isEmpty() ? list : splice(list, list.size(), list.size(), newValues);
+  }
+
+  @Override
+  ImmutableList<V> without(ImmutableCollection<V> values, Object value) {
+    ImmutableList<V> list = (ImmutableList<V>) values;
+    int index = list.indexOf(value);
+    return (index == -1) ? list : splice(list, index, index + 1, ImmutableList.<V>of());
+  }
+
+  /** Returns the current values of {@code key}, which are empty if it is absent. */
+  private ImmutableList<V> list(Object key) {
+    return (ImmutableList<V>) values(key);
+  }
+
+  @Override
+  List<V> wrap(K key) {
+    return new ValueList(key);
+  }
+
+  @Override
+  Iterator<V> valueIterator(K key, ImmutableCollection<V> values) {
+    return new ValueListIterator(key, (ImmutableList<V>) values, 0);
+  }
+
+  @Override
+  Collection<Entry<K, V>> createEntries() {
+    return new Entries();
+  }
+
+  @WeakOuter
+  private final class ValueList extends AbstractList<V> implements RandomAccess {
+    final K key;
+
+    ValueList(K key) {
+      this.key = key;
+    }
+
+    @Override
+    public V get(int index) {
+      return list(key).get(index);
+    }
+
+    @Override
+    public int size() {
+      return list(key).size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return !containsKey(key);
+    }
+
+    @Override
+    public boolean contains(@NullableDecl Object o) {
+      return containsEntry(key, o);
+    }
+
+    @Override
+    public int indexOf(@NullableDecl Object o) {
+      return (o == null) ? -1 : list(key).indexOf(o);
+    }
+
+    @Override
+    public int lastIndexOf(@NullableDecl Object o) {
+      return (o == null) ? -1 : list(key).lastIndexOf(o);
+    }
+
+    @Override
+    public Object[] toArray() {
+      return list(key).toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] array) {
+      return list(key).toArray(array);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+      return listIterator(0);
+    }
+
+    @Override
+    public ListIterator<V> listIterator(int index) {
+      ImmutableList<V> list = list(key);
+      checkPositionIndex(index, list.size());
+      return new ValueListIterator(key, list, index);
+    }
+
+    @Override
+    public boolean add(V value) {
+      return put(key, value);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends V> values) {
+      return putAll(key, values);
+    }
+
+    @Override
+    public void add(int index, V value) {
+      addAll(index, ImmutableList.of(value));
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends V> values) {
+      ImmutableList<V> newValues = ImmutableList.copyOf(values);
+      while (true) {
+        ImmutableList<V> current = list(key);
+        checkPositionIndex(index, current.size());
+        if (newValues.isEmpty()) {
+          return false;
+        } else if (compareAndSet(key, current, splice(current, index, index, newValues))) {
+          return true;
+        }
+      }
+    }
+
+    @Override
+    public V set(int index, V value) {
+      ImmutableList<V> newValues = ImmutableList.of(value);
+      while (true) {
+        ImmutableList<V> current = list(key);
+        checkElementIndex(index, current.size());
+        if (compareAndSet(key, current, splice(current, index, index + 1, newValues))) {
+          return current.get(index);
+        }
+      }
+    }
+
+    @Override
+    public V remove(int index) {
+      while (true) {
+        ImmutableList<V> current = list(key);
+        checkElementIndex(index, current.size());
+        ImmutableList<V> empty = ImmutableList.of();
+        if (compareAndSet(key, current, splice(current, index, index + 1, empty))) {
+          return current.get(index);
+        }
+      }
+    }
+
+    @Override
+    public boolean remove(@NullableDecl Object o) {
+      return ConcurrentListMultimap.this.remove(key, o);
+    }
+
+    @Override
+    public void clear() {
+      ConcurrentListMultimap.this.removeAll(key);
+    }
+  }
+
+  /**
+   * A list iterator over the values of a key as they were when it was created, whose updates
+   * succeed only if those values were not modified by other means since.
+   */
+  private final class ValueListIterator implements ListIterator<V> {
+    final K key;
+    ImmutableList<V> list;
+    int cursor;
+    int lastReturned = -1;
+
+    ValueListIterator(K key, ImmutableList<V> list, int cursor) {
+      this.key = key;
+      this.list = list;
+      this.cursor = cursor;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return cursor < list.size();
+    }
+
+    @Override
+    public V next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      lastReturned = cursor++;
+      return list.get(lastReturned);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+      return cursor > 0;
+    }
+
+    @Override
+    public V previous() {
+      if (!hasPrevious()) {
+        throw new NoSuchElementException();
+      }
+      lastReturned = --cursor;
+      return list.get(lastReturned);
+    }
+
+    @Override
+    public int nextIndex() {
+      return cursor;
+    }
+
+    @Override
+    public int previousIndex() {
+      return cursor - 1;
+    }
+
+    @Override
+    public void remove() {
+      checkRemove(lastReturned != -1);
+      update(splice(list, lastReturned, lastReturned + 1, ImmutableList.<V>of()));
+      cursor = lastReturned;
+      lastReturned = -1;
+    }
+
+    @Override
+    public void set(V value) {
+      checkState(lastReturned != -1);
+      update(splice(list, lastReturned, lastReturned + 1, ImmutableList.of(value)));
+    }
+
+    @Override
+    public void add(V value) {
+      update(splice(list, cursor, cursor, ImmutableList.of(value)));
+      cursor++;
+      lastReturned = -1;
+    }
+
+    private void update(ImmutableList<V> newList) {
+      if (!compareAndSet(key, list, newList)) {
+        throw new ConcurrentModificationException();
+      }
+      list = newList;
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned list is a view, which reads the values of {@code key} that are current at the
+   * time of each call, and whose updates are atomic.
+   */
+  @Override
+  public List<V> get(@NullableDecl K key) {
+    return (List<V>) super.get(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic. The returned list is immutable.
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public List<V> removeAll(@NullableDecl Object key) {
+    return (List<V>) super.removeAll(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic. The returned list is immutable.
+   *
+   * @throws NullPointerException if {@code key} or any of {@code values} is null
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public List<V> replaceValues(K key, Iterable<? extends V> values) {
+    return (List<V>) super.replaceValues(key, values);
+  }
+
+  private static final long serialVersionUID = 0;
+}
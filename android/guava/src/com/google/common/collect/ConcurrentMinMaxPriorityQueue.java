@@ -0,0 +1,387 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.CollectPreconditions.checkNonnegative;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A thread-safe double-ended priority queue, which provides the operations of a {@link
+ * MinMaxPriorityQueue} with a maximum size to any number of threads, such as the producers that
+ * share a buffer of the least {@code N} elements they have seen.
+ *
+ * <p>As with {@code MinMaxPriorityQueue}, each time the size of the queue exceeds its maximum size,
+ * its greatest element is evicted, so that it keeps the least elements offered to it. Once the
+ * queue is full, an offer of an element that is no less than its greatest element is rejected
+ * without taking the queue's lock, which is how most offers to a full top-N buffer end. Other
+ * operations take the lock; {@link #offerAll} takes it once for a batch of elements, and {@link
+ * #drainTo(Collection)} takes it only to detach the queue's contents, which it then transfers
+ * in order, so that it removes a consistent snapshot of the queue.
+ *
+ * <p>The iterators of this queue iterate over a snapshot of its elements, in no particular order,
+ * and don't support {@link Iterator#remove}. The queue does not accept null elements.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class ConcurrentMinMaxPriorityQueue<E> extends AbstractQueue<E> {
+
+  /**
+   * Creates a new queue, ordered by the natural ordering of its elements, that holds up to {@code
+   * maximumSize} elements.
+   */
+  public static <E extends Comparable<E>> ConcurrentMinMaxPriorityQueue<E> create(
+      int maximumSize) {
+    return new ConcurrentMinMaxPriorityQueue<E>(Ordering.<E>natural(), maximumSize);
+  }
+
+  /**
+   * Creates a new queue, ordered by {@code comparator}, that holds up to {@code maximumSize}
+   * elements.
+   */
+  public static <E> ConcurrentMinMaxPriorityQueue<E> create(
+      Comparator<? super E> comparator, int maximumSize) {
+    return new ConcurrentMinMaxPriorityQueue<E>(comparator, maximumSize);
+  }
+
+  private final Comparator<? super E> comparator;
+  private final int maximumSize;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @GuardedBy("lock")
+  private MinMaxPriorityQueue<E> queue;
+
+  /**
+   * The greatest element of the queue while it is full, and otherwise null. It is written at the
+   * end of each operation that modifies the queue, under the lock, and read without it.
+   */
+  @NullableDecl private volatile E threshold;
+
+  private ConcurrentMinMaxPriorityQueue(Comparator<? super E> comparator, int maximumSize) {
+    this.comparator = checkNotNull(comparator);
+    checkArgument(maximumSize > 0, "maximumSize (%s) must be positive", maximumSize);
+    this.maximumSize = maximumSize;
+    this.queue = newQueue();
+  }
+
+  private MinMaxPriorityQueue<E> newQueue() {
+    return MinMaxPriorityQueue.orderedBy(comparator).maximumSize(maximumSize).<E>create();
+  }
+
+  /** Returns the comparator used to order the elements in this queue. */
+  public Comparator<? super E> comparator() {
+    return comparator;
+  }
+
+  /** Returns the maximum number of elements this queue holds. */
+  public int maximumSize() {
+    return maximumSize;
+  }
+
+  @Override
+  public int size() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds the given element to this queue. If this queue is then larger than its maximum size, its
+   * greatest element is evicted, which may be {@code element} itself.
+   *
+   * @return {@code true} always
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public boolean add(E element) {
+    offer(element);
+    return true;
+  }
+
+  /**
+   * Adds the given element to this queue. If this queue is then larger than its maximum size, its
+   * greatest element is evicted.
+   *
+   * @return {@code true} if this queue kept {@code element}, {@code false} if it was evicted
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public boolean offer(E element) {
+    checkNotNull(element);
+    if (isRejected(element)) {
+      return false;
+    }
+    lock.lock();
+    try {
+      boolean kept = queue.offer(element);
+      updateThreshold();
+      return kept;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Adds all of the given elements to this queue, taking its lock once, and evicts its greatest
+   * elements for as long as it is larger than its maximum size. This is equivalent to, but faster
+   * than, offering each element in turn.
+   *
+   * @return {@code true} if this queue changed as a result of the call
+   */
+  @CanIgnoreReturnValue
+  public boolean offerAll(Iterable<? extends E> elements) {
+    // Iterate over the elements, which may be lazily computed, outside the lock.
+    List<E> candidates = new ArrayList<E>();
+    for (E element : elements) {
+      if (!isRejected(checkNotNull(element))) {
+        candidates.add(element);
+      }
+    }
+    if (candidates.isEmpty()) {
+      return false;
+    }
+    lock.lock();
+    try {
+      boolean modified = false;
+      for (E element : candidates) {
+        modified |= queue.offer(element);
+      }
+      updateThreshold();
+      return modified;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @CanIgnoreReturnValue
+  @Override
+  public boolean addAll(Collection<? extends E> collection) {
+    checkArgument(collection != this, "cannot add a queue to itself");
+    return offerAll(collection);
+  }
+
+  /**
+   * Whether an offer of {@code element} would evict it, since this queue is full and its greatest
+   * element is no greater than {@code element}. The offer may then be rejected at the time the
+   * threshold was read, without taking the lock.
+   */
+  private boolean isRejected(E element) {
+    E threshold = this.threshold;
+    return threshold != null && comparator.compare(element, threshold) >= 0;
+  }
+
+  @GuardedBy("lock")
+  private void updateThreshold() {
+    threshold = (queue.size() == maximumSize) ? queue.peekLast() : null;
+  }
+
+  @Override
+  @NullableDecl
+  public E poll() {
+    return pollFirst();
+  }
+
+  /** Removes and returns the least element of this queue, or returns null if it is empty. */
+  @NullableDecl
+  public E pollFirst() {
+    lock.lock();
+    try {
+      E result = queue.pollFirst();
+      updateThreshold();
+      return result;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Removes and returns the greatest element of this queue, or returns null if it is empty. */
+  @NullableDecl
+  public E pollLast() {
+    lock.lock();
+    try {
+      E result = queue.pollLast();
+      updateThreshold();
+      return result;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  @NullableDecl
+  public E peek() {
+    return peekFirst();
+  }
+
+  /** Returns the least element of this queue, or null if it is empty. */
+  @NullableDecl
+  public E peekFirst() {
+    lock.lock();
+    try {
+      return queue.peekFirst();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Returns the greatest element of this queue, or null if it is empty. */
+  @NullableDecl
+  public E peekLast() {
+    lock.lock();
+    try {
+      return queue.peekLast();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public boolean contains(@NullableDecl Object object) {
+    lock.lock();
+    try {
+      return queue.contains(object);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @CanIgnoreReturnValue
+  @Override
+  public boolean remove(@NullableDecl Object object) {
+    lock.lock();
+    try {
+      boolean removed = queue.remove(object);
+      updateThreshold();
+      return removed;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      queue = newQueue();
+      updateThreshold();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Removes all of the elements of this queue and adds them to {@code collection}, from the least
+   * to the greatest. The elements removed are those in this queue at a single point in time; the
+   * queue is locked only while they are detached from it, not while they are transferred.
+   *
+   * @return the number of elements transferred
+   */
+  @CanIgnoreReturnValue
+  public int drainTo(Collection<? super E> collection) {
+    checkNotNull(collection);
+    checkArgument(collection != this, "cannot drain a queue to itself");
+    MinMaxPriorityQueue<E> drained;
+    lock.lock();
+    try {
+      drained = queue;
+      queue = newQueue();
+      updateThreshold();
+    } finally {
+      lock.unlock();
+    }
+    int count = 0;
+    for (E element = drained.pollFirst(); element != null; element = drained.pollFirst()) {
+      collection.add(element);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Removes up to {@code maxElements} of the least elements of this queue and adds them to {@code
+   * collection}, from the least to the greatest. The elements removed are the least of those in
+   * this queue at a single point in time.
+   *
+   * @return the number of elements transferred
+   */
+  @CanIgnoreReturnValue
+  public int drainTo(Collection<? super E> collection, int maxElements) {
+    checkNotNull(collection);
+    checkArgument(collection != this, "cannot drain a queue to itself");
+    checkNonnegative(maxElements, "maxElements");
+    List<E> drained = new ArrayList<E>();
+    lock.lock();
+    try {
+      for (int i = 0; i < maxElements && !queue.isEmpty(); i++) {
+        drained.add(queue.pollFirst());
+      }
+      updateThreshold();
+    } finally {
+      lock.unlock();
+    }
+    collection.addAll(drained);
+    return drained.size();
+  }
+
+  /**
+   * Returns an iterator over a snapshot of the elements of this queue, in no particular order. The
+   * iterator does not support {@link Iterator#remove}.
+   */
+  @Override
+  @SuppressWarnings("unchecked") // the queue only holds elements of type E
+  public UnmodifiableIterator<E> iterator() {
+    return (UnmodifiableIterator<E>) Iterators.forArray(toArray());
+  }
+
+  @Override
+  public Object[] toArray() {
+    lock.lock();
+    try {
+      return queue.toArray();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public <T> T[] toArray(T[] array) {
+    lock.lock();
+    try {
+      return queue.toArray(array);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
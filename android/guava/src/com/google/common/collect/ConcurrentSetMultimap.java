@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.collect.CollectPreconditions.checkRemove;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.j2objc.annotations.WeakOuter;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A {@link SetMultimap} that supports concurrent access, and whose updates are atomic. Null keys
+ * and values are not supported.
+ *
+ * <p>The values of each key are kept in an immutable set, which every update of that key replaces
+ * with an updated copy, using the atomic operations of a {@link
+ * java.util.concurrent.ConcurrentHashMap}. Retrieval operations therefore take no lock, and
+ * updates of different keys do not contend with each other. As with any copy-on-write collection,
+ * an update takes time linear in the number of values of its key, so this implementation is best
+ * suited to multimaps that are read far more often than they are updated, and whose keys have few
+ * values each, such as an index of listeners by topic.
+ *
+ * <p>The values of a key iterate in the order in which they were added. The views returned by
+ * {@link #get}, {@link #keySet}, {@link #entries}, {@link #asMap} and so on reflect later updates,
+ * and their iterators are weakly consistent: they never throw {@link
+ * java.util.ConcurrentModificationException}, and they traverse the values of each key as they
+ * were when the iterator reached that key. Calling {@code remove} on such an iterator atomically
+ * removes the entry it last returned, if it is still present.
+ *
+ * <p>{@link #size} traverses the keys and is not atomic. Bulk operations such as {@link
+ * #putAll(Multimap)} are not atomic either, but the single-key operations {@link #put}, {@link
+ * #remove}, {@link #putAll(Object, Iterable)}, {@link #removeAll} and {@link #replaceValues} are.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class ConcurrentSetMultimap<K, V> extends AbstractConcurrentMultimap<K, V>
+    implements SetMultimap<K, V> {
+  /** Creates a new, empty {@code ConcurrentSetMultimap}. */
+  public static <K, V> ConcurrentSetMultimap<K, V> create() {
+    return new ConcurrentSetMultimap<>();
+  }
+
+  /**
+   * Constructs a {@code ConcurrentSetMultimap} with the same mappings as the specified multimap.
+   * If a key-value mapping appears multiple times in the input multimap, it only appears once in
+   * the constructed multimap.
+   *
+   * @throws NullPointerException if any key or value in {@code multimap} is null
+   */
+  public static <K, V> ConcurrentSetMultimap<K, V> create(
+      Multimap<? extends K, ? extends V> multimap) {
+    ConcurrentSetMultimap<K, V> result = new ConcurrentSetMultimap<>();
+    for (Map.Entry<? extends K, ? extends Collection<? extends V>> entry :
+        multimap.asMap().entrySet()) {
+      result.putAll(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  private ConcurrentSetMultimap() {}
+
+  @Override
+  ImmutableSet<V> emptyValues() {
+    return ImmutableSet.of();
+  }
+
+  @Override
+  ImmutableSet<V> with(ImmutableCollection<V> values, V value) {
+    ImmutableSet<V> set = (ImmutableSet<V>) values;
+    if (set.contains(value)) {
+      return set;
+    }
+    return ImmutableSet.<V>builderWithExpectedSize(set.size() + 1).addAll(set).add(value).build();
+  }
+
+  @Override
+  ImmutableSet<V> withAll(
+      ImmutableCollection<V> values, ImmutableCollection<? extends V> newValues) {
+    ImmutableSet<V> set = (ImmutableSet<V>) values;
+    ImmutableSet<V> result =
+        ImmutableSet.<V>builderWithExpectedSize(set.size() + newValues.size())
+            .addAll(set)
+            .addAll(newValues)
+            .build();
+    return (result.size() == set.size()) ? set : result;
+  }
+
+  @Override
+  ImmutableSet<V> without(ImmutableCollection<V> values, Object value) {
+    ImmutableSet<V> set = (ImmutableSet<V>) values;
+    if (!set.contains(value)) {
+      return set;
+    }
+    ImmutableSet.Builder<V> builder = ImmutableSet.builderWithExpectedSize(set.size() - 1);
+    for (V v : set) {
+      if (!v.equals(value)) {
+        builder.add(v);
+      }
+    }
+    return builder.build();
+  }
+
+  @Override
+  Set<V> wrap(K key) {
+    return new ValueSet(key);
+  }
+
+  @Override
+  Iterator<V> valueIterator(final K key, ImmutableCollection<V> values) {
+    final Iterator<V> iterator = values.iterator();
+    return new Iterator<V>() {
+      @NullableDecl V last;
+
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public V next() {
+        return last = iterator.next();
+      }
+
+      @Override
+      public void remove() {
+        checkRemove(last != null);
+        ConcurrentSetMultimap.this.remove(key, last);
+        last = null;
+      }
+    };
+  }
+
+  @WeakOuter
+  private final class ValueSet extends AbstractSet<V> {
+    final K key;
+
+    ValueSet(K key) {
+      this.key = key;
+    }
+
+    @Override
+    public int size() {
+      return values(key).size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return !containsKey(key);
+    }
+
+    @Override
+    public boolean contains(@NullableDecl Object o) {
+      return containsEntry(key, o);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+      return valueIterator(key, values(key));
+    }
+
+    @Override
+    public Object[] toArray() {
+      return values(key).toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] array) {
+      return values(key).toArray(array);
+    }
+
+    @Override
+    public boolean add(V value) {
+      return put(key, value);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends V> values) {
+      return putAll(key, values);
+    }
+
+    @Override
+    public boolean remove(@NullableDecl Object o) {
+      return ConcurrentSetMultimap.this.remove(key, o);
+    }
+
+    @Override
+    public void clear() {
+      ConcurrentSetMultimap.this.removeAll(key);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned set is a view, which reads the values of {@code key} that are current at the
+   * time of each call, and whose updates are atomic.
+   */
+  @Override
+  public Set<V> get(@NullableDecl K key) {
+    return (Set<V>) super.get(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic. The returned set is immutable.
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public Set<V> removeAll(@NullableDecl Object key) {
+    return (Set<V>) super.removeAll(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic. The returned set is immutable. Any duplicates in {@code values}
+   * are ignored.
+   *
+   * @throws NullPointerException if {@code key} or any of {@code values} is null
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public Set<V> replaceValues(K key, Iterable<? extends V> values) {
+    return (Set<V>) super.replaceValues(key, values);
+  }
+
+  @Override
+  Set<Entry<K, V>> createEntries() {
+    return new EntrySet();
+  }
+
+  @Override
+  public Set<Entry<K, V>> entries() {
+    return (Set<Entry<K, V>>) super.entries();
+  }
+
+  private static final long serialVersionUID = 0;
+}
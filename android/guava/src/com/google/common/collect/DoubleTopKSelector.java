@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.ImmutableDoubleArray;
+import com.google.common.primitives.ImmutableLongArray;
+
+/**
+ * An accumulator that selects the {@code k} lowest or greatest {@code double} values offered to it,
+ * without boxing them. Values are ordered as by {@link Double#compare}: {@code -0.0} is less than
+ * {@code 0.0}, and {@code NaN} is greater than every other value, including positive infinity.
+ *
+ * <p>Each value is mapped to a {@code long} whose order is the same, so this class wraps a {@link
+ * LongTopKSelector}; see it for a description of the implementation.
+ *
+ * <p>Instances of this class are not thread-safe.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class DoubleTopKSelector {
+  /**
+   * Returns a selector that collects the lowest {@code k} values offered to it, and returns them
+   * via {@link #topK} in ascending order.
+   *
+   * @throws IllegalArgumentException if {@code k < 0}
+   */
+  public static DoubleTopKSelector least(int k) {
+    return new DoubleTopKSelector(LongTopKSelector.least(k));
+  }
+
+  /**
+   * Returns a selector that collects the greatest {@code k} values offered to it, and returns them
+   * via {@link #topK} in descending order.
+   *
+   * @throws IllegalArgumentException if {@code k < 0}
+   */
+  public static DoubleTopKSelector greatest(int k) {
+    return new DoubleTopKSelector(LongTopKSelector.greatest(k));
+  }
+
+  /**
+   * Returns a {@code long} that compares to the result of this method for other values as {@code
+   * value} does by {@link Double#compare}. Negative values have their bits other than the sign
+   * flipped, so that their order is reversed, and this method is its own inverse.
+   */
+  private static long sortableBits(long bits) {
+    return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+  }
+
+  private final LongTopKSelector selector;
+
+  private DoubleTopKSelector(LongTopKSelector selector) {
+    this.selector = selector;
+  }
+
+  /** Adds {@code value} as a candidate for the top {@code k} values, in amortized O(1) time. */
+  public void offer(double value) {
+    selector.offer(sortableBits(Double.doubleToLongBits(value)));
+  }
+
+  /** Adds each of {@code values} as a candidate for the top {@code k} values. */
+  public void offerAll(double... values) {
+    for (double value : values) {
+      offer(value);
+    }
+  }
+
+  /**
+   * Adds the candidates of {@code other}, which must have been created by the same factory method
+   * with the same {@code k}, to this selector, and returns this selector. This takes O(k) time,
+   * whatever the number of values offered to either selector, and leaves {@code other} unchanged.
+   *
+   * @throws IllegalArgumentException if {@code other} selects a different number of values, or
+   *     selects the lowest values when this one selects the greatest, or vice versa
+   */
+  public DoubleTopKSelector combine(DoubleTopKSelector other) {
+    selector.combine(other.selector);
+    return this;
+  }
+
+  /**
+   * Returns the top {@code k} values offered to this selector, or all of them if fewer than {@code
+   * k} were offered, in ascending order for a selector created by {@link #least}, and descending
+   * order for one created by {@link #greatest}. This takes O(k log k) time.
+   */
+  public ImmutableDoubleArray topK() {
+    ImmutableLongArray keys = selector.topK();
+    ImmutableDoubleArray.Builder result = ImmutableDoubleArray.builder(keys.length());
+    for (int i = 0; i < keys.length(); i++) {
+      result.add(Double.longBitsToDouble(sortableBits(keys.get(i))));
+    }
+    return result.build();
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.GwtCompatible;
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * The fluent iterable returned by {@link FluentIterable#filter(Predicate)} and {@link
+ * FluentIterable#transform}, which applies a sequence of consecutive filters and transformations
+ * to the elements of a source iterable in a single loop, rather than through a wrapping iterable
+ * and iterator per stage. Its terminal operations, such as {@link FluentIterable#toList}, iterate
+ * internally over the source, through {@link #forEachWhile}, without any intermediate iterator.
+ */
+@GwtCompatible
+final class FusedIterable<E> extends FluentIterable<E> {
+
+  static <E> FusedIterable<E> filter(Iterable<E> iterable, Predicate<? super E> predicate) {
+    return append(iterable, predicate, true);
+  }
+
+  static <F, T> FusedIterable<T> transform(Iterable<F> iterable, Function<? super F, T> function) {
+    return append(iterable, function, false);
+  }
+
+  private static <E> FusedIterable<E> append(Iterable<?> iterable, Object stage, boolean filter) {
+    checkNotNull(iterable);
+    checkNotNull(stage);
+    if (iterable instanceof FusedIterable) {
+      FusedIterable<?> fused = (FusedIterable<?>) iterable;
+      int length = fused.stages.length;
+      Object[] stages = Arrays.copyOf(fused.stages, length + 1);
+      boolean[] filters = Arrays.copyOf(fused.filters, length + 1);
+      stages[length] = stage;
+      filters[length] = filter;
+      return new FusedIterable<E>(fused.source, stages, filters, fused.hasFilters || filter);
+    }
+    return new FusedIterable<E>(iterable, new Object[] {stage}, new boolean[] {filter}, filter);
+  }
+
+  /** Returned by {@link #apply} for an element that one of the filters rejects. */
+  private static final Object REJECTED = new Object();
+
+  private final Iterable<?> source;
+
+  /** Each is a {@link Predicate}, if the corresponding entry of {@link #filters} is true. */
+  private final Object[] stages;
+
+  private final boolean[] filters;
+  private final boolean hasFilters;
+
+  private FusedIterable(
+      Iterable<?> source, Object[] stages, boolean[] filters, boolean hasFilters) {
+    this.source = source;
+    this.stages = stages;
+    this.filters = filters;
+    this.hasFilters = hasFilters;
+  }
+
+  /** Passes {@code element} through each stage, returning the result or {@link #REJECTED}. */
+  @SuppressWarnings("unchecked") // the stages accept the outputs of the stages before them
+  private Object apply(Object element) {
+    for (int i = 0; i < stages.length; i++) {
+      if (filters[i]) {
+        if (!((Predicate<Object>) stages[i]).apply(element)) {
+          return REJECTED;
+        }
+      } else {
+        element = ((Function<Object, Object>) stages[i]).apply(element);
+      }
+    }
+    return element;
+  }
+
+  /**
+   * Passes the elements of this iterable, in order, to {@code sink}, for as long as it returns
+   * true. Returns whether it returned true for all of them.
+   */
+  @SuppressWarnings("unchecked") // apply returns either an E or REJECTED
+  boolean forEachWhile(Predicate<? super E> sink) {
+    if (source instanceof ImmutableList) {
+      // Immutable, so its elements can be read by index without checking for modifications.
+      ImmutableList<?> list = (ImmutableList<?>) source;
+      for (int i = 0; i < list.size(); i++) {
+        Object result = apply(list.get(i));
+        if (result != REJECTED && !sink.apply((E) result)) {
+          return false;
+        }
+      }
+    } else {
+      for (Object element : source) {
+        Object result = apply(element);
+        if (result != REJECTED && !sink.apply((E) result)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  int count() {
+    final int[] count = {0};
+    forEachWhile(
+        new Predicate<E>() {
+          @Override
+          public boolean apply(E element) {
+            count[0]++;
+            return true;
+          }
+        });
+    return count[0];
+  }
+
+  Optional<E> find(final Predicate<? super E> predicate) {
+    checkNotNull(predicate);
+    final Object[] match = {null};
+    boolean found =
+        !forEachWhile(
+            new Predicate<E>() {
+              @Override
+              public boolean apply(E element) {
+                if (predicate.apply(element)) {
+                  match[0] = element;
+                  return false;
+                }
+                return true;
+              }
+            });
+    @SuppressWarnings("unchecked") // only elements of type E are matched
+    E result = (E) match[0];
+    return found ? Optional.of(result) : Optional.<E>absent();
+  }
+
+  void addTo(final ImmutableCollection.Builder<? super E> builder) {
+    forEachWhile(
+        new Predicate<E>() {
+          @Override
+          public boolean apply(E element) {
+            builder.add(element);
+            return true;
+          }
+        });
+  }
+
+  void addTo(final Collection<? super E> collection) {
+    forEachWhile(
+        new Predicate<E>() {
+          @Override
+          public boolean apply(E element) {
+            collection.add(element);
+            return true;
+          }
+        });
+  }
+
+  @Override
+  @SuppressWarnings("unchecked") // apply returns either an E or REJECTED
+  public Iterator<E> iterator() {
+    final Iterator<?> iterator = source.iterator();
+    if (!hasFilters) {
+      // Supports remove(), as the iterator of Iterables.transform does.
+      return new TransformedIterator<Object, E>(iterator) {
+        @Override
+        E transform(Object from) {
+          return (E) apply(from);
+        }
+      };
+    }
+    return new AbstractIterator<E>() {
+      @Override
+      protected E computeNext() {
+        while (iterator.hasNext()) {
+          Object result = apply(iterator.next());
+          if (result != REJECTED) {
+            return (E) result;
+          }
+        }
+        return endOfData();
+      }
+    };
+  }
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.GwtIncompatible;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * The hash array mapped trie that holds the entries of a {@link PersistentHashMap} and the elements
+ * of a {@link PersistentHashSet}.
+ *
+ * <p>Each node of the trie is indexed by five bits of the smeared hash codes of the keys beneath
+ * it, starting from the lowest bits at the root. A node holds a bitmap of the indices in use, and
+ * an array of two slots for each of them, in order: a key and its value, or null and the node for
+ * the keys that share that index. Keys with equal hash codes are held together in a collision
+ * node. A node other than the root always holds at least two keys, so that removing a key from a
+ * node that holds only one other moves that key up into the parent node.
+ *
+ * <p>An update copies the nodes on the path to the key it changes, and shares all others. The
+ * update methods take an <i>owner</i>, which is null for a persistent update. A builder instead
+ * passes a token of its own, and updates in place the nodes it has already copied, which carry
+ * its token; when it builds a map or set it changes its token, so that the nodes it published are
+ * never modified again.
+ *
+ * <p>The fields of a node are not final, since a builder changes the nodes it owns in place. A map
+ * or set is nonetheless safe to publish through a data race: it holds its root node in a final
+ * field, and no node reachable from that root is modified once its constructor has returned, so
+ * that the guarantees of final fields extend to the whole trie. Code that shares a node in any
+ * other way must publish it safely.
+ */
+@GwtIncompatible
+final class HashTrie {
+  private HashTrie() {}
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  /** The greatest number of nodes on a path: seven bitmap nodes and a collision node. */
+  static final int MAX_DEPTH = 8;
+
+  static final Node EMPTY = new BitmapNode(null, 0, new Object[0]);
+
+  static int hash(Object key) {
+    return Hashing.smear(key.hashCode());
+  }
+
+  /** The effect of an update: whether it added or removed a key, and the value it replaced. */
+  static final class Change {
+    boolean added;
+    boolean removed;
+    @NullableDecl Object oldValue;
+  }
+
+  abstract static class Node {
+    @NullableDecl final Object owner;
+
+    /** Alternating keys and values, with a null key before each child node. */
+    Object[] array;
+
+    Node(@NullableDecl Object owner, Object[] array) {
+      this.owner = owner;
+      this.array = array;
+    }
+
+    final boolean isOwnedBy(@NullableDecl Object owner) {
+      return owner != null && this.owner == owner;
+    }
+
+    /** Returns the value of {@code key}, or null if it isn't in this node. */
+    @NullableDecl
+    abstract Object get(Object key, int hash, int shift);
+
+    /** Returns this node, or an updated copy of it, with {@code key} mapped to {@code value}. */
+    abstract Node with(
+        @NullableDecl Object owner, int shift, int hash, Object key, Object value, Change change);
+
+    /** Returns this node, or an updated copy of it, without {@code key}. */
+    abstract Node without(
+        @NullableDecl Object owner, int shift, int hash, Object key, Change change);
+
+    /** Whether this node holds exactly one key, which its parent then holds instead. */
+    abstract boolean isSingleEntry();
+  }
+
+  private static int index(int hash, int shift) {
+    return (hash >>> shift) & MASK;
+  }
+
+  /** Returns a node holding two different keys, beneath the given shift. */
+  private static Node pair(
+      @NullableDecl Object owner,
+      int shift,
+      Object key1,
+      Object value1,
+      int hash2,
+      Object key2,
+      Object value2) {
+    int hash1 = hash(key1);
+    if (hash1 == hash2) {
+      return new CollisionNode(owner, hash1, new Object[] {key1, value1, key2, value2});
+    }
+    int index1 = index(hash1, shift);
+    int index2 = index(hash2, shift);
+    if (index1 == index2) {
+      Node child = pair(owner, shift + BITS, key1, value1, hash2, key2, value2);
+      return new BitmapNode(owner, 1 << index1, new Object[] {null, child});
+    }
+    Object[] array =
+        (index1 < index2)
+            ? new Object[] {key1, value1, key2, value2}
+            : new Object[] {key2, value2, key1, value1};
+    return new BitmapNode(owner, (1 << index1) | (1 << index2), array);
+  }
+
+  private static Object[] insertPair(Object[] array, int i, Object key, Object value) {
+    Object[] result = new Object[array.length + 2];
+    System.arraycopy(array, 0, result, 0, i);
+    result[i] = key;
+    result[i + 1] = value;
+    System.arraycopy(array, i, result, i + 2, array.length - i);
+    return result;
+  }
+
+  private static Object[] removePair(Object[] array, int i) {
+    Object[] result = new Object[array.length - 2];
+    System.arraycopy(array, 0, result, 0, i);
+    System.arraycopy(array, i + 2, result, i, result.length - i);
+    return result;
+  }
+
+  static final class BitmapNode extends Node {
+    int bitmap;
+
+    BitmapNode(@NullableDecl Object owner, int bitmap, Object[] array) {
+      super(owner, array);
+      this.bitmap = bitmap;
+    }
+
+    /** Returns the position in the array of the slots of the given bit of the bitmap. */
+    private int slot(int bit) {
+      return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    private BitmapNode editableBy(@NullableDecl Object owner) {
+      return isOwnedBy(owner) ? this : new BitmapNode(owner, bitmap, array.clone());
+    }
+
+    @Override
+    @NullableDecl
+    Object get(Object key, int hash, int shift) {
+      int bit = 1 << index(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int i = slot(bit);
+      Object storedKey = array[i];
+      if (storedKey == null) {
+        return ((Node) array[i + 1]).get(key, hash, shift + BITS);
+      }
+      return key.equals(storedKey) ? array[i + 1] : null;
+    }
+
+    @Override
+    Node with(
+        @NullableDecl Object owner, int shift, int hash, Object key, Object value, Change change) {
+      int bit = 1 << index(hash, shift);
+      int i = slot(bit);
+      if ((bitmap & bit) == 0) {
+        change.added = true;
+        Object[] newArray = insertPair(array, i, key, value);
+        if (isOwnedBy(owner)) {
+          bitmap |= bit;
+          array = newArray;
+          return this;
+        }
+        return new BitmapNode(owner, bitmap | bit, newArray);
+      }
+      Object storedKey = array[i];
+      Object storedValue = array[i + 1];
+      BitmapNode result;
+      if (storedKey == null) {
+        Node child = (Node) storedValue;
+        Node newChild = child.with(owner, shift + BITS, hash, key, value, change);
+        if (newChild == child) {
+          return this;
+        }
+        result = editableBy(owner);
+        result.array[i + 1] = newChild;
+      } else if (key.equals(storedKey)) {
+        if (storedValue == value) {
+          return this;
+        }
+        change.oldValue = storedValue;
+        result = editableBy(owner);
+        result.array[i + 1] = value;
+      } else {
+        change.added = true;
+        Node child = pair(owner, shift + BITS, storedKey, storedValue, hash, key, value);
+        result = editableBy(owner);
+        result.array[i] = null;
+        result.array[i + 1] = child;
+      }
+      return result;
+    }
+
+    @Override
+    Node without(@NullableDecl Object owner, int shift, int hash, Object key, Change change) {
+      int bit = 1 << index(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = slot(bit);
+      Object storedKey = array[i];
+      if (storedKey == null) {
+        Node child = (Node) array[i + 1];
+        Node newChild = child.without(owner, shift + BITS, hash, key, change);
+        if (newChild == child) {
+          return this;
+        }
+        BitmapNode result = editableBy(owner);
+        if (newChild.isSingleEntry()) {
+          result.array[i] = newChild.array[0];
+          result.array[i + 1] = newChild.array[1];
+        } else {
+          result.array[i + 1] = newChild;
+        }
+        return result;
+      }
+      if (!key.equals(storedKey)) {
+        return this;
+      }
+      change.removed = true;
+      change.oldValue = array[i + 1];
+      Object[] newArray = removePair(array, i);
+      if (isOwnedBy(owner)) {
+        bitmap ^= bit;
+        array = newArray;
+        return this;
+      }
+      return new BitmapNode(owner, bitmap ^ bit, newArray);
+    }
+
+    @Override
+    boolean isSingleEntry() {
+      return array.length == 2 && array[0] != null;
+    }
+  }
+
+  static final class CollisionNode extends Node {
+    final int hash;
+
+    CollisionNode(@NullableDecl Object owner, int hash, Object[] array) {
+      super(owner, array);
+      this.hash = hash;
+    }
+
+    private int find(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    @NullableDecl
+    Object get(Object key, int hash, int shift) {
+      if (hash != this.hash) {
+        return null;
+      }
+      int i = find(key);
+      return (i < 0) ? null : array[i + 1];
+    }
+
+    @Override
+    Node with(
+        @NullableDecl Object owner, int shift, int hash, Object key, Object value, Change change) {
+      if (hash != this.hash) {
+        // Nest this node in a bitmap node at its level, and add the key to that node instead.
+        Node parent =
+            new BitmapNode(owner, 1 << index(this.hash, shift), new Object[] {null, this});
+        return parent.with(owner, shift, hash, key, value, change);
+      }
+      int i = find(key);
+      if (i >= 0) {
+        if (array[i + 1] == value) {
+          return this;
+        }
+        change.oldValue = array[i + 1];
+        CollisionNode result =
+            isOwnedBy(owner) ? this : new CollisionNode(owner, hash, array.clone());
+        result.array[i + 1] = value;
+        return result;
+      }
+      change.added = true;
+      Object[] newArray = insertPair(array, array.length, key, value);
+      if (isOwnedBy(owner)) {
+        array = newArray;
+        return this;
+      }
+      return new CollisionNode(owner, hash, newArray);
+    }
+
+    @Override
+    Node without(@NullableDecl Object owner, int shift, int hash, Object key, Change change) {
+      int i = (hash == this.hash) ? find(key) : -1;
+      if (i < 0) {
+        return this;
+      }
+      change.removed = true;
+      change.oldValue = array[i + 1];
+      Object[] newArray = removePair(array, i);
+      if (isOwnedBy(owner)) {
+        array = newArray;
+        return this;
+      }
+      return new CollisionNode(owner, hash, newArray);
+    }
+
+    @Override
+    boolean isSingleEntry() {
+      return array.length == 2;
+    }
+  }
+
+  /** An iterator over the keys and values of a trie, in the order of its nodes' arrays. */
+  abstract static class TrieIterator<T> extends AbstractIterator<T> {
+    private final Object[][] arrays = new Object[MAX_DEPTH][];
+    private final int[] positions = new int[MAX_DEPTH];
+    private int depth;
+
+    TrieIterator(Node root) {
+      arrays[0] = root.array;
+    }
+
+    /** Returns the element of the iteration for the given key and value. */
+    abstract T output(Object key, Object value);
+
+    @Override
+    protected T computeNext() {
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int i = positions[depth];
+        if (i == array.length) {
+          arrays[depth--] = null;
+          continue;
+        }
+        positions[depth] = i + 2;
+        if (array[i] != null) {
+          return output(array[i], array[i + 1]);
+        }
+        depth++;
+        arrays[depth] = ((Node) array[i + 1]).array;
+        positions[depth] = 0;
+      }
+      return endOfData();
+    }
+  }
+}
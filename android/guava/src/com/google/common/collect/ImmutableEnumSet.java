@@ -56,6 +56,11 @@ final class ImmutableEnumSet<E extends Enum<E>> extends ImmutableSet<E> {
     this.delegate = delegate;
   }
 
+  /** Returns the set backing this one, for bulk operations that don't modify it. */
+  EnumSet<E> delegate() {
+    return delegate;
+  }
+
   @Override
   boolean isPartialView() {
     return false;
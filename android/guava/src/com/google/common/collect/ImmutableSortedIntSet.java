@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.Ints;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * An immutable sorted set of {@code int} values, stored compressed. See {@link
+ * ImmutableSortedLongSet}, which this class wraps, for a description of the storage and the
+ * performance of its operations.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class ImmutableSortedIntSet implements Serializable {
+  private static final ImmutableSortedIntSet EMPTY =
+      new ImmutableSortedIntSet(ImmutableSortedLongSet.of());
+
+  /** Returns the empty set. */
+  public static ImmutableSortedIntSet of() {
+    return EMPTY;
+  }
+
+  /** Returns a set containing the given values, in sorted order, without duplicates. */
+  public static ImmutableSortedIntSet of(int... values) {
+    return copyOf(values);
+  }
+
+  /** Returns a set containing the given values, in sorted order, without duplicates. */
+  public static ImmutableSortedIntSet copyOf(int[] values) {
+    long[] longs = new long[values.length];
+    for (int i = 0; i < values.length; i++) {
+      longs[i] = values[i];
+    }
+    return wrap(ImmutableSortedLongSet.copyOf(longs));
+  }
+
+  /**
+   * Returns a set containing the given values, in sorted order, without duplicates.
+   *
+   * @throws NullPointerException if any of {@code values} is null
+   */
+  public static ImmutableSortedIntSet copyOf(Collection<Integer> values) {
+    if (values instanceof ContiguousSet) {
+      ContiguousSet<Integer> range = (ContiguousSet<Integer>) values;
+      return range.isEmpty() ? EMPTY : closed(range.first(), range.last());
+    }
+    return copyOf(Ints.toArray(values));
+  }
+
+  /**
+   * Returns a set containing every value from {@code lower} to {@code upper}, inclusive. The values
+   * themselves are not stored, but each block of 128 of them still takes about 13 bytes, for its
+   * first value, its bit width and the index of its offsets, so the set takes space proportional to
+   * {@code (upper - lower) / 128}.
+   *
+   * @throws IllegalArgumentException if {@code lower} is greater than {@code upper}, or if the
+   *     set would contain more than {@link Integer#MAX_VALUE} values
+   */
+  public static ImmutableSortedIntSet closed(int lower, int upper) {
+    return wrap(ImmutableSortedLongSet.closed(lower, upper));
+  }
+
+  /** Returns a new builder for an {@code ImmutableSortedIntSet}. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * A builder for {@link ImmutableSortedIntSet} instances, which accepts values in any order, and
+   * with duplicates.
+   */
+  public static final class Builder {
+    private final ImmutableSortedLongSet.Builder longs = ImmutableSortedLongSet.builder();
+
+    Builder() {}
+
+    /** Adds {@code value} to the set being built. */
+    @CanIgnoreReturnValue
+    public Builder add(int value) {
+      longs.add(value);
+      return this;
+    }
+
+    /** Adds each of {@code values} to the set being built. */
+    @CanIgnoreReturnValue
+    public Builder addAll(int... values) {
+      for (int value : values) {
+        longs.add(value);
+      }
+      return this;
+    }
+
+    /**
+     * Adds each of {@code values} to the set being built.
+     *
+     * @throws NullPointerException if any of {@code values} is null
+     */
+    @CanIgnoreReturnValue
+    public Builder addAll(Iterable<Integer> values) {
+      for (Integer value : values) {
+        longs.add(value);
+      }
+      return this;
+    }
+
+    /** Returns a new set containing the values added to this builder. */
+    public ImmutableSortedIntSet build() {
+      return wrap(longs.build());
+    }
+  }
+
+  private static ImmutableSortedIntSet wrap(ImmutableSortedLongSet longs) {
+    return longs.isEmpty() ? EMPTY : new ImmutableSortedIntSet(longs);
+  }
+
+  private final ImmutableSortedLongSet longs;
+
+  private ImmutableSortedIntSet(ImmutableSortedLongSet longs) {
+    this.longs = longs;
+  }
+
+  /** Returns the number of elements in this set. */
+  public int size() {
+    return longs.size();
+  }
+
+  /** Returns {@code true} if this set contains no element. */
+  public boolean isEmpty() {
+    return longs.isEmpty();
+  }
+
+  /**
+   * Returns the element at {@code index}, in ascending order.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or greater than or equal to
+   *     {@link #size}
+   */
+  public int get(int index) {
+    return (int) longs.get(index);
+  }
+
+  /**
+   * Returns the least element of this set.
+   *
+   * @throws NoSuchElementException if this set is empty
+   */
+  public int first() {
+    return (int) longs.first();
+  }
+
+  /**
+   * Returns the greatest element of this set.
+   *
+   * @throws NoSuchElementException if this set is empty
+   */
+  public int last() {
+    return (int) longs.last();
+  }
+
+  /** Returns {@code true} if {@code value} is an element of this set. */
+  public boolean contains(int value) {
+    return longs.contains(value);
+  }
+
+  /** Returns the index of {@code value} in this set, or {@code -1} if it is absent. */
+  public int indexOf(int value) {
+    return longs.indexOf(value);
+  }
+
+  /**
+   * Returns the index of the least element greater than or equal to {@code value}, or {@code -1}
+   * if there is none.
+   */
+  public int ceilingIndex(int value) {
+    return longs.ceilingIndex(value);
+  }
+
+  /**
+   * Returns the index of the least element strictly greater than {@code value}, or {@code -1} if
+   * there is none.
+   */
+  public int higherIndex(int value) {
+    return longs.higherIndex(value);
+  }
+
+  /**
+   * Returns the index of the greatest element less than or equal to {@code value}, or {@code -1}
+   * if there is none.
+   */
+  public int floorIndex(int value) {
+    return longs.floorIndex(value);
+  }
+
+  /**
+   * Returns the index of the greatest element strictly less than {@code value}, or {@code -1} if
+   * there is none.
+   */
+  public int lowerIndex(int value) {
+    return longs.lowerIndex(value);
+  }
+
+  /**
+   * Returns a view of the elements of this set that are greater than or equal to {@code
+   * fromInclusive}, and strictly less than {@code toExclusive}.
+   *
+   * <p><b>Performance note:</b> The returned set shares the storage of this one. To reduce memory
+   * usage, use {@code subSet(from, to).trimmed()}.
+   *
+   * @throws IllegalArgumentException if {@code fromInclusive} is greater than {@code toExclusive}
+   */
+  public ImmutableSortedIntSet subSet(int fromInclusive, int toExclusive) {
+    return view(longs.subSet(fromInclusive, toExclusive));
+  }
+
+  /** Returns a view of the elements of this set that are strictly less than {@code toExclusive}. */
+  public ImmutableSortedIntSet headSet(int toExclusive) {
+    return view(longs.headSet(toExclusive));
+  }
+
+  /**
+   * Returns a view of the elements of this set that are greater than or equal to {@code
+   * fromInclusive}.
+   */
+  public ImmutableSortedIntSet tailSet(int fromInclusive) {
+    return view(longs.tailSet(fromInclusive));
+  }
+
+  private ImmutableSortedIntSet view(ImmutableSortedLongSet view) {
+    return (view == longs) ? this : wrap(view);
+  }
+
+  /** Returns a set of the elements that are in this set, in {@code other}, or in both. */
+  public ImmutableSortedIntSet union(ImmutableSortedIntSet other) {
+    return view(longs.union(other.longs));
+  }
+
+  /** Returns a set of the elements that are in both this set and {@code other}. */
+  public ImmutableSortedIntSet intersection(ImmutableSortedIntSet other) {
+    return view(longs.intersection(other.longs));
+  }
+
+  /** Returns a set of the elements that are in this set, and not in {@code other}. */
+  public ImmutableSortedIntSet difference(ImmutableSortedIntSet other) {
+    return view(longs.difference(other.longs));
+  }
+
+  /** Returns a new, mutable array of the elements of this set, in ascending order. */
+  public int[] toArray() {
+    int[] result = new int[size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (int) longs.get(i);
+    }
+    return result;
+  }
+
+  /**
+   * Returns an {@link ImmutableSortedSet} of the elements of this set, ordered by their natural
+   * ordering. If the elements are consecutive, the returned set is a {@link ContiguousSet};
+   * otherwise, it is a view of this set that shares its storage, and boxes elements on demand.
+   */
+  public ImmutableSortedSet<Integer> asImmutableSortedSet() {
+    if (isEmpty()) {
+      return ImmutableSortedSet.of();
+    }
+    int first = first();
+    int last = last();
+    if ((long) last - first == size() - 1) {
+      return ContiguousSet.closed(first, last);
+    }
+    return new RegularImmutableSortedSet<Integer>(new AsList(this), Ordering.<Integer>natural());
+  }
+
+  /** A view of the elements of an {@code ImmutableSortedIntSet}, in ascending order. */
+  private static final class AsList extends ImmutableList<Integer> {
+    private final ImmutableSortedIntSet set;
+
+    AsList(ImmutableSortedIntSet set) {
+      this.set = set;
+    }
+
+    @Override
+    public Integer get(int index) {
+      return set.get(index);
+    }
+
+    @Override
+    public int size() {
+      return set.size();
+    }
+
+    @Override
+    public boolean contains(@NullableDecl Object object) {
+      return indexOf(object) != -1;
+    }
+
+    @Override
+    public int indexOf(@NullableDecl Object object) {
+      return (object instanceof Integer) ? set.indexOf((Integer) object) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(@NullableDecl Object object) {
+      return indexOf(object);
+    }
+
+    @Override
+    boolean isPartialView() {
+      return set.longs.isPartialView();
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is an {@code ImmutableSortedIntSet} containing the same
+   * elements as this one.
+   */
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    return object instanceof ImmutableSortedIntSet
+        && longs.equals(((ImmutableSortedIntSet) object).longs);
+  }
+
+  /**
+   * Returns the hash code of this set, which is the same as that of a {@code Set<Integer>}
+   * containing the same elements.
+   */
+  @Override
+  public int hashCode() {
+    // Integer.hashCode(i) == Long.hashCode(i) for every int i >= 0, but not for negative ones
+    int hash = 0;
+    for (int i = 0; i < size(); i++) {
+      hash += (int) longs.get(i);
+    }
+    return hash;
+  }
+
+  /** Returns a string representation of this set, for example {@code "[1, 2, 3]"}. */
+  @Override
+  public String toString() {
+    return longs.toString();
+  }
+
+  /**
+   * Returns a set containing the same elements as this one, which is a copy if this set is a view
+   * of a larger set, so that the storage of that larger set may be reclaimed.
+   */
+  public ImmutableSortedIntSet trimmed() {
+    return view(longs.trimmed());
+  }
+
+  Object readResolve() {
+    return isEmpty() ? EMPTY : this;
+  }
+
+  private static final long serialVersionUID = 0;
+}
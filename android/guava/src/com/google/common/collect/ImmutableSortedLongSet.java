@@ -0,0 +1,698 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.Longs;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * An immutable sorted set of {@code long} values, stored compressed. Compared to an {@link
+ * ImmutableSortedSet}{@code <Long>}, which holds a reference to a boxed {@code Long} per element,
+ * or about 24 bytes, this class stores each element in as few bits as the gaps between elements
+ * allow: a set of ten million identifiers drawn from a range of a hundred million takes about 1.5
+ * bytes per element, and a run of consecutive values about a tenth of a byte per element.
+ *
+ * <p>The elements are divided into blocks of 128 consecutive elements. Each block stores its first
+ * element, and the offsets of its elements from that first one, bit-packed with the width of its
+ * largest offset; a block of consecutive values needs no offsets at all. Any element can therefore
+ * be decoded in constant time, and {@link #contains}, {@link #indexOf} and the navigation methods,
+ * such as {@link #ceilingIndex}, perform a binary search among the first elements of the blocks,
+ * followed by one within a block, in {@code O(log n)} time and without allocation.
+ *
+ * <p>The navigation methods return indexes, which {@link #get} turns into elements, since there is
+ * no {@code long} to return when no element matches. For example, the elements in {@code [from,
+ * to)} may be traversed with:
+ *
+ * <pre>{@code
+ * ImmutableSortedLongSet range = ids.subSet(from, to);
+ * for (int i = 0; i < range.size(); i++) {
+ *   process(range.get(i));
+ * }
+ * }</pre>
+ *
+ * <p>{@link #subSet}, {@link #headSet} and {@link #tailSet} return views that share the storage of
+ * this set, {@link #union}, {@link #intersection} and {@link #difference} build new sets in linear
+ * time, and {@link #asImmutableSortedSet} adapts this set to the {@link ImmutableSortedSet} API,
+ * boxing elements on demand.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class ImmutableSortedLongSet implements Serializable {
+  private static final int BLOCK_SHIFT = 7;
+  private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+  private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+  /**
+   * The cost of looking up an element, relative to stepping a merge past one element: a lookup
+   * decodes up to {@code BLOCK_SHIFT} elements in its block, after searching the block bases.
+   */
+  private static final int PROBE_COST = 8;
+
+  /** The width of a block of consecutive values, whose offsets are their indexes in the block. */
+  private static final byte CONSECUTIVE = -1;
+
+  private static final ImmutableSortedLongSet EMPTY =
+      new ImmutableSortedLongSet(new long[0], new byte[0], new int[0], new long[0], 0, 0);
+
+  /** Returns the empty set. */
+  public static ImmutableSortedLongSet of() {
+    return EMPTY;
+  }
+
+  /** Returns a set containing the given values, in sorted order, without duplicates. */
+  public static ImmutableSortedLongSet of(long... values) {
+    return copyOf(values);
+  }
+
+  /** Returns a set containing the given values, in sorted order, without duplicates. */
+  public static ImmutableSortedLongSet copyOf(long[] values) {
+    return fromSortedArray(Arrays.copyOf(values, values.length), values.length);
+  }
+
+  /**
+   * Returns a set containing the given values, in sorted order, without duplicates.
+   *
+   * @throws NullPointerException if any of {@code values} is null
+   */
+  public static ImmutableSortedLongSet copyOf(Collection<Long> values) {
+    if (values instanceof ContiguousSet) {
+      ContiguousSet<Long> range = (ContiguousSet<Long>) values;
+      return range.isEmpty() ? EMPTY : closed(range.first(), range.last());
+    }
+    long[] array = Longs.toArray(values);
+    return fromSortedArray(array, array.length);
+  }
+
+  /**
+   * Returns a set containing every value from {@code lower} to {@code upper}, inclusive. The values
+   * themselves are not stored, but each block of 128 of them still takes about 13 bytes, for its
+   * first value, its bit width and the index of its offsets, so the set takes space proportional to
+   * {@code (upper - lower) / 128}.
+   *
+   * @throws IllegalArgumentException if {@code lower} is greater than {@code upper}, or if the
+   *     set would contain more than {@link Integer#MAX_VALUE} values
+   */
+  public static ImmutableSortedLongSet closed(long lower, long upper) {
+    checkArgument(lower <= upper, "lower (%s) > upper (%s)", lower, upper);
+    long span = upper - lower; // negative if it overflows
+    checkArgument(
+        span >= 0 && span < Integer.MAX_VALUE, "too many values in [%s, %s]", lower, upper);
+    int size = (int) span + 1;
+    int blocks = (size + BLOCK_MASK) >>> BLOCK_SHIFT;
+    long[] bases = new long[blocks];
+    for (int b = 0; b < blocks; b++) {
+      bases[b] = lower + ((long) b << BLOCK_SHIFT);
+    }
+    byte[] widths = new byte[blocks];
+    Arrays.fill(widths, CONSECUTIVE);
+    return new ImmutableSortedLongSet(bases, widths, new int[blocks], new long[0], 0, size);
+  }
+
+  /** Returns a new builder for an {@code ImmutableSortedLongSet}. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * A builder for {@link ImmutableSortedLongSet} instances, which accepts values in any order, and
+   * with duplicates.
+   */
+  public static final class Builder {
+    private long[] values = new long[16];
+    private int count;
+
+    Builder() {}
+
+    /** Adds {@code value} to the set being built. */
+    @CanIgnoreReturnValue
+    public Builder add(long value) {
+      if (count == values.length) {
+        values =
+            Arrays.copyOf(values, ImmutableCollection.Builder.expandedCapacity(count, count + 1));
+      }
+      values[count++] = value;
+      return this;
+    }
+
+    /** Adds each of {@code values} to the set being built. */
+    @CanIgnoreReturnValue
+    public Builder addAll(long... values) {
+      int newCount = count + values.length;
+      if (newCount > this.values.length) {
+        this.values =
+            Arrays.copyOf(
+                this.values, ImmutableCollection.Builder.expandedCapacity(count, newCount));
+      }
+      System.arraycopy(values, 0, this.values, count, values.length);
+      count = newCount;
+      return this;
+    }
+
+    /**
+     * Adds each of {@code values} to the set being built.
+     *
+     * @throws NullPointerException if any of {@code values} is null
+     */
+    @CanIgnoreReturnValue
+    public Builder addAll(Iterable<Long> values) {
+      for (Long value : values) {
+        add(value);
+      }
+      return this;
+    }
+
+    /** Returns a new set containing the values added to this builder. */
+    public ImmutableSortedLongSet build() {
+      return fromSortedArray(Arrays.copyOf(values, count), count);
+    }
+  }
+
+  /**
+   * Returns a set of the first {@code length} values of {@code values}, which this method may sort
+   * and modify.
+   */
+  private static ImmutableSortedLongSet fromSortedArray(long[] values, int length) {
+    Arrays.sort(values, 0, length);
+    int size = 0;
+    for (int i = 0; i < length; i++) {
+      if (size == 0 || values[i] != values[size - 1]) {
+        values[size++] = values[i];
+      }
+    }
+    return fromSortedDistinct(values, size);
+  }
+
+  /** Returns a set of the first {@code size} values of {@code values}, sorted and distinct. */
+  private static ImmutableSortedLongSet fromSortedDistinct(long[] values, int size) {
+    if (size == 0) {
+      return EMPTY;
+    }
+    int blocks = (size + BLOCK_MASK) >>> BLOCK_SHIFT;
+    long[] bases = new long[blocks];
+    byte[] widths = new byte[blocks];
+    int[] wordOffsets = new int[blocks];
+    long totalWords = 0;
+    for (int b = 0; b < blocks; b++) {
+      int from = b << BLOCK_SHIFT;
+      int to = Math.min(size, from + BLOCK_SIZE);
+      bases[b] = values[from];
+      // the span is unsigned, as it may exceed Long.MAX_VALUE
+      long span = values[to - 1] - values[from];
+      if (span == to - from - 1) {
+        widths[b] = CONSECUTIVE;
+      } else {
+        widths[b] = (byte) (Long.SIZE - Long.numberOfLeadingZeros(span));
+      }
+      wordOffsets[b] = (int) totalWords;
+      totalWords += wordsFor(widths[b], to - from);
+      checkArgument(totalWords <= Integer.MAX_VALUE, "too many values");
+    }
+    long[] words = new long[(int) totalWords];
+    for (int b = 0; b < blocks; b++) {
+      int width = widths[b];
+      if (width == CONSECUTIVE) {
+        continue;
+      }
+      int from = b << BLOCK_SHIFT;
+      int to = Math.min(size, from + BLOCK_SIZE);
+      int word = wordOffsets[b];
+      int bit = 0;
+      for (int i = from; i < to; i++) {
+        long offset = values[i] - bases[b];
+        words[word + (bit >>> 6)] |= offset << bit;
+        int shift = bit & 63;
+        if (shift + width > Long.SIZE) {
+          words[word + (bit >>> 6) + 1] |= offset >>> (Long.SIZE - shift);
+        }
+        bit += width;
+      }
+    }
+    return new ImmutableSortedLongSet(bases, widths, wordOffsets, words, 0, size);
+  }
+
+  private static int wordsFor(int width, int count) {
+    return (width == CONSECUTIVE) ? 0 : (count * width + Long.SIZE - 1) >>> 6;
+  }
+
+  private final long[] bases;
+  private final byte[] widths;
+  private final int[] wordOffsets;
+  private final long[] words;
+  // The elements of this set are those of the indexes [start, end) in the arrays above.
+  private final int start;
+  private final int end;
+
+  private ImmutableSortedLongSet(
+      long[] bases, byte[] widths, int[] wordOffsets, long[] words, int start, int end) {
+    this.bases = bases;
+    this.widths = widths;
+    this.wordOffsets = wordOffsets;
+    this.words = words;
+    this.start = start;
+    this.end = end;
+  }
+
+  /** Returns the element at {@code index} in the backing storage, which may be out of range. */
+  private long decode(int index) {
+    int block = index >>> BLOCK_SHIFT;
+    int indexInBlock = index & BLOCK_MASK;
+    int width = widths[block];
+    if (width == CONSECUTIVE) {
+      return bases[block] + indexInBlock;
+    } else if (width == 0) {
+      return bases[block];
+    }
+    int bit = indexInBlock * width;
+    int word = wordOffsets[block] + (bit >>> 6);
+    int shift = bit & 63;
+    long offset = words[word] >>> shift;
+    if (shift + width > Long.SIZE) {
+      offset |= words[word + 1] << (Long.SIZE - shift);
+    }
+    if (width < Long.SIZE) {
+      offset &= (1L << width) - 1;
+    }
+    return bases[block] + offset;
+  }
+
+  /**
+   * Returns the index in the backing storage of the least element of this set that is greater
+   * than or equal to {@code value}, or {@code end} if there is none.
+   */
+  private int lowerBound(long value) {
+    if (start == end) {
+      return end;
+    }
+    int firstBlock = start >>> BLOCK_SHIFT;
+    int lastBlock = (end - 1) >>> BLOCK_SHIFT;
+    int block = Arrays.binarySearch(bases, firstBlock, lastBlock + 1, value);
+    if (block >= 0) {
+      // blocks before the one containing start are never searched, so this is at least start
+      return Math.max(start, block << BLOCK_SHIFT);
+    }
+    int insertion = -block - 1;
+    if (insertion == firstBlock) {
+      return start;
+    }
+    // bases[insertion - 1] < value, so the result is in that block, or is the next block's base
+    int low = Math.max(start, ((insertion - 1) << BLOCK_SHIFT) + 1);
+    int high = Math.min(end, insertion << BLOCK_SHIFT);
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (decode(mid) < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** Returns the number of elements in this set. */
+  public int size() {
+    return end - start;
+  }
+
+  /** Returns {@code true} if this set contains no element. */
+  public boolean isEmpty() {
+    return end == start;
+  }
+
+  /**
+   * Returns the element at {@code index}, in ascending order.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or greater than or equal to
+   *     {@link #size}
+   */
+  public long get(int index) {
+    checkElementIndex(index, size());
+    return decode(start + index);
+  }
+
+  /**
+   * Returns the least element of this set.
+   *
+   * @throws NoSuchElementException if this set is empty
+   */
+  public long first() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return decode(start);
+  }
+
+  /**
+   * Returns the greatest element of this set.
+   *
+   * @throws NoSuchElementException if this set is empty
+   */
+  public long last() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return decode(end - 1);
+  }
+
+  /** Returns {@code true} if {@code value} is an element of this set. */
+  public boolean contains(long value) {
+    return indexOf(value) != -1;
+  }
+
+  /** Returns the index of {@code value} in this set, or {@code -1} if it is absent. */
+  public int indexOf(long value) {
+    int index = lowerBound(value);
+    return (index < end && decode(index) == value) ? index - start : -1;
+  }
+
+  /**
+   * Returns the index of the least element greater than or equal to {@code value}, or {@code -1}
+   * if there is none.
+   */
+  public int ceilingIndex(long value) {
+    int index = lowerBound(value);
+    return (index < end) ? index - start : -1;
+  }
+
+  /**
+   * Returns the index of the least element strictly greater than {@code value}, or {@code -1} if
+   * there is none.
+   */
+  public int higherIndex(long value) {
+    return (value == Long.MAX_VALUE) ? -1 : ceilingIndex(value + 1);
+  }
+
+  /**
+   * Returns the index of the greatest element less than or equal to {@code value}, or {@code -1}
+   * if there is none.
+   */
+  public int floorIndex(long value) {
+    int index = lowerBound(value);
+    if (index < end && decode(index) == value) {
+      return index - start;
+    }
+    return index - 1 - start;
+  }
+
+  /**
+   * Returns the index of the greatest element strictly less than {@code value}, or {@code -1} if
+   * there is none.
+   */
+  public int lowerIndex(long value) {
+    return lowerBound(value) - 1 - start;
+  }
+
+  /**
+   * Returns a view of the elements of this set that are greater than or equal to {@code
+   * fromInclusive}, and strictly less than {@code toExclusive}.
+   *
+   * <p><b>Performance note:</b> The returned set shares the storage of this one. To reduce memory
+   * usage, use {@code subSet(from, to).trimmed()}.
+   *
+   * @throws IllegalArgumentException if {@code fromInclusive} is greater than {@code toExclusive}
+   */
+  public ImmutableSortedLongSet subSet(long fromInclusive, long toExclusive) {
+    checkArgument(
+        fromInclusive <= toExclusive,
+        "fromInclusive (%s) > toExclusive (%s)",
+        fromInclusive,
+        toExclusive);
+    return view(lowerBound(fromInclusive), lowerBound(toExclusive));
+  }
+
+  /** Returns a view of the elements of this set that are strictly less than {@code toExclusive}. */
+  public ImmutableSortedLongSet headSet(long toExclusive) {
+    return view(start, lowerBound(toExclusive));
+  }
+
+  /**
+   * Returns a view of the elements of this set that are greater than or equal to {@code
+   * fromInclusive}.
+   */
+  public ImmutableSortedLongSet tailSet(long fromInclusive) {
+    return view(lowerBound(fromInclusive), end);
+  }
+
+  private ImmutableSortedLongSet view(int newStart, int newEnd) {
+    if (newStart == start && newEnd == end) {
+      return this;
+    } else if (newStart == newEnd) {
+      return EMPTY;
+    }
+    return new ImmutableSortedLongSet(bases, widths, wordOffsets, words, newStart, newEnd);
+  }
+
+  /** Returns a set of the elements that are in this set, in {@code other}, or in both. */
+  public ImmutableSortedLongSet union(ImmutableSortedLongSet other) {
+    if (other.isEmpty()) {
+      return this;
+    } else if (isEmpty()) {
+      return other;
+    }
+    long[] result = new long[size() + other.size()];
+    int size = 0;
+    int i = start;
+    int j = other.start;
+    while (i < end && j < other.end) {
+      long a = decode(i);
+      long b = other.decode(j);
+      if (a <= b) {
+        result[size++] = a;
+        i++;
+        if (a == b) {
+          j++;
+        }
+      } else {
+        result[size++] = b;
+        j++;
+      }
+    }
+    while (i < end) {
+      result[size++] = decode(i++);
+    }
+    while (j < other.end) {
+      result[size++] = other.decode(j++);
+    }
+    return fromSortedDistinct(result, size);
+  }
+
+  /** Returns a set of the elements that are in both this set and {@code other}. */
+  public ImmutableSortedLongSet intersection(ImmutableSortedLongSet other) {
+    ImmutableSortedLongSet smaller = (size() <= other.size()) ? this : other;
+    ImmutableSortedLongSet larger = (smaller == this) ? other : this;
+    long[] result = new long[smaller.size()];
+    int size = 0;
+    if ((long) smaller.size() * PROBE_COST < larger.size()) {
+      // probing the larger set is cheaper than traversing it
+      for (int i = smaller.start; i < smaller.end; i++) {
+        long value = smaller.decode(i);
+        if (larger.contains(value)) {
+          result[size++] = value;
+        }
+      }
+    } else {
+      int i = smaller.start;
+      int j = larger.start;
+      while (i < smaller.end && j < larger.end) {
+        long a = smaller.decode(i);
+        long b = larger.decode(j);
+        if (a < b) {
+          i++;
+        } else if (a > b) {
+          j++;
+        } else {
+          result[size++] = a;
+          i++;
+          j++;
+        }
+      }
+    }
+    return fromSortedDistinct(result, size);
+  }
+
+  /** Returns a set of the elements that are in this set, and not in {@code other}. */
+  public ImmutableSortedLongSet difference(ImmutableSortedLongSet other) {
+    if (isEmpty() || other.isEmpty()) {
+      return this;
+    }
+    long[] result = new long[size()];
+    int size = 0;
+    int j = other.start;
+    for (int i = start; i < end; i++) {
+      long value = decode(i);
+      while (j < other.end && other.decode(j) < value) {
+        j++;
+      }
+      if (j == other.end || other.decode(j) != value) {
+        result[size++] = value;
+      }
+    }
+    return (size == size()) ? this : fromSortedDistinct(result, size);
+  }
+
+  /** Returns a new, mutable array of the elements of this set, in ascending order. */
+  public long[] toArray() {
+    long[] result = new long[size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = decode(start + i);
+    }
+    return result;
+  }
+
+  /**
+   * Returns an {@link ImmutableSortedSet} of the elements of this set, ordered by their natural
+   * ordering. If the elements are consecutive, the returned set is a {@link ContiguousSet};
+   * otherwise, it is a view of this set that shares its storage, and boxes elements on demand.
+   */
+  public ImmutableSortedSet<Long> asImmutableSortedSet() {
+    if (isEmpty()) {
+      return ImmutableSortedSet.of();
+    }
+    long first = first();
+    long last = last();
+    if (last - first == size() - 1) {
+      return ContiguousSet.closed(first, last);
+    }
+    return new RegularImmutableSortedSet<Long>(new AsList(this), Ordering.<Long>natural());
+  }
+
+  /** A view of the elements of an {@code ImmutableSortedLongSet}, in ascending order. */
+  private static final class AsList extends ImmutableList<Long> {
+    private final ImmutableSortedLongSet set;
+
+    AsList(ImmutableSortedLongSet set) {
+      this.set = set;
+    }
+
+    @Override
+    public Long get(int index) {
+      return set.get(index);
+    }
+
+    @Override
+    public int size() {
+      return set.size();
+    }
+
+    @Override
+    public boolean contains(@NullableDecl Object object) {
+      return indexOf(object) != -1;
+    }
+
+    @Override
+    public int indexOf(@NullableDecl Object object) {
+      return (object instanceof Long) ? set.indexOf((Long) object) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(@NullableDecl Object object) {
+      return indexOf(object);
+    }
+
+    @Override
+    boolean isPartialView() {
+      return set.isPartialView();
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is an {@code ImmutableSortedLongSet} containing the
+   * same elements as this one.
+   */
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (!(object instanceof ImmutableSortedLongSet)) {
+      return false;
+    }
+    ImmutableSortedLongSet that = (ImmutableSortedLongSet) object;
+    if (this.size() != that.size()) {
+      return false;
+    }
+    for (int i = 0; i < size(); i++) {
+      if (this.decode(start + i) != that.decode(that.start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the hash code of this set, which is the same as that of a {@code Set<Long>} containing
+   * the same elements.
+   */
+  @Override
+  public int hashCode() {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash += Longs.hashCode(decode(i));
+    }
+    return hash;
+  }
+
+  /** Returns a string representation of this set, for example {@code "[1, 2, 3]"}. */
+  @Override
+  public String toString() {
+    if (isEmpty()) {
+      return "[]";
+    }
+    StringBuilder builder = new StringBuilder(size() * 5); // rough estimate is fine
+    builder.append('[').append(decode(start));
+    for (int i = start + 1; i < end; i++) {
+      builder.append(", ").append(decode(i));
+    }
+    return builder.append(']').toString();
+  }
+
+  /**
+   * Returns a set containing the same elements as this one, which is a copy if this set is a view
+   * of a larger set, so that the storage of that larger set may be reclaimed.
+   */
+  public ImmutableSortedLongSet trimmed() {
+    return isPartialView() ? fromSortedDistinct(toArray(), size()) : this;
+  }
+
+  boolean isPartialView() {
+    // elements past the end of this view, but within its last block, aren't worth a copy
+    return start > 0 || (end > 0 && ((end - 1) >>> BLOCK_SHIFT) < bases.length - 1);
+  }
+
+  Object writeReplace() {
+    return trimmed();
+  }
+
+  Object readResolve() {
+    return isEmpty() ? EMPTY : this;
+  }
+
+  private static final long serialVersionUID = 0;
+}
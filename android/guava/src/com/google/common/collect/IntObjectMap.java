@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A hash map from {@code int} keys to non-null values, which stores its keys unboxed. Compared to
+ * a {@code HashMap<Integer, V>}, it allocates no {@code Integer} and no entry object per mapping:
+ * the keys and values live in two parallel arrays, indexed by a compact hash table, which makes
+ * each mapping cost roughly 16 bytes plus the value itself.
+ *
+ * <p>{@code containsKey}, {@code get}, {@code put} and {@code remove} are all (expected and
+ * amortized) constant time operations. The entries occupy the indices {@code [0, size())}, which
+ * {@link #keyAt} and {@link #valueAt} give access to, so the map can be iterated without
+ * allocation. If there are no removals, that order is insertion order; {@link #remove} moves the
+ * last entry into the removed entry's index.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class IntObjectMap<V> extends CompactPrimitiveTable {
+  /** Creates an empty {@code IntObjectMap}. */
+  public static <V> IntObjectMap<V> create() {
+    return new IntObjectMap<V>(DEFAULT_SIZE);
+  }
+
+  /**
+   * Creates an empty {@code IntObjectMap} that can hold {@code expectedSize} entries without
+   * growth.
+   *
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static <V> IntObjectMap<V> createWithExpectedSize(int expectedSize) {
+    return new IntObjectMap<V>(expectedSize);
+  }
+
+  private transient int[] keys;
+  private transient Object[] values;
+
+  private IntObjectMap(int expectedSize) {
+    super(expectedSize);
+    this.keys = new int[expectedSize];
+    this.values = new Object[expectedSize];
+  }
+
+  @Override
+  int hashOf(int index) {
+    return hash(keys[index]);
+  }
+
+  @Override
+  void resizeEntries(int newCapacity) {
+    keys = Arrays.copyOf(keys, newCapacity);
+    values = Arrays.copyOf(values, newCapacity);
+  }
+
+  @Override
+  void moveEntry(int srcIndex, int dstIndex) {
+    keys[dstIndex] = keys[srcIndex];
+    values[dstIndex] = values[srcIndex];
+    values[srcIndex] = null;
+  }
+
+  @Override
+  void clearEntry(int index) {
+    values[index] = null;
+  }
+
+  private int indexOf(int key, int hash) {
+    int index = firstInBucket(hash);
+    while (index != UNSET && keys[index] != key) {
+      index = next[index];
+    }
+    return index;
+  }
+
+  /** Returns {@code true} if this map contains a mapping for {@code key}. */
+  public boolean containsKey(int key) {
+    return indexOf(key, hash(key)) != UNSET;
+  }
+
+  /** Returns the value mapped to {@code key}, or {@code null} if there is none. */
+  @NullableDecl
+  public V get(int key) {
+    int index = indexOf(key, hash(key));
+    return (index == UNSET) ? null : value(index);
+  }
+
+  /** Returns the value mapped to {@code key}, or {@code defaultValue} if there is none. */
+  public V getOrDefault(int key, @NullableDecl V defaultValue) {
+    V value = get(key);
+    return (value == null) ? defaultValue : value;
+  }
+
+  /**
+   * Maps {@code key} to {@code value}, and returns the value previously mapped to {@code key}, or
+   * {@code null} if there was none.
+   */
+  @CanIgnoreReturnValue
+  @NullableDecl
+  public V put(int key, V value) {
+    checkNotNull(value);
+    int hash = hash(key);
+    int index = indexOf(key, hash);
+    if (index != UNSET) {
+      V oldValue = value(index);
+      values[index] = value;
+      return oldValue;
+    }
+    index = appendEntry(hash);
+    keys[index] = key;
+    values[index] = value;
+    return null;
+  }
+
+  /**
+   * Removes the mapping for {@code key}, and returns the value it was mapped to, or {@code null}
+   * if there was none. The last entry is moved into the removed entry's index, which changes the
+   * iteration order.
+   */
+  @CanIgnoreReturnValue
+  @NullableDecl
+  public V remove(int key) {
+    int hash = hash(key);
+    int index = indexOf(key, hash);
+    if (index == UNSET) {
+      return null;
+    }
+    V oldValue = value(index);
+    removeEntry(index, hash);
+    return oldValue;
+  }
+
+  /**
+   * Returns the key of the entry at {@code index}.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size}
+   */
+  public int keyAt(int index) {
+    checkElementIndex(index, size);
+    return keys[index];
+  }
+
+  /**
+   * Returns the value of the entry at {@code index}.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size}
+   */
+  public V valueAt(int index) {
+    checkElementIndex(index, size);
+    return value(index);
+  }
+
+  @SuppressWarnings("unchecked") // values only contains Vs
+  private V value(int index) {
+    return (V) values[index];
+  }
+
+  /** Returns the number of mappings in this map. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns {@code true} if this map contains no mappings. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes all mappings from this map. Its capacity is retained; see {@link #trimToSize}. */
+  public void clear() {
+    clearTable();
+  }
+
+  /**
+   * Shrinks the capacity of this map to the minimum that holds its current mappings,
+   * minimizing the memory footprint of a map that is done growing.
+   */
+  public void trimToSize() {
+    trimTable();
+  }
+
+  /** Returns a new array containing the keys of this map, in index order. */
+  public int[] keys() {
+    return Arrays.copyOf(keys, size);
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is an {@code IntObjectMap} with the same mappings as
+   * this map.
+   */
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (!(object instanceof IntObjectMap)) {
+      return false;
+    }
+    IntObjectMap<?> that = (IntObjectMap<?>) object;
+    if (this.size != that.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (!values[i].equals(that.get(keys[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the same hash code as a {@code Map<Integer, V>} with the same mappings. */
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int i = 0; i < size; i++) {
+      hashCode += keys[i] ^ values[i].hashCode();
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(size * 8).append('{');
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(keys[i]).append('=').append(values[i]);
+    }
+    return builder.append('}').toString();
+  }
+}
@@ -14,7 +14,9 @@
 
 package com.google.common.collect;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.GwtIncompatible;
@@ -23,6 +25,8 @@ import com.google.common.base.Equivalence;
 import com.google.common.base.Function;
 import com.google.common.collect.MapMaker.Dummy;
 import com.google.common.collect.MapMakerInternalMap.InternalEntry;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 
 /**
  * Contains static methods pertaining to instances of {@link Interner}.
@@ -43,6 +47,10 @@ public final class Interners {
   public static class InternerBuilder {
     private final MapMaker mapMaker = new MapMaker();
     private boolean strong = true;
+    private int maximumSize = UNSET_INT;
+    private boolean recordStats;
+
+    private static final int UNSET_INT = -1;
 
     private InternerBuilder() {}
 
@@ -77,11 +85,64 @@ public final class Interners {
       return this;
     }
 
+    /**
+     * Instructs the {@link InternerBuilder} to build a bounded interner, which holds strong
+     * references to at most {@code maximumSize} instances, and which never blocks.
+     *
+     * <p>A bounded interner behaves like a cache of canonical instances: when it is full, interning
+     * a new value discards one of the instances it holds, so that a later call to {@link
+     * Interner#intern} with a value equal to the discarded instance returns a different instance.
+     * Likewise, concurrent calls with equal samples that the interner does not hold yet may return
+     * different instances. A bounded interner is therefore suited to reducing the memory used by
+     * many equal values, such as the strings produced while parsing a large input, but not to
+     * replacing {@code equals} with {@code ==}.
+     *
+     * <p>The instances are kept in a fixed array, in small sets of slots selected by the hash code of
+     * each value, and are inserted and replaced with atomic compare-and-set operations, so that
+     * concurrent callers neither lock nor allocate. Because of this layout, the interner may discard
+     * an instance even before it holds {@code maximumSize} of them. The {@linkplain
+     * #concurrencyLevel concurrency level} has no effect on a bounded interner.
+     *
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive
+     * @throws IllegalStateException if a maximum size was already set
+     * @since NEXT
+     */
+    public InternerBuilder maximumSize(int maximumSize) {
+      checkState(
+          this.maximumSize == UNSET_INT, "maximum size was already set to %s", this.maximumSize);
+      checkArgument(maximumSize > 0, "maximum size must be positive but was %s", maximumSize);
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Instructs the {@link InternerBuilder} to build an interner that counts its hits, misses and
+     * evictions, which {@link Interners#stats} then reports. Recording statistics costs a little
+     * time on each call to {@link Interner#intern}, though the counters are striped, so that
+     * concurrent callers seldom contend on them.
+     *
+     * @since NEXT
+     */
+    public InternerBuilder recordStats() {
+      this.recordStats = true;
+      return this;
+    }
+
+    /**
+     * Builds an interner with the options of this builder.
+     *
+     * @throws IllegalStateException if both {@link #weak} and {@link #maximumSize} were requested
+     */
     public <E> Interner<E> build() {
+      StatsCounter statsCounter = recordStats ? new StatsCounter() : null;
+      if (maximumSize != UNSET_INT) {
+        checkState(strong, "a bounded interner cannot be weak");
+        return new BoundedInterner<E>(maximumSize, statsCounter);
+      }
       if (!strong) {
         mapMaker.weakKeys();
       }
-      return new InternerImpl<E>(mapMaker);
+      return new InternerImpl<E>(mapMaker, statsCounter);
     }
   }
 
@@ -110,14 +171,46 @@ public final class Interners {
     return newBuilder().weak().build();
   }
 
+  /**
+   * Returns the statistics recorded by {@code interner} so far.
+   *
+   * @throws IllegalArgumentException if {@code interner} was not built by an {@link
+   *     InternerBuilder} on which {@link InternerBuilder#recordStats} was called
+   * @since NEXT
+   */
+  public static InternerStats stats(Interner<?> interner) {
+    checkNotNull(interner);
+    StatsCounter statsCounter = null;
+    if (interner instanceof InternerImpl) {
+      statsCounter = ((InternerImpl<?>) interner).statsCounter;
+    } else if (interner instanceof BoundedInterner) {
+      statsCounter = ((BoundedInterner<?>) interner).statsCounter;
+    }
+    checkArgument(statsCounter != null, "%s does not record statistics", interner);
+    return statsCounter.snapshot();
+  }
+
+  /** The counters of an interner that records statistics. */
+  private static final class StatsCounter {
+    final LongAddable hitCount = LongAddables.create();
+    final LongAddable missCount = LongAddables.create();
+    final LongAddable evictionCount = LongAddables.create();
+
+    InternerStats snapshot() {
+      return new InternerStats(hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+  }
+
   @VisibleForTesting
   static final class InternerImpl<E> implements Interner<E> {
     // MapMaker is our friend, we know about this type
     @VisibleForTesting final MapMakerInternalMap<E, Dummy, ?, ?> map;
+    @NullableDecl private final StatsCounter statsCounter;
 
-    private InternerImpl(MapMaker mapMaker) {
+    private InternerImpl(MapMaker mapMaker, @NullableDecl StatsCounter statsCounter) {
       this.map =
           MapMakerInternalMap.createWithDummyValues(mapMaker.keyEquivalence(Equivalence.equals()));
+      this.statsCounter = statsCounter;
     }
 
     @Override
@@ -128,6 +221,9 @@ public final class Interners {
         if (entry != null) {
           E canonical = entry.getKey();
           if (canonical != null) { // only matters if weak/soft keys are used
+            if (statsCounter != null) {
+              statsCounter.hitCount.increment();
+            }
             return canonical;
           }
         }
@@ -135,6 +231,9 @@ public final class Interners {
         // didn't see it, trying to put it instead...
         Dummy sneaky = map.putIfAbsent(sample, Dummy.VALUE);
         if (sneaky == null) {
+          if (statsCounter != null) {
+            statsCounter.missCount.increment();
+          }
           return sample;
         } else {
           /* Someone beat us to it! Trying again...
@@ -148,6 +247,71 @@ public final class Interners {
     }
   }
 
+  /**
+   * An interner that holds at most a fixed number of instances, in an array of small buckets of
+   * slots. A value may only be held in the bucket that its hash code selects: interning it scans
+   * that bucket, and on a miss, stores the sample into a free slot of the bucket, or into a random
+   * one if none is free.
+   */
+  @VisibleForTesting
+  static final class BoundedInterner<E> implements Interner<E> {
+    /** The number of slots per bucket, trading the cost of a scan for fewer conflict evictions. */
+    private static final int WAYS = 4;
+
+    @VisibleForTesting final AtomicReferenceArray<E> table;
+    private final int ways;
+    private final int buckets;
+    @NullableDecl private final StatsCounter statsCounter;
+
+    private BoundedInterner(int maximumSize, @NullableDecl StatsCounter statsCounter) {
+      this.ways = Math.min(WAYS, maximumSize);
+      this.buckets = maximumSize / ways;
+      this.table = new AtomicReferenceArray<>(buckets * ways);
+      this.statsCounter = statsCounter;
+    }
+
+    @Override
+    public E intern(E sample) {
+      int hash = Hashing.smear(sample.hashCode());
+      // maps the well-mixed high bits of the hash to [0, buckets), without a division
+      int start = (int) (((hash & 0xFFFFFFFFL) * buckets) >>> 32) * ways;
+      while (true) {
+        int free = -1;
+        for (int i = start; i < start + ways; i++) {
+          E candidate = table.get(i);
+          if (candidate == null) {
+            if (free == -1) {
+              free = i;
+            }
+          } else if (candidate.equals(sample)) {
+            if (statsCounter != null) {
+              statsCounter.hitCount.increment();
+            }
+            return candidate;
+          }
+        }
+        if (free == -1) {
+          // the identity hash code of each new sample is a contention-free source of randomness
+          int victim = (Hashing.smear(System.identityHashCode(sample)) >>> 1) % ways;
+          E evicted = table.getAndSet(start + victim, sample);
+          if (evicted != null && statsCounter != null) {
+            statsCounter.evictionCount.increment();
+          }
+        } else if (!table.compareAndSet(free, null, sample)) {
+          /*
+           * Another thread filled the free slot, maybe with a value equal to sample, so scan the
+           * bucket again. Slots are never emptied, so this retries at most once per slot.
+           */
+          continue;
+        }
+        if (statsCounter != null) {
+          statsCounter.missCount.increment();
+        }
+        return sample;
+      }
+    }
+  }
+
   /**
    * Returns a function that delegates to the {@link Interner#intern} method of the given interner.
    *
@@ -0,0 +1,463 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtCompatible;
+import com.google.common.collect.Table.Cell;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.Serializable;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A fixed-size table of {@code long} values, like an {@link ArrayTable} of {@code Long}s but
+ * without boxing. The values are stored in a single array, row by row, so that each row is
+ * contiguous in memory and a pass over the table reads the array in order.
+ *
+ * <p>The allowed row and column keys must be supplied when the table is created. The table always
+ * holds a value for every row key / column key pair, which is {@code 0} unless another value is
+ * provided. As with {@code ArrayTable}, the ordering of the keys determines the indices of the
+ * rows and columns; see {@link #at}, {@link #set}, {@link #rowKeyList}, and {@link
+ * #columnKeyList}.
+ *
+ * <p>{@link #row} and {@link #column} return {@linkplain Slice slices}, which are views of the
+ * values of a row or column, read and written in place. Row slices are contiguous; column slices
+ * step over the values of a row between each of their elements.
+ *
+ * <p>Null row keys or column keys are not permitted. Like {@code ArrayTable}, this class is not
+ * synchronized, but synchronization is unnecessary between a thread that writes to one cell and a
+ * thread that reads from another.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtCompatible
+public final class LongArrayTable<R, C> implements Serializable {
+
+  /**
+   * Creates a {@code LongArrayTable} filled with {@code 0}.
+   *
+   * @param rowKeys row keys that may be stored in the generated table
+   * @param columnKeys column keys that may be stored in the generated table
+   * @throws NullPointerException if any of the provided keys is null
+   * @throws IllegalArgumentException if {@code rowKeys} or {@code columnKeys} contains duplicates
+   */
+  public static <R, C> LongArrayTable<R, C> create(
+      Iterable<? extends R> rowKeys, Iterable<? extends C> columnKeys) {
+    return new LongArrayTable<R, C>(
+        ImmutableList.<R>copyOf(rowKeys), ImmutableList.<C>copyOf(columnKeys));
+  }
+
+  /**
+   * Creates a {@code LongArrayTable} with the row keys, column keys and values of {@code table}.
+   * Row key / column key pairs that are not in {@code table} hold {@code 0}.
+   *
+   * <p>The ordering of {@code table.rowKeySet()} and {@code table.columnKeySet()} determines the
+   * row and column ordering of the returned table.
+   *
+   * @throws NullPointerException if {@code table} has a null value
+   */
+  public static <R, C> LongArrayTable<R, C> create(Table<R, C, ? extends Number> table) {
+    LongArrayTable<R, C> result = create(table.rowKeySet(), table.columnKeySet());
+    for (Cell<R, C, ? extends Number> cell : table.cellSet()) {
+      result.put(cell.getRowKey(), cell.getColumnKey(), cell.getValue().longValue());
+    }
+    return result;
+  }
+
+  private final ImmutableList<R> rowList;
+  private final ImmutableList<C> columnList;
+  private final ImmutableMap<R, Integer> rowKeyToIndex;
+  private final ImmutableMap<C, Integer> columnKeyToIndex;
+
+  /** The value at row {@code i} and column {@code j} is at {@code i * columnList.size() + j}. */
+  private final long[] values;
+
+  private LongArrayTable(ImmutableList<R> rowList, ImmutableList<C> columnList) {
+    this.rowList = rowList;
+    this.columnList = columnList;
+    this.rowKeyToIndex = Maps.indexMap(rowList);
+    this.columnKeyToIndex = Maps.indexMap(columnList);
+    long size = (long) rowList.size() * columnList.size();
+    checkArgument(size <= Integer.MAX_VALUE, "too many cells: %s", size);
+    this.values = new long[(int) size];
+  }
+
+  /**
+   * Returns, as an immutable list, the row keys provided when the table was constructed, including
+   * those that are mapped to {@code 0} values only.
+   */
+  public ImmutableList<R> rowKeyList() {
+    return rowList;
+  }
+
+  /**
+   * Returns, as an immutable list, the column keys provided when the table was constructed,
+   * including those that are mapped to {@code 0} values only.
+   */
+  public ImmutableList<C> columnKeyList() {
+    return columnList;
+  }
+
+  private int index(int rowIndex, int columnIndex) {
+    checkElementIndex(rowIndex, rowList.size());
+    checkElementIndex(columnIndex, columnList.size());
+    return rowIndex * columnList.size() + columnIndex;
+  }
+
+  private int rowIndex(@NullableDecl Object rowKey) {
+    Integer rowIndex = rowKeyToIndex.get(rowKey);
+    checkArgument(rowIndex != null, "Row %s not in %s", rowKey, rowList);
+    return rowIndex;
+  }
+
+  private int columnIndex(@NullableDecl Object columnKey) {
+    Integer columnIndex = columnKeyToIndex.get(columnKey);
+    checkArgument(columnIndex != null, "Column %s not in %s", columnKey, columnList);
+    return columnIndex;
+  }
+
+  /**
+   * Returns the value corresponding to the specified row and column indices. The same value is
+   * returned by {@code get(rowKeyList().get(rowIndex), columnKeyList().get(columnIndex))}, but this
+   * method runs more quickly.
+   *
+   * @throws IndexOutOfBoundsException if either index is negative, {@code rowIndex} is greater
+   *     than or equal to the number of allowed row keys, or {@code columnIndex} is greater than or
+   *     equal to the number of allowed column keys
+   */
+  public long at(int rowIndex, int columnIndex) {
+    return values[index(rowIndex, columnIndex)];
+  }
+
+  /**
+   * Associates {@code value} with the specified row and column indices, and returns the value
+   * previously associated with them.
+   *
+   * @throws IndexOutOfBoundsException if either index is out of bounds, as for {@link #at}
+   */
+  @CanIgnoreReturnValue
+  public long set(int rowIndex, int columnIndex, long value) {
+    int index = index(rowIndex, columnIndex);
+    long oldValue = values[index];
+    values[index] = value;
+    return oldValue;
+  }
+
+  /**
+   * Returns the value corresponding to the given row and column keys.
+   *
+   * @throws IllegalArgumentException if {@code rowKey} is not in {@link #rowKeyList()} or {@code
+   *     columnKey} is not in {@link #columnKeyList()}
+   */
+  public long get(@NullableDecl Object rowKey, @NullableDecl Object columnKey) {
+    return values[rowIndex(rowKey) * columnList.size() + columnIndex(columnKey)];
+  }
+
+  /**
+   * Associates {@code value} with the given row and column keys, and returns the value previously
+   * associated with them.
+   *
+   * @throws IllegalArgumentException if {@code rowKey} is not in {@link #rowKeyList()} or {@code
+   *     columnKey} is not in {@link #columnKeyList()}
+   */
+  @CanIgnoreReturnValue
+  public long put(R rowKey, C columnKey, long value) {
+    int index = rowIndex(rowKey) * columnList.size() + columnIndex(columnKey);
+    long oldValue = values[index];
+    values[index] = value;
+    return oldValue;
+  }
+
+  /**
+   * Adds {@code delta} to the value associated with the given row and column keys, and returns the
+   * new value.
+   *
+   * @throws IllegalArgumentException if {@code rowKey} is not in {@link #rowKeyList()} or {@code
+   *     columnKey} is not in {@link #columnKeyList()}
+   */
+  @CanIgnoreReturnValue
+  public long add(R rowKey, C columnKey, long delta) {
+    return values[rowIndex(rowKey) * columnList.size() + columnIndex(columnKey)] += delta;
+  }
+
+  /**
+   * Adds {@code delta} to the value at the specified row and column indices, and returns the new
+   * value.
+   *
+   * @throws IndexOutOfBoundsException if either index is out of bounds, as for {@link #at}
+   */
+  @CanIgnoreReturnValue
+  public long addAt(int rowIndex, int columnIndex, long delta) {
+    return values[index(rowIndex, columnIndex)] += delta;
+  }
+
+  /** Sets every value of this table to {@code value}. */
+  public void fill(long value) {
+    Arrays.fill(values, value);
+  }
+
+  /**
+   * Returns a view of the values of the row with the given key, in the order of {@link
+   * #columnKeyList()}.
+   *
+   * @throws IllegalArgumentException if {@code rowKey} is not in {@link #rowKeyList()}
+   */
+  public Slice row(R rowKey) {
+    return rowAt(rowIndex(rowKey));
+  }
+
+  /**
+   * Returns a view of the values of the row with the given index, in the order of {@link
+   * #columnKeyList()}.
+   *
+   * @throws IndexOutOfBoundsException if {@code rowIndex} is out of bounds
+   */
+  public Slice rowAt(int rowIndex) {
+    checkElementIndex(rowIndex, rowList.size());
+    return new Slice(values, rowIndex * columnList.size(), columnList.size(), 1);
+  }
+
+  /**
+   * Returns a view of the values of the column with the given key, in the order of {@link
+   * #rowKeyList()}.
+   *
+   * @throws IllegalArgumentException if {@code columnKey} is not in {@link #columnKeyList()}
+   */
+  public Slice column(C columnKey) {
+    return columnAt(columnIndex(columnKey));
+  }
+
+  /**
+   * Returns a view of the values of the column with the given index, in the order of {@link
+   * #rowKeyList()}.
+   *
+   * @throws IndexOutOfBoundsException if {@code columnIndex} is out of bounds
+   */
+  public Slice columnAt(int columnIndex) {
+    checkElementIndex(columnIndex, columnList.size());
+    return new Slice(values, columnIndex, rowList.size(), columnList.size());
+  }
+
+  /** Returns the sum of the values of each row, in the order of {@link #rowKeyList()}. */
+  public long[] rowSums() {
+    long[] sums = new long[rowList.size()];
+    int columns = columnList.size();
+    for (int i = 0, index = 0; i < sums.length; i++) {
+      long sum = 0;
+      for (int end = index + columns; index < end; index++) {
+        sum += values[index];
+      }
+      sums[i] = sum;
+    }
+    return sums;
+  }
+
+  /**
+   * Returns the sum of the values of each column, in the order of {@link #columnKeyList()}. The
+   * values are read row by row, in the order they are stored.
+   */
+  public long[] columnSums() {
+    long[] sums = new long[columnList.size()];
+    for (int index = 0; index < values.length; ) {
+      for (int j = 0; j < sums.length; j++, index++) {
+        sums[j] += values[index];
+      }
+    }
+    return sums;
+  }
+
+  /**
+   * Returns a two-dimensional array with the table contents. The row and column indices correspond
+   * to the positions of the row and column in the iterables provided during table construction.
+   *
+   * <p>Subsequent table changes will not modify the array, and vice versa.
+   */
+  public long[][] toArray() {
+    long[][] copy = new long[rowList.size()][];
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] = rowAt(i).toArray();
+    }
+    return copy;
+  }
+
+  /**
+   * Returns an array with the values of the table, row by row. The value of row {@code i} and
+   * column {@code j} is at index {@code i * columnKeyList().size() + j}.
+   *
+   * <p>Subsequent table changes will not modify the array, and vice versa.
+   */
+  public long[] toRowMajorArray() {
+    return values.clone();
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is a {@code LongArrayTable} with the same row keys,
+   * column keys and values as this table, in the same order.
+   */
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (object instanceof LongArrayTable) {
+      LongArrayTable<?, ?> that = (LongArrayTable<?, ?>) object;
+      return rowList.equals(that.rowList)
+          && columnList.equals(that.columnList)
+          && Arrays.equals(values, that.values);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return (rowList.hashCode() * 31 + columnList.hashCode()) * 31 + Arrays.hashCode(values);
+  }
+
+  /** Returns the rows of this table, as in {@code {r1={c1=1, c2=2}, r2={c1=3, c2=4}}}. */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder().append('{');
+    for (int i = 0; i < rowList.size(); i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(rowList.get(i)).append("={");
+      for (int j = 0; j < columnList.size(); j++) {
+        if (j > 0) {
+          builder.append(", ");
+        }
+        builder.append(columnList.get(j)).append('=').append(values[index(i, j)]);
+      }
+      builder.append('}');
+    }
+    return builder.append('}').toString();
+  }
+
+  /**
+   * A view of the values of a row or column of a {@link LongArrayTable}, which reads and writes
+   * the table in place.
+   *
+   * @since NEXT
+   */
+  @Beta
+  public static final class Slice {
+    private final long[] values;
+    private final int offset;
+    private final int length;
+    private final int stride;
+
+    Slice(long[] values, int offset, int length, int stride) {
+      this.values = values;
+      this.offset = offset;
+      this.length = length;
+      this.stride = stride;
+    }
+
+    /** Returns the number of values in this slice. */
+    public int length() {
+      return length;
+    }
+
+    /**
+     * Returns the value at the given index.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is negative, or greater than or equal to
+     *     {@link #length}
+     */
+    public long get(int index) {
+      checkElementIndex(index, length);
+      return values[offset + index * stride];
+    }
+
+    /**
+     * Sets the value at the given index, and returns the value previously there.
+     *
+     * @throws IndexOutOfBoundsException if {@code index} is negative, or greater than or equal to
+     *     {@link #length}
+     */
+    @CanIgnoreReturnValue
+    public long set(int index, long value) {
+      checkElementIndex(index, length);
+      int i = offset + index * stride;
+      long oldValue = values[i];
+      values[i] = value;
+      return oldValue;
+    }
+
+    /** Returns the sum of the values in this slice. */
+    public long sum() {
+      long sum = 0;
+      for (int i = 0, index = offset; i < length; i++, index += stride) {
+        sum += values[index];
+      }
+      return sum;
+    }
+
+    /** Sets every value in this slice to {@code value}. */
+    public void fill(long value) {
+      if (stride == 1) {
+        Arrays.fill(values, offset, offset + length, value);
+      } else {
+        for (int i = 0, index = offset; i < length; i++, index += stride) {
+          values[index] = value;
+        }
+      }
+    }
+
+    /**
+     * Copies the values of this slice into {@code array}, starting at {@code arrayOffset}, and
+     * returns {@code array}.
+     *
+     * @throws IndexOutOfBoundsException if {@code arrayOffset} is negative, or {@code array} has
+     *     fewer than {@code arrayOffset + length()} elements
+     */
+    @CanIgnoreReturnValue
+    public long[] copyTo(long[] array, int arrayOffset) {
+      checkPositionIndexes(arrayOffset, arrayOffset + length, array.length);
+      if (stride == 1) {
+        System.arraycopy(values, offset, array, arrayOffset, length);
+      } else {
+        for (int i = 0, index = offset; i < length; i++, index += stride) {
+          array[arrayOffset + i] = values[index];
+        }
+      }
+      return array;
+    }
+
+    /**
+     * Returns a new array with the values of this slice. Subsequent changes to the table will not
+     * modify the array, and vice versa.
+     */
+    public long[] toArray() {
+      return copyTo(new long[length], 0);
+    }
+
+    /** Returns the values of this slice, as in {@code [1, 2]}. */
+    @Override
+    public String toString() {
+      return Arrays.toString(toArray());
+    }
+  }
+
+  private static final long serialVersionUID = 0;
+}
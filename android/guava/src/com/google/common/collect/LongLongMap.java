@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A hash map from {@code long} keys to {@code long} values, which stores both unboxed. Compared to
+ * a {@code HashMap<Long, Long>}, it allocates no {@code Long} and no entry object per mapping: the
+ * keys and values live in two parallel arrays, indexed by a compact hash table, which makes each
+ * mapping cost roughly 24 bytes.
+ *
+ * <p>{@code containsKey}, {@code get}, {@code put}, {@code addTo} and {@code remove} are all
+ * (expected and amortized) constant time operations. The entries occupy the indices {@code [0,
+ * size())}, which {@link #keyAt} and {@link #valueAt} give access to, so the map can be iterated
+ * without allocation. If there are no removals, that order is insertion order; {@link #remove}
+ * moves the last entry into the removed entry's index.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class LongLongMap extends CompactPrimitiveTable {
+  /** Creates an empty {@code LongLongMap}. */
+  public static LongLongMap create() {
+    return new LongLongMap(DEFAULT_SIZE);
+  }
+
+  /**
+   * Creates an empty {@code LongLongMap} that can hold {@code expectedSize} entries without
+   * growth.
+   *
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static LongLongMap createWithExpectedSize(int expectedSize) {
+    return new LongLongMap(expectedSize);
+  }
+
+  private transient long[] keys;
+  private transient long[] values;
+
+  private LongLongMap(int expectedSize) {
+    super(expectedSize);
+    this.keys = new long[expectedSize];
+    this.values = new long[expectedSize];
+  }
+
+  @Override
+  int hashOf(int index) {
+    return hash(keys[index]);
+  }
+
+  @Override
+  void resizeEntries(int newCapacity) {
+    keys = Arrays.copyOf(keys, newCapacity);
+    values = Arrays.copyOf(values, newCapacity);
+  }
+
+  @Override
+  void moveEntry(int srcIndex, int dstIndex) {
+    keys[dstIndex] = keys[srcIndex];
+    values[dstIndex] = values[srcIndex];
+  }
+
+  private int indexOf(long key, int hash) {
+    int index = firstInBucket(hash);
+    while (index != UNSET && keys[index] != key) {
+      index = next[index];
+    }
+    return index;
+  }
+
+  /** Returns {@code true} if this map contains a mapping for {@code key}. */
+  public boolean containsKey(long key) {
+    return indexOf(key, hash(key)) != UNSET;
+  }
+
+  /** Returns the value mapped to {@code key}, or {@code defaultValue} if there is none. */
+  public long getOrDefault(long key, long defaultValue) {
+    int index = indexOf(key, hash(key));
+    return (index == UNSET) ? defaultValue : values[index];
+  }
+
+  /** Maps {@code key} to {@code value}, replacing any previous value. */
+  public void put(long key, long value) {
+    int hash = hash(key);
+    int index = indexOf(key, hash);
+    if (index == UNSET) {
+      index = appendEntry(hash);
+      keys[index] = key;
+    }
+    values[index] = value;
+  }
+
+  /**
+   * Adds {@code delta} to the value mapped to {@code key}, treating a missing mapping as zero, and
+   * returns the new value.
+   */
+  @CanIgnoreReturnValue
+  public long addTo(long key, long delta) {
+    int hash = hash(key);
+    int index = indexOf(key, hash);
+    if (index == UNSET) {
+      index = appendEntry(hash);
+      keys[index] = key;
+      values[index] = delta;
+      return delta;
+    }
+    return values[index] += delta;
+  }
+
+  /**
+   * Removes the mapping for {@code key}, and returns {@code true} if there was one. The last entry
+   * is moved into the removed entry's index, which changes the iteration order.
+   */
+  @CanIgnoreReturnValue
+  public boolean remove(long key) {
+    int hash = hash(key);
+    int index = indexOf(key, hash);
+    if (index == UNSET) {
+      return false;
+    }
+    removeEntry(index, hash);
+    return true;
+  }
+
+  /**
+   * Returns the key of the entry at {@code index}.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size}
+   */
+  public long keyAt(int index) {
+    checkElementIndex(index, size);
+    return keys[index];
+  }
+
+  /**
+   * Returns the value of the entry at {@code index}.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size}
+   */
+  public long valueAt(int index) {
+    checkElementIndex(index, size);
+    return values[index];
+  }
+
+  /** Returns the number of mappings in this map. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns {@code true} if this map contains no mappings. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes all mappings from this map. Its capacity is retained; see {@link #trimToSize}. */
+  public void clear() {
+    clearTable();
+  }
+
+  /**
+   * Shrinks the capacity of this map to the minimum that holds its current mappings,
+   * minimizing the memory footprint of a map that is done growing.
+   */
+  public void trimToSize() {
+    trimTable();
+  }
+
+  /** Returns a new array containing the keys of this map, in index order. */
+  public long[] keys() {
+    return Arrays.copyOf(keys, size);
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is a {@code LongLongMap} with the same mappings as this
+   * map.
+   */
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (!(object instanceof LongLongMap)) {
+      return false;
+    }
+    LongLongMap that = (LongLongMap) object;
+    if (this.size != that.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      int index = that.indexOf(keys[i], hash(keys[i]));
+      if (index == UNSET || that.values[index] != values[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the same hash code as a {@code Map<Long, Long>} with the same mappings. */
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int i = 0; i < size; i++) {
+      long key = keys[i];
+      long value = values[i];
+      hashCode += (int) (key ^ (key >>> 32)) ^ (int) (value ^ (value >>> 32));
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(size * 16).append('{');
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(keys[i]).append('=').append(values[i]);
+    }
+    return builder.append('}').toString();
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.CollectPreconditions.checkNonnegative;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtCompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.Collections;
+import java.util.Set;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A counter from non-null elements to positive {@code int} counts, which stores its counts
+ * unboxed. It uses the same storage as {@link HashMultiset}: the elements and counts live in two
+ * parallel arrays, indexed by a compact hash table, so that incrementing a count allocates
+ * nothing. Unlike a {@code Map<E, Integer>}, updating a present element does not box, and unlike a
+ * {@link Multiset}, the API speaks only of counts, without the {@code Multiset.Entry} and
+ * collection views that come with it.
+ *
+ * <p>An element is present exactly when its count is positive: an element whose count drops to
+ * zero is removed, and {@link #count} returns zero for absent elements. Iteration through {@link
+ * #elementSet} is in insertion order in the absence of removals.
+ *
+ * <p>This class is not thread-safe; see {@link ConcurrentHashMultiset} for a concurrent counter.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtCompatible
+public final class ObjectIntCountMap<E> {
+  /** Creates an empty {@code ObjectIntCountMap}. */
+  public static <E> ObjectIntCountMap<E> create() {
+    return new ObjectIntCountMap<E>(ObjectCountHashMap.<E>create());
+  }
+
+  /**
+   * Creates an empty {@code ObjectIntCountMap} that can hold {@code expectedSize} distinct elements
+   * without growth.
+   *
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static <E> ObjectIntCountMap<E> createWithExpectedSize(int expectedSize) {
+    return new ObjectIntCountMap<E>(ObjectCountHashMap.<E>createWithExpectedSize(expectedSize));
+  }
+
+  private final ObjectCountHashMap<E> map;
+
+  private ObjectIntCountMap(ObjectCountHashMap<E> map) {
+    this.map = map;
+  }
+
+  /** Returns the count of {@code element}, or zero if it is absent. */
+  public int count(@NullableDecl Object element) {
+    return map.get(element);
+  }
+
+  /** Returns {@code true} if {@code element} has a positive count. */
+  public boolean contains(@NullableDecl Object element) {
+    return map.containsKey(element);
+  }
+
+  /**
+   * Increments the count of {@code element} by one, and returns the new count.
+   *
+   * @throws IllegalArgumentException if the count would overflow {@code Integer.MAX_VALUE}
+   */
+  @CanIgnoreReturnValue
+  public int increment(E element) {
+    return addTo(element, 1);
+  }
+
+  /**
+   * Adds {@code delta}, which may be negative, to the count of {@code element}, and returns the new
+   * count. If the new count is zero, {@code element} is removed.
+   *
+   * @throws IllegalArgumentException if the new count would be negative or would overflow {@code
+   *     Integer.MAX_VALUE}
+   */
+  @CanIgnoreReturnValue
+  public int addTo(E element, int delta) {
+    checkNotNull(element);
+    int index = map.indexOf(element);
+    if (index == -1) {
+      checkArgument(delta >= 0, "count cannot be negative: %s", delta);
+      if (delta > 0) {
+        map.put(element, delta);
+      }
+      return delta;
+    }
+    long newCount = (long) map.values[index] + delta;
+    checkArgument(newCount >= 0, "count cannot be negative: %s", newCount);
+    checkArgument(newCount <= Integer.MAX_VALUE, "too many occurrences: %s", newCount);
+    if (newCount == 0) {
+      map.removeEntry(index);
+    } else {
+      map.values[index] = (int) newCount;
+    }
+    return (int) newCount;
+  }
+
+  /**
+   * Sets the count of {@code element} to {@code count}, removing it if {@code count} is zero, and
+   * returns the previous count.
+   *
+   * @throws IllegalArgumentException if {@code count} is negative
+   */
+  @CanIgnoreReturnValue
+  public int setCount(E element, int count) {
+    checkNotNull(element);
+    checkNonnegative(count, "count");
+    return (count == 0) ? map.remove(element) : map.put(element, count);
+  }
+
+  /** Removes {@code element}, and returns its previous count, or zero if it was absent. */
+  @CanIgnoreReturnValue
+  public int remove(@NullableDecl Object element) {
+    return map.remove(element);
+  }
+
+  /** Returns the number of distinct elements with a positive count. */
+  public int size() {
+    return map.size();
+  }
+
+  /** Returns {@code true} if no element has a positive count. */
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  /** Removes all elements. */
+  public void clear() {
+    map.clear();
+  }
+
+  /** Returns the sum of all the counts. */
+  public long total() {
+    long total = 0;
+    for (int i = map.firstIndex(); i != -1; i = map.nextIndex(i)) {
+      total += map.values[i];
+    }
+    return total;
+  }
+
+  /**
+   * Returns an unmodifiable view of the elements with a positive count. The set reflects later
+   * changes to this counter.
+   */
+  public Set<E> elementSet() {
+    return Collections.unmodifiableSet(map.keySet());
+  }
+
+  /** Returns an immutable multiset with the same elements and counts as this counter. */
+  public ImmutableMultiset<E> toImmutableMultiset() {
+    ImmutableMultiset.Builder<E> builder = ImmutableMultiset.builder();
+    for (int i = map.firstIndex(); i != -1; i = map.nextIndex(i)) {
+      builder.addCopies(map.getKey(i), map.values[i]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is an {@code ObjectIntCountMap} with the same elements
+   * and counts as this counter.
+   */
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (!(object instanceof ObjectIntCountMap)) {
+      return false;
+    }
+    ObjectIntCountMap<?> that = (ObjectIntCountMap<?>) object;
+    if (this.size() != that.size()) {
+      return false;
+    }
+    for (int i = map.firstIndex(); i != -1; i = map.nextIndex(i)) {
+      if (that.count(map.getKey(i)) != map.values[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the same hash code as a {@link Multiset} with the same elements and counts. */
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int i = map.firstIndex(); i != -1; i = map.nextIndex(i)) {
+      hashCode += map.getKey(i).hashCode() ^ map.values[i];
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(size() * 8).append('{');
+    for (int i = map.firstIndex(); i != -1; i = map.nextIndex(i)) {
+      if (i != map.firstIndex()) {
+        builder.append(", ");
+      }
+      builder.append(map.getKey(i)).append('=').append(map.values[i]);
+    }
+    return builder.append('}').toString();
+  }
+}
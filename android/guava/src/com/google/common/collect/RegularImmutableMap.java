@@ -44,20 +44,31 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
    * This is an implementation of ImmutableMap optimized especially for Android, which does not like
    * objects per entry.  Instead we use an open-addressed hash table.  This design is basically
    * equivalent to RegularImmutableSet, save that instead of having a hash table containing the
-   * elements directly and null for empty positions, we store indices of the keys in the hash table,
-   * and ABSENT for empty positions.  We then look up the keys in alternatingKeysAndValues.
-   *
-   * (The index actually stored is the index of the key in alternatingKeysAndValues, which is
-   * double the index of the entry in entrySet.asList.)
+   * elements directly and null for empty positions, we store indices of the entries in the hash
+   * table, and ABSENT for empty positions.  We then look up the keys in alternatingKeysAndValues,
+   * where the key of entry i is at index 2 * i.
    *
    * The basic data structure is described in https://en.wikipedia.org/wiki/Open_addressing.
    * The pointer to a key is stored in hashTable[Hashing.smear(key.hashCode())] % table.length,
    * save that if that location is already full, we try the next index, and the next, until we
    * find an empty table position.  Since the table has a power-of-two size, we use
    * & (table.length - 1) instead of % table.length, though.
+   *
+   * The hash table only ever holds indices smaller than its length, so for small maps it is a
+   * byte[] or a short[] (storing the indices unsigned, with all ones meaning an empty position)
+   * rather than an int[].  A map with up to 179 entries thus spends one byte per table position.
    */
 
-  private final transient int[] hashTable;
+  /** The largest hash table that is stored as a {@code byte[]}. */
+  static final int BYTE_MAX_SIZE = 1 << Byte.SIZE;
+
+  /** The largest hash table that is stored as a {@code short[]}. */
+  static final int SHORT_MAX_SIZE = 1 << Short.SIZE;
+
+  private static final int BYTE_MASK = (1 << Byte.SIZE) - 1;
+  private static final int SHORT_MASK = (1 << Short.SIZE) - 1;
+
+  @NullableDecl private final transient Object hashTable;
   @VisibleForTesting final transient Object[] alternatingKeysAndValues;
   private final transient int size;
 
@@ -71,15 +82,18 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
     }
     checkPositionIndex(n, alternatingKeysAndValues.length >> 1);
     int tableSize = ImmutableSet.chooseTableSize(n);
-    int[] hashTable = createHashTable(alternatingKeysAndValues, n, tableSize, 0);
+    Object hashTable = createHashTable(alternatingKeysAndValues, n, tableSize, 0);
     return new RegularImmutableMap<K, V>(hashTable, alternatingKeysAndValues, n);
   }
 
   /**
-   * Returns a hash table for the specified keys and values, and ensures that neither keys nor
-   * values are null.
+   * Returns a hash table for the first n keys in alternatingKeysAndValues (the ones at {@code 2 *
+   * i + keyOffset}), and ensures that neither keys nor values are null, and that no key is
+   * repeated. The table is a {@code byte[]}, {@code short[]} or {@code int[]} depending on {@code
+   * tableSize}, or null if {@code n == 1}.
    */
-  static int[] createHashTable(
+  @NullableDecl
+  static Object createHashTable(
       Object[] alternatingKeysAndValues, int n, int tableSize, int keyOffset) {
     if (n == 1) {
       // for n=1 we don't create a hash table, but we need to do the checkEntryNotNull check!
@@ -88,35 +102,82 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
       return null;
     }
     int mask = tableSize - 1;
-    int[] hashTable = new int[tableSize];
-    Arrays.fill(hashTable, ABSENT);
-    for (int i = 0; i < n; i++) {
-      Object key = alternatingKeysAndValues[2 * i + keyOffset];
-      Object value = alternatingKeysAndValues[2 * i + (keyOffset ^ 1)];
-      checkEntryNotNull(key, value);
-      for (int h = Hashing.smear(key.hashCode()); ; h++) {
-        h &= mask;
-        int previous = hashTable[h];
-        if (previous == ABSENT) {
-          hashTable[h] = 2 * i + keyOffset;
-          break;
-        } else if (alternatingKeysAndValues[previous].equals(key)) {
-          throw new IllegalArgumentException(
-              "Multiple entries with same key: "
-                  + key
-                  + "="
-                  + value
-                  + " and "
-                  + alternatingKeysAndValues[previous]
-                  + "="
-                  + alternatingKeysAndValues[previous ^ 1]);
+    if (tableSize <= BYTE_MAX_SIZE) {
+      byte[] hashTable = new byte[tableSize];
+      Arrays.fill(hashTable, (byte) ABSENT);
+      for (int i = 0; i < n; i++) {
+        Object key = checkedKey(alternatingKeysAndValues, i, keyOffset);
+        for (int h = Hashing.smear(key.hashCode()); ; h++) {
+          h &= mask;
+          int previous = hashTable[h] & BYTE_MASK;
+          if (previous == BYTE_MASK) {
+            hashTable[h] = (byte) i;
+            break;
+          }
+          checkNoDuplicateKey(alternatingKeysAndValues, previous, i, keyOffset);
         }
       }
+      return hashTable;
+    } else if (tableSize <= SHORT_MAX_SIZE) {
+      short[] hashTable = new short[tableSize];
+      Arrays.fill(hashTable, (short) ABSENT);
+      for (int i = 0; i < n; i++) {
+        Object key = checkedKey(alternatingKeysAndValues, i, keyOffset);
+        for (int h = Hashing.smear(key.hashCode()); ; h++) {
+          h &= mask;
+          int previous = hashTable[h] & SHORT_MASK;
+          if (previous == SHORT_MASK) {
+            hashTable[h] = (short) i;
+            break;
+          }
+          checkNoDuplicateKey(alternatingKeysAndValues, previous, i, keyOffset);
+        }
+      }
+      return hashTable;
+    } else {
+      int[] hashTable = new int[tableSize];
+      Arrays.fill(hashTable, ABSENT);
+      for (int i = 0; i < n; i++) {
+        Object key = checkedKey(alternatingKeysAndValues, i, keyOffset);
+        for (int h = Hashing.smear(key.hashCode()); ; h++) {
+          h &= mask;
+          int previous = hashTable[h];
+          if (previous == ABSENT) {
+            hashTable[h] = i;
+            break;
+          }
+          checkNoDuplicateKey(alternatingKeysAndValues, previous, i, keyOffset);
+        }
+      }
+      return hashTable;
     }
-    return hashTable;
   }
 
-  private RegularImmutableMap(int[] hashTable, Object[] alternatingKeysAndValues, int size) {
+  private static Object checkedKey(Object[] alternatingKeysAndValues, int i, int keyOffset) {
+    Object key = alternatingKeysAndValues[2 * i + keyOffset];
+    checkEntryNotNull(key, alternatingKeysAndValues[2 * i + (keyOffset ^ 1)]);
+    return key;
+  }
+
+  private static void checkNoDuplicateKey(
+      Object[] alternatingKeysAndValues, int previous, int i, int keyOffset) {
+    Object key = alternatingKeysAndValues[2 * i + keyOffset];
+    Object previousKey = alternatingKeysAndValues[2 * previous + keyOffset];
+    if (previousKey.equals(key)) {
+      throw new IllegalArgumentException(
+          "Multiple entries with same key: "
+              + key
+              + "="
+              + alternatingKeysAndValues[2 * i + (keyOffset ^ 1)]
+              + " and "
+              + previousKey
+              + "="
+              + alternatingKeysAndValues[2 * previous + (keyOffset ^ 1)]);
+    }
+  }
+
+  private RegularImmutableMap(
+      @NullableDecl Object hashTable, Object[] alternatingKeysAndValues, int size) {
     this.hashTable = hashTable;
     this.alternatingKeysAndValues = alternatingKeysAndValues;
     this.size = size;
@@ -134,9 +195,14 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
     return (V) get(hashTable, alternatingKeysAndValues, size, 0, key);
   }
 
+  /**
+   * Returns the value paired with {@code key}, looking the key up at offset {@code keyOffset} of
+   * each pair, through a hash table made by {@link #createHashTable}.
+   */
+  @NullableDecl
   static Object get(
-      @NullableDecl int[] hashTable,
-      @NullableDecl Object[] alternatingKeysAndValues,
+      @NullableDecl Object hashTable,
+      Object[] alternatingKeysAndValues,
       int size,
       int keyOffset,
       @NullableDecl Object key) {
@@ -149,14 +215,41 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
     } else if (hashTable == null) {
       return null;
     }
-    int mask = hashTable.length - 1;
-    for (int h = Hashing.smear(key.hashCode()); ; h++) {
-      h &= mask;
-      int index = hashTable[h];
-      if (index == ABSENT) {
-        return null;
-      } else if (alternatingKeysAndValues[index].equals(key)) {
-        return alternatingKeysAndValues[index ^ 1];
+    if (hashTable instanceof byte[]) {
+      byte[] bytes = (byte[]) hashTable;
+      int mask = bytes.length - 1;
+      for (int h = Hashing.smear(key.hashCode()); ; h++) {
+        h &= mask;
+        int index = bytes[h] & BYTE_MASK;
+        if (index == BYTE_MASK) {
+          return null;
+        } else if (key.equals(alternatingKeysAndValues[2 * index + keyOffset])) {
+          return alternatingKeysAndValues[2 * index + (keyOffset ^ 1)];
+        }
+      }
+    } else if (hashTable instanceof short[]) {
+      short[] shorts = (short[]) hashTable;
+      int mask = shorts.length - 1;
+      for (int h = Hashing.smear(key.hashCode()); ; h++) {
+        h &= mask;
+        int index = shorts[h] & SHORT_MASK;
+        if (index == SHORT_MASK) {
+          return null;
+        } else if (key.equals(alternatingKeysAndValues[2 * index + keyOffset])) {
+          return alternatingKeysAndValues[2 * index + (keyOffset ^ 1)];
+        }
+      }
+    } else {
+      int[] ints = (int[]) hashTable;
+      int mask = ints.length - 1;
+      for (int h = Hashing.smear(key.hashCode()); ; h++) {
+        h &= mask;
+        int index = ints[h];
+        if (index == ABSENT) {
+          return null;
+        } else if (key.equals(alternatingKeysAndValues[2 * index + keyOffset])) {
+          return alternatingKeysAndValues[2 * index + (keyOffset ^ 1)];
+        }
       }
     }
   }
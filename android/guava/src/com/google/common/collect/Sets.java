@@ -19,6 +19,7 @@ package com.google.common.collect;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.CollectPreconditions.checkNonnegative;
+import static com.google.common.collect.ObjectArrays.checkElementsNotNull;
 
 import com.google.common.annotations.Beta;
 import com.google.common.annotations.GwtCompatible;
@@ -27,6 +28,7 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.Collections2.FilteredCollection;
 import com.google.common.math.IntMath;
+import com.google.common.primitives.Ints;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.io.Serializable;
 import java.util.AbstractSet;
@@ -747,6 +749,11 @@ public final class Sets {
    * }</pre>
    *
    * <p>This is unfortunate, but should come up only very rarely.
+   *
+   * <p>If both sets are {@link EnumSet}s (or {@linkplain Sets#immutableEnumSet immutable enum
+   * sets}), or {@link SortedSet}s with the same comparator, {@link SetView#immutableCopy}
+   * intersects them in bulk, word by word or by merging, rather than looking up each element of
+   * {@code set1} in {@code set2}.
    */
   public static <E> SetView<E> intersection(final Set<E> set1, final Set<?> set2) {
     checkNotNull(set1, "set1");
@@ -796,9 +803,283 @@ public final class Sets {
       public boolean containsAll(Collection<?> collection) {
         return set1.containsAll(collection) && set2.containsAll(collection);
       }
+
+      @GwtIncompatible // bulk operations
+      @Override
+      public ImmutableSet<E> immutableCopy() {
+        ImmutableSet<E> bulk = bulkIntersection(set1, set2);
+        return (bulk != null) ? bulk : super.immutableCopy();
+      }
+    };
+  }
+
+  /**
+   * Returns an unmodifiable <b>view</b> of the intersection of {@code sets}. The returned set
+   * contains all elements that are contained by every one of the backing sets, which are those
+   * returned by {@code sets} when this method is called.
+   *
+   * <p>Each iteration over the returned set iterates over the smallest of the backing sets, as of
+   * the start of the iteration, in its order, and looks up each element in the other sets, from the
+   * smallest to the largest, which are the most likely to reject it early. So the cost of iterating
+   * is proportional to the size of the smallest set, however large the others are.
+   *
+   * <p>If the backing sets are all {@link EnumSet}s (or {@linkplain Sets#immutableEnumSet immutable
+   * enum sets}), or all {@link SortedSet}s with the same comparator, {@link SetView#immutableCopy}
+   * intersects them in bulk, word by word or by merging, starting from the smallest set.
+   *
+   * <p>Results are undefined if the backing sets are based on different equivalence relations (as
+   * {@code HashSet}, {@code TreeSet}, and the keySet of an {@code IdentityHashMap} all are).
+   *
+   * @throws IllegalArgumentException if {@code sets} is empty
+   * @since NEXT
+   */
+  @Beta
+  public static <E> SetView<E> intersection(Iterable<? extends Set<? extends E>> sets) {
+    final ImmutableList<Set<? extends E>> backingSets = ImmutableList.copyOf(sets);
+    checkArgument(!backingSets.isEmpty(), "sets must not be empty");
+    if (backingSets.size() == 1) {
+      return intersection(Sets.<E>unsafeCast(backingSets.get(0)), backingSets.get(0));
+    }
+
+    return new SetView<E>() {
+      @Override
+      public UnmodifiableIterator<E> iterator() {
+        List<Set<? extends E>> bySize = sortedBySize(backingSets);
+        final Iterator<? extends E> itr = bySize.get(0).iterator();
+        final List<Set<? extends E>> others = bySize.subList(1, bySize.size());
+        return new AbstractIterator<E>() {
+          @Override
+          protected E computeNext() {
+            while (itr.hasNext()) {
+              E e = itr.next();
+              if (containedInAll(e, others)) {
+                return e;
+              }
+            }
+            return endOfData();
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return Iterators.size(iterator());
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return !iterator().hasNext();
+      }
+
+      @Override
+      public boolean contains(@NullableDecl Object object) {
+        return containedInAll(object, backingSets);
+      }
+
+      @GwtIncompatible // bulk operations
+      @Override
+      public ImmutableSet<E> immutableCopy() {
+        List<Set<? extends E>> bySize = sortedBySize(backingSets);
+        Set<E> result = unsafeCast(bySize.get(0));
+        for (int i = 1; i < bySize.size() && !result.isEmpty(); i++) {
+          ImmutableSet<E> bulk = bulkIntersection(result, bySize.get(i));
+          if (bulk == null) {
+            // Not all of the sets support bulk operations, so look up each element in the rest.
+            final List<Set<? extends E>> rest = bySize.subList(i, bySize.size());
+            return ImmutableSet.copyOf(
+                Iterators.filter(
+                    result.iterator(),
+                    new Predicate<E>() {
+                      @Override
+                      public boolean apply(E element) {
+                        return containedInAll(element, rest);
+                      }
+                    }));
+          }
+          result = bulk;
+        }
+        return ImmutableSet.copyOf(result);
+      }
     };
   }
 
+  @SuppressWarnings("unchecked") // a Set<? extends E> is a Set<E> that isn't added to
+  private static <E> Set<E> unsafeCast(Set<? extends E> set) {
+    return (Set<E>) set;
+  }
+
+  private static <E> List<Set<? extends E>> sortedBySize(List<Set<? extends E>> sets) {
+    List<Set<? extends E>> result = Lists.newArrayList(sets);
+    Collections.sort(result, SIZE_ORDER);
+    return result;
+  }
+
+  private static final Comparator<Set<?>> SIZE_ORDER =
+      new Comparator<Set<?>>() {
+        @Override
+        public int compare(Set<?> a, Set<?> b) {
+          return Ints.compare(a.size(), b.size());
+        }
+      };
+
+  private static boolean containedInAll(@NullableDecl Object object, List<? extends Set<?>> sets) {
+    for (Set<?> set : sets) {
+      if (!set.contains(object)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Bulk set algebra, used by the immutableCopy() of the intersection and difference views above.
+   * These return null if they don't apply to the given sets. EnumSets, and the ImmutableEnumSets
+   * that wrap them, are combined word by word through the bulk methods of EnumSet, and two
+   * SortedSets with the same comparator by a merge of their iterators, which takes O(m + n)
+   * comparisons, or by looking up the elements of the first set in the second, if that takes fewer.
+   * The results iterate in the order of the first set, as the views do.
+   */
+
+  @GwtIncompatible // ImmutableEnumSet.delegate, RegularImmutableSortedSet
+  @NullableDecl
+  private static <E> ImmutableSet<E> bulkIntersection(Set<E> set1, Set<?> set2) {
+    EnumSet<?> bits1 = enumSetBacking(set1);
+    EnumSet<?> bits2 = enumSetBacking(set2);
+    if (bits1 != null && bits2 != null) {
+      EnumSet<?> result = bits1.clone();
+      result.retainAll(bits2);
+      return immutableEnumSetOf(result);
+    } else if (set1 instanceof ContiguousSet
+        && set2 instanceof ContiguousSet
+        && ((ContiguousSet<?>) set1).domain.equals(((ContiguousSet<?>) set2).domain)) {
+      @SuppressWarnings({"unchecked", "rawtypes"}) // both are sets of the same domain
+      ImmutableSet<E> result = ((ContiguousSet) set1).intersection((ContiguousSet) set2);
+      return result;
+    } else if (set1 instanceof SortedSet && SortedIterables.hasSameComparator(
+        SortedIterables.comparator((SortedSet<?>) set1), set2)) {
+      Comparator<Object> comparator = sortedSetComparator(set1);
+      Object[] result = new Object[Math.min(set1.size(), set2.size())];
+      int size = 0;
+      if (lookupsAreCheaper(set1, set2)) {
+        for (E e : set1) {
+          if (set2.contains(e)) {
+            result[size++] = e;
+          }
+        }
+      } else {
+        PeekingIterator<E> itr1 = Iterators.peekingIterator(set1.iterator());
+        PeekingIterator<?> itr2 = Iterators.peekingIterator(set2.iterator());
+        while (itr1.hasNext() && itr2.hasNext()) {
+          int cmp = comparator.compare(itr1.peek(), itr2.peek());
+          if (cmp < 0) {
+            itr1.next();
+          } else if (cmp > 0) {
+            itr2.next();
+          } else {
+            result[size++] = itr1.next();
+            itr2.next();
+          }
+        }
+      }
+      return sortedSetOf(comparator, result, size);
+    }
+    return null;
+  }
+
+  @GwtIncompatible // ImmutableEnumSet.delegate, RegularImmutableSortedSet
+  @NullableDecl
+  private static <E> ImmutableSet<E> bulkDifference(Set<E> set1, Set<?> set2) {
+    EnumSet<?> bits1 = enumSetBacking(set1);
+    EnumSet<?> bits2 = enumSetBacking(set2);
+    if (bits1 != null && bits2 != null) {
+      EnumSet<?> result = bits1.clone();
+      result.removeAll(bits2);
+      return immutableEnumSetOf(result);
+    } else if (set1 instanceof SortedSet && SortedIterables.hasSameComparator(
+        SortedIterables.comparator((SortedSet<?>) set1), set2)) {
+      Comparator<Object> comparator = sortedSetComparator(set1);
+      Object[] result = new Object[set1.size()];
+      int size = 0;
+      if (lookupsAreCheaper(set1, set2)) {
+        for (E e : set1) {
+          if (!set2.contains(e)) {
+            result[size++] = e;
+          }
+        }
+      } else {
+        PeekingIterator<E> itr1 = Iterators.peekingIterator(set1.iterator());
+        PeekingIterator<?> itr2 = Iterators.peekingIterator(set2.iterator());
+        while (itr1.hasNext() && itr2.hasNext()) {
+          int cmp = comparator.compare(itr1.peek(), itr2.peek());
+          if (cmp < 0) {
+            result[size++] = itr1.next();
+          } else if (cmp > 0) {
+            itr2.next();
+          } else {
+            itr1.next();
+            itr2.next();
+          }
+        }
+        size = drain(itr1, result, size);
+      }
+      return sortedSetOf(comparator, result, size);
+    }
+    return null;
+  }
+
+  /**
+   * Whether looking up each of the m elements of the first set in the second, of n elements, which
+   * takes about m log2(n) comparisons for a tree, is cheaper than merging them, which takes m + n.
+   */
+  private static boolean lookupsAreCheaper(Set<?> set1, Set<?> set2) {
+    long m = set1.size();
+    long n = set2.size();
+    return m * (Long.SIZE - Long.numberOfLeadingZeros(n)) < m + n;
+  }
+
+  private static int drain(Iterator<?> iterator, Object[] array, int size) {
+    while (iterator.hasNext()) {
+      array[size++] = iterator.next();
+    }
+    return size;
+  }
+
+  /** Returns the EnumSet backing {@code set}, which must not be modified, or else null. */
+  @GwtIncompatible // ImmutableEnumSet.delegate
+  @NullableDecl
+  private static EnumSet<?> enumSetBacking(Set<?> set) {
+    if (set instanceof EnumSet) {
+      return (EnumSet<?>) set;
+    } else if (set instanceof ImmutableEnumSet) {
+      return ((ImmutableEnumSet<?>) set).delegate();
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked") // the elements of the EnumSet are of type E
+  private static <E> ImmutableSet<E> immutableEnumSetOf(EnumSet<?> set) {
+    return (ImmutableSet<E>) ImmutableEnumSet.asImmutable(set);
+  }
+
+  @SuppressWarnings("unchecked") // the comparator accepts the elements of both sets
+  private static Comparator<Object> sortedSetComparator(Set<?> sortedSet) {
+    return (Comparator<Object>) SortedIterables.comparator((SortedSet<?>) sortedSet);
+  }
+
+  /** Returns the set of the first {@code size} elements of {@code array}, sorted and distinct. */
+  @GwtIncompatible // RegularImmutableSortedSet
+  @SuppressWarnings("unchecked") // the array only holds elements of type E
+  private static <E> ImmutableSortedSet<E> sortedSetOf(
+      Comparator<? super E> comparator, Object[] array, int size) {
+    if (size == 0) {
+      return ImmutableSortedSet.emptySet(comparator);
+    }
+    checkElementsNotNull(array, size);
+    Object[] elements = (size < array.length) ? Arrays.copyOf(array, size) : array;
+    return new RegularImmutableSortedSet<E>(
+        ImmutableList.<E>asImmutableList(elements), comparator);
+  }
+
   /**
    * Returns an unmodifiable <b>view</b> of the difference of two sets. The returned set contains
    * all elements that are contained by {@code set1} and not contained by {@code set2}. {@code set2}
@@ -808,6 +1089,10 @@ public final class Sets {
    * <p>Results are undefined if {@code set1} and {@code set2} are sets based on different
    * equivalence relations (as {@code HashSet}, {@code TreeSet}, and the keySet of an {@code
    * IdentityHashMap} all are).
+   *
+   * <p>If both sets are {@link EnumSet}s (or {@linkplain Sets#immutableEnumSet immutable enum
+   * sets}), or {@link SortedSet}s with the same comparator, {@link SetView#immutableCopy} computes
+   * the difference in bulk, word by word or by merging.
    */
   public static <E> SetView<E> difference(final Set<E> set1, final Set<?> set2) {
     checkNotNull(set1, "set1");
@@ -852,6 +1137,13 @@ public final class Sets {
       public boolean contains(Object element) {
         return set1.contains(element) && !set2.contains(element);
       }
+
+      @GwtIncompatible // bulk operations
+      @Override
+      public ImmutableSet<E> immutableCopy() {
+        ImmutableSet<E> bulk = bulkDifference(set1, set2);
+        return (bulk != null) ? bulk : super.immutableCopy();
+      }
     };
   }
 
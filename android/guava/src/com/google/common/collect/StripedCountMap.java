@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.Ints;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A concurrent counter of non-null elements, for counts that many threads update at once, such as
+ * the number of requests per URL when a few URLs receive most of them.
+ *
+ * <p>{@link ConcurrentHashMultiset} keeps each count in a single atomic integer, so that every
+ * update of a popular element contends on the same memory location. This class instead spreads the
+ * count of each element over several cells, in the manner of {@code
+ * java.util.concurrent.atomic.LongAdder}, adding cells as contention grows: concurrent increments
+ * of the same element then mostly update different cells, and do not retry. In return, reading a
+ * count sums the cells without locking them, so that a read concurrent with updates is
+ * approximate, and no operation returns the count that an update replaced: this is a counter, not
+ * a {@link Multiset}.
+ *
+ * <p>Counts are {@code long} values that may be decremented, and are not prevented from becoming
+ * negative. An element that was counted stays in the map, possibly with a count of zero, until it
+ * is {@linkplain #remove removed}.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class StripedCountMap<E> {
+  /** Creates a new, empty {@code StripedCountMap}. */
+  public static <E> StripedCountMap<E> create() {
+    return new StripedCountMap<E>();
+  }
+
+  private final ConcurrentHashMap<E, LongAddable> adders = new ConcurrentHashMap<>();
+
+  private StripedCountMap() {}
+
+  private LongAddable adder(E element) {
+    LongAddable adder = adders.get(element);
+    if (adder == null) {
+      LongAddable newAdder = LongAddables.create();
+      adder = adders.putIfAbsent(element, newAdder);
+      if (adder == null) {
+        adder = newAdder;
+      }
+    }
+    return adder;
+  }
+
+  /** Adds one to the count of {@code element}. */
+  public void increment(E element) {
+    adder(checkNotNull(element)).increment();
+  }
+
+  /** Adds {@code delta}, which may be negative, to the count of {@code element}. */
+  public void add(E element, long delta) {
+    adder(checkNotNull(element)).add(delta);
+  }
+
+  /**
+   * Returns the count of {@code element}, or zero if it is absent. This is cheap, but while other
+   * threads update {@code element}, the result may miss some of their updates.
+   */
+  public long count(@NullableDecl Object element) {
+    LongAddable adder = (element == null) ? null : adders.get(element);
+    return (adder == null) ? 0 : adder.sum();
+  }
+
+  /** Returns the sum of all the counts, with the same accuracy as {@link #count}. */
+  public long total() {
+    long total = 0;
+    for (LongAddable adder : adders.values()) {
+      total += adder.sum();
+    }
+    return total;
+  }
+
+  /** Returns the number of elements in this map, including those whose count is zero. */
+  public int size() {
+    return adders.size();
+  }
+
+  /** Returns {@code true} if this map contains no element. */
+  public boolean isEmpty() {
+    return adders.isEmpty();
+  }
+
+  /**
+   * Removes {@code element}, and returns its count, or zero if it was absent. Updates of {@code
+   * element} that are concurrent with its removal may be lost.
+   */
+  public long remove(@NullableDecl Object element) {
+    LongAddable adder = (element == null) ? null : adders.remove(element);
+    return (adder == null) ? 0 : adder.sum();
+  }
+
+  /** Removes all elements. Updates that are concurrent with this call may be lost. */
+  public void clear() {
+    adders.clear();
+  }
+
+  /**
+   * Returns an immutable map from each element whose count is not zero to its count.
+   *
+   * <p>Each count includes every update that completed before this call, and possibly some of the
+   * updates that are concurrent with it. In particular, once the updating threads have stopped, or
+   * have otherwise signalled completion of their updates (for example, by being {@linkplain
+   * Thread#join joined}), the snapshot is exact.
+   */
+  public ImmutableMap<E, Long> snapshot() {
+    ImmutableMap.Builder<E, Long> builder = ImmutableMap.builder();
+    for (Map.Entry<E, LongAddable> entry : adders.entrySet()) {
+      long count = entry.getValue().sum();
+      if (count != 0) {
+        builder.put(entry.getKey(), count);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns an immutable multiset with the same elements and counts as a {@link #snapshot}.
+   *
+   * @throws IllegalArgumentException if a count is negative or greater than {@link
+   *     Integer#MAX_VALUE}
+   */
+  public ImmutableMultiset<E> toImmutableMultiset() {
+    ImmutableMultiset.Builder<E> builder = ImmutableMultiset.builder();
+    for (Map.Entry<E, Long> entry : snapshot().entrySet()) {
+      builder.addCopies(entry.getKey(), Ints.checkedCast(entry.getValue()));
+    }
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Objects;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.Striped;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A count-min sketch for instances of {@code T}. A count-min sketch offers an approximate frequency
+ * count with one-sided error: the estimated count of an element is never smaller than the number
+ * of times it was actually added, and with probability at least {@link #confidence()} it exceeds
+ * the true count by no more than {@link #relativeError()} times {@link #totalCount()}.
+ *
+ * <p>Unlike a {@code Multiset} or an {@code AtomicLongMap}, the memory used by a sketch depends
+ * only on the requested error bounds and not on the number of distinct elements it has seen, which
+ * makes it well suited to tracking the frequencies of a large or unbounded population of keys (for
+ * example, per-client request counts) where only the most frequent ones matter.
+ *
+ * <p>Counts are maintained with the <i>conservative update</i> rule of Estan and Varghese: an
+ * addition only raises those counters that are below the new minimum estimate, which noticeably
+ * reduces overestimation compared to incrementing every counter. As a consequence, counts can
+ * only be added, never subtracted.
+ *
+ * <p>This class is thread-safe. Counters are raised with compare-and-swap, so concurrent calls to
+ * {@link #add} for different elements rarely block each other. Conservative update requires that
+ * additions of the <i>same</i> element do not interleave (otherwise both could observe the same
+ * estimate and one of them would be lost), so each addition holds one of a small set of striped
+ * locks chosen by the element's hash.
+ *
+ * <p>Two sketches created with the same parameters and equal funnels can be merged with {@link
+ * #putAll}. Sketches are serializable, and also support a more compact serial representation via
+ * the {@link #writeTo} and {@link #readFrom} methods.
+ *
+ * @param <T> the type of instances that the {@code CountMinSketch} accepts
+ * @since NEXT
+ */
+@Beta
+public final class CountMinSketch<T> implements Serializable {
+  private static final int COUNTERS_PER_STRIPE = 64;
+
+  /** The counters, stored row by row: {@code depth} rows of {@code width} counters each. */
+  private final AtomicLongArray counters;
+
+  /** Number of rows, which is also the number of hashes per element. */
+  private final int depth;
+
+  /** Number of counters per row. */
+  private final int width;
+
+  /** Sum of all counts added to this sketch. */
+  private final LongAddable totalCount;
+
+  /** The funnel to translate Ts to bytes */
+  private final Funnel<? super T> funnel;
+
+  /** Serializes additions of equal elements; see the class documentation. */
+  private final Striped<Lock> locks;
+
+  /** Creates a CountMinSketch. */
+  private CountMinSketch(
+      AtomicLongArray counters, int depth, int width, long totalCount, Funnel<? super T> funnel) {
+    checkArgument(depth > 0, "depth (%s) must be > 0", depth);
+    checkArgument(depth <= 255, "depth (%s) must be <= 255", depth);
+    checkArgument(width > 0, "width (%s) must be > 0", width);
+    checkArgument(
+        counters.length() == (long) depth * width,
+        "counters length (%s) must be depth * width (%s * %s)",
+        counters.length(),
+        depth,
+        width);
+    this.counters = counters;
+    this.depth = depth;
+    this.width = width;
+    this.totalCount = LongAddables.create();
+    this.totalCount.add(totalCount);
+    this.funnel = checkNotNull(funnel);
+    this.locks = Striped.lock(stripes(width));
+  }
+
+  /**
+   * Returns the number of locks of a sketch with {@code width} counters per row: one for every
+   * {@value #COUNTERS_PER_STRIPE} counters of a row, but at least one and at most four per
+   * processor. Small sketches, whose additions contend on the same counters anyway, thus don't
+   * each allocate dozens of locks.
+   */
+  @VisibleForTesting
+  static int stripes(int width) {
+    return Ints.constrainToRange(
+        width / COUNTERS_PER_STRIPE, 1, Runtime.getRuntime().availableProcessors() * 4);
+  }
+
+  /**
+   * Creates a new {@code CountMinSketch} that's a copy of this instance. The new instance is equal
+   * to this instance but shares no mutable state.
+   */
+  public CountMinSketch<T> copy() {
+    return new CountMinSketch<T>(
+        new AtomicLongArray(toPlainArray(counters)), depth, width, totalCount(), funnel);
+  }
+
+  /**
+   * Adds one occurrence of the element to this sketch.
+   *
+   * @return the estimated count of {@code object} after this addition
+   */
+  @CanIgnoreReturnValue
+  public long add(T object) {
+    return add(object, 1);
+  }
+
+  /**
+   * Adds {@code occurrences} occurrences of the element to this sketch.
+   *
+   * @return the estimated count of {@code object} after this addition
+   * @throws IllegalArgumentException if {@code occurrences} is negative
+   */
+  @CanIgnoreReturnValue
+  public long add(T object, long occurrences) {
+    checkArgument(occurrences >= 0, "occurrences (%s) must be >= 0", occurrences);
+    byte[] bytes = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    long hash1 = lowerEight(bytes);
+    long hash2 = upperEight(bytes);
+
+    if (occurrences == 0) {
+      return estimate(hash1, hash2);
+    }
+    Lock lock = locks.getAt((int) hash2 & (locks.size() - 1));
+    lock.lock();
+    try {
+      // Conservative update: only raise those counters that fall below the new estimate. Additions
+      // of other elements may raise the same counters concurrently, but counters are never lowered,
+      // so every estimate stays an upper bound.
+      long target = estimate(hash1, hash2) + occurrences;
+      long combinedHash = hash1;
+      for (int i = 0; i < depth; i++) {
+        int index = index(i, combinedHash);
+        long oldValue;
+        do {
+          oldValue = counters.get(index);
+          if (oldValue >= target) {
+            break;
+          }
+        } while (!counters.compareAndSet(index, oldValue, target));
+        combinedHash += hash2;
+      }
+      totalCount.add(occurrences);
+      return target;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the estimated number of occurrences of the element in this sketch. The estimate is
+   * never smaller than the actual number of occurrences added.
+   */
+  public long estimateCount(T object) {
+    byte[] bytes = Hashing.murmur3_128().hashObject(object, funnel).getBytesInternal();
+    return estimate(lowerEight(bytes), upperEight(bytes));
+  }
+
+  private long estimate(long hash1, long hash2) {
+    long min = Long.MAX_VALUE;
+    long combinedHash = hash1;
+    for (int i = 0; i < depth; i++) {
+      min = Math.min(min, counters.get(index(i, combinedHash)));
+      combinedHash += hash2;
+    }
+    return min;
+  }
+
+  private int index(int row, long combinedHash) {
+    // Make the combined hash positive and indexable
+    return row * width + (int) ((combinedHash & Long.MAX_VALUE) % width);
+  }
+
+  /**
+   * Returns the sum of all occurrences added to this sketch, including those merged in with {@link
+   * #putAll}.
+   *
+   * <p>Note that because of concurrent calls to {@link #add}, this may be slightly behind the sum
+   * of the counts observable in the sketch.
+   */
+  public long totalCount() {
+    return totalCount.sum();
+  }
+
+  /**
+   * Returns the relative error of this sketch: with probability {@link #confidence()}, the estimate
+   * returned by {@link #estimateCount} overshoots the actual count by at most {@code
+   * relativeError() * totalCount()}.
+   */
+  public double relativeError() {
+    return Math.E / width;
+  }
+
+  /** Returns the probability that an estimate is within the {@linkplain #relativeError bounds}. */
+  public double confidence() {
+    return 1 - Math.exp(-depth);
+  }
+
+  @VisibleForTesting
+  int depth() {
+    return depth;
+  }
+
+  @VisibleForTesting
+  int width() {
+    return width;
+  }
+
+  /**
+   * Determines whether a given sketch is compatible with this sketch. For two sketches to be
+   * compatible, they must:
+   *
+   * <ul>
+   *   <li>not be the same instance
+   *   <li>have the same depth
+   *   <li>have the same width
+   *   <li>have equal funnels
+   * </ul>
+   *
+   * @param that The sketch to check for compatibility.
+   */
+  public boolean isCompatible(CountMinSketch<T> that) {
+    checkNotNull(that);
+    return (this != that)
+        && (this.depth == that.depth)
+        && (this.width == that.width)
+        && (this.funnel.equals(that.funnel));
+  }
+
+  /**
+   * Combines this sketch with another sketch by adding up their counters, so that this sketch
+   * estimates the counts of both. The mutations happen to <b>this</b> instance.
+   *
+   * <p>Additions to this sketch block until the merge completes. If {@code that} is being mutated
+   * while this method runs, only the occurrences added to it before the start of this method are
+   * guaranteed to be reflected in this sketch.
+   *
+   * @param that The sketch to combine this sketch with. It is not mutated.
+   * @throws IllegalArgumentException if {@code isCompatible(that) == false}
+   */
+  public void putAll(CountMinSketch<T> that) {
+    checkNotNull(that);
+    checkArgument(this != that, "Cannot combine a CountMinSketch with itself.");
+    checkArgument(
+        this.depth == that.depth,
+        "CountMinSketches must have the same depth (%s != %s)",
+        this.depth,
+        that.depth);
+    checkArgument(
+        this.width == that.width,
+        "CountMinSketches must have the same width (%s != %s)",
+        this.width,
+        that.width);
+    checkArgument(
+        this.funnel.equals(that.funnel),
+        "CountMinSketches must have equal funnels (%s != %s)",
+        this.funnel,
+        that.funnel);
+    // Counters of an element may only be added to while no addition of that element is running, so
+    // we take every stripe, always in the same order.
+    int lockedStripes = 0;
+    try {
+      for (; lockedStripes < locks.size(); lockedStripes++) {
+        locks.getAt(lockedStripes).lock();
+      }
+      this.totalCount.add(that.totalCount());
+      for (int i = 0; i < counters.length(); i++) {
+        long otherValue = that.counters.get(i);
+        if (otherValue != 0) {
+          counters.getAndAdd(i, otherValue);
+        }
+      }
+    } finally {
+      while (lockedStripes > 0) {
+        locks.getAt(--lockedStripes).unlock();
+      }
+    }
+  }
+
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (object instanceof CountMinSketch) {
+      CountMinSketch<?> that = (CountMinSketch<?>) object;
+      return this.depth == that.depth
+          && this.width == that.width
+          && this.funnel.equals(that.funnel)
+          && Arrays.equals(toPlainArray(this.counters), toPlainArray(that.counters));
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(depth, width, funnel, Arrays.hashCode(toPlainArray(counters)));
+  }
+
+  /**
+   * Creates a {@link CountMinSketch} with the given error bounds: with probability at least {@code
+   * confidence}, each estimate exceeds the actual count by no more than {@code relativeError *
+   * totalCount()}.
+   *
+   * <p>The sketch uses {@code ceil(e / relativeError) * ceil(ln(1 / (1 - confidence)))} counters of
+   * eight bytes each, regardless of how many distinct elements are added.
+   *
+   * <p>The constructed {@code CountMinSketch} will be serializable if the provided {@code
+   * Funnel<T>} is.
+   *
+   * <p>It is recommended that the funnel be implemented as a Java enum. This has the benefit of
+   * ensuring proper serialization and deserialization, which is important since {@link #equals}
+   * also relies on object identity of funnels.
+   *
+   * @param funnel the funnel of T's that the constructed {@code CountMinSketch} will use
+   * @param relativeError the desired relative error (must be positive and less than 1.0)
+   * @param confidence the desired probability that an estimate falls within the error bounds (must
+   *     be positive and less than 1.0)
+   * @return a {@code CountMinSketch}
+   */
+  public static <T> CountMinSketch<T> create(
+      Funnel<? super T> funnel, double relativeError, double confidence) {
+    checkNotNull(funnel);
+    checkArgument(relativeError > 0.0, "Relative error (%s) must be > 0.0", relativeError);
+    checkArgument(relativeError < 1.0, "Relative error (%s) must be < 1.0", relativeError);
+    checkArgument(confidence > 0.0, "Confidence (%s) must be > 0.0", confidence);
+    checkArgument(confidence < 1.0, "Confidence (%s) must be < 1.0", confidence);
+
+    int width = optimalWidth(relativeError);
+    int depth = optimalDepth(confidence);
+    long numCounters = (long) width * depth;
+    checkArgument(
+        numCounters <= Integer.MAX_VALUE,
+        "Could not create CountMinSketch of %s counters",
+        numCounters);
+    return new CountMinSketch<T>(new AtomicLongArray((int) numCounters), depth, width, 0, funnel);
+  }
+
+  /**
+   * Creates a {@link CountMinSketch} with the given relative error and a default confidence of
+   * 99%.
+   *
+   * @param funnel the funnel of T's that the constructed {@code CountMinSketch} will use
+   * @param relativeError the desired relative error (must be positive and less than 1.0)
+   * @return a {@code CountMinSketch}
+   */
+  public static <T> CountMinSketch<T> create(Funnel<? super T> funnel, double relativeError) {
+    return create(funnel, relativeError, 0.99); // FYI, for 99%, we always get 5 rows
+  }
+
+  // Cheat sheet:
+  //
+  // w: counters per row
+  // d: number of rows
+  // eps: relative error
+  // delta: probability of exceeding the error bound (1 - confidence)
+  //
+  // 1) w = ceil(e / eps)
+  // 2) d = ceil(ln(1 / delta))
+
+  /** Computes the number of counters per row for the given relative error (must be 0 < eps < 1). */
+  @VisibleForTesting
+  static int optimalWidth(double relativeError) {
+    double width = Math.ceil(Math.E / relativeError);
+    checkArgument(width <= Integer.MAX_VALUE, "Relative error (%s) is too small", relativeError);
+    return (int) width;
+  }
+
+  /** Computes the number of rows for the given confidence (must be 0 < confidence < 1). */
+  @VisibleForTesting
+  static int optimalDepth(double confidence) {
+    return Math.min(255, Math.max(1, (int) Math.ceil(-Math.log(1 - confidence))));
+  }
+
+  private static long lowerEight(byte[] bytes) {
+    return Longs.fromBytes(
+        bytes[7], bytes[6], bytes[5], bytes[4], bytes[3], bytes[2], bytes[1], bytes[0]);
+  }
+
+  private static long upperEight(byte[] bytes) {
+    return Longs.fromBytes(
+        bytes[15], bytes[14], bytes[13], bytes[12], bytes[11], bytes[10], bytes[9], bytes[8]);
+  }
+
+  /**
+   * Careful here: if threads are mutating the atomicLongArray while this method is executing, the
+   * final long[] will be a "rolling snapshot" of the state of the counters.
+   */
+  private static long[] toPlainArray(AtomicLongArray atomicLongArray) {
+    long[] array = new long[atomicLongArray.length()];
+    for (int i = 0; i < array.length; ++i) {
+      array[i] = atomicLongArray.get(i);
+    }
+    return array;
+  }
+
+  private static final long serialVersionUID = 0;
+
+  private Object writeReplace() {
+    return new SerialForm<T>(this);
+  }
+
+  private static class SerialForm<T> implements Serializable {
+    final long[] counters;
+    final int depth;
+    final int width;
+    final long totalCount;
+    final Funnel<? super T> funnel;
+
+    SerialForm(CountMinSketch<T> sketch) {
+      this.counters = toPlainArray(sketch.counters);
+      this.depth = sketch.depth;
+      this.width = sketch.width;
+      this.totalCount = sketch.totalCount();
+      this.funnel = sketch.funnel;
+    }
+
+    Object readResolve() {
+      return new CountMinSketch<T>(
+          new AtomicLongArray(counters), depth, width, totalCount, funnel);
+    }
+
+    private static final long serialVersionUID = 1;
+  }
+
+  /**
+   * Writes this {@code CountMinSketch} to an output stream, with a custom format (not Java
+   * serialization).
+   *
+   * <p>Use {@linkplain #readFrom(InputStream, Funnel)} to reconstruct the written sketch.
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    // Serial form:
+    // 1 unsigned byte for the depth
+    // 1 big endian int, the width
+    // 1 big endian long, the total count
+    // depth * width big endian longs of our counters
+    DataOutputStream dout = new DataOutputStream(out);
+    dout.writeByte(depth); // note: checked at the c'tor
+    dout.writeInt(width);
+    dout.writeLong(totalCount());
+    for (int i = 0; i < counters.length(); i++) {
+      dout.writeLong(counters.get(i));
+    }
+  }
+
+  /**
+   * Reads a byte stream, which was written by {@linkplain #writeTo(OutputStream)}, into a {@code
+   * CountMinSketch}.
+   *
+   * <p>The {@code Funnel} to be used is not encoded in the stream, so it must be provided here.
+   * <b>Warning:</b> the funnel provided <b>must</b> behave identically to the one used to populate
+   * the original sketch!
+   *
+   * @throws IOException if the InputStream throws an {@code IOException}, or if its data does not
+   *     appear to be a CountMinSketch serialized using the {@linkplain #writeTo(OutputStream)}
+   *     method.
+   */
+  public static <T> CountMinSketch<T> readFrom(InputStream in, Funnel<? super T> funnel)
+      throws IOException {
+    checkNotNull(in, "InputStream");
+    checkNotNull(funnel, "Funnel");
+    int depth = -1;
+    int width = -1;
+    try {
+      DataInputStream din = new DataInputStream(in);
+      depth = din.readUnsignedByte();
+      width = din.readInt();
+      long totalCount = din.readLong();
+      checkArgument(width > 0, "width (%s) must be > 0", width);
+      long[] counters = new long[Ints.checkedCast((long) depth * width)];
+      for (int i = 0; i < counters.length; i++) {
+        counters[i] = din.readLong();
+      }
+      return new CountMinSketch<T>(
+          new AtomicLongArray(counters), depth, width, totalCount, funnel);
+    } catch (RuntimeException e) {
+      String message =
+          "Unable to deserialize CountMinSketch from InputStream."
+              + " depth: "
+              + depth
+              + " width: "
+              + width;
+      throw new IOException(message, e);
+    }
+  }
+}
@@ -428,6 +428,59 @@ public final class Hashing {
     return FarmHashFingerprint64.FARMHASH_FINGERPRINT_64;
   }
 
+  /**
+   * Returns a hash function implementing the <a href="https://cyan4973.github.io/xxHash/">64-bit
+   * xxHash algorithm</a> (XXH64) using a seed value of zero.
+   *
+   * <p>The hash is encoded by {@link HashCode#asBytes} in little-endian order, so {@link
+   * HashCode#asLong} returns the same value as the reference {@code XXH64()} for the same input.
+   *
+   * <p>This is a fast, high-quality hash function, but it is not cryptographically secure.
+   *
+   * @since NEXT
+   */
+  public static HashFunction xxHash64() {
+    return XxHash64HashFunction.XXHASH_64;
+  }
+
+  /**
+   * Returns a hash function implementing the <a href="https://cyan4973.github.io/xxHash/">64-bit
+   * xxHash algorithm</a> (XXH64) using the given seed value.
+   *
+   * @since NEXT
+   */
+  public static HashFunction xxHash64(long seed) {
+    return new XxHash64HashFunction(seed);
+  }
+
+  /**
+   * Returns a hash function implementing the 64-bit variant of the <a
+   * href="https://cyan4973.github.io/xxHash/">XXH3 algorithm</a> using a seed value of zero. XXH3
+   * is considerably faster than {@link #xxHash64()} on short inputs.
+   *
+   * <p>The hash is encoded by {@link HashCode#asBytes} in little-endian order, so {@link
+   * HashCode#asLong} returns the same value as the reference {@code XXH3_64bits()} for the same
+   * input.
+   *
+   * <p>This is a fast, high-quality hash function, but it is not cryptographically secure.
+   *
+   * @since NEXT
+   */
+  public static HashFunction xxh3_64() {
+    return Xxh3HashFunction.XXH3_64;
+  }
+
+  /**
+   * Returns a hash function implementing the 64-bit variant of the <a
+   * href="https://cyan4973.github.io/xxHash/">XXH3 algorithm</a> using the given seed value, as
+   * {@code XXH3_64bits_withSeed()} does.
+   *
+   * @since NEXT
+   */
+  public static HashFunction xxh3_64(long seed) {
+    return new Xxh3HashFunction(seed);
+  }
+
   /**
    * Assigns to {@code hashCode} a "bucket" in the range {@code [0, buckets)}, in a uniform manner
    * that minimizes the need for remapping as {@code buckets} grows. That is, {@code
@@ -225,6 +225,31 @@ final class Murmur3_32HashFunction extends AbstractHashFunction implements Seria
     return fmix(h1, len);
   }
 
+  @Override
+  public HashCode hashBytes(ByteBuffer input) {
+    if (input.hasArray()) {
+      HashCode hash =
+          hashBytes(input.array(), input.arrayOffset() + input.position(), input.remaining());
+      input.position(input.limit());
+      return hash;
+    }
+    // Read a direct buffer in place, through a little-endian view of it, without copying it to the
+    // heap.
+    int len = input.remaining();
+    ByteBuffer bytes = input.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    int h1 = seed;
+    while (bytes.remaining() >= CHUNK_SIZE) {
+      h1 = mixH1(h1, mixK1(bytes.getInt()));
+    }
+    int k1 = 0;
+    for (int shift = 0; bytes.hasRemaining(); shift += 8) {
+      k1 ^= toInt(bytes.get()) << shift;
+    }
+    input.position(input.limit());
+    h1 ^= mixK1(k1);
+    return fmix(h1, len);
+  }
+
   private static int getIntLittleEndian(byte[] input, int offset) {
     return Ints.fromBytes(input[offset + 3], input[offset + 2], input[offset + 1], input[offset]);
   }
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+/*
+ * xxHash was written by Yann Collet, and is distributed under the BSD 2-Clause License.
+ *
+ * Source:
+ * https://github.com/Cyan4973/xxHash/blob/dev/xxhash.h
+ * (Modified to adapt to Guava coding conventions and to use the HashFunction interface)
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.hash.LittleEndianByteArray.load32;
+import static com.google.common.hash.LittleEndianByteArray.load64;
+import static com.google.common.primitives.UnsignedBytes.toInt;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * Implementation of XXH64, the 64-bit variant of Yann Collet's xxHash algorithm.
+ *
+ * <p>Note to maintainers: like {@link FarmHashFingerprint64}, this implementation relies on signed
+ * arithmetic being bit-wise equivalent to unsigned arithmetic; right shifts must be unsigned.
+ */
+final class XxHash64HashFunction extends AbstractHashFunction implements Serializable {
+  static final HashFunction XXHASH_64 = new XxHash64HashFunction(0);
+
+  private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME64_3 = 0x165667B19E3779F9L;
+  private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+
+  private final long seed;
+
+  XxHash64HashFunction(long seed) {
+    this.seed = seed;
+  }
+
+  @Override
+  public int bits() {
+    return 64;
+  }
+
+  @Override
+  public Hasher newHasher() {
+    return new XxHash64Hasher(seed);
+  }
+
+  // The overrides below compute the hash directly, without allocating a Hasher.
+
+  @Override
+  public HashCode hashInt(int input) {
+    long hash = seed + PRIME64_5 + 4;
+    hash = mixTail4(hash, input & 0xFFFFFFFFL);
+    return HashCode.fromLong(avalanche(hash));
+  }
+
+  @Override
+  public HashCode hashLong(long input) {
+    long hash = seed + PRIME64_5 + 8;
+    hash = mixTail8(hash, input);
+    return HashCode.fromLong(avalanche(hash));
+  }
+
+  @Override
+  public HashCode hashBytes(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return HashCode.fromLong(hash64(input, off, len, seed));
+  }
+
+  @Override
+  public String toString() {
+    return "Hashing.xxHash64(" + seed + ")";
+  }
+
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object instanceof XxHash64HashFunction) {
+      XxHash64HashFunction other = (XxHash64HashFunction) object;
+      return seed == other.seed;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (getClass().hashCode() ^ seed);
+  }
+
+  @VisibleForTesting
+  static long hash64(byte[] input, int off, int len, long seed) {
+    int end = off + len;
+    long hash;
+    if (len >= 32) {
+      long v1 = seed + PRIME64_1 + PRIME64_2;
+      long v2 = seed + PRIME64_2;
+      long v3 = seed;
+      long v4 = seed - PRIME64_1;
+      int limit = end - 32;
+      do {
+        v1 = round(v1, load64(input, off));
+        v2 = round(v2, load64(input, off + 8));
+        v3 = round(v3, load64(input, off + 16));
+        v4 = round(v4, load64(input, off + 24));
+        off += 32;
+      } while (off <= limit);
+      hash = mergeAccumulators(v1, v2, v3, v4);
+    } else {
+      hash = seed + PRIME64_5;
+    }
+    hash += len;
+
+    for (; off + 8 <= end; off += 8) {
+      hash = mixTail8(hash, load64(input, off));
+    }
+    if (off + 4 <= end) {
+      hash = mixTail4(hash, load32(input, off) & 0xFFFFFFFFL);
+      off += 4;
+    }
+    for (; off < end; off++) {
+      hash = mixTail1(hash, toInt(input[off]));
+    }
+    return avalanche(hash);
+  }
+
+  private static long round(long acc, long input) {
+    acc += input * PRIME64_2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * PRIME64_1;
+  }
+
+  private static long mergeRound(long acc, long value) {
+    acc ^= round(0, value);
+    return acc * PRIME64_1 + PRIME64_4;
+  }
+
+  private static long mergeAccumulators(long v1, long v2, long v3, long v4) {
+    long hash =
+        Long.rotateLeft(v1, 1)
+            + Long.rotateLeft(v2, 7)
+            + Long.rotateLeft(v3, 12)
+            + Long.rotateLeft(v4, 18);
+    hash = mergeRound(hash, v1);
+    hash = mergeRound(hash, v2);
+    hash = mergeRound(hash, v3);
+    return mergeRound(hash, v4);
+  }
+
+  private static long mixTail8(long hash, long input) {
+    hash ^= round(0, input);
+    return Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+  }
+
+  private static long mixTail4(long hash, long unsignedInput) {
+    hash ^= unsignedInput * PRIME64_1;
+    return Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+  }
+
+  private static long mixTail1(long hash, int unsignedInput) {
+    hash ^= unsignedInput * PRIME64_5;
+    return Long.rotateLeft(hash, 11) * PRIME64_1;
+  }
+
+  private static long avalanche(long hash) {
+    hash ^= hash >>> 33;
+    hash *= PRIME64_2;
+    hash ^= hash >>> 29;
+    hash *= PRIME64_3;
+    return hash ^ (hash >>> 32);
+  }
+
+  private static final class XxHash64Hasher extends AbstractStreamingHasher {
+    private static final int CHUNK_SIZE = 32;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+    private final long seed;
+    private long length;
+    private long tail;
+
+    XxHash64Hasher(long seed) {
+      super(CHUNK_SIZE);
+      this.seed = seed;
+      this.v1 = seed + PRIME64_1 + PRIME64_2;
+      this.v2 = seed + PRIME64_2;
+      this.v3 = seed;
+      this.v4 = seed - PRIME64_1;
+    }
+
+    @Override
+    protected void process(ByteBuffer bb) {
+      v1 = round(v1, bb.getLong());
+      v2 = round(v2, bb.getLong());
+      v3 = round(v3, bb.getLong());
+      v4 = round(v4, bb.getLong());
+      length += CHUNK_SIZE;
+    }
+
+    @Override
+    protected void processRemaining(ByteBuffer bb) {
+      length += bb.remaining();
+      long hash = start();
+      while (bb.remaining() >= 8) {
+        hash = mixTail8(hash, bb.getLong());
+      }
+      if (bb.remaining() >= 4) {
+        hash = mixTail4(hash, bb.getInt() & 0xFFFFFFFFL);
+      }
+      while (bb.hasRemaining()) {
+        hash = mixTail1(hash, toInt(bb.get()));
+      }
+      tail = hash;
+    }
+
+    @Override
+    protected HashCode makeHash() {
+      // processRemaining is only called if the input did not end on a chunk boundary
+      long hash = (length % CHUNK_SIZE == 0) ? start() : tail;
+      return HashCode.fromLong(avalanche(hash));
+    }
+
+    /** Returns the hash state before the bytes of the last partial chunk are mixed in. */
+    private long start() {
+      long hash = (length >= CHUNK_SIZE) ? mergeAccumulators(v1, v2, v3, v4) : seed + PRIME64_5;
+      return hash + length;
+    }
+  }
+
+  private static final long serialVersionUID = 0L;
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.primitives;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndex;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtCompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A growable, mutable list of {@code double} values, backed by a {@code double[]}. It is the
+ * mutable counterpart of {@link ImmutableDoubleArray}: unlike {@code ArrayList<Double>}, it stores
+ * its values unboxed, and unlike {@link ImmutableDoubleArray.Builder}, it supports replacing,
+ * inserting and removing values, and can be cleared and reused.
+ *
+ * <p>Appending takes amortized constant time. {@link #toImmutableArray} shares the backing array
+ * with the returned {@code ImmutableDoubleArray} instead of copying it; the next operation that
+ * would overwrite a shared value copies the array first, so the immutable array never changes.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtCompatible
+public final class DoubleArrayList {
+  private static final int DEFAULT_CAPACITY = 10;
+
+  /** Creates an empty list with a default initial capacity. */
+  public static DoubleArrayList create() {
+    return new DoubleArrayList(new double[DEFAULT_CAPACITY], 0);
+  }
+
+  /**
+   * Creates an empty list that can hold {@code initialCapacity} values without growing.
+   *
+   * @throws IllegalArgumentException if {@code initialCapacity} is negative
+   */
+  public static DoubleArrayList createWithCapacity(int initialCapacity) {
+    checkArgument(initialCapacity >= 0, "Invalid initialCapacity: %s", initialCapacity);
+    return new DoubleArrayList(new double[initialCapacity], 0);
+  }
+
+  /** Creates a list containing the given values, in order. */
+  public static DoubleArrayList of(double... values) {
+    return new DoubleArrayList(values.clone(), values.length);
+  }
+
+  /** Creates a list containing the values of {@code values}, in order. */
+  public static DoubleArrayList copyOf(ImmutableDoubleArray values) {
+    return new DoubleArrayList(values.toArray(), values.length());
+  }
+
+  /** Creates a list containing the values of {@code values}, in order. */
+  public static DoubleArrayList copyOf(Collection<Double> values) {
+    return new DoubleArrayList(Doubles.toArray(values), values.size());
+  }
+
+  private double[] array;
+  private int size;
+
+  /**
+   * The length of the prefix of {@link #array} that is shared with an {@link ImmutableDoubleArray},
+   * and must be copied before it is overwritten.
+   */
+  private int sharedLength;
+
+  private DoubleArrayList(double[] array, int size) {
+    this.array = array;
+    this.size = size;
+  }
+
+  /** Returns the number of values in this list. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns {@code true} if this list contains no values. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Returns the value at {@code index}.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or greater than or equal to
+   *     {@link #size}
+   */
+  public double get(int index) {
+    checkElementIndex(index, size);
+    return array[index];
+  }
+
+  /**
+   * Replaces the value at {@code index} with {@code value}, and returns the previous value.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or greater than or equal to
+   *     {@link #size}
+   */
+  @CanIgnoreReturnValue
+  public double set(int index, double value) {
+    checkElementIndex(index, size);
+    prepareWrite(index);
+    double oldValue = array[index];
+    array[index] = value;
+    return oldValue;
+  }
+
+  /** Appends {@code value} to the end of this list. */
+  public void add(double value) {
+    ensureRoomFor(1);
+    prepareWrite(size);
+    array[size++] = value;
+  }
+
+  /**
+   * Inserts {@code value} at {@code index}, shifting the values at and after {@code index} to the
+   * right.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or greater than {@link #size}
+   */
+  public void add(int index, double value) {
+    checkPositionIndex(index, size);
+    ensureRoomFor(1);
+    prepareWrite(index);
+    System.arraycopy(array, index, array, index + 1, size - index);
+    array[index] = value;
+    size++;
+  }
+
+  /** Appends all of {@code values}, in order, to the end of this list. */
+  public void addAll(double[] values) {
+    addAll(values, 0, values.length);
+  }
+
+  /**
+   * Appends {@code values[fromIndex]} through {@code values[toIndex - 1]}, in order, to the end of
+   * this list.
+   *
+   * @throws IndexOutOfBoundsException if {@code fromIndex} or {@code toIndex} is out of range
+   */
+  public void addAll(double[] values, int fromIndex, int toIndex) {
+    checkPositionIndexes(fromIndex, toIndex, values.length);
+    int count = toIndex - fromIndex;
+    ensureRoomFor(count);
+    prepareWrite(size);
+    System.arraycopy(values, fromIndex, array, size, count);
+    size += count;
+  }
+
+  /** Appends all values of {@code values}, in order, to the end of this list. */
+  public void addAll(ImmutableDoubleArray values) {
+    int count = values.length();
+    ensureRoomFor(count);
+    prepareWrite(size);
+    for (int i = 0; i < count; i++) {
+      array[size + i] = values.get(i);
+    }
+    size += count;
+  }
+
+  /** Appends all values of {@code values}, in order, to the end of this list. */
+  public void addAll(DoubleArrayList values) {
+    addAll(values.array, 0, values.size);
+  }
+
+  /**
+   * Removes the value at {@code index}, shifting the values after it to the left, and returns it.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or greater than or equal to
+   *     {@link #size}
+   */
+  @CanIgnoreReturnValue
+  public double removeAt(int index) {
+    checkElementIndex(index, size);
+    prepareWrite(index);
+    double oldValue = array[index];
+    System.arraycopy(array, index + 1, array, index, size - index - 1);
+    size--;
+    return oldValue;
+  }
+
+  /**
+   * Removes the values from {@code fromIndex}, inclusive, to {@code toIndex}, exclusive, shifting
+   * the values after them to the left.
+   *
+   * @throws IndexOutOfBoundsException if {@code fromIndex} or {@code toIndex} is out of range
+   */
+  public void removeRange(int fromIndex, int toIndex) {
+    checkPositionIndexes(fromIndex, toIndex, size);
+    if (toIndex < size) {
+      prepareWrite(fromIndex);
+      System.arraycopy(array, toIndex, array, fromIndex, size - toIndex);
+    }
+    size -= toIndex - fromIndex;
+  }
+
+  /** Removes all values from this list, keeping its capacity. */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * Returns the smallest index of {@code target} in this list, or {@code -1} if it is not present.
+   * Values are compared as if by {@link Double#equals}.
+   */
+  public int indexOf(double target) {
+    for (int i = 0; i < size; i++) {
+      if (areEqual(array[i], target)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the largest index of {@code target} in this list, or {@code -1} if it is not present.
+   * Values are compared as if by {@link Double#equals}.
+   */
+  public int lastIndexOf(double target) {
+    for (int i = size - 1; i >= 0; i--) {
+      if (areEqual(array[i], target)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Returns {@code true} if {@code target} is present at any index in this list. */
+  public boolean contains(double target) {
+    return indexOf(target) >= 0;
+  }
+
+  /** Sorts this list into ascending order, in place. */
+  public void sort() {
+    prepareWrite(0);
+    Arrays.sort(array, 0, size);
+  }
+
+  /**
+   * Searches this list, which must be sorted in ascending order, for {@code key}, as specified by
+   * {@link Arrays#binarySearch(double[], int, int, double)}.
+   *
+   * @return the index of {@code key}, if present; otherwise {@code (-(insertion point) - 1)}
+   */
+  public int binarySearch(double key) {
+    return Arrays.binarySearch(array, 0, size, key);
+  }
+
+  /** Returns a new array containing the values of this list, in order. */
+  public double[] toArray() {
+    return Arrays.copyOf(array, size);
+  }
+
+  /**
+   * Returns an immutable array containing the current values of this list, in order.
+   *
+   * <p><b>Performance note:</b> no data is copied: the returned array shares its backing array with
+   * this list, which copies the shared values before it next overwrites any of them. The returned
+   * array may therefore occupy more memory than necessary; to trim it, use {@code
+   * toImmutableArray().trimmed()}.
+   */
+  public ImmutableDoubleArray toImmutableArray() {
+    sharedLength = Math.max(sharedLength, size);
+    return ImmutableDoubleArray.wrap(array, size);
+  }
+
+  /** Increases the capacity of this list, if necessary, to hold at least {@code minCapacity}. */
+  public void ensureCapacity(int minCapacity) {
+    if (minCapacity > array.length) {
+      array = Arrays.copyOf(array, minCapacity);
+      sharedLength = 0;
+    }
+  }
+
+  /** Reduces the capacity of this list to its size. */
+  public void trimToSize() {
+    if (array.length > size) {
+      array = Arrays.copyOf(array, size);
+      sharedLength = 0;
+    }
+  }
+
+  private void ensureRoomFor(int numberToAdd) {
+    int newSize = size + numberToAdd;
+    if (newSize > array.length) {
+      array = Arrays.copyOf(array, expandedCapacity(array.length, newSize));
+      sharedLength = 0;
+    }
+  }
+
+  // Unfortunately this is pasted from ImmutableCollection.Builder.
+  private static int expandedCapacity(int oldCapacity, int minCapacity) {
+    if (minCapacity < 0) {
+      throw new AssertionError("cannot store more than MAX_VALUE elements");
+    }
+    // careful of overflow!
+    int newCapacity = oldCapacity + (oldCapacity >> 1) + 1;
+    if (newCapacity < minCapacity) {
+      newCapacity = Integer.highestOneBit(minCapacity - 1) << 1;
+    }
+    if (newCapacity < 0) {
+      newCapacity = Integer.MAX_VALUE; // guaranteed to be >= newCapacity
+    }
+    return newCapacity;
+  }
+
+  /** Copies the backing array if the value at {@code index} or later ones are shared. */
+  private void prepareWrite(int index) {
+    if (index < sharedLength) {
+      array = array.clone();
+      sharedLength = 0;
+    }
+  }
+
+  /**
+   * Returns a modifiable view of this list as a {@code List}; note that {@code double} values are
+   * boxed into {@link Double} instances on demand, which can be very expensive. Changes to either
+   * are visible in the other; the view supports {@code set}, {@code add} and {@code remove}, but
+   * rejects {@code null} values.
+   */
+  public List<Double> asList() {
+    return new AsList(this);
+  }
+
+  private static final class AsList extends AbstractList<Double> implements RandomAccess {
+    private final DoubleArrayList parent;
+
+    AsList(DoubleArrayList parent) {
+      this.parent = parent;
+    }
+
+    @Override
+    public int size() {
+      return parent.size;
+    }
+
+    @Override
+    public Double get(int index) {
+      return parent.get(index);
+    }
+
+    @Override
+    public Double set(int index, Double element) {
+      return parent.set(index, checkNotNull(element));
+    }
+
+    @Override
+    public void add(int index, Double element) {
+      parent.add(index, checkNotNull(element));
+      modCount++;
+    }
+
+    @Override
+    public Double remove(int index) {
+      modCount++;
+      return parent.removeAt(index);
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+      modCount++;
+      parent.removeRange(fromIndex, toIndex);
+    }
+
+    @Override
+    public void clear() {
+      modCount++;
+      parent.clear();
+    }
+
+    @Override
+    public boolean contains(Object target) {
+      return indexOf(target) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object target) {
+      return target instanceof Double ? parent.indexOf((Double) target) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object target) {
+      return target instanceof Double ? parent.lastIndexOf((Double) target) : -1;
+    }
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is a {@code DoubleArrayList} containing the same values
+   * as this one, in the same order.
+   */
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (!(object instanceof DoubleArrayList)) {
+      return false;
+    }
+    DoubleArrayList that = (DoubleArrayList) object;
+    if (this.size != that.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (!areEqual(this.array[i], that.array[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the same hash code as an {@link ImmutableDoubleArray} with the same values. */
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (int i = 0; i < size; i++) {
+      hash *= 31;
+      hash += Doubles.hashCode(array[i]);
+    }
+    return hash;
+  }
+
+  private static boolean areEqual(double a, double b) {
+    return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+  }
+
+  /**
+   * Returns a string representation of this list in the same form as {@link
+   * Arrays#toString(double[])}, for example {@code "[1, 2, 3]"}.
+   */
+  @Override
+  public String toString() {
+    if (isEmpty()) {
+      return "[]";
+    }
+    StringBuilder builder = new StringBuilder(size * 5); // rough estimate is fine
+    builder.append('[').append(array[0]);
+    for (int i = 1; i < size; i++) {
+      builder.append(", ").append(array[i]);
+    }
+    return builder.append(']').toString();
+  }
+}
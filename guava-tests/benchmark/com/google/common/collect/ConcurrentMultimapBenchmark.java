@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Multithreaded benchmarks comparing {@link ConcurrentSetMultimap} and {@link
+ * ConcurrentListMultimap} with synchronized multimaps, on a workload shaped like an index of
+ * listeners: a few values per key, and lookups that iterate over the values of a key.
+ */
+public class ConcurrentMultimapBenchmark {
+  @Param({"1", "2", "4", "8", "16"})
+  int threads;
+
+  @Param({"10", "1000"})
+  int keys;
+
+  @Param({"4"})
+  int valuesPerKey;
+
+  /** The percentage of operations that read the values of a key; the others put or remove one. */
+  @Param({"100", "90", "50"})
+  int readPercent;
+
+  @Param Impl impl;
+
+  private Multimap<Integer, Integer> multimap;
+  private ExecutorService threadPool;
+
+  @BeforeExperiment
+  void setUp() {
+    multimap = impl.create();
+    for (int key = 0; key < keys; key++) {
+      for (int value = 0; value < valuesPerKey; value++) {
+        multimap.put(key, value);
+      }
+    }
+    threadPool =
+        Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).build());
+  }
+
+  @AfterExperiment
+  void tearDown() {
+    threadPool.shutdownNow();
+  }
+
+  @Benchmark
+  long mixed(final int reps) throws ExecutionException, InterruptedException {
+    List<Future<Long>> futures = Lists.newArrayListWithCapacity(threads);
+    for (int i = 0; i < threads; i++) {
+      futures.add(
+          threadPool.submit(
+              new Callable<Long>() {
+                @Override
+                public Long call() {
+                  return runMixedSingleThread(reps);
+                }
+              }));
+    }
+    long total = 0;
+    for (Future<Long> future : futures) {
+      total += future.get();
+    }
+    return total;
+  }
+
+  private long runMixedSingleThread(int reps) {
+    Random random = new Random();
+    Multimap<Integer, Integer> multimap = this.multimap;
+    long result = 0;
+    for (int i = 0; i < reps; i++) {
+      Integer key = random.nextInt(keys);
+      if (random.nextInt(100) < readPercent) {
+        result += impl.sumValues(multimap, key);
+      } else {
+        // an extra value that comes and goes, keeping the size of the multimap stable
+        Integer value = valuesPerKey + random.nextInt(2);
+        if (!multimap.remove(key, value)) {
+          multimap.put(key, value);
+        }
+      }
+    }
+    return result;
+  }
+
+  public enum Impl {
+    SYNCHRONIZED_HASH_MULTIMAP {
+      @Override
+      Multimap<Integer, Integer> create() {
+        return Multimaps.synchronizedSetMultimap(HashMultimap.<Integer, Integer>create());
+      }
+
+      @Override
+      long sumValues(Multimap<Integer, Integer> multimap, Integer key) {
+        // a synchronized multimap must be locked during iteration
+        synchronized (multimap) {
+          return super.sumValues(multimap, key);
+        }
+      }
+    },
+    CONCURRENT_SET_MULTIMAP {
+      @Override
+      Multimap<Integer, Integer> create() {
+        return ConcurrentSetMultimap.create();
+      }
+    },
+    SYNCHRONIZED_ARRAY_LIST_MULTIMAP {
+      @Override
+      Multimap<Integer, Integer> create() {
+        return Multimaps.synchronizedListMultimap(ArrayListMultimap.<Integer, Integer>create());
+      }
+
+      @Override
+      long sumValues(Multimap<Integer, Integer> multimap, Integer key) {
+        synchronized (multimap) {
+          return super.sumValues(multimap, key);
+        }
+      }
+    },
+    CONCURRENT_LIST_MULTIMAP {
+      @Override
+      Multimap<Integer, Integer> create() {
+        return ConcurrentListMultimap.create();
+      }
+    };
+
+    abstract Multimap<Integer, Integer> create();
+
+    long sumValues(Multimap<Integer, Integer> multimap, Integer key) {
+      long sum = 0;
+      for (Integer value : multimap.get(key)) {
+        sum += value;
+      }
+      return sum;
+    }
+  }
+}
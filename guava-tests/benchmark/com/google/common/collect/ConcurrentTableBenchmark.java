@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Multithreaded benchmarks comparing {@link ConcurrentHashBasedTable} with a synchronized {@link
+ * HashBasedTable}, on a workload shaped like per-tenant, per-metric aggregation: most operations
+ * add a sample to a cell, and the others sum the row of a tenant.
+ */
+public class ConcurrentTableBenchmark {
+  @Param({"1", "2", "4", "8", "16"})
+  int threads;
+
+  @Param({"1", "100"})
+  int tenants;
+
+  @Param({"20"})
+  int metrics;
+
+  /** The percentage of operations that sum the row of a tenant; the others update a cell. */
+  @Param({"0", "10", "50"})
+  int readPercent;
+
+  @Param Impl impl;
+
+  private Table<Integer, Integer, Long> table;
+  private ExecutorService threadPool;
+
+  @BeforeExperiment
+  void setUp() {
+    table = impl.create();
+    for (int tenant = 0; tenant < tenants; tenant++) {
+      for (int metric = 0; metric < metrics; metric++) {
+        table.put(tenant, metric, 0L);
+      }
+    }
+    threadPool =
+        Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setDaemon(true).build());
+  }
+
+  @AfterExperiment
+  void tearDown() {
+    threadPool.shutdownNow();
+  }
+
+  @Benchmark
+  long mixed(final int reps) throws ExecutionException, InterruptedException {
+    List<Future<Long>> futures = Lists.newArrayListWithCapacity(threads);
+    for (int i = 0; i < threads; i++) {
+      futures.add(
+          threadPool.submit(
+              new Callable<Long>() {
+                @Override
+                public Long call() {
+                  return runMixedSingleThread(reps);
+                }
+              }));
+    }
+    long total = 0;
+    for (Future<Long> future : futures) {
+      total += future.get();
+    }
+    return total;
+  }
+
+  private long runMixedSingleThread(int reps) {
+    Random random = new Random();
+    Table<Integer, Integer, Long> table = this.table;
+    long result = 0;
+    for (int i = 0; i < reps; i++) {
+      Integer tenant = random.nextInt(tenants);
+      if (random.nextInt(100) < readPercent) {
+        result += impl.sumRow(table, tenant);
+      } else {
+        impl.add(table, tenant, random.nextInt(metrics), (long) i);
+      }
+    }
+    return result;
+  }
+
+  public enum Impl {
+    SYNCHRONIZED_HASH_BASED_TABLE {
+      @Override
+      Table<Integer, Integer, Long> create() {
+        return Tables.synchronizedTable(HashBasedTable.<Integer, Integer, Long>create());
+      }
+
+      @Override
+      void add(Table<Integer, Integer, Long> table, Integer tenant, Integer metric, Long sample) {
+        // the read and the write must happen under the same lock
+        synchronized (table) {
+          Long current = table.get(tenant, metric);
+          table.put(tenant, metric, (current == null) ? sample : current + sample);
+        }
+      }
+
+      @Override
+      long sumRow(Table<Integer, Integer, Long> table, Integer tenant) {
+        // a synchronized table must be locked during iteration
+        synchronized (table) {
+          return super.sumRow(table, tenant);
+        }
+      }
+    },
+    CONCURRENT_HASH_BASED_TABLE {
+      @Override
+      Table<Integer, Integer, Long> create() {
+        return ConcurrentHashBasedTable.create();
+      }
+
+      @Override
+      void add(Table<Integer, Integer, Long> table, Integer tenant, Integer metric, Long sample) {
+        ((ConcurrentHashBasedTable<Integer, Integer, Long>) table)
+            .merge(tenant, metric, sample, Long::sum);
+      }
+    };
+
+    abstract Table<Integer, Integer, Long> create();
+
+    abstract void add(
+        Table<Integer, Integer, Long> table, Integer tenant, Integer metric, Long sample);
+
+    long sumRow(Table<Integer, Integer, Long> table, Integer tenant) {
+      long sum = 0;
+      for (Long value : table.row(tenant).values()) {
+        sum += value;
+      }
+      return sum;
+    }
+  }
+}
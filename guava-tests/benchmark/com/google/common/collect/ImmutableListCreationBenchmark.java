@@ -19,6 +19,7 @@ package com.google.common.collect;
 import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
 import java.util.List;
+import java.util.stream.IntStream;
 
 /**
  * Benchmark for various ways to create an {@code ImmutableList}.
@@ -87,4 +88,33 @@ public class ImmutableListCreationBenchmark {
     }
     return tmp;
   }
+
+  @Benchmark
+  int collect(int reps) {
+    int size = this.size;
+    int tmp = 0;
+    for (int rep = 0; rep < reps; rep++) {
+      tmp +=
+          IntStream.range(0, size)
+              .mapToObj(i -> OBJECT)
+              .collect(ImmutableList.toImmutableList())
+              .size();
+    }
+    return tmp;
+  }
+
+  @Benchmark
+  int parallelCollect(int reps) {
+    int size = this.size;
+    int tmp = 0;
+    for (int rep = 0; rep < reps; rep++) {
+      tmp +=
+          IntStream.range(0, size)
+              .parallel()
+              .mapToObj(i -> OBJECT)
+              .collect(ImmutableList.toImmutableList())
+              .size();
+    }
+    return tmp;
+  }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.caliper.api.Footprint;
+import com.google.common.primitives.Longs;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Benchmarks comparing {@link ImmutableSortedLongSet} with an {@link ImmutableSortedSet} of boxed
+ * {@code Long} values, and with a binary search in a sorted {@code long[]}, for lookups, range
+ * traversal and footprint.
+ */
+public class ImmutableSortedLongSetBenchmark {
+  @Param({"1000", "100000", "10000000"})
+  private int size;
+
+  /** The average gap between consecutive elements; 1 makes the set contiguous. */
+  @Param({"1", "10", "1000"})
+  private int density;
+
+  private long[] array;
+  private ImmutableSortedLongSet compressed;
+  private ImmutableSortedSet<Long> boxed;
+  private long[] queries;
+
+  @BeforeExperiment
+  void setUp() {
+    Random random = new Random(0);
+    array = new long[size];
+    long value = random.nextInt(1000);
+    for (int i = 0; i < size; i++) {
+      array[i] = value;
+      value += (density == 1) ? 1 : 1 + random.nextInt(2 * density - 1);
+    }
+    compressed = ImmutableSortedLongSet.copyOf(array);
+    boxed = ImmutableSortedSet.copyOf(Longs.asList(array));
+    queries = new long[1 << 12];
+    for (int i = 0; i < queries.length; i++) {
+      queries[i] = array[0] + (long) (random.nextDouble() * (array[size - 1] - array[0]));
+    }
+  }
+
+  @Benchmark
+  int containsCompressed(int reps) {
+    ImmutableSortedLongSet set = compressed;
+    long[] queries = this.queries;
+    int mask = queries.length - 1;
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      if (set.contains(queries[i & mask])) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  int containsBoxed(int reps) {
+    ImmutableSortedSet<Long> set = boxed;
+    long[] queries = this.queries;
+    int mask = queries.length - 1;
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      if (set.contains(queries[i & mask])) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  int containsArray(int reps) {
+    long[] array = this.array;
+    long[] queries = this.queries;
+    int mask = queries.length - 1;
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      if (Arrays.binarySearch(array, queries[i & mask]) >= 0) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  /** Sums the 100 elements following each query. */
+  @Benchmark
+  long rangeCompressed(int reps) {
+    ImmutableSortedLongSet set = compressed;
+    long[] queries = this.queries;
+    int mask = queries.length - 1;
+    long result = 0;
+    for (int i = 0; i < reps; i++) {
+      int from = set.ceilingIndex(queries[i & mask]);
+      int to = (from == -1) ? -1 : Math.min(set.size(), from + 100);
+      for (int j = from; j < to; j++) {
+        result += set.get(j);
+      }
+    }
+    return result;
+  }
+
+  /** Sums the 100 elements following each query. */
+  @Benchmark
+  long rangeBoxed(int reps) {
+    ImmutableSortedSet<Long> set = boxed;
+    long[] queries = this.queries;
+    int mask = queries.length - 1;
+    long result = 0;
+    for (int i = 0; i < reps; i++) {
+      int count = 0;
+      for (Long value : set.tailSet(queries[i & mask])) {
+        if (count++ == 100) {
+          break;
+        }
+        result += value;
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  int intersection(int reps) {
+    ImmutableSortedLongSet set = compressed;
+    ImmutableSortedLongSet other = ImmutableSortedLongSet.copyOf(queries);
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += set.intersection(other).size();
+    }
+    return result;
+  }
+
+  @Footprint
+  Object footprintCompressed() {
+    return ImmutableSortedLongSet.copyOf(array);
+  }
+
+  @Footprint
+  Object footprintBoxed() {
+    return ImmutableSortedSet.copyOf(Longs.asList(array));
+  }
+}
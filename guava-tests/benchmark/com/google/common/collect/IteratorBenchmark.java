@@ -19,6 +19,8 @@ package com.google.common.collect;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
 import java.util.ArrayList;
 import java.util.LinkedList;
 
@@ -177,4 +179,93 @@ public class IteratorBenchmark {
     }
     return sum;
   }
+
+  private static final Predicate<Object> NOT_NULL = value -> value != null;
+  private static final Function<Object, Integer> HASH_CODE = Object::hashCode;
+  private static final Predicate<Integer> NONNEGATIVE = hash -> hash >= 0;
+
+  /** Iterates over nested filtering and transforming iterables, one per stage. */
+  @Benchmark
+  int arrayListFilterTransformNestedFor(int reps) {
+    int sum = 0;
+    for (int i = 0; i < reps; i++) {
+      Iterable<Integer> hashes =
+          Iterables.filter(
+              Iterables.transform(Iterables.filter(arrayList, NOT_NULL), HASH_CODE), NONNEGATIVE);
+      for (int hash : hashes) {
+        sum += hash;
+      }
+    }
+    return sum;
+  }
+
+  /** Iterates over the same stages of a {@link FluentIterable}, which applies them in one loop. */
+  @Benchmark
+  int arrayListFilterTransformFusedFor(int reps) {
+    int sum = 0;
+    for (int i = 0; i < reps; i++) {
+      Iterable<Integer> hashes =
+          FluentIterable.from(arrayList).filter(NOT_NULL).transform(HASH_CODE).filter(NONNEGATIVE);
+      for (int hash : hashes) {
+        sum += hash;
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  int arrayListFilterTransformFusedForEach(int reps) {
+    int[] sumHolder = {0};
+    for (int i = 0; i < reps; i++) {
+      FluentIterable.from(arrayList)
+          .filter(NOT_NULL)
+          .transform(HASH_CODE)
+          .filter(NONNEGATIVE)
+          .forEach(hash -> sumHolder[0] += hash);
+    }
+    return sumHolder[0];
+  }
+
+  @Benchmark
+  int arrayListFilterTransformNestedToList(int reps) {
+    int sum = 0;
+    for (int i = 0; i < reps; i++) {
+      sum +=
+          ImmutableList.copyOf(
+                  Iterables.filter(
+                      Iterables.transform(Iterables.filter(arrayList, NOT_NULL), HASH_CODE),
+                      NONNEGATIVE))
+              .size();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  int arrayListFilterTransformFusedToList(int reps) {
+    int sum = 0;
+    for (int i = 0; i < reps; i++) {
+      sum +=
+          FluentIterable.from(arrayList)
+              .filter(NOT_NULL)
+              .transform(HASH_CODE)
+              .filter(NONNEGATIVE)
+              .toList()
+              .size();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  int arrayListFilterTransformFusedSize(int reps) {
+    int sum = 0;
+    for (int i = 0; i < reps; i++) {
+      sum +=
+          FluentIterable.from(arrayList)
+              .filter(NOT_NULL)
+              .transform(HASH_CODE)
+              .filter(NONNEGATIVE)
+              .size();
+    }
+    return sum;
+  }
 }
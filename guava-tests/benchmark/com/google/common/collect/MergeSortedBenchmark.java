@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Benchmarks {@link Iterators#mergeSorted} against a merge through a {@link PriorityQueue} of
+ * {@link PeekingIterator}s, as it was implemented before, with a comparator that counts its calls.
+ */
+public class MergeSortedBenchmark {
+  @Param({"2", "16", "256"})
+  int iterators;
+
+  @Param({"100000"})
+  int size;
+
+  private final List<List<Integer>> runs = new ArrayList<>();
+
+  /** Incremented by each comparison, so that the number of comparisons affects the timing. */
+  private int comparisons;
+
+  private final Comparator<Integer> comparator =
+      new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+          comparisons++;
+          return a.compareTo(b);
+        }
+      };
+
+  @BeforeExperiment
+  void setUp() {
+    Random random = new Random(0);
+    for (int i = 0; i < iterators; i++) {
+      List<Integer> run = new ArrayList<>();
+      for (int j = 0; j < size / iterators; j++) {
+        run.add(random.nextInt());
+      }
+      runs.add(Ordering.natural().sortedCopy(run));
+    }
+  }
+
+  @Benchmark
+  int loserTree(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      Iterator<Integer> merged = Iterators.mergeSorted(iterators(), comparator);
+      while (merged.hasNext()) {
+        result += merged.next();
+      }
+    }
+    return result + comparisons;
+  }
+
+  @Benchmark
+  int heap(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      PriorityQueue<PeekingIterator<Integer>> queue =
+          new PriorityQueue<>(2, (a, b) -> comparator.compare(a.peek(), b.peek()));
+      for (Iterator<Integer> iterator : iterators()) {
+        if (iterator.hasNext()) {
+          queue.add(Iterators.peekingIterator(iterator));
+        }
+      }
+      while (!queue.isEmpty()) {
+        PeekingIterator<Integer> iterator = queue.remove();
+        result += iterator.next();
+        if (iterator.hasNext()) {
+          queue.add(iterator);
+        }
+      }
+    }
+    return result + comparisons;
+  }
+
+  private List<Iterator<Integer>> iterators() {
+    List<Iterator<Integer>> result = new ArrayList<>();
+    for (List<Integer> run : runs) {
+      result.add(run.iterator());
+    }
+    return result;
+  }
+}
@@ -16,15 +16,22 @@
 
 package com.google.common.collect;
 
+import com.google.caliper.AfterExperiment;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
 import com.google.common.base.Function;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Benchmarks to compare performance of MinMaxPriorityQueue and PriorityQueue.
@@ -45,12 +52,22 @@ public class MinMaxPriorityQueueBenchmark {
 
   private final Random random = new Random();
 
+  private static final int THREADS = 4;
+
+  private ExecutorService executor;
+
   @BeforeExperiment
   void setUp() {
     queue = heap.create(comparator.get());
     for (int i = 0; i < size; i++) {
       queue.add(random.nextInt());
     }
+    executor = Executors.newFixedThreadPool(THREADS);
+  }
+
+  @AfterExperiment
+  void tearDown() {
+    executor.shutdown();
   }
 
   @Benchmark
@@ -72,6 +89,46 @@ public class MinMaxPriorityQueueBenchmark {
     }
   }
 
+  /**
+   * Has {@value #THREADS} threads each offer {@code reps} random elements to a shared buffer of the
+   * greatest {@code size} elements offered. For {@link HeapType#CONCURRENT_MIN_MAX}, the buffer is
+   * a {@link ConcurrentMinMaxPriorityQueue} that holds up to {@code size} elements; for the other
+   * heap types, it's a queue of that type, which each thread locks to add an element and then poll
+   * the least one if the queue is too large.
+   */
+  @Benchmark
+  int contendedTopN(final int reps) throws Exception {
+    final Queue<Integer> buffer =
+        (heap == HeapType.CONCURRENT_MIN_MAX)
+            ? ConcurrentMinMaxPriorityQueue.create(Ordering.from(comparator.get()).reverse(), size)
+            : heap.create(comparator.get());
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < reps; i++) {
+                  Integer element = random.nextInt();
+                  if (heap == HeapType.CONCURRENT_MIN_MAX) {
+                    buffer.offer(element);
+                  } else {
+                    synchronized (buffer) {
+                      buffer.add(element);
+                      if (buffer.size() > size) {
+                        buffer.poll();
+                      }
+                    }
+                  }
+                }
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    return buffer.size();
+  }
+
   /**
    * Implementation of the InvertedMinMaxPriorityQueue which forwards all calls to a
    * MinMaxPriorityQueue, except poll, which is forwarded to pollMax. That way we can benchmark
@@ -113,6 +170,12 @@ public class MinMaxPriorityQueueBenchmark {
       public Queue<Integer> create(Comparator<Integer> comparator) {
         return new InvertedMinMaxPriorityQueue<>(comparator);
       }
+    },
+    CONCURRENT_MIN_MAX {
+      @Override
+      public Queue<Integer> create(Comparator<Integer> comparator) {
+        return ConcurrentMinMaxPriorityQueue.create(comparator, Integer.MAX_VALUE);
+      }
     };
 
     public abstract Queue<Integer> create(Comparator<Integer> comparator);
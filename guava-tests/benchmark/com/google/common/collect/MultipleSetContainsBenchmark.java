@@ -21,6 +21,7 @@ import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
 import com.google.caliper.api.SkipThisScenarioException;
 import java.util.Random;
+import java.util.Set;
 
 /** A benchmark that tries invoking {@code Set.contains} on many different sets. */
 public class MultipleSetContainsBenchmark {
@@ -42,6 +43,10 @@ public class MultipleSetContainsBenchmark {
 
   private final Object[] queries = new Object[0x1000];
 
+  /** Views of the intersection of eight consecutive sets. */
+  @SuppressWarnings("unchecked")
+  private final Set<Object>[] intersections = new Set[0x1000 >> 3];
+
   @BeforeExperiment
   void setUp() {
     if (emptySetProportion + singletonSetProportion > 1.01) {
@@ -65,6 +70,10 @@ public class MultipleSetContainsBenchmark {
         queries[i] = ABSENT;
       }
     }
+    ImmutableList<ImmutableSet<Object>> setList = ImmutableList.copyOf(sets);
+    for (int i = 0; i < intersections.length; i++) {
+      intersections[i] = Sets.intersection(setList.subList(i << 3, (i + 1) << 3));
+    }
   }
 
   @Benchmark
@@ -78,4 +87,16 @@ public class MultipleSetContainsBenchmark {
     }
     return result;
   }
+
+  @Benchmark
+  public boolean intersectionContains(int reps) {
+    Set<Object>[] intersections = this.intersections;
+    Object[] queries = this.queries;
+    boolean result = false;
+    for (int i = 0; i < reps; i++) {
+      int j = i & 0xFFF;
+      result ^= intersections[j >> 3].contains(queries[j]);
+    }
+    return result;
+  }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.Map.Entry;
+
+/**
+ * Benchmarks updating a single entry or element of an immutable map or list, by copying an {@link
+ * ImmutableMap} or {@link ImmutableList} with a builder, and with the operations of {@link
+ * PersistentHashMap} and {@link PersistentList} that share structure with the original.
+ */
+public class PersistentCollectionBenchmark {
+  @Param({"100", "10000", "100000"})
+  int size;
+
+  private ImmutableMap<Integer, Integer> immutableMap;
+  private PersistentHashMap<Integer, Integer> persistentMap;
+  private ImmutableList<Integer> immutableList;
+  private PersistentList<Integer> persistentList;
+
+  @BeforeExperiment
+  void setUp() {
+    ImmutableMap.Builder<Integer, Integer> mapBuilder = ImmutableMap.builder();
+    for (int i = 0; i < size; i++) {
+      mapBuilder.put(i, i);
+    }
+    immutableMap = mapBuilder.build();
+    persistentMap = PersistentHashMap.copyOf(immutableMap);
+    immutableList = ContiguousSet.closedOpen(0, size).asList();
+    persistentList = PersistentList.copyOf(immutableList);
+  }
+
+  @Benchmark
+  int immutableMapPut(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      Integer key = i % size;
+      ImmutableMap.Builder<Integer, Integer> builder = ImmutableMap.builder();
+      for (Entry<Integer, Integer> entry : immutableMap.entrySet()) {
+        builder.put(entry.getKey(), entry.getKey().equals(key) ? -i : entry.getValue());
+      }
+      result += builder.build().get(key);
+    }
+    return result;
+  }
+
+  @Benchmark
+  int persistentMapWith(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      Integer key = i % size;
+      result += persistentMap.with(key, -i).get(key);
+    }
+    return result;
+  }
+
+  @Benchmark
+  int immutableListSet(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      int index = i % size;
+      ImmutableList.Builder<Integer> builder = ImmutableList.builder();
+      builder.addAll(immutableList.subList(0, index)).add(-i);
+      builder.addAll(immutableList.subList(index + 1, size));
+      result += builder.build().get(index);
+    }
+    return result;
+  }
+
+  @Benchmark
+  int persistentListWith(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      int index = i % size;
+      result += persistentList.with(index, -i).get(index);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.Random;
+
+/**
+ * Benchmarks point lookups among disjoint {@code Long} ranges, such as address blocks, in {@link
+ * ImmutableRangeMap} and {@link TreeRangeMap}, and among overlapping ranges, such as time windows,
+ * in {@link ImmutableRangeMultimap}.
+ */
+public class RangeLookupBenchmark {
+  @Param({"100", "10000", "1000000"})
+  int size;
+
+  private ImmutableRangeMap<Long, Integer> immutableRangeMap;
+  private TreeRangeMap<Long, Integer> treeRangeMap;
+  private ImmutableRangeMultimap<Long, Integer> rangeMultimap;
+  private final Long[] keys = new Long[1 << 12];
+
+  @BeforeExperiment
+  void setUp() {
+    Random random = new Random(0);
+    treeRangeMap = TreeRangeMap.create();
+    ImmutableRangeMultimap.Builder<Long, Integer> multimapBuilder =
+        ImmutableRangeMultimap.builder();
+    long lower = 0;
+    for (int i = 0; i < size; i++) {
+      long upper = lower + 1 + random.nextInt(1000);
+      treeRangeMap.put(Range.closedOpen(lower, upper), i);
+      // Windows that overlap a few of their neighbors.
+      multimapBuilder.put(Range.closed(lower, lower + random.nextInt(2000)), i);
+      lower = upper + random.nextInt(100);
+    }
+    immutableRangeMap = ImmutableRangeMap.copyOf(treeRangeMap);
+    rangeMultimap = multimapBuilder.build();
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = (long) (random.nextDouble() * lower);
+    }
+  }
+
+  @Benchmark
+  int immutableRangeMapGet(int reps) {
+    ImmutableRangeMap<Long, Integer> map = immutableRangeMap;
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      Integer value = map.get(keys[i & (keys.length - 1)]);
+      if (value != null) {
+        result += value;
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  int treeRangeMapGet(int reps) {
+    TreeRangeMap<Long, Integer> map = treeRangeMap;
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      Integer value = map.get(keys[i & (keys.length - 1)]);
+      if (value != null) {
+        result += value;
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  int rangeMultimapGet(int reps) {
+    ImmutableRangeMultimap<Long, Integer> multimap = rangeMultimap;
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += multimap.get(keys[i & (keys.length - 1)]).size();
+    }
+    return result;
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Sets.SetView#immutableCopy} of the union, intersection and difference of two
+ * sets. The intersection and difference combine {@link EnumSet}s and {@link ImmutableSortedSet}s
+ * in bulk; the union, like the other sets, looks up the elements of one set in the other.
+ */
+public class SetAlgebraBenchmark {
+  enum Kind {
+    HASH,
+    SORTED,
+    ENUM
+  }
+
+  @Param Kind kind;
+
+  /** The size of the larger set; the smaller has an eighth as many elements, to show lookups. */
+  @Param({"64", "4096"})
+  int size;
+
+  private Set<Object> set1;
+  private Set<Object> set2;
+  private Set<Object> small;
+
+  @BeforeExperiment
+  void setUp() {
+    Random random = new Random(0);
+    set1 = createSet(random, size);
+    set2 = createSet(random, size);
+    small = createSet(random, size / 8);
+  }
+
+  @SuppressWarnings("unchecked") // the sets are only read
+  private Set<Object> createSet(Random random, int size) {
+    Set<Integer> elements = new HashSet<>();
+    int bound = (kind == Kind.ENUM) ? Math.min(2 * size, TimeUnit.values().length) : 2 * size;
+    while (elements.size() < Math.min(size, bound)) {
+      elements.add(random.nextInt(bound));
+    }
+    switch (kind) {
+      case HASH:
+        return (Set) ImmutableSet.copyOf(elements);
+      case SORTED:
+        return (Set) ImmutableSortedSet.copyOf(elements);
+      case ENUM:
+        EnumSet<TimeUnit> units = EnumSet.noneOf(TimeUnit.class);
+        for (int element : elements) {
+          units.add(TimeUnit.values()[element]);
+        }
+        return (Set) units;
+    }
+    throw new AssertionError(kind);
+  }
+
+  @Benchmark
+  int union(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += Sets.union(set1, set2).immutableCopy().size();
+    }
+    return result;
+  }
+
+  @Benchmark
+  int intersection(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += Sets.intersection(set1, set2).immutableCopy().size();
+    }
+    return result;
+  }
+
+  @Benchmark
+  int smallIntersection(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += Sets.intersection(small, set1).immutableCopy().size();
+    }
+    return result;
+  }
+
+  @Benchmark
+  int difference(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += Sets.difference(set1, set2).immutableCopy().size();
+    }
+    return result;
+  }
+
+  @Benchmark
+  int intersectionOfMany(int reps) {
+    ImmutableList<Set<Object>> sets = ImmutableList.of(set1, set2, small);
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      result += Sets.intersection(sets).immutableCopy().size();
+    }
+    return result;
+  }
+}
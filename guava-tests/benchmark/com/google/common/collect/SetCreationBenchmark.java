@@ -57,4 +57,28 @@ public class SetCreationBenchmark {
     }
     return x;
   }
+
+  // The following two ignore impl, and always collect into an ImmutableSet.
+
+  @Benchmark
+  int collect(int reps) {
+    int x = 0;
+    for (int i = 0; i < reps; i++) {
+      x ^=
+          System.identityHashCode(
+              sampleData.getValuesInSet().stream().collect(ImmutableSet.toImmutableSet()));
+    }
+    return x;
+  }
+
+  @Benchmark
+  int parallelCollect(int reps) {
+    int x = 0;
+    for (int i = 0; i < reps; i++) {
+      x ^=
+          System.identityHashCode(
+              sampleData.getValuesInSet().parallelStream().collect(ImmutableSet.toImmutableSet()));
+    }
+    return x;
+  }
 }
@@ -24,8 +24,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
-import java.util.stream.Stream;
 
 /**
  * Test stream operation speed.
@@ -52,15 +52,15 @@ public class StreamsBenchmark {
   enum Operation {
     FIND_FIRST {
       @Override
-      Object operate(Stream<?> stream) {
-        return stream.findFirst();
+      Object operate(Collection<?> collection) {
+        return collection.stream().findFirst();
       }
     },
     STREAMS_ONLY_ELEMENT {
       @Override
-      Object operate(Stream<?> stream) {
+      Object operate(Collection<?> collection) {
         try {
-          return stream.collect(MoreCollectors.onlyElement());
+          return collection.stream().collect(MoreCollectors.onlyElement());
         } catch (IllegalArgumentException | NoSuchElementException e) {
           throw new SkipThisScenarioException();
         }
@@ -68,24 +68,61 @@ public class StreamsBenchmark {
     },
     STREAMS_FIND_LAST {
       @Override
-      Object operate(Stream<?> stream) {
-        return Streams.findLast(stream);
+      Object operate(Collection<?> collection) {
+        return Streams.findLast(collection.stream());
       }
     },
     REDUCE_LAST {
       @Override
-      Object operate(Stream<?> stream) {
-        return stream.reduce((a, b) -> b);
+      Object operate(Collection<?> collection) {
+        return collection.stream().reduce((a, b) -> b);
       }
     },
     REDUCE_LAST_PARALLEL {
       @Override
-      Object operate(Stream<?> stream) {
-        return stream.parallel().reduce((a, b) -> b);
+      Object operate(Collection<?> collection) {
+        return collection.stream().parallel().reduce((a, b) -> b);
+      }
+    },
+    MAP_WITH_INDEX_PARALLEL {
+      @Override
+      Object operate(Collection<?> collection) {
+        return Streams.mapWithIndex(
+                collection.stream().parallel(), (object, index) -> object.hashCode() + index)
+            .reduce(0L, Long::sum);
+      }
+    },
+    ZIP {
+      @Override
+      Object operate(Collection<?> collection) {
+        return Streams.zip(collection.stream(), collection.stream(), Operation::combine)
+            .reduce(0, Integer::sum);
+      }
+    },
+    ZIP_PARALLEL {
+      @Override
+      Object operate(Collection<?> collection) {
+        return Streams.zip(collection.stream().parallel(), collection.stream(), Operation::combine)
+            .reduce(0, Integer::sum);
+      }
+    },
+    FOR_EACH_PAIR_PARALLEL {
+      @Override
+      Object operate(Collection<?> collection) {
+        LongAdder result = new LongAdder();
+        Streams.forEachPair(
+            collection.stream().parallel(),
+            collection.stream(),
+            (a, b) -> result.add(combine(a, b)));
+        return result.sum();
       }
     };
 
-    abstract Object operate(Stream<?> stream);
+    abstract Object operate(Collection<?> collection);
+
+    private static int combine(Object a, Object b) {
+      return System.identityHashCode(a) ^ b.hashCode();
+    }
   }
 
   @Param private Operation operation;
@@ -104,7 +141,7 @@ public class StreamsBenchmark {
   int runOperation(int reps) {
     int result = 0;
     for (int i = 0; i < reps; i++) {
-      result += System.identityHashCode(operation.operate(collection.stream()));
+      result += System.identityHashCode(operation.operate(collection));
     }
     return result;
   }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.Random;
+
+/**
+ * Benchmarks row and column totals of a dense table of {@code double} values, held in an {@link
+ * ArrayTable} of {@code Double}s and in a {@link DoubleArrayTable}.
+ */
+public class TableRollupBenchmark {
+  @Param({"10", "100", "1000"})
+  int rows;
+
+  @Param({"10", "100"})
+  int columns;
+
+  private ArrayTable<Integer, Integer, Double> arrayTable;
+  private DoubleArrayTable<Integer, Integer> doubleTable;
+
+  @BeforeExperiment
+  void setUp() {
+    ContiguousSet<Integer> rowKeys = ContiguousSet.closedOpen(0, rows);
+    ContiguousSet<Integer> columnKeys = ContiguousSet.closedOpen(0, columns);
+    arrayTable = ArrayTable.create(rowKeys, columnKeys);
+    doubleTable = DoubleArrayTable.create(rowKeys, columnKeys);
+    Random random = new Random(0);
+    for (int i = 0; i < rows; i++) {
+      for (int j = 0; j < columns; j++) {
+        double value = random.nextDouble();
+        arrayTable.set(i, j, value);
+        doubleTable.set(i, j, value);
+      }
+    }
+  }
+
+  @Benchmark
+  double arrayTableColumnSums(int reps) {
+    double result = 0;
+    for (int r = 0; r < reps; r++) {
+      for (int j = 0; j < columns; j++) {
+        double sum = 0;
+        for (int i = 0; i < rows; i++) {
+          sum += arrayTable.at(i, j);
+        }
+        result += sum;
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  double doubleTableColumnSums(int reps) {
+    double result = 0;
+    for (int r = 0; r < reps; r++) {
+      result += doubleTable.columnSums()[0];
+    }
+    return result;
+  }
+
+  @Benchmark
+  double arrayTableRowSums(int reps) {
+    double result = 0;
+    for (int r = 0; r < reps; r++) {
+      for (Double value : arrayTable.row(r % rows).values()) {
+        result += value;
+      }
+    }
+    return result;
+  }
+
+  @Benchmark
+  double doubleTableRowSums(int reps) {
+    double result = 0;
+    for (int r = 0; r < reps; r++) {
+      result += doubleTable.rowAt(r % rows).sum();
+    }
+    return result;
+  }
+}
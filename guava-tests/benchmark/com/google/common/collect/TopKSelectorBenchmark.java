@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * Benchmarks selecting the greatest {@code k} of {@code n} scores, boxed through {@link
+ * Comparators#greatest} and unboxed through {@link DoubleTopKSelector}, on sequential and parallel
+ * streams.
+ */
+public class TopKSelectorBenchmark {
+  @Param({"100000", "10000000"})
+  int n;
+
+  @Param({"10", "1000"})
+  int k;
+
+  @Param({"false", "true"})
+  boolean parallel;
+
+  private double[] scores;
+  private Double[] boxedScores;
+
+  @BeforeExperiment
+  void setUp() {
+    Random random = new Random(0);
+    scores = new double[n];
+    boxedScores = new Double[n];
+    for (int i = 0; i < n; i++) {
+      scores[i] = random.nextGaussian();
+      boxedScores[i] = scores[i];
+    }
+  }
+
+  @Benchmark
+  double comparatorsGreatest(int reps) {
+    double result = 0;
+    for (int i = 0; i < reps; i++) {
+      result +=
+          (parallel ? Arrays.stream(boxedScores).parallel() : Arrays.stream(boxedScores))
+              .collect(Comparators.greatest(k, Comparator.<Double>naturalOrder()))
+              .get(0);
+    }
+    return result;
+  }
+
+  @Benchmark
+  double doubleTopKSelector(int reps) {
+    double result = 0;
+    for (int i = 0; i < reps; i++) {
+      result +=
+          (parallel ? Arrays.stream(scores).parallel() : Arrays.stream(scores))
+              .collect(
+                  () -> DoubleTopKSelector.greatest(k),
+                  DoubleTopKSelector::offer,
+                  DoubleTopKSelector::combine)
+              .topK()
+              .get(0);
+    }
+    return result;
+  }
+
+  @Benchmark
+  double sortAll(int reps) {
+    double result = 0;
+    for (int i = 0; i < reps; i++) {
+      double[] sorted =
+          (parallel ? Arrays.stream(scores).parallel() : Arrays.stream(scores)).sorted().toArray();
+      result += sorted[sorted.length - 1];
+    }
+    return result;
+  }
+}
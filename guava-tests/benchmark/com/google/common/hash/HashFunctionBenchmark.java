@@ -19,6 +19,7 @@ package com.google.common.hash;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
+import java.nio.ByteBuffer;
 import java.util.Random;
 
 /**
@@ -27,7 +28,7 @@ import java.util.Random;
  * <p>Parameters for the benchmark are:
  *
  * <ul>
- *   <li>size: The length of the byte array to hash.
+ *   <li>size: The length of the byte array, or byte buffer, to hash.
  *   <li>hashFunctionEnum: The {@link HashFunction} to use for hashing.
  * </ul>
  *
@@ -44,11 +45,16 @@ public class HashFunctionBenchmark {
   @Param HashFunctionEnum hashFunctionEnum;
 
   private byte[] testBytes;
+  private ByteBuffer heapBuffer;
+  private ByteBuffer directBuffer;
 
   @BeforeExperiment
   void setUp() {
     testBytes = new byte[size];
     random.nextBytes(testBytes);
+    heapBuffer = ByteBuffer.wrap(testBytes);
+    directBuffer = ByteBuffer.allocateDirect(size);
+    directBuffer.put(testBytes);
   }
 
   @Benchmark
@@ -80,4 +86,47 @@ public class HashFunctionBenchmark {
     }
     return result;
   }
+
+  @Benchmark
+  int hashHeapByteBuffer(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    int result = 37;
+    for (int i = 0; i < reps; i++) {
+      heapBuffer.clear();
+      result ^= hashFunction.hashBytes(heapBuffer).asBytes()[0];
+    }
+    return result;
+  }
+
+  @Benchmark
+  int hashDirectByteBuffer(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    int result = 37;
+    for (int i = 0; i < reps; i++) {
+      directBuffer.clear();
+      result ^= hashFunction.hashBytes(directBuffer).asBytes()[0];
+    }
+    return result;
+  }
+
+  @Benchmark
+  int hasherDirectByteBuffer(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    int result = 37;
+    for (int i = 0; i < reps; i++) {
+      directBuffer.clear();
+      result ^= hashFunction.newHasher().putBytes(directBuffer).hash().asBytes()[0];
+    }
+    return result;
+  }
+
+  @Benchmark
+  int hashLong(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    int result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashLong(i).asInt();
+    }
+    return result;
+  }
 }
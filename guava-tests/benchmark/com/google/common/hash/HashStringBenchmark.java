@@ -81,7 +81,7 @@ public class HashStringBenchmark {
   @Param({"16384"})
   int charCount;
 
-  @Param({"MURMUR3_32", "MURMUR3_128", "SHA1"})
+  @Param({"MURMUR3_32", "MURMUR3_128", "SHA1", "FARMHASH_FINGERPRINT_64", "XXHASH_64", "XXH3_64"})
   HashFunctionEnum hashFunctionEnum;
 
   private String[] strings;
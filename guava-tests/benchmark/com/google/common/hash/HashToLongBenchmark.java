@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import java.util.Random;
+
+/**
+ * Benchmarks comparing the {@code long}-returning {@link HashFunction} shortcuts, such as {@link
+ * HashFunction#hashBytesToLong}, against their {@link HashCode}-returning equivalents.
+ *
+ * <p>Run with Caliper's allocation instrument ({@code -i allocation}) to see how many objects each
+ * call allocates: the {@code toLong} benchmarks should report zero for the functions that implement
+ * the shortcuts natively.
+ *
+ * <p>Parameters for the benchmark are:
+ *
+ * <ul>
+ *   <li>size: The length of the byte array, and of the string, to hash.
+ *   <li>hashFunctionEnum: The {@link HashFunction} to use for hashing.
+ * </ul>
+ */
+public class HashToLongBenchmark {
+
+  // Use a statically configured random instance for all of the benchmarks
+  private static final Random random = new Random(42);
+
+  @Param({"8", "32", "100", "1000"})
+  private int size;
+
+  @Param({
+    "CRC32C",
+    "MURMUR3_32",
+    "MURMUR3_128",
+    "SIP_HASH24",
+    "FARMHASH_FINGERPRINT_64",
+    "XXHASH_64",
+    "XXH3_64"
+  })
+  HashFunctionEnum hashFunctionEnum;
+
+  private byte[] testBytes;
+  private String testString;
+
+  @BeforeExperiment
+  void setUp() {
+    testBytes = new byte[size];
+    random.nextBytes(testBytes);
+    char[] chars = new char[size];
+    for (int i = 0; i < size; i++) {
+      chars[i] = (char) ('a' + random.nextInt(26));
+    }
+    testString = new String(chars);
+  }
+
+  @Benchmark
+  long hashLong(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    long result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashLong(i).padToLong();
+    }
+    return result;
+  }
+
+  @Benchmark
+  long hashLongToLong(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    long result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashLongToLong(i);
+    }
+    return result;
+  }
+
+  @Benchmark
+  long hashBytes(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    long result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashBytes(testBytes, 0, testBytes.length).padToLong();
+    }
+    return result;
+  }
+
+  @Benchmark
+  long hashBytesToLong(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    long result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashBytesToLong(testBytes, 0, testBytes.length);
+    }
+    return result;
+  }
+
+  @Benchmark
+  long hashUnencodedChars(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    long result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashUnencodedChars(testString).padToLong();
+    }
+    return result;
+  }
+
+  @Benchmark
+  long hashUnencodedCharsToLong(int reps) {
+    HashFunction hashFunction = hashFunctionEnum.getHashFunction();
+    long result = 37;
+    for (int i = 0; i < reps; i++) {
+      result ^= hashFunction.hashUnencodedCharsToLong(testString);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.io;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.primitives.Longs;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Benchmarks lookups of random keys in a {@link MappedSortedMap} against those in an {@link
+ * ImmutableSortedMap} of the same byte-string entries.
+ */
+public class MappedSortedMapBenchmark {
+  @Param({"1000", "1000000"})
+  int size;
+
+  private File file;
+  private MappedSortedMap mappedMap;
+  private ImmutableSortedMap<ByteBuffer, ByteBuffer> immutableMap;
+  private ByteBuffer[] queries;
+
+  @BeforeExperiment
+  void setUp() throws IOException {
+    file = File.createTempFile("MappedSortedMapBenchmark", ".map");
+    ImmutableSortedMap.Builder<ByteBuffer, ByteBuffer> builder =
+        new ImmutableSortedMap.Builder<>(MappedSortedMap.keyOrder());
+    try (MappedSortedMap.Builder mappedBuilder = MappedSortedMap.builder(file)) {
+      for (long i = 0; i < size; i++) {
+        byte[] key = Longs.toByteArray(i * 2);
+        byte[] value = Longs.toByteArray(i);
+        mappedBuilder.put(key, value);
+        builder.put(ByteBuffer.wrap(key), ByteBuffer.wrap(value));
+      }
+      mappedMap = mappedBuilder.build();
+    }
+    immutableMap = builder.build();
+    Random random = new Random(0);
+    queries = new ByteBuffer[1024];
+    for (int i = 0; i < queries.length; i++) {
+      queries[i] = ByteBuffer.wrap(Longs.toByteArray(random.nextInt(size * 2)));
+    }
+  }
+
+  @AfterExperiment
+  void tearDown() {
+    file.delete();
+  }
+
+  @Benchmark
+  int mappedSortedMapGet(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      ByteBuffer value = mappedMap.get(queries[i & (queries.length - 1)]);
+      result += (value == null) ? 0 : value.remaining();
+    }
+    return result;
+  }
+
+  @Benchmark
+  int immutableSortedMapGet(int reps) {
+    int result = 0;
+    for (int i = 0; i < reps; i++) {
+      ByteBuffer value = immutableMap.get(queries[i & (queries.length - 1)]);
+      result += (value == null) ? 0 : value.remaining();
+    }
+    return result;
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.testing.GcFinalization;
+import com.google.common.testing.NullPointerTester;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import junit.framework.TestCase;
+
+/** Tests for {@link ConcurrentEvictingQueue}. */
+public class ConcurrentEvictingQueueTest extends TestCase {
+
+  public void testCreateWithNegativeSize() {
+    try {
+      ConcurrentEvictingQueue.create(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testCreateWithZeroSize() {
+    ConcurrentEvictingQueue<String> queue = ConcurrentEvictingQueue.create(0);
+    assertTrue(queue.add("hi"));
+    assertTrue(queue.offerAll(ImmutableList.of("a", "b")));
+    assertEquals(0, queue.size());
+    assertEquals(0, queue.remainingCapacity());
+    assertNull(queue.peek());
+    assertNull(queue.poll());
+    try {
+      queue.element();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+  }
+
+  public void testEvictingAfterOne() {
+    ConcurrentEvictingQueue<String> queue = ConcurrentEvictingQueue.create(1);
+    assertEquals(1, queue.remainingCapacity());
+    assertTrue(queue.add("hi"));
+    assertEquals("hi", queue.peek());
+    assertTrue(queue.add("there"));
+    assertEquals(1, queue.size());
+    assertEquals(0, queue.remainingCapacity());
+    assertEquals("there", queue.element());
+    assertEquals("there", queue.poll());
+    assertTrue(queue.isEmpty());
+  }
+
+  public void testEvictingAfterThree() {
+    ConcurrentEvictingQueue<String> queue = ConcurrentEvictingQueue.create(3);
+    for (String element : ImmutableList.of("one", "two", "three", "four", "five")) {
+      assertTrue(queue.offer(element));
+    }
+    assertEquals(ImmutableList.of("three", "four", "five"), ImmutableList.copyOf(queue));
+    assertEquals("three", queue.poll());
+    assertTrue(queue.add("six"));
+    assertEquals(ImmutableList.of("four", "five", "six"), ImmutableList.copyOf(queue));
+    assertTrue(queue.add("seven"));
+    assertEquals("five", queue.remove());
+    assertEquals(2, queue.size());
+  }
+
+  public void testOfferAll() {
+    ConcurrentEvictingQueue<Integer> queue = ConcurrentEvictingQueue.create(4);
+    queue.add(0);
+    assertTrue(queue.offerAll(ImmutableList.of(1, 2)));
+    assertEquals(ImmutableList.of(0, 1, 2), ImmutableList.copyOf(queue));
+    assertTrue(queue.addAll(ImmutableList.of(3, 4, 5)));
+    assertEquals(ImmutableList.of(2, 3, 4, 5), ImmutableList.copyOf(queue));
+    assertTrue(queue.offerAll(ContiguousSet.closed(10, 20)));
+    assertEquals(ImmutableList.of(17, 18, 19, 20), ImmutableList.copyOf(queue));
+    assertFalse(queue.offerAll(ImmutableList.<Integer>of()));
+    try {
+      queue.offerAll(Lists.newArrayList(1, null));
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testDrainTo() {
+    ConcurrentEvictingQueue<Integer> queue = ConcurrentEvictingQueue.create(3);
+    queue.addAll(ImmutableList.of(1, 2, 3, 4));
+    List<Integer> drained = new ArrayList<>();
+    assertEquals(1, queue.drainTo(drained, 1));
+    assertEquals(ImmutableList.of(2), drained);
+    assertEquals(2, queue.drainTo(drained));
+    assertEquals(ImmutableList.of(2, 3, 4), drained);
+    assertTrue(queue.isEmpty());
+    assertEquals(0, queue.drainTo(drained));
+
+    queue.add(5);
+    queue.clear();
+    assertNull(queue.peek());
+    assertEquals(3, queue.remainingCapacity());
+  }
+
+  public void testFreesRemovedElements() {
+    ConcurrentEvictingQueue<Object> queue = ConcurrentEvictingQueue.create(3);
+    WeakReference<Object> polled = addNewObject(queue);
+    WeakReference<Object> drained = addNewObject(queue);
+    WeakReference<Object> cleared = addNewObject(queue);
+    queue.poll();
+    queue.drainTo(new ArrayList<>(), 1);
+    queue.clear();
+    GcFinalization.awaitClear(polled);
+    GcFinalization.awaitClear(drained);
+    GcFinalization.awaitClear(cleared);
+  }
+
+  private static WeakReference<Object> addNewObject(ConcurrentEvictingQueue<Object> queue) {
+    Object element = new Object();
+    queue.add(element);
+    return new WeakReference<>(element);
+  }
+
+  public void testRemoveUnsupported() {
+    ConcurrentEvictingQueue<String> queue = ConcurrentEvictingQueue.create(3);
+    queue.add("a");
+    try {
+      queue.remove("a");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  public void testNullPointerExceptions() throws Exception {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicStaticMethods(ConcurrentEvictingQueue.class);
+    tester.testAllPublicConstructors(ConcurrentEvictingQueue.class);
+    tester.ignore(ConcurrentEvictingQueue.class.getMethod("remove", Object.class));
+    tester.testAllPublicInstanceMethods(ConcurrentEvictingQueue.create(5));
+  }
+
+  public void testConcurrentProducersAndConsumers() throws Exception {
+    final ConcurrentEvictingQueue<Integer> queue = ConcurrentEvictingQueue.create(64);
+    final int producers = 4;
+    final int perProducer = 100000;
+    ExecutorService pool = Executors.newFixedThreadPool(producers + 2);
+    try {
+      List<Future<List<Integer>>> consumed = new ArrayList<>();
+      List<Future<?>> produced = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+        final int base = p * perProducer;
+        produced.add(
+            pool.submit(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    for (int i = 0; i < perProducer; i += 10) {
+                      queue.add(base + i);
+                      List<Integer> batch = new ArrayList<>();
+                      for (int j = 1; j < 10; j++) {
+                        batch.add(base + i + j);
+                      }
+                      queue.offerAll(batch);
+                    }
+                  }
+                }));
+      }
+      for (int c = 0; c < 2; c++) {
+        consumed.add(
+            pool.submit(
+                new Callable<List<Integer>>() {
+                  @Override
+                  public List<Integer> call() {
+                    List<Integer> result = new ArrayList<>();
+                    for (int i = 0; i < 20000; i++) {
+                      Integer element = queue.poll();
+                      if (element != null) {
+                        result.add(element);
+                      }
+                      if (i % 100 == 0) {
+                        queue.drainTo(result, 10);
+                      }
+                    }
+                    return result;
+                  }
+                }));
+      }
+      for (Future<?> future : produced) {
+        future.get();
+      }
+      List<Integer> all = new ArrayList<>();
+      for (Future<List<Integer>> future : consumed) {
+        List<Integer> result = future.get();
+        // Each consumer sees the elements of each producer in order.
+        for (int p = 0; p < producers; p++) {
+          int last = -1;
+          for (int element : result) {
+            if (element / perProducer == p) {
+              assertTrue(element > last);
+              last = element;
+            }
+          }
+        }
+        all.addAll(result);
+      }
+      queue.drainTo(all);
+      assertTrue(queue.isEmpty());
+      // No element is removed twice.
+      Collections.sort(all);
+      for (int i = 1; i < all.size(); i++) {
+        assertTrue(all.get(i) > all.get(i - 1));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Test cases for {@link ConcurrentHashBasedTable}.
+ */
+@GwtIncompatible
+public class ConcurrentHashBasedTableTest extends AbstractTableTest {
+
+  @Override
+  protected Table<String, Integer, Character> create(Object... data) {
+    Table<String, Integer, Character> table = ConcurrentHashBasedTable.create();
+    table.put("foo", 4, 'a');
+    table.put("cat", 1, 'b');
+    table.clear();
+    populate(table, data);
+    return table;
+  }
+
+  public void testCreateCopy() {
+    Table<String, Integer, Character> original =
+        create("foo", 1, 'a', "bar", 1, 'b', "foo", 3, 'c');
+    Table<String, Integer, Character> copy = ConcurrentHashBasedTable.create(original);
+    assertEquals(original, copy);
+    assertEquals((Character) 'a', copy.get("foo", 1));
+  }
+
+  public void testPutIfAbsent() {
+    ConcurrentHashBasedTable<String, Integer, Character> table = ConcurrentHashBasedTable.create();
+    assertNull(table.putIfAbsent("foo", 1, 'a'));
+    assertEquals((Character) 'a', table.putIfAbsent("foo", 1, 'b'));
+    assertEquals((Character) 'a', table.get("foo", 1));
+  }
+
+  public void testCompute() {
+    ConcurrentHashBasedTable<String, Integer, Character> table = ConcurrentHashBasedTable.create();
+    assertEquals((Character) 'a', table.compute("foo", 1, current -> 'a'));
+    assertEquals((Character) 'b', table.compute("foo", 1, current -> (char) (current + 1)));
+    assertNull(table.compute("foo", 1, current -> null));
+    assertFalse(table.containsRow("foo"));
+    assertNull(table.compute("bar", 1, current -> null));
+    assertTrue(table.isEmpty());
+    assertThat(table.rowKeySet()).isEmpty();
+  }
+
+  public void testMerge() {
+    ConcurrentHashBasedTable<String, String, Long> table = ConcurrentHashBasedTable.create();
+    assertEquals((Long) 3L, table.merge("tenant", "requests", 3L, Long::sum));
+    assertEquals((Long) 5L, table.merge("tenant", "requests", 2L, Long::sum));
+    assertEquals((Long) 5L, table.get("tenant", "requests"));
+    assertNull(table.merge("tenant", "requests", 1L, (a, b) -> null));
+    assertTrue(table.isEmpty());
+  }
+
+  public void testRemoveLastCellRemovesRow() {
+    table = create("foo", 1, 'a', "bar", 1, 'b');
+    table.remove("foo", 1);
+    assertFalse(table.containsRow("foo"));
+    assertThat(table.rowMap().keySet()).containsExactly("bar");
+    table.put("foo", 2, 'c');
+    assertEquals((Character) 'c', table.get("foo", 2));
+  }
+
+  public void testRowMapRemove() {
+    table = create("foo", 1, 'a', "foo", 3, 'c', "bar", 1, 'b');
+    Map<Integer, Character> removed = table.rowMap().remove("foo");
+    assertEquals(ImmutableMap.of(1, 'a', 3, 'c'), removed);
+    assertNull(table.rowMap().remove("foo"));
+    assertEquals(1, table.size());
+  }
+
+  public void testColumnMapRemove() {
+    table = create("foo", 1, 'a', "foo", 3, 'c', "bar", 1, 'b');
+    assertEquals(ImmutableMap.of("foo", 'a', "bar", 'b'), table.columnMap().remove(1));
+    assertEquals(ImmutableMap.of("foo", ImmutableMap.of(3, 'c')), table.rowMap());
+  }
+
+  public void testIteratorToleratesConcurrentModification() {
+    table = create("foo", 1, 'a', "bar", 1, 'b', "foo", 3, 'c');
+    Iterator<Table.Cell<String, Integer, Character>> iterator = table.cellSet().iterator();
+    iterator.next();
+    table.put("baz", 2, 'd');
+    table.remove("bar", 1);
+    while (iterator.hasNext()) {
+      iterator.next();
+    }
+    assertEquals(3, table.size());
+  }
+
+  public void testConcurrentMerge() throws Exception {
+    final ConcurrentHashBasedTable<Integer, Integer, Long> table =
+        ConcurrentHashBasedTable.create();
+    final int threadCount = 4;
+    final int iterations = 10000;
+    final CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              try {
+                start.await();
+              } catch (InterruptedException e) {
+                throw new AssertionError(e);
+              }
+              for (int i = 0; i < iterations; i++) {
+                table.merge(i % 2, i % 3, 1L, Long::sum);
+                // rows 2 and 3 are repeatedly emptied and recreated, concurrently
+                table.put(2 + i % 2, i % 3, 1L);
+                table.remove(2 + i % 2, i % 3);
+              }
+            }
+          };
+      thread.start();
+      threads.add(thread);
+    }
+    start.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long total = 0;
+    for (int row = 0; row < 2; row++) {
+      for (long count : table.row(row).values()) {
+        total += count;
+      }
+    }
+    assertEquals((long) threadCount * iterations, total);
+    assertEquals(6, table.size() - table.row(2).size() - table.row(3).size());
+  }
+
+  public void testSerialization() {
+    table = create("foo", 1, 'a', "bar", 1, 'b', "foo", 3, 'c');
+    SerializableTester.reserializeAndAssert(table);
+  }
+
+  public void testNullPointerStatic() {
+    new NullPointerTester().testAllPublicStaticMethods(ConcurrentHashBasedTable.class);
+  }
+}
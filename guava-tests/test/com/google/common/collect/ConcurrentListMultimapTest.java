@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.testing.features.CollectionFeature;
+import com.google.common.collect.testing.features.CollectionSize;
+import com.google.common.collect.testing.features.MapFeature;
+import com.google.common.collect.testing.google.ListMultimapTestSuiteBuilder;
+import com.google.common.collect.testing.google.TestStringListMultimapGenerator;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map.Entry;
+import java.util.RandomAccess;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** Tests for {@link ConcurrentListMultimap}. */
+public class ConcurrentListMultimapTest extends TestCase {
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite();
+    suite.addTest(
+        ListMultimapTestSuiteBuilder.using(
+                new TestStringListMultimapGenerator() {
+                  @Override
+                  protected ListMultimap<String, String> create(Entry<String, String>[] entries) {
+                    ListMultimap<String, String> multimap = ConcurrentListMultimap.create();
+                    for (Entry<String, String> entry : entries) {
+                      multimap.put(entry.getKey(), entry.getValue());
+                    }
+                    return multimap;
+                  }
+                })
+            .named("ConcurrentListMultimap")
+            .withFeatures(
+                MapFeature.GENERAL_PURPOSE,
+                MapFeature.ALLOWS_ANY_NULL_QUERIES,
+                CollectionFeature.SUPPORTS_ITERATOR_REMOVE,
+                CollectionFeature.SERIALIZABLE,
+                CollectionSize.ANY)
+            .createTestSuite());
+    suite.addTestSuite(ConcurrentListMultimapTest.class);
+    return suite;
+  }
+
+  public void testCreateFromMultimap() {
+    Multimap<String, Integer> multimap = ArrayListMultimap.create();
+    multimap.put("foo", 1);
+    multimap.put("bar", 2);
+    multimap.put("foo", 1);
+    ConcurrentListMultimap<String, Integer> copy = ConcurrentListMultimap.create(multimap);
+    assertEquals(multimap, copy);
+  }
+
+  public void testGetRandomAccess() {
+    ConcurrentListMultimap<String, Integer> multimap = ConcurrentListMultimap.create();
+    multimap.put("foo", 1);
+    assertTrue(multimap.get("foo") instanceof RandomAccess);
+    assertTrue(multimap.get("bar") instanceof RandomAccess);
+  }
+
+  public void testPositionalUpdates() {
+    ConcurrentListMultimap<String, Integer> multimap = ConcurrentListMultimap.create();
+    List<Integer> foo = multimap.get("foo");
+    foo.add(0, 2);
+    foo.add(0, 1);
+    foo.add(3);
+    assertEquals(2, (int) foo.set(1, 4));
+    assertThat(multimap.get("foo")).containsExactly(1, 4, 3).inOrder();
+    assertEquals(1, (int) foo.remove(0));
+    assertThat(multimap.get("foo")).containsExactly(4, 3).inOrder();
+    try {
+      foo.set(2, 5);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testIteratorRemovesTheReturnedOccurrence() {
+    ConcurrentListMultimap<String, Integer> multimap = ConcurrentListMultimap.create();
+    multimap.putAll("foo", ImmutableList.of(1, 2, 1));
+    Iterator<Integer> iterator = multimap.get("foo").iterator();
+    iterator.next();
+    iterator.next();
+    iterator.next();
+    iterator.remove();
+    assertThat(multimap.get("foo")).containsExactly(1, 2).inOrder();
+  }
+
+  public void testIteratorIsWeaklyConsistent() {
+    ConcurrentListMultimap<String, Integer> multimap = ConcurrentListMultimap.create();
+    multimap.putAll("foo", ImmutableList.of(1, 2));
+    ListIterator<Integer> iterator = multimap.get("foo").listIterator();
+    assertEquals(1, (int) iterator.next());
+    multimap.put("foo", 3);
+    assertEquals(2, (int) iterator.next());
+    assertFalse(iterator.hasNext());
+    try {
+      iterator.remove();
+      fail();
+    } catch (ConcurrentModificationException expected) {
+    }
+    assertThat(multimap.get("foo")).containsExactly(1, 2, 3).inOrder();
+  }
+
+  public void testConcurrentPut() throws Exception {
+    final ConcurrentListMultimap<Integer, Integer> multimap = ConcurrentListMultimap.create();
+    final int nThreads = 8;
+    final int valuesPerThread = 500;
+    ExecutorService pool = Executors.newFixedThreadPool(nThreads);
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < nThreads; i++) {
+        futures.add(
+            pool.submit(
+                new Callable<Void>() {
+                  @Override
+                  public Void call() {
+                    for (int value = 0; value < valuesPerThread; value++) {
+                      multimap.put(value % 3, value);
+                    }
+                    return null;
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(nThreads * valuesPerThread, multimap.size());
+    for (int value = 0; value < valuesPerThread; value++) {
+      assertEquals(nThreads, Collections.frequency(multimap.get(value % 3), value));
+    }
+  }
+}
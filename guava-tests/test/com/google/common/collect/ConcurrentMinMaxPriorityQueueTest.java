@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.testing.NullPointerTester;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import junit.framework.TestCase;
+
+/** Tests for {@link ConcurrentMinMaxPriorityQueue}. */
+public class ConcurrentMinMaxPriorityQueueTest extends TestCase {
+
+  public void testCreate() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue =
+        ConcurrentMinMaxPriorityQueue.create(Ordering.<Integer>natural().reverse(), 3);
+    assertEquals(3, queue.maximumSize());
+    assertEquals(Ordering.natural().reverse(), queue.comparator());
+    try {
+      ConcurrentMinMaxPriorityQueue.<Integer>create(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testBounded() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create(3);
+    assertTrue(queue.offer(5));
+    assertTrue(queue.offer(3));
+    assertTrue(queue.offer(8));
+    assertFalse(queue.offer(9)); // rejected without the lock
+    assertFalse(queue.offer(8));
+    assertTrue(queue.offer(1));
+    assertEquals(3, queue.size());
+    assertEquals(1, (int) queue.peekFirst());
+    assertEquals(5, (int) queue.peekLast());
+    assertEquals(5, (int) queue.pollLast());
+    assertTrue(queue.offer(7)); // no longer full
+    assertEquals(1, (int) queue.poll());
+    assertEquals(3, (int) queue.peek());
+    assertTrue(queue.contains(7));
+    assertTrue(queue.remove(7));
+    assertFalse(queue.contains(7));
+    assertEquals(ImmutableMultiset.of(3), ImmutableMultiset.copyOf(queue));
+    queue.clear();
+    assertNull(queue.poll());
+    assertNull(queue.pollLast());
+  }
+
+  public void testAddWhenFull() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create(2);
+    assertTrue(queue.add(5));
+    assertTrue(queue.add(3));
+    assertTrue(queue.add(9)); // rejected without the lock
+    assertTrue(queue.add(5)); // evicted under the lock
+    assertTrue(queue.add(1));
+    assertEquals(ImmutableMultiset.of(1, 3), ImmutableMultiset.copyOf(queue));
+  }
+
+  public void testOfferAll() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create(4);
+    assertTrue(queue.offerAll(ImmutableList.of(9, 2, 7, 4, 6, 1)));
+    assertEquals(ImmutableMultiset.of(1, 2, 4, 6), ImmutableMultiset.copyOf(queue));
+    assertFalse(queue.offerAll(ImmutableList.of(6, 10, 20)));
+    assertTrue(queue.addAll(ImmutableList.of(10, 0)));
+    assertEquals(ImmutableMultiset.of(0, 1, 2, 4), ImmutableMultiset.copyOf(queue));
+    try {
+      queue.offerAll(Lists.newArrayList(3, null));
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testDrainTo() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create(10);
+    queue.addAll(ImmutableList.of(5, 3, 9, 1, 7));
+    List<Integer> drained = new ArrayList<>();
+    assertEquals(2, queue.drainTo(drained, 2));
+    assertEquals(ImmutableList.of(1, 3), drained);
+    assertEquals(3, queue.drainTo(drained));
+    assertEquals(ImmutableList.of(1, 3, 5, 7, 9), drained);
+    assertTrue(queue.isEmpty());
+    assertTrue(queue.offer(4));
+    assertEquals(ImmutableList.of(4), ImmutableList.copyOf(queue));
+  }
+
+  public void testNullPointerExceptions() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicStaticMethods(ConcurrentMinMaxPriorityQueue.class);
+    tester.testAllPublicInstanceMethods(ConcurrentMinMaxPriorityQueue.<Integer>create(5));
+  }
+
+  public void testConcurrentTopN() throws Exception {
+    final ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create(100);
+    int producers = 4;
+    ExecutorService pool = Executors.newFixedThreadPool(producers);
+    List<Integer> all = Collections.synchronizedList(new ArrayList<Integer>());
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+        final Random random = new Random(p);
+        final List<Integer> offered = all;
+        futures.add(
+            pool.submit(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    for (int i = 0; i < 2000; i++) {
+                      List<Integer> batch = new ArrayList<>();
+                      for (int j = 0; j < 10; j++) {
+                        batch.add(random.nextInt());
+                      }
+                      offered.addAll(batch);
+                      if (i % 2 == 0) {
+                        queue.offerAll(batch);
+                      } else {
+                        for (int element : batch) {
+                          queue.offer(element);
+                        }
+                      }
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    List<Integer> drained = new ArrayList<>();
+    assertEquals(100, queue.drainTo(drained));
+    Collections.sort(all);
+    assertEquals(all.subList(0, 100), drained);
+  }
+}
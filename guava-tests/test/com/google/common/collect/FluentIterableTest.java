@@ -481,6 +481,118 @@ public class FluentIterableTest extends TestCase {
         FluentIterable.from(input).transformAndConcat(new RepeatedStringValueOfWildcardFunction());
   }
 
+  /** A function that counts its calls, to check that fused stages apply it once per element. */
+  private static final class CountingFunction implements Function<Integer, Integer> {
+    int calls;
+
+    @Override
+    public Integer apply(Integer from) {
+      calls++;
+      return from + 1;
+    }
+  }
+
+  private static final Predicate<Integer> EVEN =
+      new Predicate<Integer>() {
+        @Override
+        public boolean apply(Integer input) {
+          return input % 2 == 0;
+        }
+      };
+
+  public void testFilterAndTransform_fused() {
+    List<Integer> input = Lists.newArrayList(1, 2, 3, 4, 5, 6);
+    CountingFunction plusOne = new CountingFunction();
+    FluentIterable<String> fused =
+        FluentIterable.from(input)
+            .filter(EVEN)
+            .transform(plusOne)
+            .filter(Predicates.not(Predicates.equalTo(5)))
+            .transform(Functions.toStringFunction());
+
+    assertEquals(asList("3", "7"), Lists.newArrayList(fused));
+    assertEquals(3, plusOne.calls);
+    assertEquals(ImmutableList.of("3", "7"), fused.toList());
+    assertEquals(ImmutableSet.of("3", "7"), fused.toSet());
+    assertEquals(2, fused.size());
+    assertTrue(fused.contains("7"));
+    assertFalse(fused.contains("5"));
+    assertFalse(fused.contains(null));
+    assertTrue(fused.anyMatch(Predicates.equalTo("3")));
+    assertFalse(fused.allMatch(Predicates.equalTo("3")));
+    assertThat(fused.firstMatch(Predicates.equalTo("7"))).hasValue("7");
+    assertThat(fused.firstMatch(Predicates.equalTo("8"))).isAbsent();
+    assertEquals(asList("3", "7"), fused.copyInto(new ArrayList<String>()));
+    assertEquals("[3, 7]", fused.toString());
+    assertCanIterateAgain(fused);
+
+    // Still a view of the input.
+    input.add(8);
+    assertEquals(ImmutableList.of("3", "7", "9"), fused.toList());
+  }
+
+  public void testFilterAndTransform_fusedOverImmutableList() {
+    FluentIterable<Integer> fused =
+        FluentIterable.from(ImmutableList.of(1, 2, 3, 4)).transform(new CountingFunction());
+    assertEquals(ImmutableList.of(2, 3, 4, 5), fused.toList());
+    assertTrue(fused.filter(EVEN).allMatch(EVEN));
+    assertEquals(2, fused.filter(EVEN).size());
+  }
+
+  public void testTransform_fusedIteratorRemove() {
+    List<Integer> input = Lists.newArrayList(1, 2, 3);
+    Iterator<Integer> iterator =
+        FluentIterable.from(input)
+            .transform(new CountingFunction())
+            .transform(new CountingFunction())
+            .iterator();
+    assertEquals(3, (int) iterator.next());
+    iterator.remove();
+    assertEquals(asList(2, 3), input);
+
+    Iterator<Integer> filtered = FluentIterable.from(input).filter(EVEN).iterator();
+    filtered.next();
+    try {
+      filtered.remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  public void testFilterAndTransform_fusedNulls() {
+    FluentIterable<String> fused =
+        FluentIterable.from(asList("a", null, "b")).filter(Predicates.not(Predicates.equalTo("b")));
+    assertEquals(asList("a", null), Lists.newArrayList(fused));
+    assertTrue(fused.contains(null));
+    assertEquals(2, fused.size());
+    try {
+      fused.toList();
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    try {
+      fused.firstMatch(Predicates.isNull());
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    assertEquals(
+        ImmutableList.of("null"),
+        fused.filter(Predicates.isNull()).transform(Functions.constant("null")).toList());
+  }
+
+  public void testFilterAndTransform_fusedForEachAndStream() {
+    FluentIterable<Integer> fused =
+        FluentIterable.from(asList(1, 2, 3, 4, 5, 6))
+            .filter(n -> n % 2 == 0)
+            .transform(n -> n * 10)
+            .filter(n -> n != 40);
+    List<Integer> forEach = new ArrayList<>();
+    fused.forEach(forEach::add);
+    assertEquals(asList(20, 60), forEach);
+    assertThat(fused.stream()).containsExactly(20, 60).inOrder();
+    assertThat(fused.stream().parallel()).containsExactly(20, 60);
+  }
+
   public void testFirst_list() {
     List<String> list = Lists.newArrayList("a", "b", "c");
     assertThat(FluentIterable.from(list).first()).hasValue("a");
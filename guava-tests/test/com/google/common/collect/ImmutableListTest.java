@@ -52,6 +52,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
 import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
@@ -465,6 +466,15 @@ public class ImmutableListTest extends TestCase {
       CollectorTester.of(ImmutableList.<String>toImmutableList())
           .expectCollects(ImmutableList.of("a", "b", "c", "d"), "a", "b", "c", "d");
     }
+
+    public void testToImmutableList_parallel() {
+      ImmutableList<Integer> list =
+          IntStream.range(0, 10000).parallel().boxed().collect(ImmutableList.toImmutableList());
+      assertEquals(10000, list.size());
+      for (int i = 0; i < 10000; i++) {
+        assertEquals(i, (int) list.get(i));
+      }
+    }
   }
 
   @GwtIncompatible // reflection
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/** Tests for {@link ImmutableRangeMultimap}. */
+@GwtIncompatible // NavigableMap
+public class ImmutableRangeMultimapTest extends TestCase {
+
+  public void testEmpty() {
+    ImmutableRangeMultimap<Integer, String> empty = ImmutableRangeMultimap.of();
+    assertTrue(empty.isEmpty());
+    assertEquals(ImmutableList.of(), empty.get(3));
+    assertEquals(ImmutableList.of(), empty.getOverlappingEntries(Range.<Integer>all()));
+    try {
+      empty.span();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+  }
+
+  public void testOverlappingRanges() {
+    ImmutableRangeMultimap<Integer, String> multimap =
+        ImmutableRangeMultimap.<Integer, String>builder()
+            .put(Range.closed(5, 10), "b")
+            .put(Range.closedOpen(0, 10), "a")
+            .put(Range.closed(5, 10), "c")
+            .put(Range.greaterThan(10), "d")
+            .build();
+    assertEquals(4, multimap.size());
+    assertEquals(Range.atLeast(0), multimap.span());
+    assertEquals(ImmutableList.of("a"), multimap.get(0));
+    assertEquals(ImmutableList.of("a", "b", "c"), multimap.get(5));
+    assertEquals(ImmutableList.of("b", "c"), multimap.get(10));
+    assertEquals(ImmutableList.of("d"), multimap.get(11));
+    assertEquals(ImmutableList.of(), multimap.get(-1));
+    assertEquals(
+        ImmutableList.of(
+            Maps.immutableEntry(Range.closed(5, 10), "b"),
+            Maps.immutableEntry(Range.closed(5, 10), "c")),
+        multimap.getEntries(10));
+    assertEquals(
+        ImmutableList.of(
+            Maps.immutableEntry(Range.closed(5, 10), "b"),
+            Maps.immutableEntry(Range.closed(5, 10), "c"),
+            Maps.immutableEntry(Range.greaterThan(10), "d")),
+        multimap.getOverlappingEntries(Range.closed(10, 20)));
+    assertEquals(ImmutableList.of(), multimap.getOverlappingEntries(Range.closedOpen(10, 10)));
+    assertEquals("{[0..10)=[a], [5..10]=[b, c], (10..+∞)=[d]}", multimap.toString());
+  }
+
+  public void testRandomAgainstScan() {
+    Random random = new Random(0);
+    for (int trial = 0; trial < 50; trial++) {
+      List<Entry<Range<Integer>, Integer>> entries = Lists.newArrayList();
+      ImmutableRangeMultimap.Builder<Integer, Integer> builder = ImmutableRangeMultimap.builder();
+      for (int i = random.nextInt(40); i > 0; i--) {
+        Range<Integer> range = randomRange(random);
+        if (!range.isEmpty()) {
+          entries.add(Maps.immutableEntry(range, i));
+          builder.put(range, i);
+        }
+      }
+      ImmutableRangeMultimap<Integer, Integer> multimap = builder.build();
+      for (int key = -60; key <= 60; key++) {
+        ImmutableMultiset.Builder<Entry<Range<Integer>, Integer>> expected =
+            ImmutableMultiset.builder();
+        for (Entry<Range<Integer>, Integer> entry : entries) {
+          if (entry.getKey().contains(key)) {
+            expected.add(entry);
+          }
+        }
+        assertEquals(expected.build(), ImmutableMultiset.copyOf(multimap.getEntries(key)));
+      }
+      for (int i = 0; i < 50; i++) {
+        Range<Integer> query = randomRange(random);
+        ImmutableMultiset.Builder<Entry<Range<Integer>, Integer>> expected =
+            ImmutableMultiset.builder();
+        for (Entry<Range<Integer>, Integer> entry : entries) {
+          if (entry.getKey().isConnected(query)
+              && !entry.getKey().intersection(query).isEmpty()) {
+            expected.add(entry);
+          }
+        }
+        List<Entry<Range<Integer>, Integer>> actual = multimap.getOverlappingEntries(query);
+        assertEquals(expected.build(), ImmutableMultiset.copyOf(actual));
+        assertTrue(
+            Range.<Integer>rangeLexOrdering()
+                .isOrdered(Lists.transform(actual, Maps.<Range<Integer>>keyFunction())));
+      }
+    }
+  }
+
+  public void testEqualsAndSerialization() {
+    ImmutableRangeMultimap<Integer, String> multimap =
+        ImmutableRangeMultimap.<Integer, String>builder()
+            .put(Range.closed(0, 5), "a")
+            .put(Range.atLeast(3), "b")
+            .build();
+    new EqualsTester()
+        .addEqualityGroup(
+            multimap,
+            ImmutableRangeMultimap.<Integer, String>builder()
+                .put(Range.atLeast(3), "b")
+                .put(Range.closed(0, 5), "a")
+                .build(),
+            ImmutableRangeMultimap.<Integer, String>builder().putAll(multimap).build())
+        .addEqualityGroup(ImmutableRangeMultimap.of(Range.closed(0, 5), "a"))
+        .addEqualityGroup(ImmutableRangeMultimap.of())
+        .testEquals();
+    SerializableTester.reserializeAndAssert(multimap);
+  }
+
+  public void testBuilderRejectsEmptyRanges() {
+    try {
+      ImmutableRangeMultimap.<Integer, String>builder().put(Range.closedOpen(1, 1), "a");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testNulls() {
+    new NullPointerTester().testAllPublicStaticMethods(ImmutableRangeMultimap.class);
+    new NullPointerTester()
+        .testAllPublicInstanceMethods(ImmutableRangeMultimap.of(Range.closed(1, 2), "a"));
+  }
+
+  private static Range<Integer> randomRange(Random random) {
+    int lower = random.nextInt(100) - 50;
+    int upper = lower + random.nextInt(30);
+    if (lower == upper) {
+      return Range.singleton(lower);
+    }
+    switch (random.nextInt(6)) {
+      case 0:
+        return Range.atMost(upper);
+      case 1:
+        return Range.greaterThan(lower);
+      default:
+        return Range.range(
+            lower,
+            random.nextBoolean() ? BoundType.OPEN : BoundType.CLOSED,
+            upper,
+            random.nextBoolean() ? BoundType.OPEN : BoundType.CLOSED);
+    }
+  }
+}
@@ -42,6 +42,7 @@ import java.util.Iterator;
 import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.stream.Collector;
+import java.util.stream.IntStream;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -328,6 +329,15 @@ public class ImmutableSetTest extends AbstractImmutableSetTest {
         .expectCollects(ImmutableSet.of("a", "b", "c", "d"), "a", "b", "a", "c", "b", "b", "d");
   }
 
+  public void testToImmutableSet_parallel() {
+    ImmutableSet<Integer> set =
+        IntStream.range(0, 10000)
+            .parallel()
+            .mapToObj(i -> i % 1000)
+            .collect(ImmutableSet.toImmutableSet());
+    assertEquals(ContiguousSet.closedOpen(0, 1000).asList(), set.asList());
+  }
+
   public void testToImmutableSet_duplicates() {
     class TypeWithDuplicates {
       final int a;
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.Ints;
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.util.Random;
+import java.util.TreeSet;
+import junit.framework.TestCase;
+
+/** Tests for {@link ImmutableSortedIntSet}. */
+@GwtIncompatible
+public class ImmutableSortedIntSetTest extends TestCase {
+
+  public void testOf() {
+    ImmutableSortedIntSet set = ImmutableSortedIntSet.of(5, Integer.MIN_VALUE, 9, 5, -1);
+    assertThat(Ints.asList(set.toArray()))
+        .containsExactly(Integer.MIN_VALUE, -1, 5, 9)
+        .inOrder();
+    assertEquals(Integer.MIN_VALUE, set.first());
+    assertEquals(9, set.last());
+    assertEquals("[-2147483648, -1, 5, 9]", set.toString());
+    assertSame(ImmutableSortedIntSet.of(), ImmutableSortedIntSet.of(1).subSet(2, 3));
+  }
+
+  public void testRandomAgainstTreeSet() {
+    Random random = new Random(0);
+    TreeSet<Integer> expected = new TreeSet<>();
+    ImmutableSortedIntSet.Builder builder = ImmutableSortedIntSet.builder();
+    for (int i = 0; i < 3000; i++) {
+      int value = random.nextInt();
+      expected.add(value);
+      builder.add(value);
+    }
+    ImmutableSortedIntSet set = builder.build();
+    assertEquals(expected, set.asImmutableSortedSet());
+    assertEquals(expected.hashCode(), set.hashCode());
+    for (int i = 0; i < 1000; i++) {
+      int probe = random.nextInt();
+      assertEquals(expected.contains(probe), set.contains(probe));
+      assertIndex(expected.ceiling(probe), set, set.ceilingIndex(probe));
+      assertIndex(expected.higher(probe), set, set.higherIndex(probe));
+      assertIndex(expected.floor(probe), set, set.floorIndex(probe));
+      assertIndex(expected.lower(probe), set, set.lowerIndex(probe));
+    }
+    assertEquals(expected.headSet(0), set.headSet(0).asImmutableSortedSet());
+    assertEquals(expected.tailSet(0), set.tailSet(0).trimmed().asImmutableSortedSet());
+  }
+
+  public void testSetAlgebra() {
+    ImmutableSortedIntSet a = ImmutableSortedIntSet.closed(0, 10);
+    ImmutableSortedIntSet b = ImmutableSortedIntSet.of(-5, 5, 15);
+    assertEquals(ImmutableSortedIntSet.of(5), a.intersection(b));
+    assertEquals(ImmutableSortedIntSet.of(0, 1, 2, 3, 4, 6, 7, 8, 9, 10), a.difference(b));
+    ImmutableSortedIntSet union = a.union(b);
+    assertEquals(ImmutableSortedIntSet.of(-5, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 15), union);
+    assertEquals(
+        ImmutableSortedIntSet.closed(-5, 15),
+        union.union(ImmutableSortedIntSet.of(-4, -3, -2, -1, 11, 12, 13, 14)));
+  }
+
+  public void testAsImmutableSortedSet() {
+    assertThat(ImmutableSortedIntSet.closed(3, 7).asImmutableSortedSet())
+        .isInstanceOf(ContiguousSet.class);
+    ImmutableSortedSet<Integer> view = ImmutableSortedIntSet.of(-3, 1, 7).asImmutableSortedSet();
+    assertEquals(ImmutableSortedSet.of(-3, 1, 7), view);
+    assertEquals((Integer) 1, view.floor(6));
+    assertEquals(ImmutableSortedIntSet.of(-3, 1, 7), ImmutableSortedIntSet.copyOf(view));
+  }
+
+  public void testStream() {
+    assertThat(Ints.asList(ImmutableSortedIntSet.of(3, 1, 2).stream().toArray()))
+        .containsExactly(1, 2, 3)
+        .inOrder();
+  }
+
+  public void testEqualsAndSerialization() {
+    new EqualsTester()
+        .addEqualityGroup(ImmutableSortedIntSet.of(), ImmutableSortedIntSet.builder().build())
+        .addEqualityGroup(
+            ImmutableSortedIntSet.of(1, 2, 3),
+            ImmutableSortedIntSet.closed(1, 3),
+            ImmutableSortedIntSet.closed(0, 4).subSet(1, 4))
+        .testEquals();
+    SerializableTester.reserializeAndAssert(ImmutableSortedIntSet.of(-1, 5, 1000000));
+    SerializableTester.reserializeAndAssert(ImmutableSortedIntSet.closed(0, 1000).subSet(3, 500));
+  }
+
+  public void testNulls() {
+    new NullPointerTester().testAllPublicStaticMethods(ImmutableSortedIntSet.class);
+    new NullPointerTester().testAllPublicInstanceMethods(ImmutableSortedIntSet.of(1, 2));
+  }
+
+  private static void assertIndex(Integer expected, ImmutableSortedIntSet set, int index) {
+    if (expected == null) {
+      assertEquals(-1, index);
+    } else {
+      assertEquals((int) expected, set.get(index));
+    }
+  }
+}
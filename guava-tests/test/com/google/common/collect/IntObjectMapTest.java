@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link IntObjectMap}.
+ */
+public class IntObjectMapTest extends TestCase {
+  public void testBasic() {
+    IntObjectMap<String> map = IntObjectMap.create();
+    assertTrue(map.isEmpty());
+    assertNull(map.put(1, "one"));
+    assertNull(map.put(-7, "minus seven"));
+    assertEquals("one", map.put(1, "uno"));
+    assertEquals(2, map.size());
+    assertEquals("uno", map.get(1));
+    assertNull(map.get(2));
+    assertEquals("default", map.getOrDefault(2, "default"));
+    assertTrue(map.containsKey(-7));
+    assertFalse(map.containsKey(7));
+    assertEquals("{1=uno, -7=minus seven}", map.toString());
+    assertEquals("minus seven", map.remove(-7));
+    assertNull(map.remove(-7));
+    assertEquals(1, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(1));
+  }
+
+  public void testInsertionOrder() {
+    IntObjectMap<Integer> map = IntObjectMap.createWithExpectedSize(0);
+    for (int i = 0; i < 100; i++) {
+      map.put(i * 31, i);
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i * 31, map.keyAt(i));
+      assertEquals((Integer) i, map.valueAt(i));
+    }
+    assertEquals(100, map.keys().length);
+    try {
+      map.keyAt(100);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testAgainstHashMap() {
+    IntObjectMap<Integer> map = IntObjectMap.create();
+    Map<Integer, Integer> expected = new HashMap<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100_000; i++) {
+      // keys differing only in their high bits stress the bucket chains
+      int key = random.nextInt(2_000) << 20;
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        assertEquals(expected.put(key, i), map.put(key, i));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (int i = 0; i < map.size(); i++) {
+      assertEquals(expected.get(map.keyAt(i)), map.valueAt(i));
+    }
+    for (int key = 0; key < 2_000; key++) {
+      assertEquals(expected.get(key << 20), map.get(key << 20));
+    }
+    assertEquals(expected.hashCode(), map.hashCode());
+    map.trimToSize();
+    for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+  }
+
+  public void testEqualsAndHashCode() {
+    IntObjectMap<String> map1 = IntObjectMap.create();
+    IntObjectMap<String> map2 = IntObjectMap.create();
+    map1.put(1, "a");
+    map1.put(2, "b");
+    map2.put(2, "b");
+    map2.put(1, "a");
+    assertEquals(map1, map2);
+    assertEquals(map1.hashCode(), map2.hashCode());
+    map2.put(1, "c");
+    assertFalse(map1.equals(map2));
+  }
+
+  public void testNullValue() {
+    IntObjectMap<String> map = IntObjectMap.create();
+    try {
+      map.put(1, null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testCreateWithExpectedSize_negative() {
+    try {
+      IntObjectMap.createWithExpectedSize(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.testing.EqualsTester;
+import junit.framework.TestCase;
+
+/** Unit test for {@link InternerStats}. */
+public class InternerStatsTest extends TestCase {
+
+  public void testEmpty() {
+    InternerStats stats = new InternerStats(0, 0, 0);
+    assertEquals(0, stats.requestCount());
+    assertEquals(0, stats.hitCount());
+    assertEquals(1.0, stats.hitRate());
+    assertEquals(0, stats.missCount());
+    assertEquals(0.0, stats.missRate());
+    assertEquals(0, stats.evictionCount());
+  }
+
+  public void testSingle() {
+    InternerStats stats = new InternerStats(11, 13, 17);
+    assertEquals(24, stats.requestCount());
+    assertEquals(11, stats.hitCount());
+    assertEquals(11.0 / 24, stats.hitRate());
+    assertEquals(13, stats.missCount());
+    assertEquals(13.0 / 24, stats.missRate());
+    assertEquals(17, stats.evictionCount());
+  }
+
+  public void testMinus() {
+    InternerStats one = new InternerStats(11, 13, 17);
+    InternerStats two = new InternerStats(23, 27, 5);
+    assertEquals(new InternerStats(12, 14, 0), two.minus(one));
+    assertEquals(new InternerStats(0, 0, 12), one.minus(two));
+  }
+
+  public void testPlus() {
+    InternerStats one = new InternerStats(11, 13, 17);
+    InternerStats two = new InternerStats(23, 27, 5);
+    assertEquals(new InternerStats(34, 40, 22), one.plus(two));
+    assertEquals(one, one.plus(new InternerStats(0, 0, 0)));
+  }
+
+  public void testNegative() {
+    try {
+      new InternerStats(-1, 0, 0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testEquals() {
+    new EqualsTester()
+        .addEqualityGroup(new InternerStats(1, 2, 3), new InternerStats(1, 2, 3))
+        .addEqualityGroup(new InternerStats(1, 2, 4))
+        .addEqualityGroup(new InternerStats(0, 2, 3))
+        .testEquals();
+  }
+}
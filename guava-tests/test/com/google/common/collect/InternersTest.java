@@ -17,6 +17,7 @@
 package com.google.common.collect;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Interners.BoundedInterner;
 import com.google.common.collect.Interners.InternerImpl;
 import com.google.common.collect.MapMakerInternalMap.Strength;
 import com.google.common.testing.GcFinalization;
@@ -98,6 +99,135 @@ public class InternersTest extends TestCase {
     assertSame(not, pool.intern(not));
   }
 
+  public void testBounded_simplistic() {
+    String canonical = "a";
+    String not = new String("a");
+
+    Interner<String> pool = Interners.newBuilder().maximumSize(100).build();
+    assertSame(canonical, pool.intern(canonical));
+    assertSame(canonical, pool.intern(not));
+  }
+
+  public void testBounded_null() {
+    Interner<String> pool = Interners.newBuilder().maximumSize(100).build();
+    try {
+      pool.intern(null);
+      fail();
+    } catch (NullPointerException ok) {
+    }
+  }
+
+  public void testBounded_builder() {
+    Interner<Object> interner = Interners.newBuilder().maximumSize(10).build();
+    BoundedInterner<Object> boundedInterner = (BoundedInterner<Object>) interner;
+    assertEquals(8, boundedInterner.table.length());
+  }
+
+  public void testBounded_evicts() {
+    Interner<Integer> pool = Interners.newBuilder().maximumSize(1).build();
+    Integer first = new Integer(1);
+    Integer second = new Integer(2);
+    assertSame(first, pool.intern(first));
+    assertSame(second, pool.intern(second));
+    Integer firstAgain = new Integer(1);
+    assertSame(firstAgain, pool.intern(firstAgain));
+    assertSame(firstAgain, pool.intern(new Integer(1)));
+  }
+
+  public void testBounded_holdsAtMostMaximumSize() {
+    Interner<Integer> pool = Interners.newBuilder().maximumSize(50).build();
+    for (int i = 0; i < 1000; i++) {
+      pool.intern(i);
+    }
+    int held = 0;
+    BoundedInterner<Integer> boundedInterner = (BoundedInterner<Integer>) pool;
+    for (int i = 0; i < boundedInterner.table.length(); i++) {
+      if (boundedInterner.table.get(i) != null) {
+        held++;
+      }
+    }
+    assertTrue(held <= 50);
+  }
+
+  public void testBounded_weak() {
+    Interners.InternerBuilder builder = Interners.newBuilder().weak().maximumSize(10);
+    try {
+      builder.build();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testMaximumSize_invalid() {
+    Interners.InternerBuilder builder = Interners.newBuilder();
+    try {
+      builder.maximumSize(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    builder.maximumSize(10);
+    try {
+      builder.maximumSize(20);
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testStats_strong() {
+    Interner<String> pool = Interners.newBuilder().recordStats().build();
+    pool.intern("a");
+    pool.intern(new String("a"));
+    pool.intern("b");
+    assertEquals(new InternerStats(1, 2, 0), Interners.stats(pool));
+  }
+
+  public void testStats_bounded() {
+    Interner<Integer> pool = Interners.newBuilder().maximumSize(1).recordStats().build();
+    pool.intern(1);
+    pool.intern(1);
+    pool.intern(2);
+    assertEquals(new InternerStats(1, 2, 1), Interners.stats(pool));
+  }
+
+  public void testStats_notRecorded() {
+    try {
+      Interners.stats(Interners.newStrongInterner());
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testBounded_concurrent() throws Exception {
+    final Interner<String> pool = Interners.newBuilder().maximumSize(64).recordStats().build();
+    final int threadCount = 4;
+    final int iterations = 10000;
+    Thread[] threads = new Thread[threadCount];
+    final AssertionError[] failure = new AssertionError[1];
+    for (int t = 0; t < threadCount; t++) {
+      threads[t] =
+          new Thread() {
+            @Override
+            public void run() {
+              for (int i = 0; i < iterations; i++) {
+                String sample = Integer.toString(i % 100);
+                String interned = pool.intern(sample);
+                if (!interned.equals(sample)) {
+                  failure[0] = new AssertionError(interned + " != " + sample);
+                }
+              }
+            }
+          };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    if (failure[0] != null) {
+      throw failure[0];
+    }
+    assertEquals(threadCount * iterations, Interners.stats(pool).requestCount());
+  }
+
   public void testAsFunction_simplistic() {
     String canonical = "a";
     String not = new String("a");
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.Arrays.asList;
+
+import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+/** Tests for {@link LongArrayTable}. */
+@GwtCompatible(emulated = true)
+public class LongArrayTableTest extends TestCase {
+
+  private static LongArrayTable<String, Integer> create() {
+    LongArrayTable<String, Integer> table =
+        LongArrayTable.create(asList("foo", "bar"), asList(1, 2, 3));
+    table.put("foo", 1, 1);
+    table.put("foo", 2, 2);
+    table.put("foo", 3, 3);
+    table.put("bar", 1, 4);
+    table.put("bar", 3, 6);
+    return table;
+  }
+
+  public void testCreate() {
+    LongArrayTable<String, Integer> table =
+        LongArrayTable.create(asList("foo", "bar"), asList(1, 2, 3));
+    assertEquals(ImmutableList.of("foo", "bar"), table.rowKeyList());
+    assertEquals(ImmutableList.of(1, 2, 3), table.columnKeyList());
+    assertTrue(Arrays.equals(new long[6], table.toRowMajorArray()));
+  }
+
+  public void testCreate_duplicateKeys() {
+    try {
+      LongArrayTable.create(asList("foo", "foo"), asList(1, 2));
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testCreate_empty() {
+    LongArrayTable<String, Integer> table =
+        LongArrayTable.create(ImmutableList.<String>of(), asList(1, 2));
+    assertEquals(0, table.toArray().length);
+    assertEquals(0, table.columnAt(1).sum());
+    assertEquals(0, table.columnAt(1).length());
+    assertTrue(Arrays.equals(new long[2], table.columnSums()));
+  }
+
+  public void testCreateFromTable() {
+    Table<String, Integer, Integer> source = HashBasedTable.create();
+    source.put("foo", 1, 5);
+    source.put("bar", 2, 7);
+    LongArrayTable<String, Integer> table = LongArrayTable.create(source);
+    assertEquals(5, table.get("foo", 1));
+    assertEquals(7, table.get("bar", 2));
+    assertEquals(0, table.get("foo", 2));
+    assertEquals(0, table.get("bar", 1));
+  }
+
+  public void testGetAndPut() {
+    LongArrayTable<String, Integer> table = create();
+    assertEquals(2, table.get("foo", 2));
+    assertEquals(0, table.get("bar", 2));
+    assertEquals(0, table.put("bar", 2, 5));
+    assertEquals(5, table.put("bar", 2, 8));
+    assertEquals(8, table.get("bar", 2));
+  }
+
+  public void testGet_unknownKey() {
+    LongArrayTable<String, Integer> table = create();
+    try {
+      table.get("cat", 1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      table.get("foo", 4);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      table.put("foo", null, 1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testAtAndSet() {
+    LongArrayTable<String, Integer> table = create();
+    assertEquals(6, table.at(1, 2));
+    assertEquals(6, table.set(1, 2, 7));
+    assertEquals(7, table.get("bar", 3));
+    try {
+      table.at(2, 0);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      table.set(0, 3, 1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testAdd() {
+    LongArrayTable<String, Integer> table = create();
+    assertEquals(3, table.add("foo", 1, 2));
+    assertEquals(4, table.addAt(0, 0, 1));
+    assertEquals(4, table.get("foo", 1));
+    table.put("bar", 2, Long.MAX_VALUE);
+    assertEquals(Long.MIN_VALUE, table.add("bar", 2, 1));
+  }
+
+  public void testFill() {
+    LongArrayTable<String, Integer> table = create();
+    table.fill(2);
+    assertTrue(Arrays.equals(new long[] {2, 2, 2, 2, 2, 2}, table.toRowMajorArray()));
+  }
+
+  public void testRow() {
+    LongArrayTable<String, Integer> table = create();
+    LongArrayTable.Slice row = table.row("bar");
+    assertEquals(3, row.length());
+    assertEquals(4, row.get(0));
+    assertEquals(10, row.sum());
+    assertTrue(Arrays.equals(new long[] {4, 0, 6}, row.toArray()));
+    assertEquals("[4, 0, 6]", row.toString());
+
+    assertEquals(0, row.set(1, 5));
+    assertEquals(5, table.get("bar", 2));
+    table.put("bar", 1, 1);
+    assertEquals(1, row.get(0));
+
+    row.fill(9);
+    assertTrue(Arrays.equals(new long[] {1, 2, 3, 9, 9, 9}, table.toRowMajorArray()));
+    try {
+      row.get(3);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testColumn() {
+    LongArrayTable<String, Integer> table = create();
+    LongArrayTable.Slice column = table.column(3);
+    assertEquals(2, column.length());
+    assertEquals(9, column.sum());
+    assertTrue(Arrays.equals(new long[] {3, 6}, column.toArray()));
+
+    assertEquals(6, column.set(1, 7));
+    assertEquals(7, table.get("bar", 3));
+    assertEquals(7, table.columnAt(2).get(1));
+
+    column.fill(0);
+    assertTrue(Arrays.equals(new long[] {1, 2, 0, 4, 0, 0}, table.toRowMajorArray()));
+    try {
+      column.set(-1, 1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testSliceCopyTo() {
+    LongArrayTable<String, Integer> table = create();
+    long[] array = new long[5];
+    table.column(1).copyTo(array, 3);
+    table.rowAt(0).copyTo(array, 0);
+    assertTrue(Arrays.equals(new long[] {1, 2, 3, 1, 4}, array));
+    try {
+      table.column(1).copyTo(array, 4);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      table.row("foo").copyTo(array, -1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testSums() {
+    LongArrayTable<String, Integer> table = create();
+    assertTrue(Arrays.equals(new long[] {6, 10}, table.rowSums()));
+    assertTrue(Arrays.equals(new long[] {5, 2, 9}, table.columnSums()));
+  }
+
+  public void testToArray() {
+    LongArrayTable<String, Integer> table = create();
+    long[][] array = table.toArray();
+    assertThat(array).hasLength(2);
+    assertTrue(Arrays.equals(new long[] {1, 2, 3}, array[0]));
+    assertTrue(Arrays.equals(new long[] {4, 0, 6}, array[1]));
+    array[0][0] = 10;
+    assertEquals(1, table.at(0, 0));
+    long[] rowMajor = table.toRowMajorArray();
+    rowMajor[0] = 10;
+    assertEquals(1, table.at(0, 0));
+  }
+
+  public void testEquals() {
+    LongArrayTable<String, Integer> reordered =
+        LongArrayTable.create(asList("bar", "foo"), asList(1, 2, 3));
+    LongArrayTable<String, Integer> changed = create();
+    changed.put("bar", 2, 1);
+    new EqualsTester()
+        .addEqualityGroup(create(), create())
+        .addEqualityGroup(changed)
+        .addEqualityGroup(reordered)
+        .addEqualityGroup(LongArrayTable.create(asList("foo", "bar"), asList(1, 2, 3)))
+        .testEquals();
+  }
+
+  public void testToString() {
+    assertEquals("{foo={1=1, 2=2, 3=3}, bar={1=4, 2=0, 3=6}}", create().toString());
+  }
+
+  @GwtIncompatible // SerializableTester
+  public void testSerialization() {
+    LongArrayTable<String, Integer> table = create();
+    LongArrayTable<String, Integer> copy = SerializableTester.reserializeAndAssert(table);
+    copy.put("foo", 1, 10);
+    assertEquals(1, table.get("foo", 1));
+  }
+
+  @GwtIncompatible // NullPointerTester
+  public void testNullPointerExceptions() {
+    new NullPointerTester().testAllPublicStaticMethods(LongArrayTable.class);
+    new NullPointerTester().testAllPublicInstanceMethods(create().row("foo"));
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link LongLongMap}.
+ */
+public class LongLongMapTest extends TestCase {
+  public void testBasic() {
+    LongLongMap map = LongLongMap.create();
+    assertTrue(map.isEmpty());
+    map.put(1, 10);
+    map.put(Long.MIN_VALUE, Long.MAX_VALUE);
+    map.put(1, 11);
+    assertEquals(2, map.size());
+    assertEquals(11, map.getOrDefault(1, -1));
+    assertEquals(-1, map.getOrDefault(2, -1));
+    assertTrue(map.containsKey(Long.MIN_VALUE));
+    assertEquals("{1=11, " + Long.MIN_VALUE + "=" + Long.MAX_VALUE + "}", map.toString());
+    assertTrue(map.remove(1));
+    assertFalse(map.remove(1));
+    assertEquals(Long.MIN_VALUE, map.keyAt(0));
+    assertEquals(Long.MAX_VALUE, map.valueAt(0));
+    map.clear();
+    assertTrue(map.isEmpty());
+  }
+
+  public void testAddTo() {
+    LongLongMap map = LongLongMap.create();
+    assertEquals(5, map.addTo(42, 5));
+    assertEquals(8, map.addTo(42, 3));
+    assertEquals(-2, map.addTo(7, -2));
+    assertEquals(8, map.getOrDefault(42, 0));
+    assertEquals(2, map.size());
+  }
+
+  public void testAgainstHashMap() {
+    LongLongMap map = LongLongMap.create();
+    Map<Long, Long> expected = new HashMap<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 100_000; i++) {
+      long key = (long) random.nextInt(2_000) << 40;
+      switch (random.nextInt(3)) {
+        case 0:
+          assertEquals(expected.remove(key) != null, map.remove(key));
+          break;
+        case 1:
+          expected.put(key, (long) i);
+          map.put(key, i);
+          break;
+        default:
+          Long oldValue = expected.get(key);
+          expected.put(key, (oldValue == null ? 0 : oldValue) + i);
+          assertEquals((long) expected.get(key), map.addTo(key, i));
+          break;
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (int i = 0; i < map.size(); i++) {
+      assertEquals((long) expected.get(map.keyAt(i)), map.valueAt(i));
+    }
+    assertEquals(expected.hashCode(), map.hashCode());
+    LongLongMap copy = LongLongMap.createWithExpectedSize(map.size());
+    for (int i = map.size() - 1; i >= 0; i--) {
+      copy.put(map.keyAt(i), map.valueAt(i));
+    }
+    copy.trimToSize();
+    assertEquals(map, copy);
+    copy.addTo(copy.keyAt(0), 1);
+    assertFalse(map.equals(copy));
+  }
+}
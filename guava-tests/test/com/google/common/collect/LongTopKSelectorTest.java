@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.ImmutableLongArray;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.LongStream;
+import junit.framework.TestCase;
+
+/** Tests for {@link LongTopKSelector}. */
+@GwtIncompatible
+public class LongTopKSelectorTest extends TestCase {
+
+  public void testNegativeK() {
+    try {
+      LongTopKSelector.least(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      LongTopKSelector.greatest(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testZeroK() {
+    LongTopKSelector top = LongTopKSelector.least(0);
+    top.offerAll(1, 2, 3);
+    assertTrue(top.topK().isEmpty());
+  }
+
+  public void testFewerThanK() {
+    LongTopKSelector top = LongTopKSelector.greatest(10);
+    top.offerAll(3, Long.MIN_VALUE, 5, Long.MAX_VALUE, 3);
+    assertEquals(ImmutableLongArray.of(Long.MAX_VALUE, 5, 3, 3, Long.MIN_VALUE), top.topK());
+  }
+
+  public void testRandomAgainstSort() {
+    Random random = new Random(0);
+    for (int k : new int[] {1, 5, 100}) {
+      long[] values = new long[10000];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = (i % 3 == 0) ? random.nextInt(50) : random.nextLong();
+      }
+      long[] sorted = values.clone();
+      Arrays.sort(sorted);
+
+      LongTopKSelector least = LongTopKSelector.least(k);
+      LongTopKSelector greatest = LongTopKSelector.greatest(k);
+      least.offerAll(values);
+      greatest.offerAll(values);
+      assertEquals(ImmutableLongArray.copyOf(Arrays.copyOf(sorted, k)), least.topK());
+      assertEquals(
+          ImmutableLongArray.copyOf(sorted).subArray(sorted.length - k, sorted.length),
+          ImmutableLongArray.copyOf(reversed(greatest.topK().toArray())));
+    }
+  }
+
+  public void testTopKRepeatedly() {
+    LongTopKSelector top = LongTopKSelector.least(2);
+    top.offerAll(5, 4, 3, 2, 1);
+    assertEquals(ImmutableLongArray.of(1, 2), top.topK());
+    top.offer(0);
+    assertEquals(ImmutableLongArray.of(0, 1), top.topK());
+  }
+
+  public void testCombine() {
+    LongTopKSelector left = LongTopKSelector.greatest(3);
+    left.offerAll(1, 9, 4, 7);
+    LongTopKSelector right = LongTopKSelector.greatest(3);
+    right.offerAll(8, 2, 10, 3, 5);
+    assertSame(left, left.combine(right));
+    assertEquals(ImmutableLongArray.of(10, 9, 8), left.topK());
+    assertEquals(ImmutableLongArray.of(10, 8, 5), right.topK());
+    try {
+      left.combine(LongTopKSelector.least(3));
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      left.combine(LongTopKSelector.greatest(4));
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testParallelStream() {
+    ImmutableLongArray top =
+        LongStream.range(0, 100000)
+            .map(i -> (i * 7919) % 100000)
+            .parallel()
+            .collect(
+                () -> LongTopKSelector.greatest(5),
+                LongTopKSelector::offer,
+                LongTopKSelector::combine)
+            .topK();
+    assertEquals(ImmutableLongArray.of(99999, 99998, 99997, 99996, 99995), top);
+  }
+
+  public void testWorstCase() {
+    int n = 2000000;
+    int k = 200000;
+    LongTopKSelector top = LongTopKSelector.least(k);
+    top.offer(1);
+    for (int i = 1; i < n; i++) {
+      top.offer(0);
+    }
+    assertEquals(ImmutableLongArray.copyOf(new long[k]), top.topK());
+  }
+
+  private static long[] reversed(long[] array) {
+    long[] result = new long[array.length];
+    for (int i = 0; i < array.length; i++) {
+      result[i] = array[array.length - 1 - i];
+    }
+    return result;
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link ObjectIntCountMap}.
+ */
+public class ObjectIntCountMapTest extends TestCase {
+  public void testBasic() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    assertTrue(counts.isEmpty());
+    assertEquals(1, counts.increment("a"));
+    assertEquals(2, counts.increment("a"));
+    assertEquals(5, counts.addTo("b", 5));
+    assertEquals(2, counts.count("a"));
+    assertEquals(0, counts.count("c"));
+    assertFalse(counts.contains("c"));
+    assertEquals(2, counts.size());
+    assertEquals(7, counts.total());
+    assertEquals("{a=2, b=5}", counts.toString());
+    assertEquals(Arrays.asList("a", "b"), new ArrayList<>(counts.elementSet()));
+    assertEquals(
+        ImmutableMultiset.of("a", "a", "b", "b", "b", "b", "b"), counts.toImmutableMultiset());
+    counts.clear();
+    assertTrue(counts.isEmpty());
+  }
+
+  public void testAddTo_removesAtZero() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    counts.addTo("a", 3);
+    assertEquals(0, counts.addTo("a", -3));
+    assertFalse(counts.contains("a"));
+    assertEquals(0, counts.addTo("a", 0));
+    assertTrue(counts.isEmpty());
+  }
+
+  public void testAddTo_negative() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    counts.addTo("a", 3);
+    try {
+      counts.addTo("a", -4);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      counts.addTo("b", -1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    assertEquals(3, counts.count("a"));
+    assertFalse(counts.contains("b"));
+  }
+
+  public void testAddTo_overflow() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    counts.addTo("a", Integer.MAX_VALUE);
+    try {
+      counts.increment("a");
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    assertEquals(Integer.MAX_VALUE, counts.count("a"));
+  }
+
+  public void testSetCountAndRemove() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    assertEquals(0, counts.setCount("a", 4));
+    assertEquals(4, counts.setCount("a", 2));
+    assertEquals(2, counts.setCount("a", 0));
+    assertFalse(counts.contains("a"));
+    counts.setCount("b", 3);
+    assertEquals(3, counts.remove("b"));
+    assertEquals(0, counts.remove("b"));
+  }
+
+  public void testNullElement() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    try {
+      counts.increment(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    assertEquals(0, counts.count(null));
+  }
+
+  public void testElementSet_unmodifiable() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    counts.increment("a");
+    try {
+      counts.elementSet().remove("a");
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  public void testForEach() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    counts.addTo("a", 2);
+    counts.addTo("b", 1);
+    List<String> seen = new ArrayList<>();
+    counts.forEach((element, count) -> seen.add(element + count));
+    assertEquals(Arrays.asList("a2", "b1"), seen);
+  }
+
+  public void testEqualsAndHashCode() {
+    ObjectIntCountMap<String> counts = ObjectIntCountMap.create();
+    ObjectIntCountMap<String> other = ObjectIntCountMap.createWithExpectedSize(2);
+    counts.addTo("a", 2);
+    counts.addTo("b", 1);
+    other.addTo("b", 1);
+    other.addTo("a", 2);
+    assertEquals(counts, other);
+    assertEquals(HashMultiset.create(Arrays.asList("a", "a", "b")).hashCode(), counts.hashCode());
+    other.increment("a");
+    assertFalse(counts.equals(other));
+  }
+
+  public void testAgainstHashMultiset() {
+    ObjectIntCountMap<Integer> counts = ObjectIntCountMap.create();
+    Multiset<Integer> expected = HashMultiset.create();
+    Random random = new Random(0);
+    for (int i = 0; i < 100_000; i++) {
+      Integer element = random.nextInt(500);
+      int delta = random.nextInt(7) - 3;
+      if (expected.count(element) + delta < 0) {
+        delta = -expected.count(element);
+      }
+      assertEquals(expected.add(element, 0) + delta, counts.addTo(element, delta));
+      if (delta >= 0) {
+        expected.add(element, delta);
+      } else {
+        expected.remove(element, -delta);
+      }
+    }
+    assertEquals(expected.elementSet().size(), counts.size());
+    assertEquals(expected.size(), counts.total());
+    assertEquals(ImmutableMultiset.copyOf(expected), counts.toImmutableMultiset());
+  }
+}
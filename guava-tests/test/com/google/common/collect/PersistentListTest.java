@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.testing.ListTestSuiteBuilder;
+import com.google.common.collect.testing.TestStringListGenerator;
+import com.google.common.collect.testing.features.CollectionFeature;
+import com.google.common.collect.testing.features.CollectionSize;
+import com.google.common.primitives.Ints;
+import com.google.common.testing.NullPointerTester;
+import com.google.common.testing.SerializableTester;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/** Tests for {@link PersistentList}. */
+@GwtIncompatible
+public class PersistentListTest extends TestCase {
+
+  public static Test suite() {
+    TestSuite suite = new TestSuite();
+    suite.addTestSuite(PersistentListTest.class);
+
+    suite.addTest(
+        ListTestSuiteBuilder.using(
+                new TestStringListGenerator() {
+                  @Override
+                  protected List<String> create(String[] elements) {
+                    PersistentList<String> list = PersistentList.of();
+                    for (String element : elements) {
+                      list = list.append(element);
+                    }
+                    return list;
+                  }
+                })
+            .withFeatures(
+                CollectionSize.ANY,
+                CollectionFeature.SERIALIZABLE,
+                CollectionFeature.ALLOWS_NULL_QUERIES)
+            .named("PersistentList.append")
+            .createTestSuite());
+
+    suite.addTest(
+        ListTestSuiteBuilder.using(
+                new TestStringListGenerator() {
+                  @Override
+                  protected List<String> create(String[] elements) {
+                    return new PersistentList.Builder<String>().add(elements).build();
+                  }
+                })
+            .withFeatures(
+                CollectionSize.ANY,
+                CollectionFeature.SERIALIZABLE,
+                CollectionFeature.ALLOWS_NULL_QUERIES)
+            .named("PersistentList.Builder")
+            .createTestSuite());
+
+    return suite;
+  }
+
+  /** Sizes at and around those at which the trie grows a level. */
+  private static final int[] SIZES = {0, 1, 31, 32, 33, 64, 65, 1056, 1057, 33824, 33825};
+
+  private static PersistentList<Integer> range(int size) {
+    PersistentList.Builder<Integer> builder = new PersistentList.Builder<>();
+    for (int i = 0; i < size; i++) {
+      builder.add(i);
+    }
+    return builder.build();
+  }
+
+  private static void assertRange(int size, List<Integer> list) {
+    assertEquals(size, list.size());
+    for (int i = 0; i < size; i++) {
+      assertEquals(i, (int) list.get(i));
+    }
+    int i = 0;
+    for (Integer element : list) {
+      assertEquals(i++, (int) element);
+    }
+    assertEquals(size, i);
+    assertEquals(size, list.toArray().length);
+  }
+
+  public void testAppend() {
+    PersistentList<Integer> list = PersistentList.of();
+    for (int size = 0; size <= 33825; size++) {
+      if (Ints.contains(SIZES, size)) {
+        assertRange(size, list);
+      }
+      list = list.append(size);
+    }
+  }
+
+  public void testBuilder() {
+    for (int size : SIZES) {
+      assertRange(size, range(size));
+    }
+  }
+
+  public void testWithoutLast() {
+    PersistentList<Integer> list = range(33825);
+    for (int size = 33825; size > 0; size--) {
+      if (Ints.contains(SIZES, size)) {
+        assertRange(size, list);
+      }
+      list = list.withoutLast();
+    }
+    assertSame(PersistentList.of(), list);
+    try {
+      list.withoutLast();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testWithoutLast_thenAppend() {
+    for (int size : SIZES) {
+      if (size > 0) {
+        PersistentList<Integer> list = range(size).withoutLast();
+        assertRange(size, list.append(size - 1));
+        assertRange(size + 1, list.append(size - 1).append(size));
+      }
+    }
+  }
+
+  public void testWith() {
+    for (int size : SIZES) {
+      PersistentList<Integer> original = range(size);
+      for (int index : new int[] {0, size / 2, size - 33, size - 1}) {
+        if (index >= 0 && index < size) {
+          PersistentList<Integer> changed = original.with(index, -1);
+          assertEquals(-1, (int) changed.get(index));
+          assertEquals(size, changed.size());
+          assertSame(changed, changed.with(index, changed.get(index)));
+          assertRange(size, changed.with(index, index));
+        }
+      }
+      assertRange(size, original);
+    }
+  }
+
+  public void testWithout() {
+    for (int size : SIZES) {
+      PersistentList<Integer> original = range(size);
+      for (int index : new int[] {0, 1, size / 2, size - 33, size - 2, size - 1}) {
+        if (index >= 0 && index < size) {
+          List<Integer> expected = new ArrayList<>(original);
+          expected.remove(index);
+          assertEquals(expected, original.without(index));
+        }
+      }
+      assertRange(size, original);
+    }
+  }
+
+  public void testAppendAll() {
+    PersistentList<Integer> list = range(40);
+    assertSame(list, list.appendAll(ImmutableList.<Integer>of()));
+    assertRange(1100, list.appendAll(range(1100).subList(40, 1100)));
+    assertRange(40, list);
+  }
+
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    List<Integer> expected = new ArrayList<>();
+    PersistentList<Integer> list = PersistentList.of();
+    List<PersistentList<Integer>> versions = Lists.newArrayList();
+    List<List<Integer>> expectedVersions = Lists.newArrayList();
+    for (int i = 0; i < 20000; i++) {
+      int operation = random.nextInt(10);
+      if (operation < 6 || expected.isEmpty()) {
+        expected.add(i);
+        list = list.append(i);
+      } else if (operation < 9) {
+        int index = random.nextInt(expected.size());
+        expected.set(index, -i);
+        list = list.with(index, -i);
+      } else {
+        expected.remove(expected.size() - 1);
+        list = list.withoutLast();
+      }
+      if (i % 1000 == 0) {
+        versions.add(list);
+        expectedVersions.add(new ArrayList<>(expected));
+      }
+    }
+    assertEquals(expected, list);
+    for (int i = 0; i < versions.size(); i++) {
+      assertEquals(expectedVersions.get(i), versions.get(i));
+    }
+  }
+
+  public void testToBuilder_doesNotChangeOriginal() {
+    PersistentList<Integer> original = range(100);
+    PersistentList.Builder<Integer> builder = original.toBuilder();
+    PersistentList<Integer> longer = builder.add(100).build();
+    PersistentList<Integer> longest = builder.add(101).build();
+    assertRange(100, original);
+    assertRange(101, longer);
+    assertRange(102, longest);
+  }
+
+  public void testCopyOf() {
+    PersistentList<String> list = PersistentList.copyOf(new String[] {"a", "b"});
+    assertEquals(ImmutableList.of("a", "b"), list);
+    assertSame(list, PersistentList.copyOf(list));
+    assertSame(list, ImmutableList.copyOf(list));
+    assertEquals(list, PersistentList.copyOf(list.iterator()));
+    assertThat(list.subList(1, 2)).containsExactly("b");
+  }
+
+  public void testNullElements() {
+    PersistentList<String> list = PersistentList.copyOf(ImmutableList.of("a"));
+    try {
+      list.append(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+    try {
+      list.with(0, null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testSerialization() {
+    PersistentList<Integer> list = range(100);
+    Object copy = SerializableTester.reserializeAndAssert(list);
+    assertThat(copy).isInstanceOf(PersistentList.class);
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicStaticMethods(PersistentList.class);
+    tester.testAllPublicInstanceMethods(range(3));
+  }
+}
@@ -30,8 +30,10 @@ import java.util.List;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
+import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
@@ -201,6 +203,26 @@ public class StreamsTest extends TestCase {
         elems -> Stream.of((Object) null).flatMap(unused -> ImmutableList.copyOf(elems).stream()));
   }
 
+  public void testMapWithIndex_unsizedSource_parallel() {
+    List<Long> expected = new ArrayList<>();
+    for (long i = 0; i < 100000; i++) {
+      expected.add(i);
+    }
+    Truth.assertThat(
+            Streams.mapWithIndex(
+                    Stream.iterate("", str -> str).limit(100000).parallel(), (str, i) -> i)
+                .collect(Collectors.toList()))
+        .containsExactlyElementsIn(expected)
+        .inOrder();
+    Truth.assertThat(
+            Streams.mapWithIndex(
+                    IntStream.iterate(0, i -> i + 1).limit(100000).parallel(),
+                    (i, index) -> index - i)
+                .distinct()
+                .collect(Collectors.toList()))
+        .containsExactly(0L);
+  }
+
   public void testMapWithIndex_closeIsPropagated_sizedSource() {
     testMapWithIndex_closeIsPropagated(Stream.of("a", "b", "c"));
   }
@@ -347,6 +369,75 @@ public class StreamsTest extends TestCase {
         .inOrder();
   }
 
+  public void testZip_splitsInLockstep() {
+    Spliterator<String> spliterator =
+        Streams.zip(
+                ImmutableList.of("a", "b", "c", "d").stream(),
+                Stream.of(1, 2, 3, 4),
+                (a, b) -> a + ":" + b)
+            .spliterator();
+    assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+    Spliterator<String> prefix = spliterator.trySplit();
+    assertEquals(2, prefix.getExactSizeIfKnown());
+    assertEquals(2, spliterator.getExactSizeIfKnown());
+    SpliteratorTester.of(
+            () ->
+                Streams.zip(
+                        new ArrayList<>(ImmutableList.of("a", "b", "c", "d", "e")).stream(),
+                        IntStream.range(1, 6).boxed(),
+                        (a, b) -> a + ":" + b)
+                    .spliterator())
+        .expect("a:1", "b:2", "c:3", "d:4", "e:5");
+  }
+
+  public void testZip_splitsInBatches() {
+    // different split points
+    SpliteratorTester.of(
+            () ->
+                Streams.zip(
+                        Stream.concat(Stream.of("a"), Stream.of("b", "c", "d", "e")),
+                        Stream.of(1, 2, 3, 4, 5),
+                        (a, b) -> a + ":" + b)
+                    .spliterator())
+        .expect("a:1", "b:2", "c:3", "d:4", "e:5");
+    // differing lengths
+    SpliteratorTester.of(
+            () ->
+                Streams.zip(Stream.of("a", "b", "c"), Stream.of(1, 2, 3, 4), (a, b) -> a + ":" + b)
+                    .spliterator())
+        .expect("a:1", "b:2", "c:3");
+    // unsized
+    SpliteratorTester.of(
+            () ->
+                Streams.zip(
+                        Stream.of("a", "b", "c"),
+                        Stream.iterate(1, i -> i + 1),
+                        (a, b) -> a + ":" + b)
+                    .spliterator())
+        .expect("a:1", "b:2", "c:3");
+  }
+
+  public void testZip_parallel() {
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 100000; i++) {
+      expected.add(2 * i);
+    }
+    Truth.assertThat(
+            Streams.zip(
+                    IntStream.range(0, 100000).boxed().parallel(),
+                    Stream.iterate(0, i -> i + 1),
+                    Integer::sum)
+                .collect(Collectors.toList()))
+        .containsExactlyElementsIn(expected)
+        .inOrder();
+    Truth.assertThat(
+            Streams.zip(expected.stream().parallel(), expected.stream(), Integer::sum)
+                .map(i -> i / 4)
+                .collect(Collectors.toList()))
+        .containsExactlyElementsIn(Lists.transform(expected, i -> i / 2))
+        .inOrder();
+  }
+
   public void testForEachPair() {
     List<String> list = new ArrayList<>();
     Streams.forEachPair(
@@ -80,6 +80,7 @@ public class TableCollectionTest extends TestCase {
     TestSuite suite = new TestSuite();
     suite.addTestSuite(ArrayRowTests.class);
     suite.addTestSuite(HashRowTests.class);
+    suite.addTestSuite(ConcurrentHashRowTests.class);
     suite.addTestSuite(TreeRowTests.class);
     suite.addTestSuite(TransposeRowTests.class);
     suite.addTestSuite(TransformValueRowTests.class);
@@ -87,6 +88,7 @@ public class TableCollectionTest extends TestCase {
     suite.addTestSuite(UnmodifiableTreeRowTests.class);
     suite.addTestSuite(ArrayColumnTests.class);
     suite.addTestSuite(HashColumnTests.class);
+    suite.addTestSuite(ConcurrentHashColumnTests.class);
     suite.addTestSuite(TreeColumnTests.class);
     suite.addTestSuite(TransposeColumnTests.class);
     suite.addTestSuite(TransformValueColumnTests.class);
@@ -94,6 +96,7 @@ public class TableCollectionTest extends TestCase {
     suite.addTestSuite(UnmodifiableTreeColumnTests.class);
     suite.addTestSuite(ArrayRowMapTests.class);
     suite.addTestSuite(HashRowMapTests.class);
+    suite.addTestSuite(ConcurrentHashRowMapTests.class);
     suite.addTestSuite(TreeRowMapTests.class);
     suite.addTestSuite(TreeRowMapHeadMapTests.class);
     suite.addTestSuite(TreeRowMapTailMapTests.class);
@@ -103,6 +106,7 @@ public class TableCollectionTest extends TestCase {
     suite.addTestSuite(UnmodifiableTreeRowMapTests.class);
     suite.addTestSuite(ArrayColumnMapTests.class);
     suite.addTestSuite(HashColumnMapTests.class);
+    suite.addTestSuite(ConcurrentHashColumnMapTests.class);
     suite.addTestSuite(TreeColumnMapTests.class);
     suite.addTestSuite(TransformValueColumnMapTests.class);
     suite.addTestSuite(UnmodifiableHashColumnMapTests.class);
@@ -465,6 +469,22 @@ public class TableCollectionTest extends TestCase {
                 CollectionFeature.ALLOWS_NULL_QUERIES)
             .createTestSuite());
 
+    suite.addTest(
+        SetTestSuiteBuilder.using(
+                new TestCellSetGenerator() {
+                  @Override
+                  Table<String, Integer, Character> createTable() {
+                    return ConcurrentHashBasedTable.create();
+                  }
+                })
+            .named("ConcurrentHashBasedTable.cellSet")
+            .withFeatures(
+                CollectionSize.ANY,
+                CollectionFeature.SUPPORTS_REMOVE,
+                CollectionFeature.SUPPORTS_ITERATOR_REMOVE,
+                CollectionFeature.ALLOWS_NULL_QUERIES)
+            .createTestSuite());
+
     suite.addTest(
         SetTestSuiteBuilder.using(
                 new TestCellSetGenerator() {
@@ -832,6 +852,18 @@ public class TableCollectionTest extends TestCase {
     }
   }
 
+  @GwtIncompatible // ConcurrentHashBasedTable
+  public static class ConcurrentHashRowTests extends RowTests {
+    public ConcurrentHashRowTests() {
+      super(false, true, true, true, true);
+    }
+
+    @Override
+    Table<Character, String, Integer> makeTable() {
+      return ConcurrentHashBasedTable.create();
+    }
+  }
+
   public static class TreeRowTests extends RowTests {
     public TreeRowTests() {
       super(false, true, true, true, true);
@@ -991,6 +1023,18 @@ public class TableCollectionTest extends TestCase {
     }
   }
 
+  @GwtIncompatible // ConcurrentHashBasedTable
+  public static class ConcurrentHashColumnTests extends ColumnTests {
+    public ConcurrentHashColumnTests() {
+      super(false, true, true, true, true);
+    }
+
+    @Override
+    Table<String, Character, Integer> makeTable() {
+      return ConcurrentHashBasedTable.create();
+    }
+  }
+
   public static class TreeColumnTests extends ColumnTests {
     public TreeColumnTests() {
       super(false, true, true, true, false);
@@ -1194,6 +1238,18 @@ public class TableCollectionTest extends TestCase {
     }
   }
 
+  @GwtIncompatible // ConcurrentHashBasedTable
+  public static class ConcurrentHashRowMapTests extends RowMapTests {
+    public ConcurrentHashRowMapTests() {
+      super(false, true, true, true);
+    }
+
+    @Override
+    Table<String, Integer, Character> makeTable() {
+      return ConcurrentHashBasedTable.create();
+    }
+  }
+
   public static class TreeRowMapTests extends RowMapTests {
     public TreeRowMapTests() {
       super(false, true, true, true);
@@ -1421,6 +1477,18 @@ public class TableCollectionTest extends TestCase {
     }
   }
 
+  @GwtIncompatible // ConcurrentHashBasedTable
+  public static class ConcurrentHashColumnMapTests extends ColumnMapTests {
+    public ConcurrentHashColumnMapTests() {
+      super(false, true, true, true);
+    }
+
+    @Override
+    Table<Integer, String, Character> makeTable() {
+      return ConcurrentHashBasedTable.create();
+    }
+  }
+
   public static class TreeColumnMapTests extends ColumnMapTests {
     public TreeColumnMapTests() {
       super(false, true, true, false);
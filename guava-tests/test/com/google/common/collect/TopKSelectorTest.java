@@ -99,6 +99,16 @@ public class TopKSelectorTest extends TestCase {
     assertThat(top.topK()).containsExactly("a", "B", "c").inOrder();
   }
 
+  public void testCombine() {
+    List<Integer> list = Ints.asList(0, 2, 4, 6, 8, 1, 3, 5, 7, 9, 10, 11);
+    TopKSelector<Integer> few = TopKSelector.least(4);
+    few.offerAll(list.subList(0, 2));
+    TopKSelector<Integer> many = TopKSelector.least(4);
+    many.offerAll(list.subList(2, list.size()));
+    assertSame(many, few.combine(many));
+    assertThat(many.topK()).containsExactly(0, 1, 2, 3).inOrder();
+  }
+
   public void testWorstCase() {
     int n = 2000000;
     int k = 200000;
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.hash;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multiset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link BoundedLoadRing}.
+ */
+public class BoundedLoadRingTest extends TestCase {
+  private static final ImmutableList<Integer> NODES = ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8);
+
+  public void testNodeFor_roughlyBalanced() {
+    BoundedLoadRing<Integer> ring = BoundedLoadRing.create(NODES, Funnels.integerFunnel(), 1.25);
+    Multiset<Integer> counts = HashMultiset.create();
+    Random random = new Random(0);
+    for (int i = 0; i < 80_000; i++) {
+      counts.add(ring.nodeFor(random.nextLong()));
+    }
+    for (Integer node : NODES) {
+      // 100 virtual nodes keep each share within about 20% of the average
+      assertEquals(10_000, counts.count(node), 2_500);
+    }
+  }
+
+  public void testAcquire_respectsBound() {
+    BoundedLoadRing<Integer> ring = BoundedLoadRing.create(NODES, Funnels.integerFunnel(), 1.25);
+    // Heavily skewed hash codes all start at the same position on the ring.
+    for (int i = 0; i < 8_000; i++) {
+      ring.acquire(42L);
+      long bound = (long) Math.ceil(1.25 * ring.totalLoad() / NODES.size());
+      for (Integer node : NODES) {
+        assertTrue(ring.load(node) <= bound);
+      }
+    }
+    assertEquals(8_000, ring.totalLoad());
+  }
+
+  public void testAcquireAndRelease() {
+    BoundedLoadRing<Integer> ring = BoundedLoadRing.create(NODES, Funnels.integerFunnel(), 2.0);
+    Integer node = ring.acquire(123L);
+    assertEquals(ring.nodeFor(123L), node);
+    assertEquals(1, ring.load(node));
+    assertEquals(1, ring.totalLoad());
+    ring.release(node);
+    assertEquals(0, ring.load(node));
+    assertEquals(0, ring.totalLoad());
+    try {
+      ring.release(node);
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      ring.release(42);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testWithNodeAndWithoutNode() {
+    BoundedLoadRing<Integer> ring = BoundedLoadRing.create(NODES, Funnels.integerFunnel(), 1.25);
+    Integer acquired = ring.acquire(7L);
+
+    BoundedLoadRing<Integer> grown = ring.withNode(9);
+    assertEquals(9, grown.nodes().size());
+    assertEquals(1, grown.load(acquired));
+    assertEquals(1, grown.totalLoad());
+    assertEquals(0, grown.load(9));
+    assertEquals(1.0 / 9, grown.movedFraction(ring), 0.05);
+
+    BoundedLoadRing<Integer> shrunk = grown.withoutNode(9);
+    assertEquals(0.0, shrunk.movedFraction(ring));
+    Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      long hash = random.nextLong();
+      Integer node = grown.nodeFor(hash);
+      if (node != 9) {
+        assertEquals(node, ring.nodeFor(hash));
+      }
+    }
+  }
+
+  public void testCreate_invalidArguments() {
+    try {
+      BoundedLoadRing.create(ImmutableList.<Integer>of(), Funnels.integerFunnel(), 1.25);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      BoundedLoadRing.create(NODES, Funnels.integerFunnel(), 1.0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      BoundedLoadRing.create(NODES, Funnels.integerFunnel(), 0, 1.25);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      BoundedLoadRing.create(ImmutableList.of(1), Funnels.integerFunnel(), 1.25).withoutNode(1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testConcurrentAcquireAndRelease() throws InterruptedException {
+    final BoundedLoadRing<Integer> ring =
+        BoundedLoadRing.create(NODES, Funnels.integerFunnel(), 1.25);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final Random random = new Random(t);
+      Thread thread =
+          new Thread() {
+            @Override
+            public void run() {
+              for (int i = 0; i < 10_000; i++) {
+                ring.release(ring.acquire(random.nextLong()));
+              }
+            }
+          };
+      thread.start();
+      threads.add(thread);
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(0, ring.totalLoad());
+    for (Integer node : NODES) {
+      assertEquals(0, ring.load(node));
+    }
+  }
+}
@@ -16,7 +16,9 @@ package com.google.common.hash;
 
 import static com.google.common.base.Charsets.UTF_8;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Random;
 import junit.framework.TestCase;
 
 /**
@@ -122,4 +124,17 @@ public class Crc32cHashFunctionTest extends TestCase {
         "Expected: \n" + Arrays.toString(expected) + "\nActual:\n" + Arrays.toString(actual),
         Arrays.equals(expected, actual));
   }
+
+  public void testDirectByteBuffer() {
+    Random random = new Random(0);
+    for (int size : new int[] {0, 1, 7, 8, 9, 63, 64, 65, 1025, 100000}) {
+      byte[] bytes = new byte[size + 3];
+      random.nextBytes(bytes);
+      ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+      direct.put(bytes);
+      direct.position(3);
+      assertEquals(Hashing.crc32c().hashBytes(bytes, 3, size), Hashing.crc32c().hashBytes(direct));
+      assertEquals(bytes.length, direct.position());
+    }
+  }
 }
@@ -21,7 +21,9 @@ import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.base.Strings;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Random;
 import junit.framework.TestCase;
 
 /**
@@ -196,4 +198,32 @@ public class FarmHashFingerprint64Test extends TestCase {
   private static byte getChar(long h) {
     return (byte) ('a' + ((h & 0xfffff) % 26));
   }
+
+  public void testDirectByteBuffer() {
+    Random random = new Random(0);
+    for (int size : new int[] {0, 1, 7, 8, 9, 63, 64, 65, 1025, 100000}) {
+      byte[] bytes = new byte[size + 3];
+      random.nextBytes(bytes);
+      ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+      direct.put(bytes);
+      direct.position(3);
+      assertEquals(HASH_FN.hashBytes(bytes, 3, size), HASH_FN.hashBytes(direct));
+      assertEquals(bytes.length, direct.position());
+    }
+  }
+
+  public void testUnencodedCharsToLong() {
+    Random random = new Random(0);
+    for (int size : new int[] {0, 1, 2, 3, 4, 7, 8, 9, 16, 17, 31, 32, 33, 63, 64, 65, 513}) {
+      char[] chars = new char[size];
+      byte[] bytes = new byte[2 * size];
+      for (int i = 0; i < size; i++) {
+        chars[i] = (char) random.nextInt();
+        bytes[2 * i] = (byte) chars[i];
+        bytes[2 * i + 1] = (byte) (chars[i] >>> 8);
+      }
+      assertEquals(
+          HASH_FN.hashBytes(bytes).asLong(), HASH_FN.hashUnencodedCharsToLong(new String(chars)));
+    }
+  }
 }
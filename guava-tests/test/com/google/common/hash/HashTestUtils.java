@@ -478,6 +478,7 @@ final class HashTestUtils {
     assertHashBytesThrowsCorrectExceptions(hashFunction);
     assertIndependentHashers(hashFunction);
     assertShortcutsAreEquivalent(hashFunction, 512);
+    assertToLongShortcutsAreEquivalent(hashFunction, 512);
   }
 
   static void assertHashByteBufferInvariants(HashFunction hashFunction) {
@@ -547,6 +548,16 @@ final class HashTestUtils {
       Assert.fail();
     } catch (IndexOutOfBoundsException expected) {
     }
+    try {
+      hashFunction.hashBytesToLong(new byte[128], -1, 128);
+      Assert.fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      hashFunction.hashBytesToLong(new byte[128], 64, 256 /* too long len */);
+      Assert.fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
   }
 
   static void assertIndependentHashers(HashFunction hashFunction) {
@@ -589,6 +600,13 @@ final class HashTestUtils {
     }
   }
 
+  private static void assertToLongShortcutsAreEquivalent(HashFunction hashFunction, int trials) {
+    Random random = new Random(42085L);
+    for (int i = 0; i < trials; i++) {
+      assertHashToLongEquivalence(hashFunction, random);
+    }
+  }
+
   private static void assertHashBytesEquivalence(HashFunction hashFunction, Random random) {
     int size = random.nextInt(2048);
     byte[] bytes = new byte[size];
@@ -614,6 +632,22 @@ final class HashTestUtils {
     assertEquals(
         hashFunction.hashBytes(ByteBuffer.wrap(bytes, off, len)),
         hashFunction.newHasher(size).putBytes(ByteBuffer.wrap(bytes, off, len)).hash());
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(size);
+    direct.put(bytes);
+    direct.position(off);
+    direct.limit(off + len);
+    assertEquals(hashFunction.hashBytes(bytes, off, len), hashFunction.hashBytes(direct));
+    assertEquals(off + len, direct.position());
+    direct.position(off);
+    Hasher hasher = hashFunction.newHasher(size);
+    while (direct.hasRemaining()) {
+      // feed the hasher uneven slices of the direct buffer
+      direct.limit(Math.min(off + len, direct.position() + 1 + (direct.position() % 37)));
+      hasher.putBytes(direct);
+      direct.limit(off + len);
+    }
+    assertEquals(hashFunction.hashBytes(bytes, off, len), hasher.hash());
   }
 
   private static void assertHashIntEquivalence(HashFunction hashFunction, Random random) {
@@ -626,6 +660,29 @@ final class HashTestUtils {
     assertEquals(hashFunction.hashLong(l), hashFunction.newHasher().putLong(l).hash());
   }
 
+  private static void assertHashToLongEquivalence(HashFunction hashFunction, Random random) {
+    long l = random.nextLong();
+    assertEquals(hashFunction.hashLong(l).padToLong(), hashFunction.hashLongToLong(l));
+
+    int size = random.nextInt(2048);
+    byte[] bytes = new byte[size];
+    random.nextBytes(bytes);
+    int off = random.nextInt(size + 1);
+    int len = random.nextInt(size - off + 1);
+    assertEquals(
+        hashFunction.hashBytes(bytes, off, len).padToLong(),
+        hashFunction.hashBytesToLong(bytes, off, len));
+
+    char[] chars = new char[random.nextInt(2048)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = (char) random.nextInt();
+    }
+    String string = new String(chars);
+    assertEquals(
+        hashFunction.hashUnencodedChars(string).padToLong(),
+        hashFunction.hashUnencodedCharsToLong(string));
+  }
+
   private static final ImmutableSet<Charset> CHARSETS =
       ImmutableSet.of(
           Charsets.ISO_8859_1,
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.google.common.io.ExternalSorter.Serializer;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/** Tests for {@link ExternalSorter}. */
+public class ExternalSorterTest extends IoTestCase {
+
+  private static final Serializer<String> STRINGS =
+      new Serializer<String>() {
+        @Override
+        public void write(String element, DataOutput out) throws IOException {
+          out.writeUTF(element);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+          return in.readUTF();
+        }
+      };
+
+  public void testInMemory() throws IOException {
+    try (ExternalSorter<String> sorter =
+        ExternalSorter.orderedBy(Ordering.natural(), STRINGS)
+            .temporaryDirectory(getTempDir())
+            .create()) {
+      sorter.addAll(ImmutableList.of("b", "c", "a"));
+      assertThat(ImmutableList.copyOf(sorter.sortedIterator())).containsExactly("a", "b", "c");
+      assertEquals(0, sorter.runCount());
+      assertEquals(0, getTempDir().list().length);
+    }
+  }
+
+  public void testEmpty() throws IOException {
+    try (ExternalSorter<String> sorter =
+        ExternalSorter.orderedBy(Ordering.natural(), STRINGS).create()) {
+      assertFalse(sorter.sortedIterator().hasNext());
+    }
+  }
+
+  public void testSpilled() throws IOException {
+    File directory = getTempDir();
+    List<String> expected = new ArrayList<>();
+    ExternalSorter<String> sorter =
+        ExternalSorter.orderedBy(Ordering.natural(), STRINGS)
+            .maximumElementsInMemory(10)
+            .maximumRunsPerMerge(100)
+            .temporaryDirectory(directory)
+            .create();
+    Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      String element = Integer.toString(random.nextInt(500));
+      expected.add(element);
+      sorter.add(element);
+    }
+    Collections.sort(expected);
+    assertEquals(expected, ImmutableList.copyOf(sorter.sortedIterator()));
+    assertEquals(expected, ImmutableList.copyOf(sorter.sortedIterator()));
+    assertEquals(99, sorter.runCount());
+    assertEquals(99, directory.list().length);
+
+    sorter.close();
+    assertEquals(0, directory.list().length);
+    try {
+      sorter.sortedIterator();
+      fail();
+    } catch (IllegalStateException expectedException) {
+    }
+  }
+
+  public void testMultiplePasses() throws IOException {
+    File directory = getTempDir();
+    List<String> expected = new ArrayList<>();
+    try (ExternalSorter<String> sorter =
+        ExternalSorter.orderedBy(Ordering.natural(), STRINGS)
+            .maximumElementsInMemory(3)
+            .maximumRunsPerMerge(4)
+            .temporaryDirectory(directory)
+            .create()) {
+      Random random = new Random(0);
+      for (int i = 0; i < 200; i++) {
+        String element = Integer.toString(random.nextInt());
+        expected.add(element);
+        sorter.add(element);
+      }
+      Collections.sort(expected);
+      Iterator<String> sorted = sorter.sortedIterator();
+      assertThat(sorter.runCount()).isAtMost(3);
+      assertEquals(sorter.runCount(), directory.list().length);
+      assertEquals(expected, ImmutableList.copyOf(sorted));
+    }
+    assertEquals(0, directory.list().length);
+  }
+
+  public void testStable() throws IOException {
+    Comparator<String> byFirstCharacter = Ordering.natural().onResultOf(s -> s.charAt(0));
+    List<String> elements = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      elements.add((char) ('a' + (i * 7) % 5) + Integer.toString(i));
+    }
+    try (ExternalSorter<String> sorter =
+        ExternalSorter.orderedBy(byFirstCharacter, STRINGS)
+            .maximumElementsInMemory(4)
+            .maximumRunsPerMerge(3)
+            .temporaryDirectory(getTempDir())
+            .create()) {
+      sorter.addAll(elements);
+      List<String> expected = new ArrayList<>(elements);
+      Collections.sort(expected, byFirstCharacter);
+      assertEquals(expected, ImmutableList.copyOf(sorter.sortedIterator()));
+    }
+  }
+
+  public void testAddAfterSortedIterator() throws IOException {
+    try (ExternalSorter<String> sorter =
+        ExternalSorter.orderedBy(Ordering.natural(), STRINGS).create()) {
+      sorter.add("a");
+      sorter.sortedIterator();
+      try {
+        sorter.add("b");
+        fail();
+      } catch (IllegalStateException expected) {
+      }
+    }
+  }
+
+  public void testBuilderArguments() {
+    ExternalSorter.Builder<String> builder = ExternalSorter.orderedBy(Ordering.natural(), STRINGS);
+    try {
+      builder.maximumElementsInMemory(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      builder.maximumRunsPerMerge(1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
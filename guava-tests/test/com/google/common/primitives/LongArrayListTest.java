@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.primitives;
+
+import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link LongArrayList}.
+ */
+@GwtCompatible(emulated = true)
+public class LongArrayListTest extends TestCase {
+  public void testAddAndGet() {
+    LongArrayList list = LongArrayList.createWithCapacity(0);
+    assertTrue(list.isEmpty());
+    for (int i = 0; i < 100; i++) {
+      list.add(i * 2);
+    }
+    assertEquals(100, list.size());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i * 2, list.get(i));
+    }
+    try {
+      list.get(100);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testInsertSetAndRemove() {
+    LongArrayList list = LongArrayList.of(1, 2, 3);
+    list.add(0, 0);
+    list.add(4, 4);
+    assertEquals("[0, 1, 2, 3, 4]", list.toString());
+    assertEquals(2, list.set(2, 20));
+    assertEquals(20, list.removeAt(2));
+    assertEquals("[0, 1, 3, 4]", list.toString());
+    list.removeRange(1, 3);
+    assertEquals("[0, 4]", list.toString());
+    list.clear();
+    assertEquals("[]", list.toString());
+    list.add(7);
+    assertEquals(LongArrayList.of(7), list);
+  }
+
+  public void testAddAll() {
+    LongArrayList list = LongArrayList.create();
+    list.addAll(new long[] {1, 2});
+    list.addAll(new long[] {0, 3, 4, 0}, 1, 3);
+    list.addAll(ImmutableLongArray.of(5, 6));
+    list.addAll(LongArrayList.of(7));
+    list.addAll(LongStream.range(8, 10));
+    assertEquals(LongArrayList.of(1, 2, 3, 4, 5, 6, 7, 8, 9), list);
+    assertEquals(LongArrayList.of(1, 2, 3), LongArrayList.copyOf(Arrays.asList(1L, 2L, 3L)));
+    assertEquals(LongArrayList.of(1, 2, 3), LongArrayList.copyOf(ImmutableLongArray.of(1, 2, 3)));
+  }
+
+  public void testSearch() {
+    LongArrayList list = LongArrayList.of(5, 3, 9, 3, 1);
+    assertEquals(1, list.indexOf(3));
+    assertEquals(3, list.lastIndexOf(3));
+    assertEquals(-1, list.indexOf(4));
+    assertTrue(list.contains(9));
+    list.sort();
+    assertEquals(LongArrayList.of(1, 3, 3, 5, 9), list);
+    assertEquals(3, list.binarySearch(5));
+    assertEquals(-4, list.binarySearch(4));
+  }
+
+  public void testToImmutableArray_sharesUntilOverwritten() {
+    LongArrayList list = LongArrayList.of(3, 1, 2);
+    ImmutableLongArray snapshot = list.toImmutableArray();
+    assertEquals(ImmutableLongArray.of(3, 1, 2), snapshot);
+    list.add(4);
+    list.sort();
+    list.set(0, 0);
+    list.removeAt(1);
+    assertEquals(ImmutableLongArray.of(3, 1, 2), snapshot);
+    assertEquals(LongArrayList.of(0, 3, 4), list);
+
+    ImmutableLongArray second = list.toImmutableArray();
+    list.removeRange(1, 3);
+    list.add(5);
+    assertEquals(ImmutableLongArray.of(0, 3, 4), second);
+    assertEquals(LongArrayList.of(0, 5), list);
+    assertEquals(ImmutableLongArray.of(), LongArrayList.create().toImmutableArray());
+  }
+
+  public void testCapacity() {
+    LongArrayList list = LongArrayList.create();
+    list.ensureCapacity(1000);
+    list.add(1);
+    list.trimToSize();
+    list.add(2);
+    assertEquals(LongArrayList.of(1, 2), list);
+    try {
+      LongArrayList.createWithCapacity(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testAsList() {
+    LongArrayList list = LongArrayList.of(1, 2, 3);
+    List<Long> view = list.asList();
+    assertEquals(Arrays.asList(1L, 2L, 3L), view);
+    view.add(4L);
+    view.remove(0);
+    view.set(0, 20L);
+    assertEquals(LongArrayList.of(20, 3, 4), list);
+    view.subList(0, 2).clear();
+    assertEquals(LongArrayList.of(4), list);
+    assertEquals(0, view.indexOf(4L));
+    assertFalse(view.contains("4"));
+    try {
+      view.add(null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testEqualsAndHashCode() {
+    LongArrayList list = LongArrayList.of(1, 2, 3);
+    list.add(4);
+    list.removeAt(3);
+    assertEquals(LongArrayList.of(1, 2, 3), list);
+    assertFalse(list.equals(LongArrayList.of(1, 2)));
+    assertEquals(ImmutableLongArray.of(1, 2, 3).hashCode(), list.hashCode());
+  }
+
+  @GwtIncompatible // Stream
+  public void testStreamAndSpliterator() {
+    LongArrayList list = LongArrayList.of(1, 2, 3, 4);
+    assertEquals(10, list.stream().sum());
+    assertEquals(10, list.stream().parallel().sum());
+    assertEquals(4, list.spliterator().getExactSizeIfKnown());
+    long[] sum = new long[1];
+    list.forEach(value -> sum[0] += value);
+    assertEquals(10, sum[0]);
+  }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.Ints;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.j2objc.annotations.WeakOuter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * Basic implementation of the concurrent multimaps, which store the values of each key in an
+ * immutable collection, within a {@link ConcurrentHashMap}.
+ *
+ * <p>Every update builds a new collection of values for its key and installs it with one of the
+ * atomic operations of the map, retrying if another thread installed a different collection in the
+ * meantime. Reads never lock nor copy: they see whichever collection was installed last. A key is
+ * present in the map exactly when it has at least one value, so that removing the last value of a
+ * key and adding a new one cannot race.
+ *
+ * <p>Since each update copies the values of its key, it takes time linear in their number, and
+ * contended updates of the same key may copy them several times. Subclasses choose the kind of
+ * collection, and so whether {@link #entries} is a set, by implementing {@link #emptyValues}, the
+ * update methods and {@link #createEntries}.
+ */
+@GwtIncompatible
+abstract class AbstractConcurrentMultimap<K, V> extends AbstractMultimap<K, V>
+    implements Serializable {
+  private final transient ConcurrentMap<K, ImmutableCollection<V>> map;
+
+  // This constant allows the deserialization code to set a final field. This holder class
+  // makes sure it is not initialized unless an instance is deserialized.
+  private static class FieldSettersHolder {
+    @SuppressWarnings("unchecked") // the class literal of a generic class is raw
+    static final Serialization.FieldSetter<AbstractConcurrentMultimap<?, ?>> MAP_FIELD_SETTER =
+        Serialization.getFieldSetter(
+            (Class<AbstractConcurrentMultimap<?, ?>>) (Class<?>) AbstractConcurrentMultimap.class,
+            "map");
+  }
+
+  AbstractConcurrentMultimap() {
+    this.map = new ConcurrentHashMap<>();
+  }
+
+  /** Returns the empty collection of values. */
+  abstract ImmutableCollection<V> emptyValues();
+
+  /** Returns {@code values} with {@code value} added, or {@code values} itself if unchanged. */
+  abstract ImmutableCollection<V> with(ImmutableCollection<V> values, V value);
+
+  /**
+   * Returns {@code values} with {@code newValues} added, or {@code values} itself if unchanged.
+   * The values in {@code newValues} are known to be non-null.
+   */
+  abstract ImmutableCollection<V> withAll(
+      ImmutableCollection<V> values, ImmutableCollection<? extends V> newValues);
+
+  /**
+   * Returns {@code values} with one occurrence of {@code value} removed, or {@code values} itself
+   * if unchanged.
+   */
+  abstract ImmutableCollection<V> without(ImmutableCollection<V> values, Object value);
+
+  /** Returns a view of the values of {@code key}, in the form returned by {@link #get}. */
+  abstract Collection<V> wrap(K key);
+
+  /** Returns an iterator over {@code values}, whose {@code remove} updates the values of key. */
+  abstract Iterator<V> valueIterator(K key, ImmutableCollection<V> values);
+
+  /** Returns the current values of {@code key}, which are empty if it is absent. */
+  final ImmutableCollection<V> values(@NullableDecl Object key) {
+    ImmutableCollection<V> values = (key == null) ? null : map.get(key);
+    return (values == null) ? emptyValues() : values;
+  }
+
+  /**
+   * Atomically replaces the values of {@code key} with {@code newValues}, if they are still equal
+   * to {@code expected}. An empty collection stands for an absent key.
+   */
+  final boolean compareAndSet(
+      K key, ImmutableCollection<V> expected, ImmutableCollection<V> newValues) {
+    if (expected.isEmpty()) {
+      return newValues.isEmpty() || map.putIfAbsent(key, newValues) == null;
+    } else if (newValues.isEmpty()) {
+      return map.remove(key, expected);
+    } else {
+      return map.replace(key, expected, newValues);
+    }
+  }
+
+  // Query Operations
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The size is computed by traversing the keys, without locking, so it may not reflect
+   * concurrent updates.
+   */
+  @Override
+  public int size() {
+    long size = 0;
+    for (ImmutableCollection<V> values : map.values()) {
+      size += values.size();
+    }
+    return Ints.saturatedCast(size);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  @Override
+  public boolean containsKey(@NullableDecl Object key) {
+    return key != null && map.containsKey(key);
+  }
+
+  @Override
+  public boolean containsValue(@NullableDecl Object value) {
+    if (value == null) {
+      return false;
+    }
+    for (ImmutableCollection<V> values : map.values()) {
+      if (values.contains(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean containsEntry(@NullableDecl Object key, @NullableDecl Object value) {
+    return value != null && values(key).contains(value);
+  }
+
+  // Modification Operations
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic.
+   *
+   * @throws NullPointerException if {@code key} or {@code value} is null
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public boolean put(K key, V value) {
+    checkNotNull(key);
+    checkNotNull(value);
+    while (true) {
+      ImmutableCollection<V> current = values(key);
+      ImmutableCollection<V> updated = with(current, value);
+      if (updated == current) {
+        return false;
+      } else if (compareAndSet(key, current, updated)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic: the values are added together, or not at all.
+   *
+   * @throws NullPointerException if {@code key} or any of {@code values} is null
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public boolean putAll(K key, Iterable<? extends V> values) {
+    checkNotNull(key);
+    ImmutableList<? extends V> newValues = ImmutableList.copyOf(values);
+    if (newValues.isEmpty()) {
+      return false;
+    }
+    while (true) {
+      ImmutableCollection<V> current = values(key);
+      ImmutableCollection<V> updated = withAll(current, newValues);
+      if (updated == current) {
+        return false;
+      } else if (compareAndSet(key, current, updated)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic.
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public boolean remove(@NullableDecl Object key, @NullableDecl Object value) {
+    if (value == null) {
+      return false;
+    }
+    while (true) {
+      ImmutableCollection<V> current = values(key);
+      ImmutableCollection<V> updated = without(current, value);
+      if (updated == current) {
+        return false;
+      }
+      @SuppressWarnings("unchecked") // a key with values is a K
+      K k = (K) key;
+      if (compareAndSet(k, current, updated)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic. The returned collection is immutable.
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public Collection<V> removeAll(@NullableDecl Object key) {
+    ImmutableCollection<V> removed = (key == null) ? null : map.remove(key);
+    return (removed == null) ? emptyValues() : removed;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic. The returned collection is immutable.
+   *
+   * @throws NullPointerException if {@code key} or any of {@code values} is null
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public Collection<V> replaceValues(K key, Iterable<? extends V> values) {
+    checkNotNull(key);
+    ImmutableCollection<V> newValues = withAll(emptyValues(), ImmutableList.copyOf(values));
+    ImmutableCollection<V> previous =
+        newValues.isEmpty() ? map.remove(key) : map.put(key, newValues);
+    return (previous == null) ? emptyValues() : previous;
+  }
+
+  @Override
+  public void clear() {
+    map.clear();
+  }
+
+  // Views
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned collection is a view, which reads the values of {@code key} that are current
+   * at the time of each call, and whose updates are atomic.
+   */
+  @Override
+  public Collection<V> get(@NullableDecl K key) {
+    return wrap(key);
+  }
+
+  @Override
+  Set<K> createKeySet() {
+    return asMap().keySet();
+  }
+
+  @Override
+  Multiset<K> createKeys() {
+    return new Multimaps.Keys<K, V>(this);
+  }
+
+  @Override
+  Collection<V> createValues() {
+    return new Values();
+  }
+
+  @Override
+  Iterator<Entry<K, V>> entryIterator() {
+    final Iterator<Entry<K, ImmutableCollection<V>>> keyIterator = map.entrySet().iterator();
+    return new Iterator<Entry<K, V>>() {
+      @NullableDecl K key;
+      Iterator<V> valueIterator = Iterators.emptyModifiableIterator();
+
+      @Override
+      public boolean hasNext() {
+        // the map holds no empty collection
+        return valueIterator.hasNext() || keyIterator.hasNext();
+      }
+
+      @Override
+      public Entry<K, V> next() {
+        if (!valueIterator.hasNext()) {
+          Entry<K, ImmutableCollection<V>> entry = keyIterator.next();
+          key = entry.getKey();
+          valueIterator = valueIterator(key, entry.getValue());
+        }
+        return Maps.immutableEntry(key, valueIterator.next());
+      }
+
+      @Override
+      public void remove() {
+        valueIterator.remove();
+      }
+    };
+  }
+
+  @Override
+  Map<K, Collection<V>> createAsMap() {
+    return new AsMap();
+  }
+
+  @WeakOuter
+  private class AsMap extends Maps.ViewCachingAbstractMap<K, Collection<V>> {
+    @Override
+    public boolean containsKey(@NullableDecl Object key) {
+      return AbstractConcurrentMultimap.this.containsKey(key);
+    }
+
+    @Override
+    public Collection<V> get(@NullableDecl Object key) {
+      if (!containsKey(key)) {
+        return null;
+      }
+      @SuppressWarnings("unchecked") // a key with values is a K
+      K k = (K) key;
+      return wrap(k);
+    }
+
+    @Override
+    public Collection<V> remove(@NullableDecl Object key) {
+      return (key == null) ? null : map.remove(key);
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+      map.clear();
+    }
+
+    @Override
+    Set<Entry<K, Collection<V>>> createEntrySet() {
+      return new Maps.EntrySet<K, Collection<V>>() {
+        @Override
+        Map<K, Collection<V>> map() {
+          return AsMap.this;
+        }
+
+        @Override
+        public Iterator<Entry<K, Collection<V>>> iterator() {
+          return new TransformedIterator<K, Entry<K, Collection<V>>>(map.keySet().iterator()) {
+            @Override
+            Entry<K, Collection<V>> transform(K key) {
+              return Maps.immutableEntry(key, wrap(key));
+            }
+          };
+        }
+      };
+    }
+  }
+
+  /**
+   * @serialData the number of distinct keys, and then for each distinct key: the key, the number
+   *     of values for that key, and the key's values
+   */
+  private void writeObject(ObjectOutputStream stream) throws IOException {
+    stream.defaultWriteObject();
+    Serialization.writeMultimap(this, stream);
+  }
+
+  private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    FieldSettersHolder.MAP_FIELD_SETTER.set(
+        this, new ConcurrentHashMap<K, ImmutableCollection<V>>());
+    Serialization.populateMultimap(this, stream);
+  }
+
+  private static final long serialVersionUID = 0;
+}
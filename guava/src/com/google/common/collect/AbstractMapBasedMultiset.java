@@ -30,13 +30,13 @@ import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 import java.util.function.ObjIntConsumer;
 import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 
 /**
- * Basic implementation of {@code Multiset<E>} backed by an instance of {@code Map<E, Count>}.
+ * Basic implementation of {@code Multiset<E>} backed by an instance of {@code
+ * AbstractObjectCountMap<E>}.
  *
  * <p>For serialization to work, the subclass must specify explicit {@code readObject} and {@code
  * writeObject} methods.
@@ -45,8 +45,7 @@ import org.checkerframework.checker.nullness.compatqual.NullableDecl;
  */
 @GwtCompatible(emulated = true)
 abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implements Serializable {
-  // TODO(lowasser): consider overhauling this back to Map<E, Integer>
-  private transient Map<E, Count> backingMap;
+  transient AbstractObjectCountMap<E> backingMap;
 
   /*
    * Cache the size for efficiency. Using a long lets us avoid the need for
@@ -56,17 +55,21 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
   private transient long size;
 
   /** Standard constructor. */
-  protected AbstractMapBasedMultiset(Map<E, Count> backingMap) {
+  protected AbstractMapBasedMultiset(AbstractObjectCountMap<E> backingMap) {
     this.backingMap = checkNotNull(backingMap);
     this.size = super.size();
   }
 
   /** Used during deserialization only. The backing map must be empty. */
-  void setBackingMap(Map<E, Count> backingMap) {
+  void setBackingMap(AbstractObjectCountMap<E> backingMap) {
     this.backingMap = backingMap;
   }
 
   // Required Implementations
+  @Override
+  Set<E> createElementSet() {
+    return backingMap.keySet();
+  }
 
   /**
    * {@inheritDoc}
@@ -76,15 +79,16 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
    * was retrieved.
    */
   @Override
-  public Set<Multiset.Entry<E>> entrySet() {
-    return super.entrySet();
+  public Set<Multiset.Entry<E>> createEntrySet() {
+    return new EntrySet();
   }
 
   @Override
   Iterator<Entry<E>> entryIterator() {
-    final Iterator<Map.Entry<E, Count>> backingEntries = backingMap.entrySet().iterator();
+    final Iterator<Entry<E>> backingEntries = backingMap.entrySet().iterator();
     return new Iterator<Multiset.Entry<E>>() {
-      Map.Entry<E, Count> toRemove;
+      Entry<E> toRemove;
+      boolean canRemove;
 
       @Override
       public boolean hasNext() {
@@ -93,33 +97,18 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
 
       @Override
       public Multiset.Entry<E> next() {
-        final Map.Entry<E, Count> mapEntry = backingEntries.next();
+        final Entry<E> mapEntry = backingEntries.next();
         toRemove = mapEntry;
-        return new Multisets.AbstractEntry<E>() {
-          @Override
-          public E getElement() {
-            return mapEntry.getKey();
-          }
-
-          @Override
-          public int getCount() {
-            Count count = mapEntry.getValue();
-            if (count == null || count.get() == 0) {
-              Count frequency = backingMap.get(getElement());
-              if (frequency != null) {
-                return frequency.get();
-              }
-            }
-            return (count == null) ? 0 : count.get();
-          }
-        };
+        canRemove = true;
+        return mapEntry;
       }
 
       @Override
       public void remove() {
-        checkRemove(toRemove != null);
-        size -= toRemove.getValue().getAndSet(0);
+        checkRemove(canRemove);
+        size -= toRemove.getCount();
         backingEntries.remove();
+        canRemove = false;
         toRemove = null;
       }
     };
@@ -128,14 +117,13 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
   @Override
   public void forEachEntry(ObjIntConsumer<? super E> action) {
     checkNotNull(action);
-    backingMap.forEach((element, count) -> action.accept(element, count.get()));
+    for (int i = backingMap.firstIndex(); i != -1; i = backingMap.nextIndex(i)) {
+      action.accept(backingMap.getKey(i), backingMap.getValue(i));
+    }
   }
 
   @Override
   public void clear() {
-    for (Count frequency : backingMap.values()) {
-      frequency.set(0);
-    }
     backingMap.clear();
     size = 0L;
   }
@@ -163,10 +151,10 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
    * a more efficient remove() call.
    */
   private class MapBasedMultisetIterator implements Iterator<E> {
-    final Iterator<Map.Entry<E, Count>> entryIterator;
-    Map.Entry<E, Count> currentEntry;
-    int occurrencesLeft;
-    boolean canRemove;
+    final Iterator<Entry<E>> entryIterator;
+    Entry<E> currentEntry;
+    int occurrencesLeft = 0;
+    boolean canRemove = false;
 
     MapBasedMultisetIterator() {
       this.entryIterator = backingMap.entrySet().iterator();
@@ -181,22 +169,24 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
     public E next() {
       if (occurrencesLeft == 0) {
         currentEntry = entryIterator.next();
-        occurrencesLeft = currentEntry.getValue().get();
+        occurrencesLeft = currentEntry.getCount();
       }
       occurrencesLeft--;
       canRemove = true;
-      return currentEntry.getKey();
+      return currentEntry.getElement();
     }
 
     @Override
     public void remove() {
       checkRemove(canRemove);
-      int frequency = currentEntry.getValue().get();
+      int frequency = currentEntry.getCount();
       if (frequency <= 0) {
         throw new ConcurrentModificationException();
       }
-      if (currentEntry.getValue().addAndGet(-1) == 0) {
+      if (frequency == 1) {
         entryIterator.remove();
+      } else {
+        ((ObjectCountHashMap.MapEntry) currentEntry).setCount(frequency - 1);
       }
       size--;
       canRemove = false;
@@ -205,8 +195,7 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
 
   @Override
   public int count(@NullableDecl Object element) {
-    Count frequency = Maps.safeGet(backingMap, element);
-    return (frequency == null) ? 0 : frequency.get();
+    return backingMap.get(element);
   }
 
   // Optional Operations - Modification Operations
@@ -224,17 +213,10 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
       return count(element);
     }
     checkArgument(occurrences > 0, "occurrences cannot be negative: %s", occurrences);
-    Count frequency = backingMap.get(element);
-    int oldCount;
-    if (frequency == null) {
-      oldCount = 0;
-      backingMap.put(element, new Count(occurrences));
-    } else {
-      oldCount = frequency.get();
-      long newCount = (long) oldCount + (long) occurrences;
-      checkArgument(newCount <= Integer.MAX_VALUE, "too many occurrences: %s", newCount);
-      frequency.add(occurrences);
-    }
+    int oldCount = backingMap.get(element);
+    long newCount = (long) oldCount + (long) occurrences;
+    checkArgument(newCount <= Integer.MAX_VALUE, "too many occurrences: %s", newCount);
+    backingMap.put(element, (int) newCount);
     size += occurrences;
     return oldCount;
   }
@@ -246,22 +228,17 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
       return count(element);
     }
     checkArgument(occurrences > 0, "occurrences cannot be negative: %s", occurrences);
-    Count frequency = backingMap.get(element);
-    if (frequency == null) {
-      return 0;
-    }
-
-    int oldCount = frequency.get();
-
+    int oldCount = backingMap.get(element);
     int numberRemoved;
     if (oldCount > occurrences) {
       numberRemoved = occurrences;
+      @SuppressWarnings("unchecked") // the element is in the map, so it is an E
+      E e = (E) element;
+      backingMap.put(e, oldCount - occurrences);
     } else {
       numberRemoved = oldCount;
       backingMap.remove(element);
     }
-
-    frequency.add(-numberRemoved);
     size -= numberRemoved;
     return oldCount;
   }
@@ -271,33 +248,11 @@ abstract class AbstractMapBasedMultiset<E> extends AbstractMultiset<E> implement
   @Override
   public int setCount(@NullableDecl E element, int count) {
     checkNonnegative(count, "count");
-
-    Count existingCounter;
-    int oldCount;
-    if (count == 0) {
-      existingCounter = backingMap.remove(element);
-      oldCount = getAndSet(existingCounter, count);
-    } else {
-      existingCounter = backingMap.get(element);
-      oldCount = getAndSet(existingCounter, count);
-
-      if (existingCounter == null) {
-        backingMap.put(element, new Count(count));
-      }
-    }
-
+    int oldCount = (count == 0) ? backingMap.remove(element) : backingMap.put(element, count);
     size += (count - oldCount);
     return oldCount;
   }
 
-  private static int getAndSet(@NullableDecl Count i, int count) {
-    if (i == null) {
-      return 0;
-    }
-
-    return i.getAndSet(count);
-  }
-
   // Don't allow default serialization.
   @GwtIncompatible // java.io.ObjectStreamException
   private void readObjectNoData() throws ObjectStreamException {
@@ -20,9 +20,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.GwtCompatible;
 import com.google.common.annotations.GwtIncompatible;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.function.Function;
 import java.util.stream.Collector;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 
 /** Collectors utilities for {@code common.collect} internals. */
 @GwtCompatible
@@ -42,10 +44,10 @@ final class CollectCollectors {
 
   private static final Collector<Object, ?, ImmutableList<Object>> TO_IMMUTABLE_LIST =
       Collector.of(
-          ImmutableList::<Object>builder,
-          ImmutableList.Builder::add,
-          ImmutableList.Builder::combine,
-          ImmutableList.Builder::build);
+          ChunkedArray::new,
+          ChunkedArray::add,
+          ChunkedArray::combine,
+          ChunkedArray::toImmutableList);
 
   static <E> Collector<E, ?, ImmutableList<E>> toImmutableList() {
     return (Collector) TO_IMMUTABLE_LIST;
@@ -65,15 +67,82 @@ final class CollectCollectors {
 
   private static final Collector<Object, ?, ImmutableSet<Object>> TO_IMMUTABLE_SET =
       Collector.of(
-          ImmutableSet::<Object>builder,
-          ImmutableSet.Builder::add,
-          ImmutableSet.Builder::combine,
-          ImmutableSet.Builder::build);
+          ChunkedArray::new,
+          ChunkedArray::add,
+          ChunkedArray::combine,
+          ChunkedArray::toImmutableSet);
 
   static <E> Collector<E, ?, ImmutableSet<E>> toImmutableSet() {
     return (Collector) TO_IMMUTABLE_SET;
   }
 
+  /**
+   * The accumulation state of {@link #toImmutableList} and {@link #toImmutableSet}: a sequence of
+   * array chunks, elements being appended to the last one. Combining two states, as a parallel
+   * stream does for every pair of sibling tasks, only concatenates their chunk lists, so that each
+   * element is copied once, into the array of the result, rather than once per level of the tree
+   * of combines. Likewise, the elements of a set are deduplicated once, when it is built.
+   */
+  static final class ChunkedArray {
+    // the chunks before last, in encounter order, or null if last is the only chunk
+    @NullableDecl private ArrayList<ImmutableList.Builder<Object>> previous;
+    private ImmutableList.Builder<Object> last = new ImmutableList.Builder<>();
+    private int size;
+
+    void add(Object element) {
+      last.add(element);
+      size++;
+    }
+
+    ChunkedArray combine(ChunkedArray other) {
+      if (other.size == 0) {
+        return this;
+      } else if (size == 0) {
+        return other;
+      }
+      if (previous == null) {
+        previous = new ArrayList<>();
+      }
+      previous.add(last);
+      if (other.previous != null) {
+        previous.addAll(other.previous);
+      }
+      last = other.last;
+      size += other.size;
+      return this;
+    }
+
+    /** Returns the elements, in encounter order, in an array of length at least {@code size}. */
+    private Object[] contents() {
+      if (previous == null) {
+        return last.contents;
+      }
+      Object[] contents = new Object[size];
+      int offset = 0;
+      for (ImmutableList.Builder<Object> chunk : previous) {
+        System.arraycopy(chunk.contents, 0, contents, offset, chunk.size);
+        offset += chunk.size;
+      }
+      System.arraycopy(last.contents, 0, contents, offset, last.size);
+      return contents;
+    }
+
+    ImmutableList<Object> toImmutableList() {
+      return (previous == null) ? last.build() : ImmutableList.asImmutableList(contents());
+    }
+
+    ImmutableSet<Object> toImmutableSet() {
+      switch (size) {
+        case 0:
+          return ImmutableSet.of();
+        case 1:
+          return ImmutableSet.of(last.contents[0]);
+        default:
+          return ImmutableSet.construct(size, contents());
+      }
+    }
+  }
+
   static <T, K, V> Collector<T, ?, ImmutableSortedMap<K, V>> toImmutableSortedMap(
       Comparator<? super K> comparator,
       Function<? super T, ? extends K> keyFunction,
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.GwtIncompatible;
+import java.util.Arrays;
+
+/**
+ * The hash table shared by the primitive-keyed maps and sets, such as {@link IntObjectMap} and
+ * {@link LongHashSet}. It uses the layout of {@link CompactHashMap}: entries live in parallel
+ * arrays in the range {@code [0, size)}, chained together per bucket by the {@link #next} array,
+ * and removals move the last entry into the hole. Unlike {@code CompactHashMap}, the hash of an
+ * entry is not stored, since it is cheap to recompute from a primitive key.
+ *
+ * <p>Subclasses own the key (and value) arrays. They look up keys by walking the chain that starts
+ * at {@link #firstInBucket}, and implement {@link #hashOf}, {@link #resizeEntries} and {@link
+ * #moveEntry} so that this class can maintain the table. Since this class is not public, the
+ * subclasses declare their own public {@code size}, {@code isEmpty}, {@code clear} and {@code
+ * trimToSize} methods.
+ */
+@GwtIncompatible // not worth using in GWT for now
+abstract class CompactPrimitiveTable {
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  static final int DEFAULT_SIZE = 3;
+
+  // used to indicate blank table entries and the end of a bucket chain
+  static final int UNSET = -1;
+
+  /** The index of the first entry of each bucket, or UNSET. Its size is a power of two. */
+  private transient int[] table;
+
+  /** The index of the next entry in the same bucket as each entry, in the range [0, size). */
+  transient int[] next;
+
+  /** The number of entries. */
+  transient int size;
+
+  /** When we have this many elements, resize the hashtable. */
+  private transient int threshold;
+
+  CompactPrimitiveTable(int expectedSize) {
+    checkArgument(expectedSize >= 0, "expectedSize (%s) must be >= 0", expectedSize);
+    int buckets = Hashing.closedTableSize(expectedSize, 1.0);
+    this.table = newTable(buckets);
+    this.next = new int[expectedSize];
+    this.threshold = buckets;
+  }
+
+  static int hash(int key) {
+    return Hashing.smear(key);
+  }
+
+  static int hash(long key) {
+    return Hashing.smear((int) (key ^ (key >>> 32)));
+  }
+
+  private static int[] newTable(int size) {
+    int[] array = new int[size];
+    Arrays.fill(array, UNSET);
+    return array;
+  }
+
+  /** Returns the smeared hash of the key of the entry at {@code index}. */
+  abstract int hashOf(int index);
+
+  /** Resizes the subclass's entry arrays to the specified capacity. */
+  abstract void resizeEntries(int newCapacity);
+
+  /** Moves the entry at {@code srcIndex} to {@code dstIndex}, and clears {@code srcIndex}. */
+  abstract void moveEntry(int srcIndex, int dstIndex);
+
+  /** Clears any references held by the entry at {@code index}. */
+  void clearEntry(int index) {
+    // no-op by default
+  }
+
+  /** Returns the index of the first entry in the bucket of {@code hash}, or {@link #UNSET}. */
+  final int firstInBucket(int hash) {
+    return table[hash & (table.length - 1)];
+  }
+
+  /**
+   * Appends a new entry with the given hash at index {@code size}, and returns that index. The
+   * caller must then store the key (and value) of the entry at that index.
+   */
+  final int appendEntry(int hash) {
+    int index = size;
+    if (index == Integer.MAX_VALUE) {
+      throw new IllegalStateException("Cannot contain more than Integer.MAX_VALUE elements!");
+    }
+    if (index == next.length) {
+      int newCapacity = index + Math.max(1, index >>> 1);
+      if (newCapacity < 0) {
+        newCapacity = Integer.MAX_VALUE;
+      }
+      next = Arrays.copyOf(next, newCapacity);
+      resizeEntries(newCapacity);
+    }
+    if (index >= threshold) {
+      // resize first, since the key of the new entry is not stored yet
+      resizeTable(2 * table.length);
+    }
+    int bucket = hash & (table.length - 1);
+    next[index] = table[bucket];
+    table[bucket] = index;
+    size = index + 1;
+    return index;
+  }
+
+  /** Removes the entry at {@code index}, whose hash is {@code hash}. */
+  final void removeEntry(int index, int hash) {
+    unlink(index, hash);
+    int srcIndex = size - 1;
+    if (index < srcIndex) {
+      // move the last entry to the removed spot, and update whoever was pointing to it
+      int srcBucket = hashOf(srcIndex) & (table.length - 1);
+      if (table[srcBucket] == srcIndex) {
+        table[srcBucket] = index;
+      } else {
+        int previous = table[srcBucket];
+        while (next[previous] != srcIndex) {
+          previous = next[previous];
+        }
+        next[previous] = index;
+      }
+      next[index] = next[srcIndex];
+      moveEntry(srcIndex, index);
+    } else {
+      clearEntry(index);
+    }
+    size = srcIndex;
+  }
+
+  private void unlink(int index, int hash) {
+    int bucket = hash & (table.length - 1);
+    if (table[bucket] == index) {
+      table[bucket] = next[index];
+    } else {
+      int previous = table[bucket];
+      while (next[previous] != index) {
+        previous = next[previous];
+      }
+      next[previous] = next[index];
+    }
+  }
+
+  private void resizeTable(int newCapacity) { // newCapacity always a power of two
+    if (table.length >= MAXIMUM_CAPACITY) {
+      threshold = Integer.MAX_VALUE;
+      return;
+    }
+    table = newTable(newCapacity);
+    threshold = newCapacity;
+    rehash();
+  }
+
+  private void rehash() {
+    int mask = table.length - 1;
+    for (int i = 0; i < size; i++) {
+      int bucket = hashOf(i) & mask;
+      next[i] = table[bucket];
+      table[bucket] = i;
+    }
+  }
+
+  /** Removes all entries. The capacity is retained; see {@link #trimTable}. */
+  final void clearTable() {
+    for (int i = 0; i < size; i++) {
+      clearEntry(i);
+    }
+    Arrays.fill(table, UNSET);
+    size = 0;
+  }
+
+  /**
+   * Shrinks the capacity of the internal arrays to the minimum that holds the current entries,
+   * minimizing the memory footprint of a collection that is done growing.
+   */
+  final void trimTable() {
+    if (next.length > size) {
+      next = Arrays.copyOf(next, size);
+      resizeEntries(size);
+    }
+    int buckets = Hashing.closedTableSize(size, 1.0);
+    if (buckets < table.length) {
+      table = newTable(buckets);
+      threshold = buckets;
+      rehash();
+    }
+  }
+}
@@ -0,0 +1,983 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.CollectPreconditions.checkRemove;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.Maps.IteratorBasedAbstractMap;
+import com.google.common.primitives.Ints;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.j2objc.annotations.WeakOuter;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.checkerframework.checker.nullness.compatqual.MonotonicNonNullDecl;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A {@link Table} that supports concurrent access, and whose single-cell updates are atomic. Null
+ * row keys, column keys and values are not supported.
+ *
+ * <p>The cells of each row are kept in a {@link ConcurrentHashMap}, within a {@code
+ * ConcurrentHashMap} of the rows. Retrieval operations take no lock, and updates of different
+ * cells, even within the same row, proceed in parallel, unlike those of a {@linkplain
+ * Tables#synchronizedTable synchronized table}, which all contend on a single lock. A row is
+ * created by the first update that stores a cell in it, and removed by the update that removes its
+ * last cell: those two updates briefly coordinate with other updates of the same row, so that no
+ * update is lost when a row is removed and created again concurrently.
+ *
+ * <p>In addition to the {@link Table} operations, this class provides the atomic operations {@link
+ * #putIfAbsent}, {@link #compute} and {@link #merge}, which make it suitable for accumulating
+ * values, such as per-tenant, per-metric statistics that many threads update at once:
+ *
+ * <pre>{@code
+ * ConcurrentHashBasedTable<String, String, Long> totals = ConcurrentHashBasedTable.create();
+ * totals.merge(tenant, metric, sample, Long::sum);
+ * }</pre>
+ *
+ * <p>The views returned by {@link #row}, {@link #column}, {@link #rowMap}, {@link #columnMap},
+ * {@link #cellSet} and so on reflect later updates, and their iterators and spliterators are weakly
+ * consistent: they never throw {@link java.util.ConcurrentModificationException}, and they may or
+ * may not reflect updates that are concurrent with the traversal. Calling {@code remove} on such an
+ * iterator removes the cell, row or column it last returned. The {@code size} of the table and of
+ * its views is computed by traversal, and is not atomic. Bulk operations, such as {@link #putAll},
+ * {@link #clear}, or the removal of a column, are not atomic either; the removal of a row through
+ * {@code rowMap().remove(rowKey)} is. The copy of the row that it returns may include a cell that
+ * was stored concurrently with the removal, which is then also stored in a new row of that key.
+ *
+ * <p>Since the columns are not indexed, the {@code size} of the {@link #columnMap} and iteration
+ * over it traverse every cell, and collect the column keys seen into a set, which takes time and
+ * memory proportional to the number of cells.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class ConcurrentHashBasedTable<R, C, V> extends AbstractTable<R, C, V>
+    implements Serializable {
+  /** Creates a new, empty {@code ConcurrentHashBasedTable}. */
+  public static <R, C, V> ConcurrentHashBasedTable<R, C, V> create() {
+    return new ConcurrentHashBasedTable<>();
+  }
+
+  /**
+   * Creates a {@code ConcurrentHashBasedTable} with the same mappings as the specified table.
+   *
+   * @throws NullPointerException if any row key, column key or value in {@code table} is null
+   */
+  public static <R, C, V> ConcurrentHashBasedTable<R, C, V> create(
+      Table<? extends R, ? extends C, ? extends V> table) {
+    ConcurrentHashBasedTable<R, C, V> result = create();
+    result.putAll(table);
+    return result;
+  }
+
+  /**
+   * The cells of a row. A row is retired while an update that found it empty removes it from the
+   * table: other updates of the row wait for that removal to either complete, in which case they
+   * apply themselves again to a new row, or give up because the row is no longer empty.
+   */
+  private static final class RowCells<C, V> {
+    final ConcurrentHashMap<C, V> cells = new ConcurrentHashMap<>();
+    volatile boolean retired;
+
+    /**
+     * Returns whether there is no cell in this row. Unlike {@link ConcurrentHashMap#isEmpty}, which
+     * reads counters that an insertion updates after publishing its cell, this traverses the cells,
+     * and therefore sees any insertion that completed before the row was retired.
+     */
+    boolean hasNoCell() {
+      return !cells.keySet().iterator().hasNext();
+    }
+  }
+
+  private final transient ConcurrentHashMap<R, RowCells<C, V>> rows;
+
+  // This constant allows the deserialization code to set a final field. This holder class
+  // makes sure it is not initialized unless an instance is deserialized.
+  private static class FieldSettersHolder {
+    @SuppressWarnings("unchecked") // the class literal of a generic class is raw
+    static final Serialization.FieldSetter<ConcurrentHashBasedTable<?, ?, ?>> ROWS_FIELD_SETTER =
+        Serialization.getFieldSetter(
+            (Class<ConcurrentHashBasedTable<?, ?, ?>>) (Class<?>) ConcurrentHashBasedTable.class,
+            "rows");
+  }
+
+  private ConcurrentHashBasedTable() {
+    this.rows = new ConcurrentHashMap<>();
+  }
+
+  /** Returns the cells of {@code rowKey}, or null if it has no row. */
+  @NullableDecl
+  private ConcurrentHashMap<C, V> cells(@NullableDecl Object rowKey) {
+    RowCells<C, V> row = (rowKey == null) ? null : rows.get(rowKey);
+    return (row == null) ? null : row.cells;
+  }
+
+  /** Returns the row of {@code rowKey}, creating it if needed. */
+  private RowCells<C, V> rowFor(R rowKey) {
+    RowCells<C, V> row = rows.get(rowKey);
+    // computeIfAbsent locks the bin of rowKey even if it is present, so avoid it on the hot path
+    return (row != null) ? row : rows.computeIfAbsent(rowKey, k -> new RowCells<>());
+  }
+
+  /**
+   * Returns whether the updates just made to the cells of {@code row} are part of this table,
+   * waiting first for any concurrent removal of the row to complete. If this returns {@code
+   * false}, the row was removed, and the updates must be made again to the current row.
+   */
+  private boolean isLive(Object rowKey, RowCells<C, V> row) {
+    while (row.retired) {
+      if (rows.get(rowKey) != row) {
+        return false;
+      }
+      Thread.yield();
+    }
+    return true;
+  }
+
+  /** Removes the row of {@code rowKey} if it is {@code row} and has no cell. */
+  private void removeIfEmpty(R rowKey, RowCells<C, V> row) {
+    if (row.cells.isEmpty()) {
+      rows.computeIfPresent(
+          rowKey,
+          (k, current) -> {
+            if (current != row) {
+              return current;
+            }
+            /*
+             * An update writes its cell before it reads the retired flag, and we set the flag
+             * before we look for cells: either we see the cell, or the update sees the flag and
+             * waits for us to decide.
+             */
+            row.retired = true;
+            if (row.hasNoCell()) {
+              return null;
+            }
+            row.retired = false;
+            return row;
+          });
+    }
+  }
+
+  /** Atomically removes the row of {@code rowKey}, and returns it, or null if absent. */
+  @NullableDecl
+  private RowCells<C, V> removeRow(@NullableDecl Object rowKey) {
+    if (rowKey == null) {
+      return null;
+    }
+    @SuppressWarnings("unchecked") // only a present key is an R
+    R key = (R) rowKey;
+    AtomicReference<RowCells<C, V>> removed = new AtomicReference<>();
+    rows.computeIfPresent(
+        key,
+        (k, row) -> {
+          row.retired = true;
+          removed.set(row);
+          return null;
+        });
+    return removed.get();
+  }
+
+  // Query Operations
+
+  @Override
+  public boolean contains(@NullableDecl Object rowKey, @NullableDecl Object columnKey) {
+    Map<C, V> cells = cells(rowKey);
+    return cells != null && columnKey != null && cells.containsKey(columnKey);
+  }
+
+  @Override
+  public boolean containsRow(@NullableDecl Object rowKey) {
+    Map<C, V> cells = cells(rowKey);
+    return cells != null && !cells.isEmpty();
+  }
+
+  @Override
+  public boolean containsColumn(@NullableDecl Object columnKey) {
+    if (columnKey == null) {
+      return false;
+    }
+    for (RowCells<C, V> row : rows.values()) {
+      if (row.cells.containsKey(columnKey)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean containsValue(@NullableDecl Object value) {
+    if (value == null) {
+      return false;
+    }
+    for (RowCells<C, V> row : rows.values()) {
+      if (row.cells.containsValue(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public V get(@NullableDecl Object rowKey, @NullableDecl Object columnKey) {
+    Map<C, V> cells = cells(rowKey);
+    return (cells == null || columnKey == null) ? null : cells.get(columnKey);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    for (RowCells<C, V> row : rows.values()) {
+      if (!row.cells.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The size is computed by traversing the rows, without locking, so it may not reflect
+   * concurrent updates.
+   */
+  @Override
+  public int size() {
+    long size = 0;
+    for (RowCells<C, V> row : rows.values()) {
+      size += row.cells.size();
+    }
+    return Ints.saturatedCast(size);
+  }
+
+  // Modification Operations
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic.
+   *
+   * @throws NullPointerException if any of the arguments is null
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public V put(R rowKey, C columnKey, V value) {
+    checkNotNull(rowKey);
+    checkNotNull(columnKey);
+    checkNotNull(value);
+    while (true) {
+      RowCells<C, V> row = rowFor(rowKey);
+      V previous = row.cells.put(columnKey, value);
+      if (isLive(rowKey, row)) {
+        return previous;
+      }
+    }
+  }
+
+  /**
+   * Associates {@code value} with the specified keys, unless a value is already associated with
+   * them. This operation is atomic.
+   *
+   * @return the value already associated with the specified keys, or {@code null} if there was
+   *     none and {@code value} was stored
+   * @throws NullPointerException if any of the arguments is null
+   */
+  @CanIgnoreReturnValue
+  @NullableDecl
+  public V putIfAbsent(R rowKey, C columnKey, V value) {
+    checkNotNull(rowKey);
+    checkNotNull(columnKey);
+    checkNotNull(value);
+    while (true) {
+      RowCells<C, V> row = rowFor(rowKey);
+      V previous = row.cells.putIfAbsent(columnKey, value);
+      if (isLive(rowKey, row)) {
+        return previous;
+      }
+    }
+  }
+
+  /**
+   * Atomically computes the value associated with the specified keys, from the value currently
+   * associated with them, or {@code null} if there is none. If the function returns {@code null},
+   * the cell is removed, or remains absent.
+   *
+   * <p>As with {@link ConcurrentHashMap#compute}, other updates of the same cell may block while
+   * the function is applied, so it should be short and simple, and it must not update this table.
+   * In rare cases, when the row is concurrently removed and created again, the function may be
+   * applied more than once, of which only the last application takes effect.
+   *
+   * @return the new value associated with the specified keys, or {@code null} if none
+   * @throws NullPointerException if any of the keys or the function is null
+   */
+  @CanIgnoreReturnValue
+  @NullableDecl
+  public V compute(
+      R rowKey, C columnKey, Function<? super V, ? extends V> remappingFunction) {
+    checkNotNull(rowKey);
+    checkNotNull(columnKey);
+    checkNotNull(remappingFunction);
+    while (true) {
+      RowCells<C, V> row = rowFor(rowKey);
+      V result = row.cells.compute(columnKey, (k, current) -> remappingFunction.apply(current));
+      if (isLive(rowKey, row)) {
+        if (result == null) {
+          removeIfEmpty(rowKey, row);
+        }
+        return result;
+      }
+    }
+  }
+
+  /**
+   * Atomically associates {@code value} with the specified keys if there is no value associated
+   * with them, and otherwise replaces the current value with the result of applying {@code
+   * remappingFunction} to it and to {@code value}; if that result is {@code null}, the cell is
+   * removed. For example, {@code merge(row, column, 1L, Long::sum)} adds one to a count.
+   *
+   * <p>The function is subject to the same restrictions as in {@link #compute}.
+   *
+   * @return the new value associated with the specified keys, or {@code null} if none
+   * @throws NullPointerException if any of the arguments is null
+   */
+  @CanIgnoreReturnValue
+  @NullableDecl
+  public V merge(
+      R rowKey,
+      C columnKey,
+      V value,
+      BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+    checkNotNull(rowKey);
+    checkNotNull(columnKey);
+    checkNotNull(value);
+    checkNotNull(remappingFunction);
+    while (true) {
+      RowCells<C, V> row = rowFor(rowKey);
+      V result = row.cells.merge(columnKey, value, remappingFunction);
+      if (isLive(rowKey, row)) {
+        if (result == null) {
+          removeIfEmpty(rowKey, row);
+        }
+        return result;
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This operation is atomic.
+   */
+  @CanIgnoreReturnValue
+  @Override
+  public V remove(@NullableDecl Object rowKey, @NullableDecl Object columnKey) {
+    if (rowKey == null || columnKey == null) {
+      return null;
+    }
+    while (true) {
+      RowCells<C, V> row = rows.get(rowKey);
+      if (row == null) {
+        return null;
+      }
+      V previous = row.cells.remove(columnKey);
+      if (isLive(rowKey, row)) {
+        if (previous != null) {
+          @SuppressWarnings("unchecked") // a present key is an R
+          R key = (R) rowKey;
+          removeIfEmpty(key, row);
+        }
+        return previous;
+      }
+    }
+  }
+
+  /** Atomically removes the specified cell, if its value is {@code value}. */
+  private boolean removeMapping(
+      @NullableDecl Object rowKey, @NullableDecl Object columnKey, @NullableDecl Object value) {
+    if (rowKey == null || columnKey == null || value == null) {
+      return false;
+    }
+    while (true) {
+      RowCells<C, V> row = rows.get(rowKey);
+      if (row == null) {
+        return false;
+      }
+      boolean removed = row.cells.remove(columnKey, value);
+      if (isLive(rowKey, row)) {
+        if (removed) {
+          @SuppressWarnings("unchecked") // a present key is an R
+          R key = (R) rowKey;
+          removeIfEmpty(key, row);
+        }
+        return removed;
+      }
+    }
+  }
+
+  /** Removes the cells of {@code columnKey}, and returns them, or null if there was none. */
+  @NullableDecl
+  private Map<R, V> removeColumn(@NullableDecl Object columnKey) {
+    ImmutableMap.Builder<R, V> removed = ImmutableMap.builder();
+    boolean changed = false;
+    for (R rowKey : rows.keySet()) {
+      V value = remove(rowKey, columnKey);
+      if (value != null) {
+        removed.put(rowKey, value);
+        changed = true;
+      }
+    }
+    return changed ? removed.build() : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>This removes the rows one at a time, so it is not atomic.
+   */
+  @Override
+  public void clear() {
+    for (R rowKey : rows.keySet()) {
+      removeRow(rowKey);
+    }
+  }
+
+  // Views
+
+  @Override
+  Set<Cell<R, C, V>> createCellSet() {
+    return new CellSet() {
+      @Override
+      public boolean remove(@NullableDecl Object o) {
+        if (o instanceof Cell) {
+          Cell<?, ?, ?> cell = (Cell<?, ?, ?>) o;
+          return removeMapping(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+        }
+        return false;
+      }
+    };
+  }
+
+  @Override
+  Iterator<Cell<R, C, V>> cellIterator() {
+    return new Iterator<Cell<R, C, V>>() {
+      final Iterator<Entry<R, RowCells<C, V>>> rowIterator = rows.entrySet().iterator();
+      @NullableDecl R rowKey;
+      Iterator<Entry<C, V>> columnIterator = Collections.emptyIterator();
+      @NullableDecl Cell<R, C, V> last;
+
+      @Override
+      public boolean hasNext() {
+        while (!columnIterator.hasNext()) {
+          if (!rowIterator.hasNext()) {
+            return false;
+          }
+          Entry<R, RowCells<C, V>> rowEntry = rowIterator.next();
+          rowKey = rowEntry.getKey();
+          columnIterator = rowEntry.getValue().cells.entrySet().iterator();
+        }
+        return true;
+      }
+
+      @Override
+      public Cell<R, C, V> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        Entry<C, V> columnEntry = columnIterator.next();
+        return last = Tables.immutableCell(rowKey, columnEntry.getKey(), columnEntry.getValue());
+      }
+
+      @Override
+      public void remove() {
+        checkRemove(last != null);
+        ConcurrentHashBasedTable.this.remove(last.getRowKey(), last.getColumnKey());
+        last = null;
+      }
+    };
+  }
+
+  @Override
+  Spliterator<Cell<R, C, V>> cellSpliterator() {
+    return CollectSpliterators.flatMap(
+        rows.entrySet().spliterator(),
+        (Entry<R, RowCells<C, V>> rowEntry) ->
+            CollectSpliterators.map(
+                rowEntry.getValue().cells.entrySet().spliterator(),
+                (Entry<C, V> columnEntry) ->
+                    Tables.immutableCell(
+                        rowEntry.getKey(), columnEntry.getKey(), columnEntry.getValue())),
+        Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.CONCURRENT,
+        size());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned map is a view, which reads the row that is current at the time of each call,
+   * and whose updates are atomic.
+   */
+  @Override
+  public Map<C, V> row(R rowKey) {
+    return new RowView(checkNotNull(rowKey));
+  }
+
+  @WeakOuter
+  private final class RowView extends IteratorBasedAbstractMap<C, V> {
+    final R rowKey;
+
+    RowView(R rowKey) {
+      this.rowKey = rowKey;
+    }
+
+    @Override
+    public boolean containsKey(@NullableDecl Object key) {
+      return contains(rowKey, key);
+    }
+
+    @Override
+    public V get(@NullableDecl Object key) {
+      return ConcurrentHashBasedTable.this.get(rowKey, key);
+    }
+
+    @Override
+    public V put(C key, V value) {
+      return ConcurrentHashBasedTable.this.put(rowKey, key, value);
+    }
+
+    @Override
+    public V remove(@NullableDecl Object key) {
+      return ConcurrentHashBasedTable.this.remove(rowKey, key);
+    }
+
+    @Override
+    public void clear() {
+      removeRow(rowKey);
+    }
+
+    @Override
+    public int size() {
+      Map<C, V> cells = cells(rowKey);
+      return (cells == null) ? 0 : cells.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return !containsRow(rowKey);
+    }
+
+    @Override
+    Iterator<Entry<C, V>> entryIterator() {
+      Map<C, V> cells = cells(rowKey);
+      if (cells == null) {
+        return Iterators.emptyModifiableIterator();
+      }
+      Iterator<Entry<C, V>> iterator = cells.entrySet().iterator();
+      return new Iterator<Entry<C, V>>() {
+        @NullableDecl C last;
+
+        @Override
+        public boolean hasNext() {
+          return iterator.hasNext();
+        }
+
+        @Override
+        public Entry<C, V> next() {
+          Entry<C, V> entry = iterator.next();
+          last = entry.getKey();
+          return new CellEntry<>(entry.getKey(), rowKey, entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void remove() {
+          checkRemove(last != null);
+          ConcurrentHashBasedTable.this.remove(rowKey, last);
+          last = null;
+        }
+      };
+    }
+
+    @Override
+    Spliterator<Entry<C, V>> entrySpliterator() {
+      Map<C, V> cells = cells(rowKey);
+      if (cells == null) {
+        return Spliterators.emptySpliterator();
+      }
+      return CollectSpliterators.map(
+          cells.entrySet().spliterator(),
+          (Entry<C, V> entry) ->
+              new CellEntry<>(entry.getKey(), rowKey, entry.getKey(), entry.getValue()));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The returned map is a view, whose updates are atomic. Its size is computed by traversing
+   * the rows.
+   */
+  @Override
+  public Map<R, V> column(C columnKey) {
+    return new ColumnView(checkNotNull(columnKey));
+  }
+
+  @WeakOuter
+  private final class ColumnView extends IteratorBasedAbstractMap<R, V> {
+    final C columnKey;
+
+    ColumnView(C columnKey) {
+      this.columnKey = columnKey;
+    }
+
+    @Override
+    public boolean containsKey(@NullableDecl Object key) {
+      return contains(key, columnKey);
+    }
+
+    @Override
+    public V get(@NullableDecl Object key) {
+      return ConcurrentHashBasedTable.this.get(key, columnKey);
+    }
+
+    @Override
+    public V put(R key, V value) {
+      return ConcurrentHashBasedTable.this.put(key, columnKey, value);
+    }
+
+    @Override
+    public V remove(@NullableDecl Object key) {
+      return ConcurrentHashBasedTable.this.remove(key, columnKey);
+    }
+
+    @Override
+    public void clear() {
+      removeColumn(columnKey);
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (RowCells<C, V> row : rows.values()) {
+        if (row.cells.containsKey(columnKey)) {
+          size++;
+        }
+      }
+      return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return !containsColumn(columnKey);
+    }
+
+    @Override
+    Iterator<Entry<R, V>> entryIterator() {
+      Iterator<Entry<R, RowCells<C, V>>> rowIterator = rows.entrySet().iterator();
+      return new Iterator<Entry<R, V>>() {
+        @NullableDecl Entry<R, V> next;
+        @NullableDecl R last;
+
+        @Override
+        public boolean hasNext() {
+          while (next == null && rowIterator.hasNext()) {
+            Entry<R, RowCells<C, V>> rowEntry = rowIterator.next();
+            V value = rowEntry.getValue().cells.get(columnKey);
+            if (value != null) {
+              next = new CellEntry<>(rowEntry.getKey(), rowEntry.getKey(), columnKey, value);
+            }
+          }
+          return next != null;
+        }
+
+        @Override
+        public Entry<R, V> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          Entry<R, V> result = next;
+          next = null;
+          last = result.getKey();
+          return result;
+        }
+
+        @Override
+        public void remove() {
+          checkRemove(last != null);
+          ConcurrentHashBasedTable.this.remove(last, columnKey);
+          last = null;
+        }
+      };
+    }
+  }
+
+  /**
+   * An entry of a row or column view, holding the value of a cell when it was read, and whose
+   * {@code setValue} updates that cell.
+   */
+  private final class CellEntry<K> extends AbstractMapEntry<K, V> {
+    final K key;
+    final R rowKey;
+    final C columnKey;
+    V value;
+
+    CellEntry(K key, R rowKey, C columnKey, V value) {
+      this.key = key;
+      this.rowKey = rowKey;
+      this.columnKey = columnKey;
+      this.value = value;
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      V previous = put(rowKey, columnKey, checkNotNull(value));
+      this.value = value;
+      return previous;
+    }
+  }
+
+  @MonotonicNonNullDecl private transient Map<R, Map<C, V>> rowMap;
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Removing a row through the returned map is atomic, and returns an immutable copy of the
+   * removed row.
+   */
+  @Override
+  public Map<R, Map<C, V>> rowMap() {
+    Map<R, Map<C, V>> result = rowMap;
+    return (result == null) ? rowMap = new RowMap() : result;
+  }
+
+  @WeakOuter
+  private final class RowMap extends IteratorBasedAbstractMap<R, Map<C, V>> {
+    @Override
+    public boolean containsKey(@NullableDecl Object key) {
+      return containsRow(key);
+    }
+
+    @SuppressWarnings("unchecked") // only a present key is an R
+    @Override
+    public Map<C, V> get(@NullableDecl Object key) {
+      return containsRow(key) ? row((R) key) : null;
+    }
+
+    @Override
+    public Map<C, V> remove(@NullableDecl Object key) {
+      RowCells<C, V> removed = removeRow(key);
+      /*
+       * Copy the cells once the row is retired, rather than return the map of a row that updates may
+       * still briefly write to before they notice the removal and store their cells in a new row.
+       */
+      return (removed == null || removed.cells.isEmpty())
+          ? null
+          : ImmutableMap.copyOf(removed.cells);
+    }
+
+    @Override
+    public void clear() {
+      ConcurrentHashBasedTable.this.clear();
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (RowCells<C, V> row : rows.values()) {
+        if (!row.cells.isEmpty()) {
+          size++;
+        }
+      }
+      return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return ConcurrentHashBasedTable.this.isEmpty();
+    }
+
+    @Override
+    Iterator<Entry<R, Map<C, V>>> entryIterator() {
+      Iterator<Entry<R, RowCells<C, V>>> rowIterator = rows.entrySet().iterator();
+      return new Iterator<Entry<R, Map<C, V>>>() {
+        @NullableDecl R next;
+        @NullableDecl R last;
+
+        @Override
+        public boolean hasNext() {
+          while (next == null && rowIterator.hasNext()) {
+            Entry<R, RowCells<C, V>> rowEntry = rowIterator.next();
+            if (!rowEntry.getValue().cells.isEmpty()) {
+              next = rowEntry.getKey();
+            }
+          }
+          return next != null;
+        }
+
+        @Override
+        public Entry<R, Map<C, V>> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          last = next;
+          next = null;
+          return Maps.immutableEntry(last, row(last));
+        }
+
+        @Override
+        public void remove() {
+          checkRemove(last != null);
+          removeRow(last);
+          last = null;
+        }
+      };
+    }
+  }
+
+  @MonotonicNonNullDecl private transient Map<C, Map<R, V>> columnMap;
+
+  @Override
+  public Map<C, Map<R, V>> columnMap() {
+    Map<C, Map<R, V>> result = columnMap;
+    return (result == null) ? columnMap = new ColumnMap() : result;
+  }
+
+  @WeakOuter
+  private final class ColumnMap extends IteratorBasedAbstractMap<C, Map<R, V>> {
+    @Override
+    public boolean containsKey(@NullableDecl Object key) {
+      return containsColumn(key);
+    }
+
+    @SuppressWarnings("unchecked") // only a present key is a C
+    @Override
+    public Map<R, V> get(@NullableDecl Object key) {
+      return containsColumn(key) ? column((C) key) : null;
+    }
+
+    @Override
+    public Map<R, V> remove(@NullableDecl Object key) {
+      return removeColumn(key);
+    }
+
+    @Override
+    public void clear() {
+      ConcurrentHashBasedTable.this.clear();
+    }
+
+    @Override
+    public int size() {
+      return Iterators.size(entryIterator());
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return ConcurrentHashBasedTable.this.isEmpty();
+    }
+
+    @Override
+    Iterator<Entry<C, Map<R, V>>> entryIterator() {
+      Iterator<Cell<R, C, V>> cellIterator = cellIterator();
+      return new Iterator<Entry<C, Map<R, V>>>() {
+        final Set<C> seen = new HashSet<>();
+        @NullableDecl C next;
+        @NullableDecl C last;
+
+        @Override
+        public boolean hasNext() {
+          while (next == null && cellIterator.hasNext()) {
+            C columnKey = cellIterator.next().getColumnKey();
+            if (seen.add(columnKey)) {
+              next = columnKey;
+            }
+          }
+          return next != null;
+        }
+
+        @Override
+        public Entry<C, Map<R, V>> next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          last = next;
+          next = null;
+          return Maps.immutableEntry(last, column(last));
+        }
+
+        @Override
+        public void remove() {
+          checkRemove(last != null);
+          removeColumn(last);
+          last = null;
+        }
+      };
+    }
+  }
+
+  /**
+   * @serialData the row key, column key and value of each cell, followed by a null row key
+   */
+  private void writeObject(ObjectOutputStream stream) throws IOException {
+    stream.defaultWriteObject();
+    for (Cell<R, C, V> cell : cellSet()) {
+      stream.writeObject(cell.getRowKey());
+      stream.writeObject(cell.getColumnKey());
+      stream.writeObject(cell.getValue());
+    }
+    stream.writeObject(null);
+  }
+
+  @SuppressWarnings("unchecked") // reading data stored by writeObject
+  private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    FieldSettersHolder.ROWS_FIELD_SETTER.set(this, new ConcurrentHashMap<R, RowCells<C, V>>());
+    while (true) {
+      R rowKey = (R) stream.readObject();
+      if (rowKey == null) {
+        return;
+      }
+      put(rowKey, (C) stream.readObject(), (V) stream.readObject());
+    }
+  }
+
+  private static final long serialVersionUID = 0;
+}
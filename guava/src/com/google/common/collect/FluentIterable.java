@@ -23,6 +23,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import java.util.Arrays;
 import java.util.Collection;
@@ -343,7 +344,10 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * <p><b>{@code Stream} equivalent:</b> {@link Stream#count}.
    */
   public final int size() {
-    return Iterables.size(getDelegate());
+    Iterable<E> iterable = getDelegate();
+    return (iterable instanceof FusedIterable)
+        ? ((FusedIterable<E>) iterable).count()
+        : Iterables.size(iterable);
   }
 
   /**
@@ -353,7 +357,10 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * <p><b>{@code Stream} equivalent:</b> {@code stream.anyMatch(Predicate.isEqual(target))}.
    */
   public final boolean contains(@NullableDecl Object target) {
-    return Iterables.contains(getDelegate(), target);
+    Iterable<E> iterable = getDelegate();
+    return (iterable instanceof FusedIterable)
+        ? !((FusedIterable<E>) iterable).forEachWhile(Predicates.not(Predicates.equalTo(target)))
+        : Iterables.contains(iterable, target);
   }
 
   /**
@@ -413,7 +420,7 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * <p><b>{@code Stream} equivalent:</b> {@link Stream#filter} (same).
    */
   public final FluentIterable<E> filter(Predicate<? super E> predicate) {
-    return from(Iterables.filter(getDelegate(), predicate));
+    return FusedIterable.filter(getDelegate(), predicate);
   }
 
   /**
@@ -440,7 +447,10 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * <p><b>{@code Stream} equivalent:</b> {@link Stream#anyMatch} (same).
    */
   public final boolean anyMatch(Predicate<? super E> predicate) {
-    return Iterables.any(getDelegate(), predicate);
+    Iterable<E> iterable = getDelegate();
+    return (iterable instanceof FusedIterable)
+        ? !((FusedIterable<E>) iterable).forEachWhile(Predicates.not(predicate))
+        : Iterables.any(iterable, predicate);
   }
 
   /**
@@ -450,7 +460,10 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * <p><b>{@code Stream} equivalent:</b> {@link Stream#allMatch} (same).
    */
   public final boolean allMatch(Predicate<? super E> predicate) {
-    return Iterables.all(getDelegate(), predicate);
+    Iterable<E> iterable = getDelegate();
+    return (iterable instanceof FusedIterable)
+        ? ((FusedIterable<E>) iterable).forEachWhile(checkNotNull(predicate))
+        : Iterables.all(iterable, predicate);
   }
 
   /**
@@ -463,7 +476,10 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * <p><b>{@code Stream} equivalent:</b> {@code stream.filter(predicate).findFirst()}.
    */
   public final Optional<E> firstMatch(Predicate<? super E> predicate) {
-    return Iterables.tryFind(getDelegate(), predicate);
+    Iterable<E> iterable = getDelegate();
+    return (iterable instanceof FusedIterable)
+        ? ((FusedIterable<E>) iterable).find(predicate)
+        : Iterables.tryFind(iterable, predicate);
   }
 
   /**
@@ -477,7 +493,7 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * <p><b>{@code Stream} equivalent:</b> {@link Stream#map}.
    */
   public final <T> FluentIterable<T> transform(Function<? super E, T> function) {
-    return from(Iterables.transform(getDelegate(), function));
+    return FusedIterable.transform(getDelegate(), function);
   }
 
   /**
@@ -614,7 +630,13 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * @since 14.0 (since 12.0 as {@code toImmutableList()}).
    */
   public final ImmutableList<E> toList() {
-    return ImmutableList.copyOf(getDelegate());
+    Iterable<E> iterable = getDelegate();
+    if (iterable instanceof FusedIterable) {
+      ImmutableList.Builder<E> builder = ImmutableList.builder();
+      ((FusedIterable<E>) iterable).addTo(builder);
+      return builder.build();
+    }
+    return ImmutableList.copyOf(iterable);
   }
 
   /**
@@ -644,7 +666,13 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * @since 14.0 (since 12.0 as {@code toImmutableSet()}).
    */
   public final ImmutableSet<E> toSet() {
-    return ImmutableSet.copyOf(getDelegate());
+    Iterable<E> iterable = getDelegate();
+    if (iterable instanceof FusedIterable) {
+      ImmutableSet.Builder<E> builder = ImmutableSet.builder();
+      ((FusedIterable<E>) iterable).addTo(builder);
+      return builder.build();
+    }
+    return ImmutableSet.copyOf(iterable);
   }
 
   /**
@@ -787,6 +815,8 @@ public abstract class FluentIterable<E> implements Iterable<E> {
     Iterable<E> iterable = getDelegate();
     if (iterable instanceof Collection) {
       collection.addAll(Collections2.cast(iterable));
+    } else if (iterable instanceof FusedIterable) {
+      ((FusedIterable<E>) iterable).addTo(collection);
     } else {
       for (E item : iterable) {
         collection.add(item);
@@ -21,10 +21,9 @@ import com.google.common.annotations.GwtIncompatible;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.HashMap;
 
 /**
- * Multiset implementation backed by a {@link HashMap}.
+ * Multiset implementation that uses hashing for key and entry access.
  *
  * @author Kevin Bourrillion
  * @author Jared Levy
@@ -63,11 +62,11 @@ public final class HashMultiset<E> extends AbstractMapBasedMultiset<E> {
   }
 
   private HashMultiset() {
-    super(new HashMap<E, Count>());
+    super(new ObjectCountHashMap<E>());
   }
 
   private HashMultiset(int distinctElements) {
-    super(Maps.<E, Count>newHashMapWithExpectedSize(distinctElements));
+    super(new ObjectCountHashMap<E>(distinctElements));
   }
 
   /**
@@ -84,7 +83,7 @@ public final class HashMultiset<E> extends AbstractMapBasedMultiset<E> {
   private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
     stream.defaultReadObject();
     int distinctElements = Serialization.readCount(stream);
-    setBackingMap(Maps.<E, Count>newHashMap());
+    setBackingMap(new ObjectCountHashMap<E>());
     Serialization.populateMultiset(this, stream, distinctElements);
   }
 
@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Spliterator;
 import java.util.function.Function;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collector;
@@ -256,6 +257,15 @@ public abstract class ImmutableMultiset<E> extends ImmutableMultisetGwtSerializa
     };
   }
 
+  /**
+   * Returns a spliterator that splits along the distinct elements, and that knows its exact size
+   * before any split.
+   */
+  @Override
+  public Spliterator<E> spliterator() {
+    return Multisets.spliteratorImpl(this);
+  }
+
   @LazyInit private transient ImmutableList<E> asList;
 
   @Override
@@ -23,6 +23,7 @@ import com.google.common.annotations.GwtIncompatible;
 import com.google.common.collect.SortedLists.KeyAbsentBehavior;
 import com.google.common.collect.SortedLists.KeyPresentBehavior;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import com.google.errorprone.annotations.concurrent.LazyInit;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
@@ -163,6 +164,9 @@ public class ImmutableRangeMap<K extends Comparable<?>, V> implements RangeMap<K
   private final transient ImmutableList<Range<K>> ranges;
   private final transient ImmutableList<V> values;
 
+  /** The bounds of {@link #ranges} as primitives, if they have integral endpoints; lazily built. */
+  @LazyInit @NullableDecl private transient PrimitiveBounds primitiveBounds;
+
   ImmutableRangeMap(ImmutableList<Range<K>> ranges, ImmutableList<V> values) {
     this.ranges = ranges;
     this.values = values;
@@ -171,24 +175,26 @@ public class ImmutableRangeMap<K extends Comparable<?>, V> implements RangeMap<K
   @Override
   @NullableDecl
   public V get(K key) {
-    int index =
-        SortedLists.binarySearch(
-            ranges,
-            Range.<K>lowerBoundFn(),
-            Cut.belowValue(key),
-            KeyPresentBehavior.ANY_PRESENT,
-            KeyAbsentBehavior.NEXT_LOWER);
-    if (index == -1) {
-      return null;
-    } else {
-      Range<K> range = ranges.get(index);
-      return range.contains(key) ? values.get(index) : null;
-    }
+    int index = indexOf(key);
+    return (index == -1) ? null : values.get(index);
   }
 
   @Override
   @NullableDecl
   public Entry<Range<K>, V> getEntry(K key) {
+    int index = indexOf(key);
+    return (index == -1) ? null : Maps.immutableEntry(ranges.get(index), values.get(index));
+  }
+
+  /** Returns the index of the range containing {@code key}, or -1 if there is none. */
+  private int indexOf(K key) {
+    PrimitiveBounds bounds = primitiveBounds;
+    if (bounds == null) {
+      primitiveBounds = bounds = PrimitiveBounds.create(ranges);
+    }
+    if (key.getClass() == bounds.type) {
+      return bounds.indexOf(((Number) key).longValue());
+    }
     int index =
         SortedLists.binarySearch(
             ranges,
@@ -196,11 +202,105 @@ public class ImmutableRangeMap<K extends Comparable<?>, V> implements RangeMap<K
             Cut.belowValue(key),
             KeyPresentBehavior.ANY_PRESENT,
             KeyAbsentBehavior.NEXT_LOWER);
-    if (index == -1) {
-      return null;
-    } else {
-      Range<K> range = ranges.get(index);
-      return range.contains(key) ? Maps.immutableEntry(range, values.get(index)) : null;
+    return (index != -1 && ranges.get(index).contains(key)) ? index : -1;
+  }
+
+  /**
+   * The bounds of the ranges of a map, flattened into arrays of primitive longs when their
+   * endpoints are all {@code Long}, {@code Integer}, {@code Short} or {@code Byte} values, so that
+   * a key of the same type is looked up by a binary search over a {@code long[]}, without comparing
+   * {@link Cut} objects or unboxing the endpoints. A missing bound is stored as {@code
+   * Long.MIN_VALUE} or {@code Long.MAX_VALUE}, inclusive, which admits the same keys.
+   */
+  private static final class PrimitiveBounds {
+    /** The bounds of a map whose keys are of another type, which are not flattened. */
+    static final PrimitiveBounds NONE = new PrimitiveBounds(null, ImmutableList.<Range<?>>of());
+
+    private static final ImmutableSet<Class<?>> INTEGRAL_TYPES =
+        ImmutableSet.<Class<?>>of(Long.class, Integer.class, Short.class, Byte.class);
+
+    static PrimitiveBounds create(List<? extends Range<?>> ranges) {
+      Class<?> type = null;
+      for (Range<?> range : ranges) {
+        if (type == null) {
+          if (range.hasLowerBound()) {
+            type = range.lowerEndpoint().getClass();
+          } else if (range.hasUpperBound()) {
+            type = range.upperEndpoint().getClass();
+          } else {
+            continue;
+          }
+          if (!INTEGRAL_TYPES.contains(type)) {
+            return NONE;
+          }
+        }
+        if ((range.hasLowerBound() && range.lowerEndpoint().getClass() != type)
+            || (range.hasUpperBound() && range.upperEndpoint().getClass() != type)) {
+          return NONE;
+        }
+      }
+      if (type == null) {
+        return NONE;
+      }
+      return new PrimitiveBounds(type, ranges);
+    }
+
+    @NullableDecl final Class<?> type;
+    final long[] lowerEndpoints;
+    final boolean[] lowerOpen;
+    final long[] upperEndpoints;
+    final boolean[] upperOpen;
+
+    /**
+     * Flattens {@code ranges}, whose endpoints are of {@code type}. The arrays are filled here, so
+     * that the final field semantics publish their contents along with the instance.
+     */
+    private PrimitiveBounds(@NullableDecl Class<?> type, List<? extends Range<?>> ranges) {
+      int size = ranges.size();
+      this.type = type;
+      this.lowerEndpoints = new long[size];
+      this.lowerOpen = new boolean[size];
+      this.upperEndpoints = new long[size];
+      this.upperOpen = new boolean[size];
+      for (int i = 0; i < size; i++) {
+        Range<?> range = ranges.get(i);
+        if (range.hasLowerBound()) {
+          lowerEndpoints[i] = ((Number) range.lowerEndpoint()).longValue();
+          lowerOpen[i] = range.lowerBoundType() == BoundType.OPEN;
+        } else {
+          lowerEndpoints[i] = Long.MIN_VALUE;
+        }
+        if (range.hasUpperBound()) {
+          upperEndpoints[i] = ((Number) range.upperEndpoint()).longValue();
+          upperOpen[i] = range.upperBoundType() == BoundType.OPEN;
+        } else {
+          upperEndpoints[i] = Long.MAX_VALUE;
+        }
+      }
+    }
+
+    int indexOf(long key) {
+      // Find the last range whose lower endpoint is at most key. The ranges don't overlap, so only
+      // the range before it may have the same lower endpoint, and include key where it doesn't.
+      int low = 0;
+      int high = lowerEndpoints.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (lowerEndpoints[mid] <= key) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      int index = high;
+      if (index >= 0 && lowerOpen[index] && lowerEndpoints[index] == key) {
+        index--;
+      }
+      if (index >= 0
+          && (key < upperEndpoints[index] || (key == upperEndpoints[index] && !upperOpen[index]))) {
+        return index;
+      }
+      return -1;
     }
   }
 
@@ -0,0 +1,344 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.ImmutableIntArray;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * An immutable mapping from ranges, which may overlap, to values, answering which ranges contain a
+ * given point or overlap a given range. A {@link RangeMap} associates each point with at most one
+ * value, and so coalesces or splits overlapping ranges as they are put; this instead keeps every
+ * range as it was added, like a {@link ListMultimap} whose keys are ranges.
+ *
+ * <p>The ranges are held in an interval tree, laid out implicitly in an array of the entries sorted
+ * by range: the middle entry of each slice of that array is the root of the slice's subtree, and
+ * records the greatest upper bound of the ranges in the slice. A lookup descends only into the
+ * subtrees that may hold matching ranges, so that {@link #get(Comparable)} takes O(log n + m) time
+ * in the usual case, where m is the number of matching ranges, and never more than O((m + 1) log
+ * n), instead of the O(n) of testing every range.
+ *
+ * <p>Entries are returned in the order of their ranges, by lower bound and then upper bound, and
+ * entries for the same range in the order in which they were added.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible // RangeMap
+public final class ImmutableRangeMultimap<K extends Comparable<?>, V> implements Serializable {
+
+  private static final ImmutableRangeMultimap<Comparable<?>, Object> EMPTY =
+      new ImmutableRangeMultimap<>(ImmutableList.<Range<Comparable<?>>>of(), ImmutableList.of());
+
+  /** Returns an empty immutable range multimap. */
+  @SuppressWarnings("unchecked")
+  public static <K extends Comparable<?>, V> ImmutableRangeMultimap<K, V> of() {
+    return (ImmutableRangeMultimap<K, V>) EMPTY;
+  }
+
+  /** Returns an immutable range multimap mapping a single range to a single value. */
+  public static <K extends Comparable<?>, V> ImmutableRangeMultimap<K, V> of(
+      Range<K> range, V value) {
+    return ImmutableRangeMultimap.<K, V>builder().put(range, value).build();
+  }
+
+  /** Returns a new builder for an immutable range multimap. */
+  public static <K extends Comparable<?>, V> Builder<K, V> builder() {
+    return new Builder<>();
+  }
+
+  /**
+   * A builder for immutable range multimaps. Unlike in {@link ImmutableRangeMap.Builder}, ranges
+   * may overlap, and a range may be associated with several values.
+   *
+   * @since NEXT
+   */
+  public static final class Builder<K extends Comparable<?>, V> {
+    private final List<Entry<Range<K>, V>> entries = Lists.newArrayList();
+
+    public Builder() {}
+
+    /**
+     * Associates the specified range with the specified value, in addition to any values it is
+     * already associated with.
+     *
+     * @throws IllegalArgumentException if {@code range} is empty
+     */
+    @CanIgnoreReturnValue
+    public Builder<K, V> put(Range<K> range, V value) {
+      checkNotNull(range);
+      checkNotNull(value);
+      checkArgument(!range.isEmpty(), "Range must not be empty, but was %s", range);
+      entries.add(Maps.immutableEntry(range, value));
+      return this;
+    }
+
+    /** Copies all associations from the specified range map into this builder. */
+    @CanIgnoreReturnValue
+    public Builder<K, V> putAll(RangeMap<K, ? extends V> rangeMap) {
+      for (Entry<Range<K>, ? extends V> entry : rangeMap.asMapOfRanges().entrySet()) {
+        put(entry.getKey(), entry.getValue());
+      }
+      return this;
+    }
+
+    /** Copies all associations from the specified range multimap into this builder. */
+    @CanIgnoreReturnValue
+    public Builder<K, V> putAll(ImmutableRangeMultimap<K, ? extends V> rangeMultimap) {
+      for (int i = 0; i < rangeMultimap.size(); i++) {
+        put(rangeMultimap.ranges.get(i), rangeMultimap.values.get(i));
+      }
+      return this;
+    }
+
+    /**
+     * Returns an {@code ImmutableRangeMultimap} containing the associations previously added to
+     * this builder.
+     */
+    public ImmutableRangeMultimap<K, V> build() {
+      if (entries.isEmpty()) {
+        return of();
+      }
+      List<Entry<Range<K>, V>> sorted = Lists.newArrayList(entries);
+      Collections.sort(sorted, Range.<K>rangeLexOrdering().onKeys());
+      ImmutableList.Builder<Range<K>> rangesBuilder = new ImmutableList.Builder<>(sorted.size());
+      ImmutableList.Builder<V> valuesBuilder = new ImmutableList.Builder<>(sorted.size());
+      for (Entry<Range<K>, V> entry : sorted) {
+        rangesBuilder.add(entry.getKey());
+        valuesBuilder.add(entry.getValue());
+      }
+      return new ImmutableRangeMultimap<>(rangesBuilder.build(), valuesBuilder.build());
+    }
+  }
+
+  /** The ranges of the entries, sorted by {@link Range#rangeLexOrdering}. */
+  private final transient ImmutableList<Range<K>> ranges;
+
+  private final transient ImmutableList<V> values;
+
+  /**
+   * For the middle index {@code (from + to) >>> 1} of each slice {@code [from, to)} visited by a
+   * binary search, starting with {@code [0, size)}, the greatest upper bound of the ranges in that
+   * slice.
+   */
+  private final transient Cut<K>[] maxUpperBounds;
+
+  @SuppressWarnings("unchecked") // maxUpperBounds only holds the Cut<K> bounds of ranges
+  private ImmutableRangeMultimap(ImmutableList<Range<K>> ranges, ImmutableList<V> values) {
+    this.ranges = ranges;
+    this.values = values;
+    this.maxUpperBounds = (Cut<K>[]) new Cut<?>[ranges.size()];
+    computeMaxUpperBounds(0, ranges.size());
+  }
+
+  @NullableDecl
+  private Cut<K> computeMaxUpperBounds(int from, int to) {
+    if (from >= to) {
+      return null;
+    }
+    int mid = (from + to) >>> 1;
+    Cut<K> max = ranges.get(mid).upperBound;
+    Cut<K> left = computeMaxUpperBounds(from, mid);
+    if (left != null && left.compareTo(max) > 0) {
+      max = left;
+    }
+    Cut<K> right = computeMaxUpperBounds(mid + 1, to);
+    if (right != null && right.compareTo(max) > 0) {
+      max = right;
+    }
+    maxUpperBounds[mid] = max;
+    return max;
+  }
+
+  /** Returns the number of range-value pairs in this multimap. */
+  public int size() {
+    return ranges.size();
+  }
+
+  /** Returns {@code true} if this multimap contains no range-value pairs. */
+  public boolean isEmpty() {
+    return ranges.isEmpty();
+  }
+
+  /**
+   * Returns the minimal range enclosing the ranges in this multimap.
+   *
+   * @throws NoSuchElementException if this multimap is empty
+   */
+  public Range<K> span() {
+    if (ranges.isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return Range.create(ranges.get(0).lowerBound, maxUpperBounds[ranges.size() >>> 1]);
+  }
+
+  /** Returns the values associated with the ranges containing {@code key}. */
+  public ImmutableList<V> get(K key) {
+    ImmutableIntArray indexes = indexesContaining(key);
+    ImmutableList.Builder<V> result = new ImmutableList.Builder<>(indexes.length());
+    for (int i = 0; i < indexes.length(); i++) {
+      result.add(values.get(indexes.get(i)));
+    }
+    return result.build();
+  }
+
+  /** Returns the entries whose ranges contain {@code key}. */
+  public ImmutableList<Entry<Range<K>, V>> getEntries(K key) {
+    return entries(indexesContaining(key));
+  }
+
+  /**
+   * Returns the entries whose ranges overlap {@code range}, that is, whose intersection with
+   * {@code range} is not empty.
+   */
+  public ImmutableList<Entry<Range<K>, V>> getOverlappingEntries(Range<K> range) {
+    checkNotNull(range);
+    if (range.isEmpty()) {
+      return ImmutableList.of();
+    }
+    ImmutableIntArray.Builder indexes = ImmutableIntArray.builder();
+    collectOverlapping(range, 0, ranges.size(), indexes);
+    return entries(indexes.build());
+  }
+
+  private ImmutableIntArray indexesContaining(K key) {
+    checkNotNull(key);
+    ImmutableIntArray.Builder indexes = ImmutableIntArray.builder();
+    collectContaining(key, 0, ranges.size(), indexes);
+    return indexes.build();
+  }
+
+  /** Adds, in order, the indexes in [from, to) of the ranges containing key. */
+  private void collectContaining(K key, int from, int to, ImmutableIntArray.Builder indexes) {
+    while (from < to) {
+      int mid = (from + to) >>> 1;
+      if (maxUpperBounds[mid].isLessThan(key)) {
+        return; // every range in the slice ends below key
+      }
+      collectContaining(key, from, mid, indexes);
+      Range<K> range = ranges.get(mid);
+      if (!range.lowerBound.isLessThan(key)) {
+        return; // this range, and every later one, starts above key
+      }
+      if (!range.upperBound.isLessThan(key)) {
+        indexes.add(mid);
+      }
+      from = mid + 1;
+    }
+  }
+
+  /** Adds, in order, the indexes in [from, to) of the ranges overlapping the nonempty query. */
+  private void collectOverlapping(
+      Range<K> query, int from, int to, ImmutableIntArray.Builder indexes) {
+    while (from < to) {
+      int mid = (from + to) >>> 1;
+      if (maxUpperBounds[mid].compareTo(query.lowerBound) <= 0) {
+        return;
+      }
+      collectOverlapping(query, from, mid, indexes);
+      Range<K> range = ranges.get(mid);
+      if (range.lowerBound.compareTo(query.upperBound) >= 0) {
+        return;
+      }
+      if (range.upperBound.compareTo(query.lowerBound) > 0) {
+        indexes.add(mid);
+      }
+      from = mid + 1;
+    }
+  }
+
+  private ImmutableList<Entry<Range<K>, V>> entries(ImmutableIntArray indexes) {
+    ImmutableList.Builder<Entry<Range<K>, V>> result =
+        new ImmutableList.Builder<>(indexes.length());
+    for (int i = 0; i < indexes.length(); i++) {
+      int index = indexes.get(i);
+      result.add(Maps.immutableEntry(ranges.get(index), values.get(index)));
+    }
+    return result.build();
+  }
+
+  /**
+   * Returns a view of this range multimap as an immutable list multimap, whose keys are the ranges
+   * in order.
+   */
+  public ImmutableListMultimap<Range<K>, V> asMultimapOfRanges() {
+    ImmutableListMultimap.Builder<Range<K>, V> builder = ImmutableListMultimap.builder();
+    for (int i = 0; i < ranges.size(); i++) {
+      builder.put(ranges.get(i), values.get(i));
+    }
+    return builder.build();
+  }
+
+  @Override
+  public int hashCode() {
+    return asMultimapOfRanges().hashCode();
+  }
+
+  @Override
+  public boolean equals(@NullableDecl Object o) {
+    if (o instanceof ImmutableRangeMultimap) {
+      ImmutableRangeMultimap<?, ?> other = (ImmutableRangeMultimap<?, ?>) o;
+      return asMultimapOfRanges().equals(other.asMultimapOfRanges());
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return asMultimapOfRanges().toString();
+  }
+
+  /**
+   * This class is used to serialize ImmutableRangeMultimap instances. Serializes the {@link
+   * #asMultimapOfRanges()} form.
+   */
+  private static class SerializedForm<K extends Comparable<?>, V> implements Serializable {
+
+    private final ImmutableListMultimap<Range<K>, V> multimapOfRanges;
+
+    SerializedForm(ImmutableListMultimap<Range<K>, V> multimapOfRanges) {
+      this.multimapOfRanges = multimapOfRanges;
+    }
+
+    Object readResolve() {
+      Builder<K, V> builder = new Builder<>();
+      for (Entry<Range<K>, V> entry : multimapOfRanges.entries()) {
+        builder.put(entry.getKey(), entry.getValue());
+      }
+      return builder.build();
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
+  Object writeReplace() {
+    return new SerializedForm<>(asMultimapOfRanges());
+  }
+
+  private static final long serialVersionUID = 0;
+}
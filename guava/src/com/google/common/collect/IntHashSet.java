@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A hash set of {@code int} values, which stores its elements unboxed. Compared to a {@code
+ * HashSet<Integer>}, it allocates no {@code Integer} and no entry object per element: the elements
+ * live in one array, indexed by a compact hash table, which makes each element cost roughly 12
+ * bytes.
+ *
+ * <p>{@code contains}, {@code add} and {@code remove} are all (expected and amortized) constant
+ * time operations. The elements occupy the indices {@code [0, size())}, which {@link #elementAt}
+ * gives access to, so the set can be iterated without allocation. If there are no removals, that
+ * order is insertion order; {@link #remove} moves the last element into the removed element's
+ * index.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class IntHashSet extends CompactPrimitiveTable {
+  /** Creates an empty {@code IntHashSet}. */
+  public static IntHashSet create() {
+    return new IntHashSet(DEFAULT_SIZE);
+  }
+
+  /**
+   * Creates an empty {@code IntHashSet} that can hold {@code expectedSize} elements without
+   * growth.
+   *
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static IntHashSet createWithExpectedSize(int expectedSize) {
+    return new IntHashSet(expectedSize);
+  }
+
+  /** Creates an {@code IntHashSet} containing the given elements. */
+  public static IntHashSet of(int... elements) {
+    IntHashSet set = new IntHashSet(elements.length);
+    for (int element : elements) {
+      set.add(element);
+    }
+    return set;
+  }
+
+  private transient int[] elements;
+
+  private IntHashSet(int expectedSize) {
+    super(expectedSize);
+    this.elements = new int[expectedSize];
+  }
+
+  @Override
+  int hashOf(int index) {
+    return hash(elements[index]);
+  }
+
+  @Override
+  void resizeEntries(int newCapacity) {
+    elements = Arrays.copyOf(elements, newCapacity);
+  }
+
+  @Override
+  void moveEntry(int srcIndex, int dstIndex) {
+    elements[dstIndex] = elements[srcIndex];
+  }
+
+  private int indexOf(int element, int hash) {
+    int index = firstInBucket(hash);
+    while (index != UNSET && elements[index] != element) {
+      index = next[index];
+    }
+    return index;
+  }
+
+  /** Returns {@code true} if this set contains {@code element}. */
+  public boolean contains(int element) {
+    return indexOf(element, hash(element)) != UNSET;
+  }
+
+  /** Adds {@code element} to this set, and returns {@code true} if it was not already present. */
+  @CanIgnoreReturnValue
+  public boolean add(int element) {
+    int hash = hash(element);
+    if (indexOf(element, hash) != UNSET) {
+      return false;
+    }
+    int index = appendEntry(hash);
+    elements[index] = element;
+    return true;
+  }
+
+  /**
+   * Removes {@code element} from this set, and returns {@code true} if it was present. The last
+   * element is moved into the removed element's index, which changes the iteration order.
+   */
+  @CanIgnoreReturnValue
+  public boolean remove(int element) {
+    int hash = hash(element);
+    int index = indexOf(element, hash);
+    if (index == UNSET) {
+      return false;
+    }
+    removeEntry(index, hash);
+    return true;
+  }
+
+  /**
+   * Returns the element at {@code index}.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@link #size}
+   */
+  public int elementAt(int index) {
+    checkElementIndex(index, size);
+    return elements[index];
+  }
+
+  /** Returns the number of elements in this set. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns {@code true} if this set contains no elements. */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes all elements from this set. Its capacity is retained; see {@link #trimToSize}. */
+  public void clear() {
+    clearTable();
+  }
+
+  /**
+   * Shrinks the capacity of this set to the minimum that holds its current elements,
+   * minimizing the memory footprint of a set that is done growing.
+   */
+  public void trimToSize() {
+    trimTable();
+  }
+
+  /** Returns a new array containing the elements of this set, in index order. */
+  public int[] toArray() {
+    return Arrays.copyOf(elements, size);
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is an {@code IntHashSet} with the same elements as this
+   * set.
+   */
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (!(object instanceof IntHashSet)) {
+      return false;
+    }
+    IntHashSet that = (IntHashSet) object;
+    if (this.size != that.size) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      if (!that.contains(elements[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the same hash code as a {@code Set<Integer>} with the same elements. */
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int i = 0; i < size; i++) {
+      hashCode += elements[i];
+    }
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(size * 5).append('[');
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(elements[i]);
+    }
+    return builder.append(']').toString();
+  }
+}
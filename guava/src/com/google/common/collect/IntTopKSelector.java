@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.ImmutableIntArray;
+import com.google.common.primitives.ImmutableLongArray;
+
+/**
+ * An accumulator that selects the {@code k} lowest or greatest {@code int} values offered to it,
+ * without boxing them. See {@link LongTopKSelector}, which this class wraps, for a description of
+ * the implementation, and of how to use it with a parallel stream.
+ *
+ * <p>Instances of this class are not thread-safe.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class IntTopKSelector {
+  /**
+   * Returns a selector that collects the lowest {@code k} values offered to it, and returns them
+   * via {@link #topK} in ascending order.
+   *
+   * @throws IllegalArgumentException if {@code k < 0}
+   */
+  public static IntTopKSelector least(int k) {
+    return new IntTopKSelector(LongTopKSelector.least(k));
+  }
+
+  /**
+   * Returns a selector that collects the greatest {@code k} values offered to it, and returns them
+   * via {@link #topK} in descending order.
+   *
+   * @throws IllegalArgumentException if {@code k < 0}
+   */
+  public static IntTopKSelector greatest(int k) {
+    return new IntTopKSelector(LongTopKSelector.greatest(k));
+  }
+
+  private final LongTopKSelector selector;
+
+  private IntTopKSelector(LongTopKSelector selector) {
+    this.selector = selector;
+  }
+
+  /** Adds {@code value} as a candidate for the top {@code k} values, in amortized O(1) time. */
+  public void offer(int value) {
+    selector.offer(value);
+  }
+
+  /** Adds each of {@code values} as a candidate for the top {@code k} values. */
+  public void offerAll(int... values) {
+    for (int value : values) {
+      selector.offer(value);
+    }
+  }
+
+  /**
+   * Adds the candidates of {@code other}, which must have been created by the same factory method
+   * with the same {@code k}, to this selector, and returns this selector. This takes O(k) time,
+   * whatever the number of values offered to either selector, and leaves {@code other} unchanged.
+   *
+   * @throws IllegalArgumentException if {@code other} selects a different number of values, or
+   *     selects the lowest values when this one selects the greatest, or vice versa
+   */
+  public IntTopKSelector combine(IntTopKSelector other) {
+    selector.combine(other.selector);
+    return this;
+  }
+
+  /**
+   * Returns the top {@code k} values offered to this selector, or all of them if fewer than {@code
+   * k} were offered, in ascending order for a selector created by {@link #least}, and descending
+   * order for one created by {@link #greatest}. This takes O(k log k) time.
+   */
+  public ImmutableIntArray topK() {
+    ImmutableLongArray longs = selector.topK();
+    ImmutableIntArray.Builder result = ImmutableIntArray.builder(longs.length());
+    for (int i = 0; i < longs.length(); i++) {
+      result.add((int) longs.get(i));
+    }
+    return result.build();
+  }
+}
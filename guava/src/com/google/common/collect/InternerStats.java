@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.math.LongMath;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * Statistics about the performance of an {@link Interner}, as returned by {@link Interners#stats}
+ * for an interner built with {@link Interners.InternerBuilder#recordStats}. Instances of this
+ * class are immutable.
+ *
+ * <p>Each call to {@link Interner#intern} increments either {@code hitCount}, if it returned an
+ * instance that the interner already held, or {@code missCount}, if it returned the sample itself.
+ * Each time a {@linkplain Interners.InternerBuilder#maximumSize bounded} interner discards an
+ * instance to make room for another, {@code evictionCount} is incremented.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class InternerStats {
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+
+  /**
+   * Constructs a new {@code InternerStats} instance.
+   *
+   * @throws IllegalArgumentException if any count is negative
+   */
+  public InternerStats(long hitCount, long missCount, long evictionCount) {
+    checkArgument(hitCount >= 0);
+    checkArgument(missCount >= 0);
+    checkArgument(evictionCount >= 0);
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+  }
+
+  /**
+   * Returns the number of times {@link Interner#intern} was called. This is defined as {@code
+   * hitCount + missCount}.
+   */
+  public long requestCount() {
+    return LongMath.saturatedAdd(hitCount, missCount);
+  }
+
+  /** Returns the number of times {@link Interner#intern} returned an instance already held. */
+  public long hitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the ratio of requests which were hits. This is defined as {@code hitCount /
+   * requestCount}, or {@code 1.0} when {@code requestCount == 0}.
+   */
+  public double hitRate() {
+    long requestCount = requestCount();
+    return (requestCount == 0) ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  /** Returns the number of times {@link Interner#intern} returned its sample. */
+  public long missCount() {
+    return missCount;
+  }
+
+  /**
+   * Returns the ratio of requests which were misses. This is defined as {@code missCount /
+   * requestCount}, or {@code 0.0} when {@code requestCount == 0}.
+   */
+  public double missRate() {
+    long requestCount = requestCount();
+    return (requestCount == 0) ? 0.0 : (double) missCount / requestCount;
+  }
+
+  /** Returns the number of instances that a bounded interner discarded to make room for others. */
+  public long evictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns a new {@code InternerStats} representing the difference between this {@code
+   * InternerStats} and {@code other}. Negative values, which aren't supported by {@code
+   * InternerStats} will be rounded up to zero.
+   */
+  public InternerStats minus(InternerStats other) {
+    return new InternerStats(
+        Math.max(0, LongMath.saturatedSubtract(hitCount, other.hitCount)),
+        Math.max(0, LongMath.saturatedSubtract(missCount, other.missCount)),
+        Math.max(0, LongMath.saturatedSubtract(evictionCount, other.evictionCount)));
+  }
+
+  /**
+   * Returns a new {@code InternerStats} representing the sum of this {@code InternerStats} and
+   * {@code other}.
+   */
+  public InternerStats plus(InternerStats other) {
+    return new InternerStats(
+        LongMath.saturatedAdd(hitCount, other.hitCount),
+        LongMath.saturatedAdd(missCount, other.missCount),
+        LongMath.saturatedAdd(evictionCount, other.evictionCount));
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(hitCount, missCount, evictionCount);
+  }
+
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object instanceof InternerStats) {
+      InternerStats other = (InternerStats) object;
+      return hitCount == other.hitCount
+          && missCount == other.missCount
+          && evictionCount == other.evictionCount;
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("hitCount", hitCount)
+        .add("missCount", missCount)
+        .add("evictionCount", evictionCount)
+        .toString();
+  }
+}
@@ -43,8 +43,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
-import java.util.PriorityQueue;
-import java.util.Queue;
 import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 
 /**
@@ -1225,8 +1223,12 @@ public final class Iterators {
    * <p>Callers must ensure that the source {@code iterators} are in non-descending order as this
    * method does not sort its input.
    *
-   * <p>For any equivalent elements across all {@code iterators}, it is undefined which element is
-   * returned first.
+   * <p>Equivalent elements are returned in the order of the iterators that supplied them, and, for
+   * a single iterator, in the order in which it returned them; merging consecutive runs of a
+   * sequence that was stably sorted run by run thus yields a stable sort of the whole sequence.
+   *
+   * <p>The merge compares the current elements of the iterators in a tournament tree, taking at
+   * most ceil(log2(M)) comparisons for each element it returns, where M is the number of iterators.
    *
    * @since 11.0
    */
@@ -1244,47 +1246,117 @@ public final class Iterators {
    * is polled. This amortizes the sorting cost over the iteration and requires less memory than
    * sorting all elements at once.
    *
-   * <p>Retrieving a single element takes approximately O(log(M)) time, where M is the number of
-   * iterators. (Retrieving all elements takes approximately O(N*log(M)) time, where N is the total
-   * number of elements.)
+   * <p>The merge is a tournament of the current elements of the M iterators, kept in a "loser
+   * tree": each internal node records the iterator that lost the match played there, and the
+   * overall winner is kept apart. Retrieving an element replaces the winner with the next element
+   * of its iterator, which then replays only the matches on the path from its leaf to the root
+   * against the recorded losers. That is at most ceil(log2(M)) comparisons per element, fewer on
+   * the shallower leaves when M is not a power of two, where a binary heap needs up to twice as
+   * many to sift an element down. (Retrieving all elements takes
+   * approximately O(N*log(M)) time, where N is the total number of elements.)
+   *
+   * <p>Ties are won by the earlier iterator, so equivalent elements are returned in the order of
+   * the iterators that supplied them.
    */
   private static class MergingIterator<T> extends UnmodifiableIterator<T> {
-    final Queue<PeekingIterator<T>> queue;
+    final Comparator<? super T> comparator;
+    final List<Iterator<? extends T>> iterators;
+
+    /** The current element of each iterator, or null once it is exhausted (see {@link #done}). */
+    final Object[] heads;
+
+    final boolean[] done;
+
+    /**
+     * tree[0] is the index of the iterator with the least current element, and tree[1 .. M) are
+     * the losers of the matches played at the internal nodes, where node n is the parent of nodes
+     * 2n and 2n + 1, and the leaf of iterator i is node M + i. Null until the first element is
+     * requested, so that no iterator is consulted at construction time.
+     */
+    int[] tree;
 
     public MergingIterator(
-        Iterable<? extends Iterator<? extends T>> iterators,
-        final Comparator<? super T> itemComparator) {
-      // A comparator that's used by the heap, allowing the heap
-      // to be sorted based on the top of each iterator.
-      Comparator<PeekingIterator<T>> heapComparator =
-          new Comparator<PeekingIterator<T>>() {
-            @Override
-            public int compare(PeekingIterator<T> o1, PeekingIterator<T> o2) {
-              return itemComparator.compare(o1.peek(), o2.peek());
-            }
-          };
+        Iterable<? extends Iterator<? extends T>> iterators, Comparator<? super T> itemComparator) {
+      this.comparator = itemComparator;
+      this.iterators = Lists.<Iterator<? extends T>>newArrayList(iterators);
+      this.heads = new Object[this.iterators.size()];
+      this.done = new boolean[this.iterators.size()];
+    }
+
+    private int[] tree() {
+      int[] tree = this.tree;
+      if (tree == null) {
+        int size = iterators.size();
+        tree = this.tree = new int[Math.max(size, 1)];
+        // Every node starts out holding the index "size", a sentinel that beats any iterator, so
+        // that each leaf played in turn settles as the loser of the first unplayed match on its way
+        // to the root. Once all leaves are played, no sentinel is left in the tree.
+        Arrays.fill(tree, size);
+        for (int i = size - 1; i >= 0; i--) {
+          advance(i);
+          replay(i);
+        }
+        if (size == 0) {
+          tree[0] = -1;
+        }
+      }
+      return tree;
+    }
 
-      queue = new PriorityQueue<>(2, heapComparator);
+    private void advance(int i) {
+      Iterator<? extends T> iterator = iterators.get(i);
+      if (iterator.hasNext()) {
+        heads[i] = iterator.next();
+      } else {
+        heads[i] = null;
+        done[i] = true;
+        iterators.set(i, null); // let it be collected
+      }
+    }
 
-      for (Iterator<? extends T> iterator : iterators) {
-        if (iterator.hasNext()) {
-          queue.add(Iterators.peekingIterator(iterator));
+    /** Plays the current element of iterator i up from its leaf, and records the overall winner. */
+    private void replay(int i) {
+      int[] tree = this.tree;
+      int winner = i;
+      for (int node = (i + heads.length) >>> 1; node > 0; node >>>= 1) {
+        if (beats(tree[node], winner)) {
+          int loser = winner;
+          winner = tree[node];
+          tree[node] = loser;
         }
       }
+      tree[0] = winner;
+    }
+
+    /** Whether the current element of iterator a precedes that of iterator b. */
+    @SuppressWarnings("unchecked") // heads[i] always holds an element of iterators[i]
+    private boolean beats(int a, int b) {
+      int size = heads.length;
+      if (a == size || b == size) {
+        return a == size; // the sentinel beats anything
+      } else if (done[a] || done[b]) {
+        return !done[a] && (done[b] || a < b);
+      }
+      int result = comparator.compare((T) heads[a], (T) heads[b]);
+      return result < 0 || (result == 0 && a < b);
     }
 
     @Override
     public boolean hasNext() {
-      return !queue.isEmpty();
+      int winner = tree()[0];
+      return winner >= 0 && !done[winner];
     }
 
     @Override
+    @SuppressWarnings("unchecked") // heads[i] always holds an element of iterators[i]
     public T next() {
-      PeekingIterator<T> nextIter = queue.remove();
-      T next = nextIter.next();
-      if (nextIter.hasNext()) {
-        queue.add(nextIter);
+      if (!hasNext()) {
+        throw new NoSuchElementException();
       }
+      int winner = tree[0];
+      T next = (T) heads[winner];
+      advance(winner);
+      replay(winner);
       return next;
     }
   }
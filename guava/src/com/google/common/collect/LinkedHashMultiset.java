@@ -21,7 +21,6 @@ import com.google.common.annotations.GwtIncompatible;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.LinkedHashMap;
 
 /**
  * A {@code Multiset} implementation with predictable iteration order. Its iterator orders elements
@@ -72,11 +71,11 @@ public final class LinkedHashMultiset<E> extends AbstractMapBasedMultiset<E> {
   }
 
   private LinkedHashMultiset() {
-    super(new LinkedHashMap<E, Count>());
+    super(new ObjectCountLinkedHashMap<E>());
   }
 
   private LinkedHashMultiset(int distinctElements) {
-    super(Maps.<E, Count>newLinkedHashMapWithExpectedSize(distinctElements));
+    super(new ObjectCountLinkedHashMap<E>(distinctElements));
   }
 
   /**
@@ -93,7 +92,7 @@ public final class LinkedHashMultiset<E> extends AbstractMapBasedMultiset<E> {
   private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
     stream.defaultReadObject();
     int distinctElements = Serialization.readCount(stream);
-    setBackingMap(new LinkedHashMap<E, Count>());
+    setBackingMap(new ObjectCountLinkedHashMap<E>());
     Serialization.populateMultiset(this, stream, distinctElements);
   }
 
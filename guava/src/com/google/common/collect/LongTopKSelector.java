@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.math.IntMath;
+import com.google.common.primitives.ImmutableLongArray;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * An accumulator that selects the {@code k} lowest or greatest {@code long} values offered to it,
+ * without boxing them. This uses the same implementation as {@link Comparators#least(int,
+ * java.util.Comparator)}: values are appended to a buffer of {@code 2k} values, which is
+ * quickselected down to the best {@code k} whenever it fills up, and values that are no better than
+ * the worst of those {@code k} are rejected with a single comparison. It takes expected O(n + k log
+ * k) time (worst case O(n log k)) for n values, and O(k) memory.
+ *
+ * <p>Selectors may be {@linkplain #combine combined}, so that the values may be divided among
+ * threads, each offering its share to a selector of its own. A parallel stream does this with:
+ *
+ * <pre>{@code
+ * ImmutableLongArray top =
+ *     scores
+ *         .parallel()
+ *         .collect(
+ *             () -> LongTopKSelector.greatest(1000),
+ *             LongTopKSelector::offer,
+ *             LongTopKSelector::combine)
+ *         .topK();
+ * }</pre>
+ *
+ * <p>Instances of this class are not thread-safe.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class LongTopKSelector {
+  /**
+   * Returns a selector that collects the lowest {@code k} values offered to it, and returns them
+   * via {@link #topK} in ascending order.
+   *
+   * @throws IllegalArgumentException if {@code k < 0}
+   */
+  public static LongTopKSelector least(int k) {
+    return new LongTopKSelector(k, false);
+  }
+
+  /**
+   * Returns a selector that collects the greatest {@code k} values offered to it, and returns them
+   * via {@link #topK} in descending order.
+   *
+   * @throws IllegalArgumentException if {@code k < 0}
+   */
+  public static LongTopKSelector greatest(int k) {
+    return new LongTopKSelector(k, true);
+  }
+
+  private final int k;
+
+  /**
+   * Whether this selector collects the greatest values. The buffer holds keys, which are the values
+   * themselves, or their bitwise complements if this is true, so that the lowest keys are always
+   * selected.
+   */
+  private final boolean greatest;
+
+  // As in TopKSelector, the keys in [0, bufferSize) are the candidates for the top k.
+  private final long[] buffer;
+  private int bufferSize;
+
+  /** The greatest of the lowest k keys seen so far, if bufferSize > 0. */
+  private long threshold;
+
+  private LongTopKSelector(int k, boolean greatest) {
+    checkArgument(k >= 0, "k must be nonnegative, was %s", k);
+    this.k = k;
+    this.greatest = greatest;
+    this.buffer = new long[2 * k];
+  }
+
+  /** Adds {@code value} as a candidate for the top {@code k} values, in amortized O(1) time. */
+  public void offer(long value) {
+    offerKey(greatest ? ~value : value);
+  }
+
+  /** Adds each of {@code values} as a candidate for the top {@code k} values. */
+  public void offerAll(long... values) {
+    for (long value : values) {
+      offer(value);
+    }
+  }
+
+  private void offerKey(long key) {
+    if (k == 0) {
+      return;
+    } else if (bufferSize == 0) {
+      buffer[0] = key;
+      threshold = key;
+      bufferSize = 1;
+    } else if (bufferSize < k) {
+      buffer[bufferSize++] = key;
+      if (key > threshold) {
+        threshold = key;
+      }
+    } else if (key < threshold) {
+      // Otherwise, we can ignore key; we've seen k better keys.
+      buffer[bufferSize++] = key;
+      if (bufferSize == 2 * k) {
+        trim();
+      }
+    }
+  }
+
+  /**
+   * Adds the candidates of {@code other}, which must have been created by the same factory method
+   * with the same {@code k}, to this selector, and returns this selector. This takes O(k) time,
+   * whatever the number of values offered to either selector, and leaves {@code other} unchanged.
+   *
+   * @throws IllegalArgumentException if {@code other} selects a different number of values, or
+   *     selects the lowest values when this one selects the greatest, or vice versa
+   */
+  public LongTopKSelector combine(LongTopKSelector other) {
+    checkArgument(
+        k == other.k && greatest == other.greatest,
+        "Cannot combine selectors of different kinds");
+    for (int i = 0; i < other.bufferSize; i++) {
+      offerKey(other.buffer[i]);
+    }
+    return this;
+  }
+
+  /** Quickselects the lowest k keys of the 2k keys in the buffer. See TopKSelector.trim. */
+  private void trim() {
+    int left = 0;
+    int right = 2 * k - 1;
+
+    int minThresholdPosition = 0;
+    int iterations = 0;
+    int maxIterations = IntMath.log2(right - left, RoundingMode.CEILING) * 3;
+    while (left < right) {
+      int pivotIndex = (left + right + 1) >>> 1;
+
+      int pivotNewIndex = partition(left, right, pivotIndex);
+
+      if (pivotNewIndex > k) {
+        right = pivotNewIndex - 1;
+      } else if (pivotNewIndex < k) {
+        left = Math.max(pivotNewIndex, left + 1);
+        minThresholdPosition = pivotNewIndex;
+      } else {
+        break;
+      }
+      iterations++;
+      if (iterations >= maxIterations) {
+        Arrays.sort(buffer, left, right);
+        break;
+      }
+    }
+    bufferSize = k;
+
+    threshold = buffer[minThresholdPosition];
+    for (int i = minThresholdPosition + 1; i < k; i++) {
+      if (buffer[i] > threshold) {
+        threshold = buffer[i];
+      }
+    }
+  }
+
+  private int partition(int left, int right, int pivotIndex) {
+    long pivotValue = buffer[pivotIndex];
+    buffer[pivotIndex] = buffer[right];
+
+    int pivotNewIndex = left;
+    for (int i = left; i < right; i++) {
+      if (buffer[i] < pivotValue) {
+        long tmp = buffer[pivotNewIndex];
+        buffer[pivotNewIndex] = buffer[i];
+        buffer[i] = tmp;
+        pivotNewIndex++;
+      }
+    }
+    buffer[right] = buffer[pivotNewIndex];
+    buffer[pivotNewIndex] = pivotValue;
+    return pivotNewIndex;
+  }
+
+  /**
+   * Returns the top {@code k} values offered to this selector, or all of them if fewer than {@code
+   * k} were offered, in ascending order for a selector created by {@link #least}, and descending
+   * order for one created by {@link #greatest}. This takes O(k log k) time.
+   */
+  public ImmutableLongArray topK() {
+    Arrays.sort(buffer, 0, bufferSize);
+    if (bufferSize > k) {
+      bufferSize = k;
+      threshold = buffer[k - 1];
+    }
+    ImmutableLongArray.Builder result = ImmutableLongArray.builder(bufferSize);
+    for (int i = 0; i < bufferSize; i++) {
+      result.add(greatest ? ~buffer[i] : buffer[i]);
+    }
+    return result.build();
+  }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.CollectPreconditions.checkEntryNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.HashTrie.Change;
+import com.google.common.collect.HashTrie.Node;
+import com.google.common.collect.HashTrie.TrieIterator;
+import com.google.common.collect.ImmutableMap.IteratorBasedImmutableMap;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.Comparator;
+import java.util.Map;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * An {@link ImmutableMap} with operations that return an updated copy of the map, such as {@link
+ * #with} and {@link #without}, in time logarithmic in its size. The map is a hash array mapped
+ * trie, and the copy shares with it all of its nodes other than those on the path to the changed
+ * key, so that keeping every version of a large map that is changed one entry at a time, such as a
+ * copy-on-write routing table, takes little more time and memory than keeping the latest one.
+ *
+ * <p>A {@code PersistentHashMap} may be used wherever an {@code ImmutableMap} is expected, and
+ * {@link ImmutableMap#copyOf(Map)} returns it without copying it. Unlike the maps built by {@link
+ * ImmutableMap.Builder}, its iteration order is not the order in which its entries were added, but
+ * an order determined by the hash codes of their keys. Its {@link #hashCode} is kept up to date as
+ * it is changed, rather than being computed from its entries.
+ *
+ * <p>To make many changes at once, use a {@link Builder}, from {@link #builder} or {@link
+ * #toBuilder}. It copies each node it changes once, and then changes the copy in place.
+ *
+ * <p>Null keys and values are not permitted.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class PersistentHashMap<K, V> extends IteratorBasedImmutableMap<K, V> {
+
+  private static final PersistentHashMap<Object, Object> EMPTY =
+      new PersistentHashMap<Object, Object>(HashTrie.EMPTY, 0, 0);
+
+  /** Returns the empty map. */
+  @SuppressWarnings("unchecked") // the empty map holds no keys or values
+  public static <K, V> PersistentHashMap<K, V> of() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Returns a map with the entries of {@code map}. If {@code map} is a {@code PersistentHashMap},
+   * it is returned itself.
+   *
+   * @throws NullPointerException if any key or value in {@code map} is null
+   */
+  public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof PersistentHashMap) {
+      @SuppressWarnings("unchecked") // safe since the map is immutable
+      PersistentHashMap<K, V> result = (PersistentHashMap<K, V>) map;
+      return result;
+    }
+    return PersistentHashMap.<K, V>builder().putAll(map).build();
+  }
+
+  /**
+   * Returns a map with the given entries.
+   *
+   * @throws NullPointerException if any key, value, or entry is null
+   * @throws IllegalArgumentException if two entries have the same key
+   */
+  @Beta
+  public static <K, V> PersistentHashMap<K, V> copyOf(
+      Iterable<? extends Entry<? extends K, ? extends V>> entries) {
+    Builder<K, V> builder = builder();
+    for (Entry<? extends K, ? extends V> entry : entries) {
+      K key = entry.getKey();
+      boolean duplicate = builder.putAndReportDuplicate(key, entry.getValue());
+      checkArgument(!duplicate, "Multiple entries with same key: %s", key);
+    }
+    return builder.build();
+  }
+
+  /** Returns a new builder, for a map that starts out empty. */
+  public static <K, V> Builder<K, V> builder() {
+    return new Builder<K, V>();
+  }
+
+  private final Node root;
+  private final int size;
+  private final int hashCode;
+
+  private PersistentHashMap(Node root, int size, int hashCode) {
+    this.root = root;
+    this.size = size;
+    this.hashCode = hashCode;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  @NullableDecl
+  public V get(@NullableDecl Object key) {
+    if (key == null) {
+      return null;
+    }
+    @SuppressWarnings("unchecked") // only values of type V are stored with keys
+    V value = (V) root.get(key, HashTrie.hash(key), 0);
+    return value;
+  }
+
+  @Override
+  public boolean containsKey(@NullableDecl Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Returns a map with the entries of this map, except that {@code key} is mapped to {@code
+   * value}. If it is already, this map is returned.
+   */
+  public PersistentHashMap<K, V> with(K key, V value) {
+    checkEntryNotNull(key, value);
+    Change change = new Change();
+    Node newRoot = root.with(null, 0, HashTrie.hash(key), key, value, change);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<K, V>(
+        newRoot, change.added ? size + 1 : size, updatedHashCode(hashCode, key, value, change));
+  }
+
+  /**
+   * Returns a map with the entries of this map and of {@code map}, where the values of {@code map}
+   * replace those of this map for the keys they have in common.
+   */
+  public PersistentHashMap<K, V> withAll(Map<? extends K, ? extends V> map) {
+    return map.isEmpty() ? this : toBuilder().putAll(map).build();
+  }
+
+  /**
+   * Returns a map with the entries of this map other than that of {@code key}. If this map has no
+   * such entry, it is returned itself.
+   */
+  public PersistentHashMap<K, V> without(@NullableDecl Object key) {
+    if (key == null) {
+      return this;
+    }
+    Change change = new Change();
+    Node newRoot = root.without(null, 0, HashTrie.hash(key), key, change);
+    if (!change.removed) {
+      return this;
+    }
+    return (size == 1)
+        ? PersistentHashMap.<K, V>of()
+        : new PersistentHashMap<K, V>(
+            newRoot, size - 1, hashCode - (key.hashCode() ^ change.oldValue.hashCode()));
+  }
+
+  /**
+   * Returns a builder that starts out with the entries of this map. The builder shares the nodes
+   * of this map until it changes them, so this takes constant time.
+   */
+  public Builder<K, V> toBuilder() {
+    return new Builder<K, V>(root, size, hashCode);
+  }
+
+  private static int updatedHashCode(int hashCode, Object key, Object value, Change change) {
+    int keyHash = key.hashCode();
+    if (!change.added) {
+      hashCode -= keyHash ^ change.oldValue.hashCode();
+    }
+    return hashCode + (keyHash ^ value.hashCode());
+  }
+
+  @Override
+  UnmodifiableIterator<Entry<K, V>> entryIterator() {
+    return new TrieIterator<Entry<K, V>>(root) {
+      @Override
+      @SuppressWarnings("unchecked") // the trie holds keys of type K and values of type V
+      Entry<K, V> output(Object key, Object value) {
+        return Maps.immutableEntry((K) key, (V) value);
+      }
+    };
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  boolean isHashCodeFast() {
+    return true;
+  }
+
+  @Override
+  boolean isPartialView() {
+    return false;
+  }
+
+  /**
+   * A builder for {@link PersistentHashMap} instances, which can start out empty, from {@link
+   * PersistentHashMap#builder}, or with the entries of a map, from {@link
+   * PersistentHashMap#toBuilder}.
+   *
+   * <p>Unlike other {@link ImmutableMap.Builder}s, a {@code Builder} permits a key to be put more
+   * than once, in which case the last value put is kept, and it can {@link #remove} keys. Its
+   * entries are kept in a trie, like those of the maps it builds. Building a map doesn't copy them;
+   * it only prevents the builder from changing the nodes of the trie that the map then shares.
+   * Since the iteration order of the built map is determined by the hash codes of its keys, {@link
+   * #orderEntriesByValue} is not supported, and throws {@link UnsupportedOperationException}.
+   *
+   * <p>Builder instances can be reused; it is safe to call {@link #build} multiple times to build
+   * multiple maps in series.
+   *
+   * @since NEXT
+   */
+  @Beta
+  public static final class Builder<K, V> extends ImmutableMap.Builder<K, V> {
+    /** The token that marks the nodes this builder may change in place. */
+    private Object owner = new Object();
+
+    private Node root;
+    private int count;
+    private int hashCode;
+
+    /**
+     * Creates a new builder. The returned builder is equivalent to the builder generated by {@link
+     * PersistentHashMap#builder}.
+     */
+    public Builder() {
+      this(HashTrie.EMPTY, 0, 0);
+    }
+
+    Builder(Node root, int count, int hashCode) {
+      super(0);
+      this.root = root;
+      this.count = count;
+      this.hashCode = hashCode;
+    }
+
+    /**
+     * Associates {@code key} with {@code value} in the built map, replacing any value previously
+     * associated with {@code key}.
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<K, V> put(K key, V value) {
+      putAndReportDuplicate(key, value);
+      return this;
+    }
+
+    /** Associates {@code key} with {@code value}, and returns whether {@code key} was present. */
+    boolean putAndReportDuplicate(K key, V value) {
+      checkEntryNotNull(key, value);
+      Change change = new Change();
+      root = root.with(owner, 0, HashTrie.hash(key), key, value, change);
+      if (change.added) {
+        count++;
+      }
+      if (change.added || change.oldValue != null) {
+        hashCode = updatedHashCode(hashCode, key, value, change);
+      }
+      return !change.added;
+    }
+
+    /**
+     * Adds the given {@code entry} to the built map, replacing any value previously associated with
+     * its key.
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<K, V> put(Entry<? extends K, ? extends V> entry) {
+      return put(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * Associates all of the given map's keys and values in the built map, replacing the values
+     * previously associated with any of its keys.
+     *
+     * @throws NullPointerException if any key or value in {@code map} is null
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+      if (count == 0 && map instanceof PersistentHashMap) {
+        // Share the map's nodes rather than copying its entries.
+        PersistentHashMap<?, ?> persistent = (PersistentHashMap<?, ?>) map;
+        root = persistent.root;
+        count = persistent.size;
+        hashCode = persistent.hashCode;
+        return this;
+      }
+      return putAll(map.entrySet());
+    }
+
+    /**
+     * Adds all of the given entries to the built map, replacing the values previously associated
+     * with any of their keys.
+     *
+     * @throws NullPointerException if any key, value, or entry is null
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<K, V> putAll(Iterable<? extends Entry<? extends K, ? extends V>> entries) {
+      for (Entry<? extends K, ? extends V> entry : entries) {
+        put(entry);
+      }
+      return this;
+    }
+
+    /** Removes {@code key}, and the value associated with it, from the built map. */
+    @CanIgnoreReturnValue
+    public Builder<K, V> remove(@NullableDecl Object key) {
+      if (key != null) {
+        Change change = new Change();
+        root = root.without(owner, 0, HashTrie.hash(key), key, change);
+        if (change.removed) {
+          count--;
+          hashCode -= key.hashCode() ^ change.oldValue.hashCode();
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Unsupported, since the iteration order of a {@code PersistentHashMap} is determined by the
+     * hash codes of its keys.
+     *
+     * @throws UnsupportedOperationException always
+     * @deprecated Unsupported operation.
+     */
+    @Deprecated
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<K, V> orderEntriesByValue(Comparator<? super V> valueComparator) {
+      throw new UnsupportedOperationException("Not supported for PersistentHashMap");
+    }
+
+    /** Returns a newly-created {@code PersistentHashMap} with the entries of this builder. */
+    @Override
+    public PersistentHashMap<K, V> build() {
+      if (count == 0) {
+        return of();
+      }
+      // The built map now shares the nodes this builder owns, so it mustn't change them again.
+      owner = new Object();
+      return new PersistentHashMap<K, V>(root, count, hashCode);
+    }
+  }
+
+  /**
+   * Serialized type for all {@code PersistentHashMap} instances, which are reconstructed with a
+   * {@link Builder}.
+   */
+  private static final class SerializedForm extends ImmutableMap.SerializedForm {
+    SerializedForm(PersistentHashMap<?, ?> map) {
+      super(map);
+    }
+
+    @Override
+    Object readResolve() {
+      return createMap(new Builder<Object, Object>());
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
+  @Override
+  Object writeReplace() {
+    return new SerializedForm(this);
+  }
+
+  private static final long serialVersionUID = 0;
+}
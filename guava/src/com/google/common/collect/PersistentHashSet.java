@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.HashTrie.Change;
+import com.google.common.collect.HashTrie.Node;
+import com.google.common.collect.HashTrie.TrieIterator;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * An {@link ImmutableSet} with operations that return an updated copy of the set, such as {@link
+ * #with} and {@link #without}, in time logarithmic in its size. The set is a hash array mapped
+ * trie, like a {@link PersistentHashMap}, and the copy shares with it all of its nodes other than
+ * those on the path to the changed element.
+ *
+ * <p>A {@code PersistentHashSet} may be used wherever an {@code ImmutableSet} is expected, and
+ * {@link ImmutableSet#copyOf(Collection)} returns it without copying it. Its iteration order is
+ * determined by the hash codes of its elements, rather than by the order in which they were added.
+ *
+ * <p>To make many changes at once, use a {@link Builder}, from {@link #builder} or {@link
+ * #toBuilder}. It copies each node it changes once, and then changes the copy in place.
+ *
+ * <p>Null elements are not permitted.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class PersistentHashSet<E> extends ImmutableSet<E> {
+
+  /** The value of every element in the trie. */
+  private static final Object PRESENT = Boolean.TRUE;
+
+  private static final PersistentHashSet<Object> EMPTY =
+      new PersistentHashSet<Object>(HashTrie.EMPTY, 0, 0);
+
+  /** Returns the empty set. */
+  @SuppressWarnings("unchecked") // the empty set holds no elements
+  public static <E> PersistentHashSet<E> of() {
+    return (PersistentHashSet<E>) EMPTY;
+  }
+
+  /**
+   * Returns a set with the given elements. Each appears once in the set, even if it appears more
+   * than once in {@code elements}.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public static <E> PersistentHashSet<E> copyOf(E[] elements) {
+    return copyOf(Arrays.asList(elements));
+  }
+
+  /**
+   * Returns a set with the given elements. If {@code elements} is a {@code PersistentHashSet}, it
+   * is returned itself.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public static <E> PersistentHashSet<E> copyOf(Collection<? extends E> elements) {
+    return copyOf((Iterable<? extends E>) elements);
+  }
+
+  /**
+   * Returns a set with the given elements. If {@code elements} is a {@code PersistentHashSet}, it
+   * is returned itself.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public static <E> PersistentHashSet<E> copyOf(Iterable<? extends E> elements) {
+    if (elements instanceof PersistentHashSet) {
+      @SuppressWarnings("unchecked") // safe since the set is immutable
+      PersistentHashSet<E> result = (PersistentHashSet<E>) elements;
+      return result;
+    }
+    return PersistentHashSet.<E>builder().addAll(elements).build();
+  }
+
+  /**
+   * Returns a set with the given elements.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public static <E> PersistentHashSet<E> copyOf(Iterator<? extends E> elements) {
+    return PersistentHashSet.<E>builder().addAll(elements).build();
+  }
+
+  /** Returns a new builder, for a set that starts out empty. */
+  public static <E> Builder<E> builder() {
+    return new Builder<E>();
+  }
+
+  private final Node root;
+  private final int size;
+  private final int hashCode;
+
+  private PersistentHashSet(Node root, int size, int hashCode) {
+    this.root = root;
+    this.size = size;
+    this.hashCode = hashCode;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(@NullableDecl Object object) {
+    return object != null && root.get(object, HashTrie.hash(object), 0) != null;
+  }
+
+  /**
+   * Returns a set with the elements of this set and {@code element}. If this set already contains
+   * {@code element}, it is returned itself.
+   */
+  public PersistentHashSet<E> with(E element) {
+    checkNotNull(element);
+    Change change = new Change();
+    Node newRoot = root.with(null, 0, HashTrie.hash(element), element, PRESENT, change);
+    if (!change.added) {
+      return this;
+    }
+    return new PersistentHashSet<E>(newRoot, size + 1, hashCode + element.hashCode());
+  }
+
+  /** Returns a set with the elements of this set and of {@code elements}. */
+  public PersistentHashSet<E> withAll(Iterable<? extends E> elements) {
+    return toBuilder().addAll(elements).build();
+  }
+
+  /**
+   * Returns a set with the elements of this set other than {@code object}. If this set doesn't
+   * contain {@code object}, it is returned itself.
+   */
+  public PersistentHashSet<E> without(@NullableDecl Object object) {
+    if (object == null) {
+      return this;
+    }
+    Change change = new Change();
+    Node newRoot = root.without(null, 0, HashTrie.hash(object), object, change);
+    if (!change.removed) {
+      return this;
+    }
+    return (size == 1)
+        ? PersistentHashSet.<E>of()
+        : new PersistentHashSet<E>(newRoot, size - 1, hashCode - object.hashCode());
+  }
+
+  /**
+   * Returns a builder that starts out with the elements of this set. The builder shares the nodes
+   * of this set until it changes them, so this takes constant time.
+   */
+  public Builder<E> toBuilder() {
+    return new Builder<E>(root, size, hashCode);
+  }
+
+  @Override
+  public UnmodifiableIterator<E> iterator() {
+    return new TrieIterator<E>(root) {
+      @Override
+      @SuppressWarnings("unchecked") // the trie holds keys of type E
+      E output(Object key, Object value) {
+        return (E) key;
+      }
+    };
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  boolean isHashCodeFast() {
+    return true;
+  }
+
+  @Override
+  boolean isPartialView() {
+    return false;
+  }
+
+  /**
+   * A builder for {@link PersistentHashSet} instances, which can start out empty, from {@link
+   * PersistentHashSet#builder}, or with the elements of a set, from {@link
+   * PersistentHashSet#toBuilder}.
+   *
+   * <p>Unlike other {@link ImmutableSet.Builder}s, a {@code Builder} can {@link #remove} elements.
+   * Its elements are kept in a trie, like those of the sets it builds. Building a set doesn't copy
+   * them; it only prevents the builder from changing the nodes of the trie that the set then
+   * shares.
+   *
+   * <p>Builder instances can be reused; it is safe to call {@link #build} multiple times to build
+   * multiple sets in series.
+   *
+   * @since NEXT
+   */
+  @Beta
+  public static final class Builder<E> extends ImmutableSet.Builder<E> {
+    /** The token that marks the nodes this builder may change in place. */
+    private Object owner = new Object();
+
+    private Node root;
+    private int count;
+    private int hashCode;
+
+    /**
+     * Creates a new builder. The returned builder is equivalent to the builder generated by {@link
+     * PersistentHashSet#builder}.
+     */
+    public Builder() {
+      this(HashTrie.EMPTY, 0, 0);
+    }
+
+    Builder(Node root, int count, int hashCode) {
+      super(0);
+      this.root = root;
+      this.count = count;
+      this.hashCode = hashCode;
+    }
+
+    /**
+     * Adds {@code element} to the built set. If the set already contains {@code element}, then
+     * {@code add} has no effect (only the previously added element is retained).
+     *
+     * @throws NullPointerException if {@code element} is null
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<E> add(E element) {
+      checkNotNull(element);
+      Change change = new Change();
+      root = root.with(owner, 0, HashTrie.hash(element), element, PRESENT, change);
+      if (change.added) {
+        count++;
+        hashCode += element.hashCode();
+      }
+      return this;
+    }
+
+    /**
+     * Adds each element of {@code elements} to the built set, ignoring duplicate elements (only
+     * the first duplicate element is added).
+     *
+     * @throws NullPointerException if {@code elements} is null or contains a null element
+     */
+    @SafeVarargs
+    @CanIgnoreReturnValue
+    @Override
+    public final Builder<E> add(E... elements) {
+      for (E element : elements) {
+        add(element);
+      }
+      return this;
+    }
+
+    /**
+     * Adds each element of {@code elements} to the built set, ignoring duplicate elements (only
+     * the first duplicate element is added).
+     *
+     * @throws NullPointerException if {@code elements} is null or contains a null element
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<E> addAll(Iterable<? extends E> elements) {
+      if (count == 0 && elements instanceof PersistentHashSet) {
+        // Share the set's nodes rather than copying its elements.
+        PersistentHashSet<?> persistent = (PersistentHashSet<?>) elements;
+        root = persistent.root;
+        count = persistent.size;
+        hashCode = persistent.hashCode;
+        return this;
+      }
+      return addAll(elements.iterator());
+    }
+
+    /**
+     * Adds each element of {@code elements} to the built set, ignoring duplicate elements (only
+     * the first duplicate element is added).
+     *
+     * @throws NullPointerException if {@code elements} is null or contains a null element
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<E> addAll(Iterator<? extends E> elements) {
+      while (elements.hasNext()) {
+        add(elements.next());
+      }
+      return this;
+    }
+
+    /** Removes {@code object} from the built set. */
+    @CanIgnoreReturnValue
+    public Builder<E> remove(@NullableDecl Object object) {
+      if (object != null) {
+        Change change = new Change();
+        root = root.without(owner, 0, HashTrie.hash(object), object, change);
+        if (change.removed) {
+          count--;
+          hashCode -= object.hashCode();
+        }
+      }
+      return this;
+    }
+
+    /** Returns a newly-created {@code PersistentHashSet} with the elements of this builder. */
+    @Override
+    public PersistentHashSet<E> build() {
+      if (count == 0) {
+        return of();
+      }
+      // The built set now shares the nodes this builder owns, so it mustn't change them again.
+      owner = new Object();
+      return new PersistentHashSet<E>(root, count, hashCode);
+    }
+  }
+
+  /**
+   * Serialized type for all {@code PersistentHashSet} instances, which are reconstructed with a
+   * {@link Builder}.
+   */
+  private static final class SerializedForm implements Serializable {
+    final Object[] elements;
+
+    SerializedForm(Object[] elements) {
+      this.elements = elements;
+    }
+
+    Object readResolve() {
+      return copyOf(elements);
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
+  @Override
+  Object writeReplace() {
+    return new SerializedForm(toArray());
+  }
+
+  private static final long serialVersionUID = 0;
+}
@@ -0,0 +1,524 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link ImmutableList} with operations that return an updated copy of the list, such as {@link
+ * #with}, {@link #append} and {@link #withoutLast}, in time logarithmic in its size. The list is a
+ * trie with 32 elements or children in each node, and the copy shares with it all of its nodes
+ * other than those on the path to the changed element, so that keeping every version of a large
+ * list that is changed one element at a time takes little more time and memory than keeping the
+ * latest one. The last 32 or fewer elements are kept apart from the trie, so that appending an
+ * element usually copies only those.
+ *
+ * <p>A {@code PersistentList} may be used wherever an {@code ImmutableList} is expected, and
+ * {@link ImmutableList#copyOf(Collection)} returns it without copying it. Reading an element by
+ * index takes time logarithmic in the size of the list, with a base of 32, so that it reads no
+ * more than four nodes for a list of a million elements.
+ *
+ * <p>To append many elements at once, use {@link #appendAll} or a {@link Builder}, from its
+ * constructor or from {@link #toBuilder}, which copies each node it changes once.
+ *
+ * <p>Null elements are not permitted.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class PersistentList<E> extends ImmutableList<E> {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  /** The root of a trie with no elements. It is copied, never changed. */
+  private static final Object[] EMPTY_NODE = new Object[WIDTH];
+
+  private static final PersistentList<Object> EMPTY =
+      new PersistentList<Object>(0, BITS, EMPTY_NODE, new Object[0]);
+
+  /** Returns the empty list. */
+  @SuppressWarnings("unchecked") // the empty list holds no elements
+  public static <E> PersistentList<E> of() {
+    return (PersistentList<E>) EMPTY;
+  }
+
+  /**
+   * Returns a list with the given elements, in order.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public static <E> PersistentList<E> copyOf(E[] elements) {
+    return copyOf(Arrays.asList(elements));
+  }
+
+  /**
+   * Returns a list with the given elements, in order. If {@code elements} is a {@code
+   * PersistentList}, it is returned itself.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public static <E> PersistentList<E> copyOf(Collection<? extends E> elements) {
+    return copyOf((Iterable<? extends E>) elements);
+  }
+
+  /**
+   * Returns a list with the given elements, in order. If {@code elements} is a {@code
+   * PersistentList}, it is returned itself.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public static <E> PersistentList<E> copyOf(Iterable<? extends E> elements) {
+    if (elements instanceof PersistentList) {
+      @SuppressWarnings("unchecked") // safe since the list is immutable
+      PersistentList<E> result = (PersistentList<E>) elements;
+      return result;
+    }
+    return new Builder<E>().addAll(elements).build();
+  }
+
+  /**
+   * Returns a list with the given elements, in order.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public static <E> PersistentList<E> copyOf(Iterator<? extends E> elements) {
+    return new Builder<E>().addAll(elements).build();
+  }
+
+  private final int size;
+
+  /** The shift of the index for the root of the trie, which is {@code BITS} times its height. */
+  private final int shift;
+
+  private final Object[] root;
+
+  /** The elements from {@code tailOffset(size)} on, which are not in the trie. */
+  private final Object[] tail;
+
+  private PersistentList(int size, int shift, Object[] root, Object[] tail) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  /** Returns the index of the first element in the tail of a list of the given size. */
+  private static int tailOffset(int size) {
+    return (size < WIDTH) ? 0 : ((size - 1) >>> BITS) << BITS;
+  }
+
+  /** Returns the leaf node, or the tail, that holds the element at {@code index}. */
+  private Object[] leafFor(int index) {
+    if (index >= tailOffset(size)) {
+      return tail;
+    }
+    Object[] node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Object[]) node[(index >>> level) & MASK];
+    }
+    return node;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public E get(int index) {
+    checkElementIndex(index, size);
+    @SuppressWarnings("unchecked") // the list holds elements of type E
+    E element = (E) leafFor(index)[index & MASK];
+    return element;
+  }
+
+  /**
+   * Returns a list with the elements of this list, except that {@code element} is at {@code
+   * index}. If it is already, this list is returned.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or not less than the size of
+   *     this list
+   */
+  public PersistentList<E> with(int index, E element) {
+    checkElementIndex(index, size);
+    checkNotNull(element);
+    if (index >= tailOffset(size)) {
+      if (tail[index & MASK] == element) {
+        return this;
+      }
+      Object[] newTail = tail.clone();
+      newTail[index & MASK] = element;
+      return new PersistentList<E>(size, shift, root, newTail);
+    }
+    if (leafFor(index)[index & MASK] == element) {
+      return this;
+    }
+    return new PersistentList<E>(size, shift, with(shift, root, index, element), tail);
+  }
+
+  private static Object[] with(int level, Object[] node, int index, Object element) {
+    Object[] result = node.clone();
+    if (level == 0) {
+      result[index & MASK] = element;
+    } else {
+      int i = (index >>> level) & MASK;
+      result[i] = with(level - BITS, (Object[]) node[i], index, element);
+    }
+    return result;
+  }
+
+  /** Returns a list with the elements of this list, followed by {@code element}. */
+  public PersistentList<E> append(E element) {
+    checkNotNull(element);
+    int tailLength = size - tailOffset(size);
+    if (tailLength < WIDTH) {
+      Object[] newTail = Arrays.copyOf(tail, tailLength + 1);
+      newTail[tailLength] = element;
+      return new PersistentList<E>(size + 1, shift, root, newTail);
+    }
+    if (isRootFull(size, shift)) {
+      Object[] newRoot = new Object[WIDTH];
+      newRoot[0] = root;
+      newRoot[1] = newPath(shift, tail);
+      return new PersistentList<E>(size + 1, shift + BITS, newRoot, new Object[] {element});
+    }
+    return new PersistentList<E>(
+        size + 1, shift, pushTail(size, shift, root, tail), new Object[] {element});
+  }
+
+  /**
+   * Returns a list with the elements of this list, followed by {@code elements}. If {@code
+   * elements} is empty, this list is returned.
+   *
+   * @throws NullPointerException if any of {@code elements} is null
+   */
+  public PersistentList<E> appendAll(Iterable<? extends E> elements) {
+    Iterator<? extends E> iterator = elements.iterator();
+    return iterator.hasNext() ? toBuilder().addAll(iterator).build() : this;
+  }
+
+  /**
+   * Whether the trie of a list of the given size, including its full tail, has no room for the
+   * tail.
+   */
+  private static boolean isRootFull(int size, int shift) {
+    return (size >>> BITS) > (1 << shift);
+  }
+
+  /** Returns a chain of new nodes from the given level down to {@code leaf}. */
+  private static Object[] newPath(int level, Object[] leaf) {
+    if (level == 0) {
+      return leaf;
+    }
+    Object[] node = new Object[WIDTH];
+    node[0] = newPath(level - BITS, leaf);
+    return node;
+  }
+
+  /**
+   * Returns a copy of {@code node}, at the given level of the trie of a list of the given size,
+   * with the list's full tail added as a leaf.
+   */
+  private static Object[] pushTail(int size, int level, Object[] node, Object[] tail) {
+    int i = ((size - 1) >>> level) & MASK;
+    Object[] result = node.clone();
+    if (level == BITS) {
+      result[i] = tail;
+    } else {
+      Object[] child = (Object[]) node[i];
+      result[i] =
+          (child == null) ? newPath(level - BITS, tail) : pushTail(size, level - BITS, child, tail);
+    }
+    return result;
+  }
+
+  /**
+   * Returns a list with the elements of this list other than the last.
+   *
+   * @throws IllegalStateException if this list is empty
+   */
+  public PersistentList<E> withoutLast() {
+    checkState(size > 0, "list is empty");
+    if (size == 1) {
+      return of();
+    }
+    int tailLength = size - tailOffset(size);
+    if (tailLength > 1) {
+      return new PersistentList<E>(size - 1, shift, root, Arrays.copyOf(tail, tailLength - 1));
+    }
+    Object[] newTail = leafFor(size - 2);
+    Object[] newRoot = popTail(size, shift, root);
+    int newShift = shift;
+    if (newRoot == null) {
+      newRoot = EMPTY_NODE;
+    }
+    if (shift > BITS && newRoot[1] == null) {
+      newRoot = (Object[]) newRoot[0];
+      newShift -= BITS;
+    }
+    return new PersistentList<E>(size - 1, newShift, newRoot, newTail);
+  }
+
+  /**
+   * Returns a copy of {@code node}, at the given level of the trie of a list of the given size,
+   * without the leaf of the list's second to last element, or null if that leaves it empty.
+   */
+  private static Object[] popTail(int size, int level, Object[] node) {
+    int i = ((size - 2) >>> level) & MASK;
+    Object[] newChild;
+    if (level > BITS) {
+      newChild = popTail(size, level - BITS, (Object[]) node[i]);
+    } else {
+      newChild = null;
+    }
+    if (newChild == null && i == 0) {
+      return null;
+    }
+    Object[] result = node.clone();
+    result[i] = newChild;
+    return result;
+  }
+
+  /**
+   * Returns a list with the elements of this list other than the one at {@code index}. Unlike
+   * {@link #withoutLast}, this copies the elements after {@code index}, and so takes time linear in
+   * their number.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or not less than the size of
+   *     this list
+   */
+  public PersistentList<E> without(int index) {
+    checkElementIndex(index, size);
+    if (index == size - 1) {
+      return withoutLast();
+    }
+    // Share the leaves before the one that holds the element, and copy the elements after them.
+    int leafStart = index & ~MASK;
+    PersistentList<E> prefix = this;
+    while (prefix.size > leafStart) {
+      prefix = prefix.withoutTail();
+    }
+    return prefix
+        .toBuilder()
+        .addAll(subList(leafStart, index))
+        .addAll(subList(index + 1, size))
+        .build();
+  }
+
+  /** Returns this list without its tail, as a list whose tail is the last leaf of its trie. */
+  private PersistentList<E> withoutTail() {
+    int tailOffset = tailOffset(size);
+    if (tailOffset == 0) {
+      return of();
+    }
+    PersistentList<E> oneLonger =
+        new PersistentList<E>(tailOffset + 1, shift, root, new Object[] {tail[0]});
+    return oneLonger.withoutLast();
+  }
+
+  /**
+   * Returns a builder that starts out with the elements of this list. The builder shares the nodes
+   * of this list until it changes them, so this takes constant time.
+   */
+  public Builder<E> toBuilder() {
+    return new Builder<E>(this);
+  }
+
+  @Override
+  public UnmodifiableIterator<E> iterator() {
+    return new UnmodifiableIterator<E>() {
+      private int index;
+      private Object[] leaf = tail;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked") // the list holds elements of type E
+      public E next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        if ((index & MASK) == 0) {
+          leaf = leafFor(index);
+        }
+        return (E) leaf[index++ & MASK];
+      }
+    };
+  }
+
+  @Override
+  int copyIntoArray(Object[] dst, int offset) {
+    for (int start = 0; start < size; start += WIDTH) {
+      System.arraycopy(leafFor(start), 0, dst, offset + start, Math.min(WIDTH, size - start));
+    }
+    return offset + size;
+  }
+
+  @Override
+  boolean isPartialView() {
+    return false;
+  }
+
+  /**
+   * A builder for {@link PersistentList} instances, which can start out empty, from its
+   * constructor, or with the elements of a list, from {@link PersistentList#toBuilder}. The
+   * builder appends elements to a trie like that of the lists it builds, and adds each full leaf
+   * to the trie once.
+   *
+   * <p>Builder instances can be reused; it is safe to call {@link #build} multiple times to build
+   * multiple lists in series. Each new list contains all the elements of the ones created before
+   * it.
+   *
+   * @since NEXT
+   */
+  @Beta
+  public static final class Builder<E> extends ImmutableCollection.Builder<E> {
+    private int size;
+    private int shift;
+    private Object[] root;
+
+    /** The last leaf, which this builder owns, and which has room for {@code WIDTH} elements. */
+    private Object[] tail;
+
+    /** Creates a new builder, for a list that starts out empty. */
+    public Builder() {
+      this(EMPTY);
+    }
+
+    Builder(PersistentList<?> list) {
+      this.size = list.size;
+      this.shift = list.shift;
+      this.root = list.root;
+      this.tail = Arrays.copyOf(list.tail, WIDTH);
+    }
+
+    /**
+     * Adds {@code element} to the end of the built list.
+     *
+     * @throws NullPointerException if {@code element} is null
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<E> add(E element) {
+      checkNotNull(element);
+      if (size - tailOffset(size) == WIDTH) {
+        if (isRootFull(size, shift)) {
+          Object[] newRoot = new Object[WIDTH];
+          newRoot[0] = root;
+          newRoot[1] = newPath(shift, tail);
+          root = newRoot;
+          shift += BITS;
+        } else {
+          root = pushTail(size, shift, root, tail);
+        }
+        tail = new Object[WIDTH];
+      }
+      tail[size++ & MASK] = element;
+      return this;
+    }
+
+    /**
+     * Adds each element of {@code elements} to the end of the built list, in order.
+     *
+     * @throws NullPointerException if {@code elements} is null or contains a null element
+     */
+    @SafeVarargs
+    @CanIgnoreReturnValue
+    @Override
+    public final Builder<E> add(E... elements) {
+      for (E element : elements) {
+        add(element);
+      }
+      return this;
+    }
+
+    /**
+     * Adds each element of {@code elements} to the end of the built list, in order.
+     *
+     * @throws NullPointerException if {@code elements} is null or contains a null element
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<E> addAll(Iterable<? extends E> elements) {
+      super.addAll(elements);
+      return this;
+    }
+
+    /**
+     * Adds each element of {@code elements} to the end of the built list, in order.
+     *
+     * @throws NullPointerException if {@code elements} is null or contains a null element
+     */
+    @CanIgnoreReturnValue
+    @Override
+    public Builder<E> addAll(Iterator<? extends E> elements) {
+      super.addAll(elements);
+      return this;
+    }
+
+    /** Returns a newly-created {@code PersistentList} with the elements of this builder. */
+    @Override
+    public PersistentList<E> build() {
+      if (size == 0) {
+        return of();
+      }
+      Object[] builtTail = Arrays.copyOf(tail, size - tailOffset(size));
+      return new PersistentList<E>(size, shift, root, builtTail);
+    }
+  }
+
+  /**
+   * Serialized type for all {@code PersistentList} instances, which are reconstructed with a {@link
+   * Builder}.
+   */
+  private static final class SerializedForm implements Serializable {
+    final Object[] elements;
+
+    SerializedForm(Object[] elements) {
+      this.elements = elements;
+    }
+
+    Object readResolve() {
+      return copyOf(elements);
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
+  @Override
+  Object writeReplace() {
+    return new SerializedForm(toArray());
+  }
+
+  private static final long serialVersionUID = 0;
+}
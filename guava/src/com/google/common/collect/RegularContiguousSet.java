@@ -23,6 +23,7 @@ import com.google.common.annotations.GwtCompatible;
 import com.google.common.annotations.GwtIncompatible;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Spliterator;
 import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 
 /**
@@ -87,6 +88,17 @@ final class RegularContiguousSet<C extends Comparable> extends ContiguousSet<C>
     };
   }
 
+  @Override
+  public Spliterator<C> spliterator() {
+    // with a fast offset, the elements can be computed from their index, which makes splits exact
+    if (domain.supportsFastOffset && domain.distance(first(), last()) < Integer.MAX_VALUE) {
+      final C first = first();
+      return CollectSpliterators.indexed(
+          size(), SPLITERATOR_CHARACTERISTICS, i -> domain.offset(first, i), comparator());
+    }
+    return super.spliterator();
+  }
+
   @GwtIncompatible // NavigableSet
   @Override
   public UnmodifiableIterator<C> descendingIterator() {
@@ -20,7 +20,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkPositionIndex;
 import static com.google.common.collect.CollectPreconditions.checkEntryNotNull;
 import static com.google.common.collect.ImmutableMapEntry.createEntryArray;
-import static com.google.common.collect.RegularImmutableMap.checkNoConflictInKeyBucket;
 
 import com.google.common.annotations.GwtCompatible;
 import com.google.common.annotations.VisibleForTesting;
@@ -123,7 +122,12 @@ class RegularImmutableBiMap<K, V> extends ImmutableBiMap<K, V> {
     this.hashCode = hashCode;
   }
 
-  // checkNoConflictInKeyBucket is static imported from RegularImmutableMap
+  private static void checkNoConflictInKeyBucket(
+      Object key, Entry<?, ?> entry, @NullableDecl ImmutableMapEntry<?, ?> keyBucketHead) {
+    for (; keyBucketHead != null; keyBucketHead = keyBucketHead.getNextInKeyBucket()) {
+      checkNoConflict(!key.equals(keyBucketHead.getKey()), "key", entry, keyBucketHead);
+    }
+  }
 
   private static void checkNoConflictInValueBucket(
       Object value, Entry<?, ?> entry, @NullableDecl ImmutableMapEntry<?, ?> valueBucketHead) {
@@ -135,7 +139,23 @@ class RegularImmutableBiMap<K, V> extends ImmutableBiMap<K, V> {
   @Override
   @NullableDecl
   public V get(@NullableDecl Object key) {
-    return (keyTable == null) ? null : RegularImmutableMap.get(key, keyTable, mask);
+    return (keyTable == null) ? null : get(key, keyTable, mask);
+  }
+
+  @NullableDecl
+  private static <V> V get(@NullableDecl Object key, ImmutableMapEntry<?, V>[] keyTable, int mask) {
+    if (key == null) {
+      return null;
+    }
+    int index = Hashing.smear(key.hashCode()) & mask;
+    for (ImmutableMapEntry<?, V> entry = keyTable[index];
+        entry != null;
+        entry = entry.getNextInKeyBucket()) {
+      if (key.equals(entry.getKey())) {
+        return entry.getValue();
+      }
+    }
+    return null;
   }
 
   @Override
@@ -16,18 +16,20 @@
 
 package com.google.common.collect;
 
+import static com.google.common.base.Preconditions.checkElementIndex;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkPositionIndex;
 import static com.google.common.collect.CollectPreconditions.checkEntryNotNull;
-import static com.google.common.collect.ImmutableMapEntry.createEntryArray;
 
 import com.google.common.annotations.GwtCompatible;
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableMapEntry.NonTerminalImmutableMapEntry;
 import com.google.j2objc.annotations.Weak;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Spliterator;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 
 /**
@@ -41,125 +43,245 @@ import org.checkerframework.checker.nullness.compatqual.NullableDecl;
 final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
   @SuppressWarnings("unchecked")
   static final ImmutableMap<Object, Object> EMPTY =
-      new RegularImmutableMap<>((Entry<Object, Object>[]) ImmutableMap.EMPTY_ENTRY_ARRAY, null, 0);
+      new RegularImmutableMap<>(null, new Object[0], 0);
+
+  /*
+   * This implementation stores no object per entry. The keys and values alternate in one flat
+   * array, in insertion order, and lookups go through an open-addressed hash table of entry
+   * indices: the index of a key is stored at hashTable[Hashing.smear(key.hashCode()) & mask],
+   * unless that position is already taken, in which case we probe linearly for the next free one.
+   *
+   * The hash table only ever holds indices smaller than its length, so for small maps it is a
+   * byte[] or a short[] (storing the indices unsigned, with all ones meaning an empty position)
+   * rather than an int[]. A map with up to 179 entries thus spends one byte per table position,
+   * compared to the four-byte reference per position and 24-byte ImmutableMapEntry per entry of a
+   * chained table.
+   */
+
+  /** The largest hash table that is stored as a {@code byte[]}. */
+  static final int BYTE_MAX_SIZE = 1 << Byte.SIZE;
+
+  /** The largest hash table that is stored as a {@code short[]}. */
+  static final int SHORT_MAX_SIZE = 1 << Short.SIZE;
+
+  private static final int BYTE_MASK = (1 << Byte.SIZE) - 1;
+  private static final int SHORT_MASK = (1 << Short.SIZE) - 1;
+  private static final int ABSENT = -1;
 
-  // entries in insertion order
-  @VisibleForTesting final transient Entry<K, V>[] entries;
-  // array of linked lists of entries
-  private final transient ImmutableMapEntry<K, V>[] table;
-  // 'and' with an int to get a table index
-  private final transient int mask;
+  @NullableDecl private final transient Object hashTable;
+  @VisibleForTesting final transient Object[] alternatingKeysAndValues;
+  private final transient int size;
 
   static <K, V> RegularImmutableMap<K, V> fromEntries(Entry<K, V>... entries) {
     return fromEntryArray(entries.length, entries);
   }
 
   /**
-   * Creates a RegularImmutableMap from the first n entries in entryArray. This implementation may
-   * replace the entries in entryArray with its own entry objects (though they will have the same
-   * key/value contents), and may take ownership of entryArray.
+   * Creates a RegularImmutableMap from the first n entries in entryArray. The keys and values are
+   * copied out of the entries, so entryArray is not retained.
    */
   static <K, V> RegularImmutableMap<K, V> fromEntryArray(int n, Entry<K, V>[] entryArray) {
     checkPositionIndex(n, entryArray.length);
+    Object[] alternatingKeysAndValues = new Object[2 * n];
+    for (int i = 0; i < n; i++) {
+      alternatingKeysAndValues[2 * i] = entryArray[i].getKey();
+      alternatingKeysAndValues[2 * i + 1] = entryArray[i].getValue();
+    }
+    return create(n, alternatingKeysAndValues);
+  }
+
+  /**
+   * Creates a RegularImmutableMap from the first n key-value pairs in alternatingKeysAndValues,
+   * taking ownership of the array.
+   */
+  @SuppressWarnings("unchecked")
+  static <K, V> RegularImmutableMap<K, V> create(int n, Object[] alternatingKeysAndValues) {
     if (n == 0) {
       return (RegularImmutableMap<K, V>) EMPTY;
     }
-    Entry<K, V>[] entries;
-    if (n == entryArray.length) {
-      entries = entryArray;
-    } else {
-      entries = createEntryArray(n);
+    checkPositionIndex(n, alternatingKeysAndValues.length >> 1);
+    int tableSize = ImmutableSet.chooseTableSize(n);
+    Object hashTable = createHashTable(alternatingKeysAndValues, n, tableSize, 0);
+    return new RegularImmutableMap<K, V>(hashTable, alternatingKeysAndValues, n);
+  }
+
+  /**
+   * Returns a hash table for the first n keys in alternatingKeysAndValues (the ones at {@code 2 *
+   * i + keyOffset}), and ensures that neither keys nor values are null, and that no key is
+   * repeated. The table is a {@code byte[]}, {@code short[]} or {@code int[]} depending on {@code
+   * tableSize}, or null if {@code n == 1}.
+   */
+  @NullableDecl
+  static Object createHashTable(
+      Object[] alternatingKeysAndValues, int n, int tableSize, int keyOffset) {
+    if (n == 1) {
+      // for n=1 we don't create a hash table, but we need to do the checkEntryNotNull check!
+      checkEntryNotNull(
+          alternatingKeysAndValues[keyOffset], alternatingKeysAndValues[keyOffset ^ 1]);
+      return null;
     }
-    int tableSize = Hashing.closedTableSize(n, MAX_LOAD_FACTOR);
-    ImmutableMapEntry<K, V>[] table = createEntryArray(tableSize);
     int mask = tableSize - 1;
-    for (int entryIndex = 0; entryIndex < n; entryIndex++) {
-      Entry<K, V> entry = entryArray[entryIndex];
-      K key = entry.getKey();
-      V value = entry.getValue();
-      checkEntryNotNull(key, value);
-      int tableIndex = Hashing.smear(key.hashCode()) & mask;
-      @NullableDecl ImmutableMapEntry<K, V> existing = table[tableIndex];
-      // prepend, not append, so the entries can be immutable
-      ImmutableMapEntry<K, V> newEntry;
-      if (existing == null) {
-        boolean reusable =
-            entry instanceof ImmutableMapEntry && ((ImmutableMapEntry<K, V>) entry).isReusable();
-        newEntry =
-            reusable ? (ImmutableMapEntry<K, V>) entry : new ImmutableMapEntry<K, V>(key, value);
-      } else {
-        newEntry = new NonTerminalImmutableMapEntry<>(key, value, existing);
+    if (tableSize <= BYTE_MAX_SIZE) {
+      byte[] hashTable = new byte[tableSize];
+      Arrays.fill(hashTable, (byte) ABSENT);
+      for (int i = 0; i < n; i++) {
+        Object key = checkedKey(alternatingKeysAndValues, i, keyOffset);
+        for (int h = Hashing.smear(key.hashCode()); ; h++) {
+          h &= mask;
+          int previous = hashTable[h] & BYTE_MASK;
+          if (previous == BYTE_MASK) {
+            hashTable[h] = (byte) i;
+            break;
+          }
+          checkNoDuplicateKey(alternatingKeysAndValues, previous, i, keyOffset);
+        }
+      }
+      return hashTable;
+    } else if (tableSize <= SHORT_MAX_SIZE) {
+      short[] hashTable = new short[tableSize];
+      Arrays.fill(hashTable, (short) ABSENT);
+      for (int i = 0; i < n; i++) {
+        Object key = checkedKey(alternatingKeysAndValues, i, keyOffset);
+        for (int h = Hashing.smear(key.hashCode()); ; h++) {
+          h &= mask;
+          int previous = hashTable[h] & SHORT_MASK;
+          if (previous == SHORT_MASK) {
+            hashTable[h] = (short) i;
+            break;
+          }
+          checkNoDuplicateKey(alternatingKeysAndValues, previous, i, keyOffset);
+        }
+      }
+      return hashTable;
+    } else {
+      int[] hashTable = new int[tableSize];
+      Arrays.fill(hashTable, ABSENT);
+      for (int i = 0; i < n; i++) {
+        Object key = checkedKey(alternatingKeysAndValues, i, keyOffset);
+        for (int h = Hashing.smear(key.hashCode()); ; h++) {
+          h &= mask;
+          int previous = hashTable[h];
+          if (previous == ABSENT) {
+            hashTable[h] = i;
+            break;
+          }
+          checkNoDuplicateKey(alternatingKeysAndValues, previous, i, keyOffset);
+        }
       }
-      table[tableIndex] = newEntry;
-      entries[entryIndex] = newEntry;
-      checkNoConflictInKeyBucket(key, newEntry, existing);
+      return hashTable;
     }
-    return new RegularImmutableMap<>(entries, table, mask);
   }
 
-  private RegularImmutableMap(Entry<K, V>[] entries, ImmutableMapEntry<K, V>[] table, int mask) {
-    this.entries = entries;
-    this.table = table;
-    this.mask = mask;
+  private static Object checkedKey(Object[] alternatingKeysAndValues, int i, int keyOffset) {
+    Object key = alternatingKeysAndValues[2 * i + keyOffset];
+    checkEntryNotNull(key, alternatingKeysAndValues[2 * i + (keyOffset ^ 1)]);
+    return key;
   }
 
-  static void checkNoConflictInKeyBucket(
-      Object key, Entry<?, ?> entry, @NullableDecl ImmutableMapEntry<?, ?> keyBucketHead) {
-    for (; keyBucketHead != null; keyBucketHead = keyBucketHead.getNextInKeyBucket()) {
-      checkNoConflict(!key.equals(keyBucketHead.getKey()), "key", entry, keyBucketHead);
+  private static void checkNoDuplicateKey(
+      Object[] alternatingKeysAndValues, int previous, int i, int keyOffset) {
+    Object key = alternatingKeysAndValues[2 * i + keyOffset];
+    Object previousKey = alternatingKeysAndValues[2 * previous + keyOffset];
+    if (previousKey.equals(key)) {
+      throw new IllegalArgumentException(
+          "Multiple entries with same key: "
+              + key
+              + "="
+              + alternatingKeysAndValues[2 * i + (keyOffset ^ 1)]
+              + " and "
+              + previousKey
+              + "="
+              + alternatingKeysAndValues[2 * previous + (keyOffset ^ 1)]);
     }
   }
 
-  /**
-   * Closed addressing tends to perform well even with high load factors. Being conservative here
-   * ensures that the table is still likely to be relatively sparse (hence it misses fast) while
-   * saving space.
-   */
-  private static final double MAX_LOAD_FACTOR = 1.2;
+  private RegularImmutableMap(
+      @NullableDecl Object hashTable, Object[] alternatingKeysAndValues, int size) {
+    this.hashTable = hashTable;
+    this.alternatingKeysAndValues = alternatingKeysAndValues;
+    this.size = size;
+  }
 
   @Override
+  public int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  @NullableDecl
   public V get(@NullableDecl Object key) {
-    return get(key, table, mask);
+    return (V) get(hashTable, alternatingKeysAndValues, size, 0, key);
   }
 
+  /**
+   * Returns the value paired with {@code key}, looking the key up at offset {@code keyOffset} of
+   * each pair, through a hash table made by {@link #createHashTable}.
+   */
   @NullableDecl
-  static <V> V get(
-      @NullableDecl Object key, @NullableDecl ImmutableMapEntry<?, V>[] keyTable, int mask) {
-    if (key == null || keyTable == null) {
+  static Object get(
+      @NullableDecl Object hashTable,
+      Object[] alternatingKeysAndValues,
+      int size,
+      int keyOffset,
+      @NullableDecl Object key) {
+    if (key == null) {
+      return null;
+    } else if (size == 1) {
+      return alternatingKeysAndValues[keyOffset].equals(key)
+          ? alternatingKeysAndValues[keyOffset ^ 1]
+          : null;
+    } else if (hashTable == null) {
       return null;
     }
-    int index = Hashing.smear(key.hashCode()) & mask;
-    for (ImmutableMapEntry<?, V> entry = keyTable[index];
-        entry != null;
-        entry = entry.getNextInKeyBucket()) {
-      Object candidateKey = entry.getKey();
-
-      /*
-       * Assume that equals uses the == optimization when appropriate, and that
-       * it would check hash codes as an optimization when appropriate. If we
-       * did these things, it would just make things worse for the most
-       * performance-conscious users.
-       */
-      if (key.equals(candidateKey)) {
-        return entry.getValue();
+    if (hashTable instanceof byte[]) {
+      byte[] bytes = (byte[]) hashTable;
+      int mask = bytes.length - 1;
+      for (int h = Hashing.smear(key.hashCode()); ; h++) {
+        h &= mask;
+        int index = bytes[h] & BYTE_MASK;
+        if (index == BYTE_MASK) {
+          return null;
+        } else if (key.equals(alternatingKeysAndValues[2 * index + keyOffset])) {
+          return alternatingKeysAndValues[2 * index + (keyOffset ^ 1)];
+        }
+      }
+    } else if (hashTable instanceof short[]) {
+      short[] shorts = (short[]) hashTable;
+      int mask = shorts.length - 1;
+      for (int h = Hashing.smear(key.hashCode()); ; h++) {
+        h &= mask;
+        int index = shorts[h] & SHORT_MASK;
+        if (index == SHORT_MASK) {
+          return null;
+        } else if (key.equals(alternatingKeysAndValues[2 * index + keyOffset])) {
+          return alternatingKeysAndValues[2 * index + (keyOffset ^ 1)];
+        }
+      }
+    } else {
+      int[] ints = (int[]) hashTable;
+      int mask = ints.length - 1;
+      for (int h = Hashing.smear(key.hashCode()); ; h++) {
+        h &= mask;
+        int index = ints[h];
+        if (index == ABSENT) {
+          return null;
+        } else if (key.equals(alternatingKeysAndValues[2 * index + keyOffset])) {
+          return alternatingKeysAndValues[2 * index + (keyOffset ^ 1)];
+        }
       }
     }
-    return null;
   }
 
+  @SuppressWarnings("unchecked") // alternatingKeysAndValues alternates Ks and Vs
   @Override
   public void forEach(BiConsumer<? super K, ? super V> action) {
     checkNotNull(action);
-    for (Entry<K, V> entry : entries) {
-      action.accept(entry.getKey(), entry.getValue());
+    for (int i = 0; i < size; i++) {
+      action.accept((K) alternatingKeysAndValues[2 * i], (V) alternatingKeysAndValues[2 * i + 1]);
     }
   }
 
-  @Override
-  public int size() {
-    return entries.length;
-  }
-
   @Override
   boolean isPartialView() {
     return false;
@@ -167,7 +289,57 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
 
   @Override
   ImmutableSet<Entry<K, V>> createEntrySet() {
-    return new ImmutableMapEntrySet.RegularEntrySet<>(this, entries);
+    return new EntrySet<>(this);
+  }
+
+  /** An entry set whose entries are created on demand from the flat array. */
+  private static final class EntrySet<K, V> extends ImmutableMapEntrySet<K, V> {
+    @Weak private final transient RegularImmutableMap<K, V> map;
+
+    EntrySet(RegularImmutableMap<K, V> map) {
+      this.map = map;
+    }
+
+    @Override
+    ImmutableMap<K, V> map() {
+      return map;
+    }
+
+    @Override
+    public UnmodifiableIterator<Entry<K, V>> iterator() {
+      return asList().iterator();
+    }
+
+    @Override
+    public Spliterator<Entry<K, V>> spliterator() {
+      return asList().spliterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Entry<K, V>> action) {
+      asList().forEach(action);
+    }
+
+    @Override
+    ImmutableList<Entry<K, V>> createAsList() {
+      return new ImmutableAsList<Entry<K, V>>() {
+        @SuppressWarnings("unchecked") // alternatingKeysAndValues alternates Ks and Vs
+        @Override
+        public Entry<K, V> get(int index) {
+          checkElementIndex(index, map.size);
+          return Maps.immutableEntry(
+              (K) map.alternatingKeysAndValues[2 * index],
+              (V) map.alternatingKeysAndValues[2 * index + 1]);
+        }
+
+        @Override
+        ImmutableCollection<Entry<K, V>> delegateCollection() {
+          return EntrySet.this;
+        }
+      };
+    }
+
+    private static final long serialVersionUID = 0;
   }
 
   @Override
@@ -183,9 +355,11 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
       this.map = map;
     }
 
+    @SuppressWarnings("unchecked") // keys are at the even indices
     @Override
     K get(int index) {
-      return map.entries[index].getKey();
+      checkElementIndex(index, map.size);
+      return (K) map.alternatingKeysAndValues[2 * index];
     }
 
     @Override
@@ -238,9 +412,11 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
       this.map = map;
     }
 
+    @SuppressWarnings("unchecked") // values are at the odd indices
     @Override
     public V get(int index) {
-      return map.entries[index].getValue();
+      checkElementIndex(index, map.size);
+      return (V) map.alternatingKeysAndValues[2 * index + 1];
     }
 
     @Override
@@ -63,7 +63,8 @@ final class RegularImmutableSortedSet<E> extends ImmutableSortedSet<E> {
 
   @Override
   public Spliterator<E> spliterator() {
-    return asList().spliterator();
+    return CollectSpliterators.indexed(
+        size(), SPLITERATOR_CHARACTERISTICS, elements::get, comparator());
   }
 
   @Override
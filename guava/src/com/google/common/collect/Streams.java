@@ -32,7 +32,6 @@ import java.util.OptionalLong;
 import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
-import java.util.Spliterators.AbstractSpliterator;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -232,9 +231,13 @@ public final class Streams {
    * <p>Note that if you are calling {@link Stream#forEach} on the resulting stream, you might want
    * to consider using {@link #forEachPair} instead of this method.
    *
-   * <p><b>Performance note:</b> The resulting stream is not <a
-   * href="http://gee.cs.oswego.edu/dl/html/StreamParallelGuidance.html">efficiently splittable</a>.
-   * This may harm parallel performance.
+   * <p>The resulting stream is <a
+   * href="http://gee.cs.oswego.edu/dl/html/StreamParallelGuidance.html">efficiently splittable</a>
+   * if both streams are efficiently splittable, report {@link Spliterator#SUBSIZED}, and have the
+   * same size, and if they split at the same points, which is generally the case for streams of
+   * arrays or lists of the same length. Otherwise, it splits by copying batches of pairs of
+   * elements into arrays, as does a stream of an {@link Iterator}, so that {@code function} is
+   * still applied in parallel.
    */
   public static <A, B, R> Stream<R> zip(
       Stream<A> streamA, Stream<B> streamB, BiFunction<? super A, ? super B, R> function) {
@@ -242,31 +245,128 @@ public final class Streams {
     checkNotNull(streamB);
     checkNotNull(function);
     boolean isParallel = streamA.isParallel() || streamB.isParallel(); // same as Stream.concat
-    Spliterator<A> splitrA = streamA.spliterator();
-    Spliterator<B> splitrB = streamB.spliterator();
-    int characteristics =
-        splitrA.characteristics()
-            & splitrB.characteristics()
-            & (Spliterator.SIZED | Spliterator.ORDERED);
-    Iterator<A> itrA = Spliterators.iterator(splitrA);
-    Iterator<B> itrB = Spliterators.iterator(splitrB);
     return StreamSupport.stream(
-            new AbstractSpliterator<R>(
-                Math.min(splitrA.estimateSize(), splitrB.estimateSize()), characteristics) {
-              @Override
-              public boolean tryAdvance(Consumer<? super R> action) {
-                if (itrA.hasNext() && itrB.hasNext()) {
-                  action.accept(function.apply(itrA.next(), itrB.next()));
-                  return true;
-                }
-                return false;
-              }
-            },
+            new ZipSpliterator<A, B, R>(streamA.spliterator(), streamB.spliterator(), function),
             isParallel)
         .onClose(streamA::close)
         .onClose(streamB::close);
   }
 
+  /** The spliterator of a stream returned by {@link #zip}. */
+  private static final class ZipSpliterator<A, B, R> implements Spliterator<R> {
+    // the same as in Spliterators.IteratorSpliterator
+    private static final int BATCH_UNIT = 1 << 10;
+    private static final int MAX_BATCH = 1 << 25;
+
+    Spliterator<A> splitrA;
+    Spliterator<B> splitrB;
+    final BiFunction<? super A, ? super B, R> function;
+
+    /** Whether both spliterators are split, while their prefixes have the same size. */
+    boolean lockstep;
+
+    /** The size of the last batch split off, when not splitting in lockstep. */
+    int batch;
+
+    @NullableDecl A heldA;
+    @NullableDecl B heldB;
+    final Consumer<A> holderA = a -> heldA = a;
+    final Consumer<B> holderB = b -> heldB = b;
+
+    ZipSpliterator(
+        Spliterator<A> splitrA,
+        Spliterator<B> splitrB,
+        BiFunction<? super A, ? super B, R> function) {
+      this.splitrA = splitrA;
+      this.splitrB = splitrB;
+      this.function = function;
+      long size = splitrA.getExactSizeIfKnown();
+      this.lockstep =
+          size >= 0
+              && size == splitrB.getExactSizeIfKnown()
+              && splitrA.hasCharacteristics(Spliterator.SUBSIZED)
+              && splitrB.hasCharacteristics(Spliterator.SUBSIZED);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+      if (splitrA.tryAdvance(holderA) && splitrB.tryAdvance(holderB)) {
+        try {
+          action.accept(function.apply(heldA, heldB));
+          return true;
+        } finally {
+          heldA = null;
+          heldB = null;
+        }
+      }
+      heldA = null;
+      return false;
+    }
+
+    @Override
+    public Spliterator<R> trySplit() {
+      if (lockstep) {
+        Spliterator<A> prefixA = splitrA.trySplit();
+        if (prefixA == null) {
+          return null;
+        }
+        Spliterator<B> prefixB = splitrB.trySplit();
+        if (prefixB != null && prefixB.getExactSizeIfKnown() == prefixA.getExactSizeIfKnown()) {
+          return new ZipSpliterator<>(prefixA, prefixB, function);
+        }
+        // the streams split at different points, so rejoin them and split off batches instead
+        lockstep = false;
+        splitrA = concat(prefixA, splitrA);
+        if (prefixB != null) {
+          splitrB = concat(prefixB, splitrB);
+        }
+      }
+      long size = estimateSize();
+      if (size <= 1) {
+        return null;
+      }
+      int n = (int) Math.min(Math.min(batch + BATCH_UNIT, MAX_BATCH), size);
+      Object[] as = new Object[n];
+      Object[] bs = new Object[n];
+      int count = 0;
+      while (count < n && splitrA.tryAdvance(holderA) && splitrB.tryAdvance(holderB)) {
+        as[count] = heldA;
+        bs[count] = heldB;
+        count++;
+      }
+      heldA = null;
+      heldB = null;
+      if (count == 0) {
+        return null;
+      }
+      batch = count;
+      int characteristics = characteristics() & Spliterator.ORDERED;
+      return new ZipSpliterator<A, B, R>(
+          Spliterators.<A>spliterator(as, 0, count, characteristics),
+          Spliterators.<B>spliterator(bs, 0, count, characteristics),
+          function);
+    }
+
+    private static <T> Spliterator<T> concat(Spliterator<T> first, Spliterator<T> second) {
+      return Stream.concat(StreamSupport.stream(first, false), StreamSupport.stream(second, false))
+          .spliterator();
+    }
+
+    @Override
+    public long estimateSize() {
+      return Math.min(splitrA.estimateSize(), splitrB.estimateSize());
+    }
+
+    @Override
+    public int characteristics() {
+      return splitrA.characteristics()
+          & splitrB.characteristics()
+          & (lockstep
+              ? Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+              : Spliterator.ORDERED | Spliterator.SIZED);
+    }
+  }
+
   /**
    * Invokes {@code consumer} once for each pair of <i>corresponding</i> elements in {@code streamA}
    * and {@code streamB}. If one stream is longer than the other, the extra elements are silently
@@ -289,7 +389,8 @@ public final class Streams {
    *
    * <p><b>Warning:</b> If either supplied stream is a parallel stream, the same correspondence
    * between elements will be made, but the order in which those pairs of elements are passed to the
-   * consumer is <i>not</i> defined.
+   * consumer is <i>not</i> defined. The pairs are then passed to the consumer in parallel, and as
+   * efficiently as {@link #zip} splits the streams.
    *
    * <p>Note that many usages of this method can be replaced with simpler calls to {@link #zip}.
    * This method behaves equivalently to {@linkplain #zip zipping} the stream elements into
@@ -340,7 +441,8 @@ public final class Streams {
    * if and only if {@code stream} was efficiently splittable and its underlying spliterator
    * reported {@link Spliterator#SUBSIZED}. This is generally the case if the underlying stream
    * comes from a data structure supporting efficient indexed random access, typically an array or
-   * list.
+   * list. Otherwise, it splits by copying batches of elements into arrays, as does a stream of an
+   * {@link Iterator}, so that {@code function} is still applied in parallel.
    *
    * <p>The order of the resulting stream is defined if and only if the order of the original stream
    * was defined.
@@ -353,24 +455,7 @@ public final class Streams {
     Spliterator<T> fromSpliterator = stream.spliterator();
 
     if (!fromSpliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
-      Iterator<T> fromIterator = Spliterators.iterator(fromSpliterator);
-      return StreamSupport.stream(
-              new AbstractSpliterator<R>(
-                  fromSpliterator.estimateSize(),
-                  fromSpliterator.characteristics() & (Spliterator.ORDERED | Spliterator.SIZED)) {
-                long index = 0;
-
-                @Override
-                public boolean tryAdvance(Consumer<? super R> action) {
-                  if (fromIterator.hasNext()) {
-                    action.accept(function.apply(fromIterator.next(), index++));
-                    return true;
-                  }
-                  return false;
-                }
-              },
-              isParallel)
-          .onClose(stream::close);
+      fromSpliterator = withSizedSplits(fromSpliterator);
     }
     class Splitr extends MapWithIndexSpliterator<Spliterator<T>, R, Splitr> implements Consumer<T> {
       @NullableDecl T holder;
@@ -419,6 +504,47 @@ public final class Streams {
     R apply(T from, long index);
   }
 
+  /**
+   * Returns a spliterator over the remaining elements of {@code splitr}, which splits by copying
+   * batches of elements into arrays, as do spliterators over iterators, so that the size of each
+   * split is known, and hence so is the index of each element after it.
+   */
+  private static <T> Spliterator<T> withSizedSplits(Spliterator<T> splitr) {
+    int characteristics = splitr.characteristics() & Spliterator.ORDERED;
+    long size = splitr.getExactSizeIfKnown();
+    Iterator<T> iterator = Spliterators.iterator(splitr);
+    return (size >= 0)
+        ? Spliterators.spliterator(iterator, size, characteristics)
+        : Spliterators.spliteratorUnknownSize(iterator, characteristics);
+  }
+
+  private static Spliterator.OfInt withSizedSplits(Spliterator.OfInt splitr) {
+    int characteristics = splitr.characteristics() & Spliterator.ORDERED;
+    long size = splitr.getExactSizeIfKnown();
+    PrimitiveIterator.OfInt iterator = Spliterators.iterator(splitr);
+    return (size >= 0)
+        ? Spliterators.spliterator(iterator, size, characteristics)
+        : Spliterators.spliteratorUnknownSize(iterator, characteristics);
+  }
+
+  private static Spliterator.OfLong withSizedSplits(Spliterator.OfLong splitr) {
+    int characteristics = splitr.characteristics() & Spliterator.ORDERED;
+    long size = splitr.getExactSizeIfKnown();
+    PrimitiveIterator.OfLong iterator = Spliterators.iterator(splitr);
+    return (size >= 0)
+        ? Spliterators.spliterator(iterator, size, characteristics)
+        : Spliterators.spliteratorUnknownSize(iterator, characteristics);
+  }
+
+  private static Spliterator.OfDouble withSizedSplits(Spliterator.OfDouble splitr) {
+    int characteristics = splitr.characteristics() & Spliterator.ORDERED;
+    long size = splitr.getExactSizeIfKnown();
+    PrimitiveIterator.OfDouble iterator = Spliterators.iterator(splitr);
+    return (size >= 0)
+        ? Spliterators.spliterator(iterator, size, characteristics)
+        : Spliterators.spliteratorUnknownSize(iterator, characteristics);
+  }
+
   private abstract static class MapWithIndexSpliterator<
           F extends Spliterator<?>, R, S extends MapWithIndexSpliterator<F, R, S>>
       implements Spliterator<R> {
@@ -473,7 +599,8 @@ public final class Streams {
    * if and only if {@code stream} was efficiently splittable and its underlying spliterator
    * reported {@link Spliterator#SUBSIZED}. This is generally the case if the underlying stream
    * comes from a data structure supporting efficient indexed random access, typically an array or
-   * list.
+   * list. Otherwise, it splits by copying batches of elements into arrays, as does a stream of an
+   * {@link Iterator}, so that {@code function} is still applied in parallel.
    *
    * <p>The order of the resulting stream is defined if and only if the order of the original stream
    * was defined.
@@ -485,24 +612,7 @@ public final class Streams {
     Spliterator.OfInt fromSpliterator = stream.spliterator();
 
     if (!fromSpliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
-      PrimitiveIterator.OfInt fromIterator = Spliterators.iterator(fromSpliterator);
-      return StreamSupport.stream(
-              new AbstractSpliterator<R>(
-                  fromSpliterator.estimateSize(),
-                  fromSpliterator.characteristics() & (Spliterator.ORDERED | Spliterator.SIZED)) {
-                long index = 0;
-
-                @Override
-                public boolean tryAdvance(Consumer<? super R> action) {
-                  if (fromIterator.hasNext()) {
-                    action.accept(function.apply(fromIterator.nextInt(), index++));
-                    return true;
-                  }
-                  return false;
-                }
-              },
-              isParallel)
-          .onClose(stream::close);
+      fromSpliterator = withSizedSplits(fromSpliterator);
     }
     class Splitr extends MapWithIndexSpliterator<Spliterator.OfInt, R, Splitr>
         implements IntConsumer, Spliterator<R> {
@@ -565,7 +675,8 @@ public final class Streams {
    * if and only if {@code stream} was efficiently splittable and its underlying spliterator
    * reported {@link Spliterator#SUBSIZED}. This is generally the case if the underlying stream
    * comes from a data structure supporting efficient indexed random access, typically an array or
-   * list.
+   * list. Otherwise, it splits by copying batches of elements into arrays, as does a stream of an
+   * {@link Iterator}, so that {@code function} is still applied in parallel.
    *
    * <p>The order of the resulting stream is defined if and only if the order of the original stream
    * was defined.
@@ -577,24 +688,7 @@ public final class Streams {
     Spliterator.OfLong fromSpliterator = stream.spliterator();
 
     if (!fromSpliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
-      PrimitiveIterator.OfLong fromIterator = Spliterators.iterator(fromSpliterator);
-      return StreamSupport.stream(
-              new AbstractSpliterator<R>(
-                  fromSpliterator.estimateSize(),
-                  fromSpliterator.characteristics() & (Spliterator.ORDERED | Spliterator.SIZED)) {
-                long index = 0;
-
-                @Override
-                public boolean tryAdvance(Consumer<? super R> action) {
-                  if (fromIterator.hasNext()) {
-                    action.accept(function.apply(fromIterator.nextLong(), index++));
-                    return true;
-                  }
-                  return false;
-                }
-              },
-              isParallel)
-          .onClose(stream::close);
+      fromSpliterator = withSizedSplits(fromSpliterator);
     }
     class Splitr extends MapWithIndexSpliterator<Spliterator.OfLong, R, Splitr>
         implements LongConsumer, Spliterator<R> {
@@ -657,7 +751,8 @@ public final class Streams {
    * if and only if {@code stream} was efficiently splittable and its underlying spliterator
    * reported {@link Spliterator#SUBSIZED}. This is generally the case if the underlying stream
    * comes from a data structure supporting efficient indexed random access, typically an array or
-   * list.
+   * list. Otherwise, it splits by copying batches of elements into arrays, as does a stream of an
+   * {@link Iterator}, so that {@code function} is still applied in parallel.
    *
    * <p>The order of the resulting stream is defined if and only if the order of the original stream
    * was defined.
@@ -670,24 +765,7 @@ public final class Streams {
     Spliterator.OfDouble fromSpliterator = stream.spliterator();
 
     if (!fromSpliterator.hasCharacteristics(Spliterator.SUBSIZED)) {
-      PrimitiveIterator.OfDouble fromIterator = Spliterators.iterator(fromSpliterator);
-      return StreamSupport.stream(
-              new AbstractSpliterator<R>(
-                  fromSpliterator.estimateSize(),
-                  fromSpliterator.characteristics() & (Spliterator.ORDERED | Spliterator.SIZED)) {
-                long index = 0;
-
-                @Override
-                public boolean tryAdvance(Consumer<? super R> action) {
-                  if (fromIterator.hasNext()) {
-                    action.accept(function.apply(fromIterator.nextDouble(), index++));
-                    return true;
-                  }
-                  return false;
-                }
-              },
-              isParallel)
-          .onClose(stream::close);
+      fromSpliterator = withSizedSplits(fromSpliterator);
     }
     class Splitr extends MapWithIndexSpliterator<Spliterator.OfDouble, R, Splitr>
         implements DoubleConsumer, Spliterator<R> {
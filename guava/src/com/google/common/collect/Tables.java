@@ -713,6 +713,10 @@ public final class Tables {
    *
    * <p>Failure to follow this advice may result in non-deterministic behavior.
    *
+   * <p>All the operations of the returned table contend on a single lock. When many threads update
+   * a table, consider {@link ConcurrentHashBasedTable} instead, whose updates of different cells
+   * proceed in parallel, and whose views can be iterated without locking.
+   *
    * <p>The returned table will be serializable if the specified table is serializable.
    *
    * @param table the table to be wrapped in a synchronized view
@@ -218,11 +218,21 @@ import org.checkerframework.checker.nullness.compatqual.NullableDecl;
     buffer[j] = tmp;
   }
 
+  /**
+   * Merges the candidates of two selectors created with the same {@code k} and comparator, and
+   * returns the selector holding them, which is either {@code this} or {@code other}; the other one
+   * should no longer be used. The candidates of the selector holding fewer of them are offered to
+   * the other one, whose threshold rejects most of them with a single comparison, while the rest
+   * fill its 2k buffer, which is quickselected as usual. This takes O(k) time, whatever the number
+   * of elements offered to either selector.
+   */
   TopKSelector<T> combine(TopKSelector<T> other) {
-    for (int i = 0; i < other.bufferSize; i++) {
-      this.offer(other.buffer[i]);
+    TopKSelector<T> target = (other.bufferSize > this.bufferSize) ? other : this;
+    TopKSelector<T> source = (target == this) ? other : this;
+    for (int i = 0; i < source.bufferSize; i++) {
+      target.offer(source.buffer[i]);
     }
-    return this;
+    return target;
   }
 
   /**
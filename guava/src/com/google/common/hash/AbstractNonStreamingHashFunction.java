@@ -70,6 +70,13 @@ abstract class AbstractNonStreamingHashFunction extends AbstractHashFunction {
 
   @Override
   public HashCode hashBytes(ByteBuffer input) {
+    if (input.hasArray()) {
+      // Hash the backing array in place rather than copying it into a BufferingHasher.
+      HashCode hash =
+          hashBytes(input.array(), input.arrayOffset() + input.position(), input.remaining());
+      input.position(input.limit());
+      return hash;
+    }
     return newHasher(input.remaining()).putBytes(input).hash();
   }
 
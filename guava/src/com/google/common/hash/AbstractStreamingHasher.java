@@ -114,11 +114,13 @@ abstract class AbstractStreamingHasher extends AbstractHasher {
       return this;
     }
 
-    // First add just enough to fill buffer size, and munch that
+    // First add just enough to fill buffer size, and munch that. The bulk put copies directly from
+    // heap and direct buffers alike.
     int bytesToCopy = bufferSize - buffer.position();
-    for (int i = 0; i < bytesToCopy; i++) {
-      buffer.put(readBuffer.get());
-    }
+    int readLimit = readBuffer.limit();
+    readBuffer.limit(readBuffer.position() + bytesToCopy);
+    buffer.put(readBuffer);
+    readBuffer.limit(readLimit);
     munch(); // buffer becomes empty here, since chunkSize divides bufferSize
 
     // Now process directly from the rest of the input buffer
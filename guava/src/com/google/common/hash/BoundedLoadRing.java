@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A consistent hash ring which can bound the load of its nodes, as described in <a
+ * href="https://arxiv.org/abs/1608.01350">Consistent Hashing with Bounded Loads</a>.
+ *
+ * <p>Every node is placed on a ring of 64-bit hash codes at a number of pseudorandom points, its
+ * <i>virtual nodes</i>. {@link #nodeFor} assigns a hash code to the owner of the first point at or
+ * after it, wrapping around at the end of the ring, so that each node owns roughly the same share
+ * of the ring and a membership change only moves the hash codes next to the points that were added
+ * or removed.
+ *
+ * <p>Additionally, the ring tracks the load of each node: {@link #acquire} assigns a hash code to
+ * the first node, starting from the position of the hash code, whose load is below {@code
+ * ceil(loadFactor * (totalLoad + 1) / nodes().size())}, and increments that node's load; {@link
+ * #release} decrements it again once the work is done. No node is ever loaded more than {@code
+ * loadFactor} times the average, at the cost of some hash codes being assigned to a node other than
+ * their owner while the owner is busy. Concurrent calls to {@code acquire} may overshoot the bound
+ * by the number of racing threads.
+ *
+ * <p>The set of nodes of a ring is fixed. {@link #withNode} and {@link #withoutNode} return a new
+ * ring with the changed membership, which starts out with the current loads of the nodes that it
+ * retains; {@link #movedFraction} reports how much of the ring the change reassigned.
+ *
+ * @param <N> the type of the node identities
+ * @since NEXT
+ */
+@Beta
+public final class BoundedLoadRing<N> extends ConsistentHasher<N> {
+  private final ImmutableSet<N> nodes;
+  private final Funnel<? super N> funnel;
+  private final int virtualNodes;
+  private final double loadFactor;
+
+  /** The positions of all virtual nodes, in ascending order. */
+  private final long[] points;
+
+  /** The index in {@code nodeList} of the node owning each point. */
+  private final int[] owners;
+
+  private final ImmutableList<N> nodeList;
+  private final ImmutableMap<N, Integer> indices;
+  private final AtomicLongArray loads;
+  private final AtomicLong totalLoad = new AtomicLong();
+
+  private BoundedLoadRing(
+      ImmutableSet<N> nodes, Funnel<? super N> funnel, int virtualNodes, double loadFactor) {
+    checkArgument(!nodes.isEmpty(), "nodes must not be empty");
+    checkArgument(virtualNodes > 0, "virtualNodes (%s) must be > 0", virtualNodes);
+    checkArgument(
+        (long) nodes.size() * virtualNodes <= Integer.MAX_VALUE,
+        "too many virtual nodes: %s * %s",
+        nodes.size(),
+        virtualNodes);
+    checkArgument(loadFactor > 1.0, "loadFactor (%s) must be > 1.0", loadFactor);
+    this.nodes = nodes;
+    this.funnel = checkNotNull(funnel);
+    this.virtualNodes = virtualNodes;
+    this.loadFactor = loadFactor;
+    this.nodeList = nodes.asList();
+    ImmutableMap.Builder<N, Integer> indicesBuilder = ImmutableMap.builder();
+    for (int i = 0; i < nodeList.size(); i++) {
+      indicesBuilder.put(nodeList.get(i), i);
+    }
+    this.indices = indicesBuilder.build();
+    this.loads = new AtomicLongArray(nodes.size());
+
+    // Sort the points by position while keeping track of their owners.
+    int numPoints = nodes.size() * virtualNodes;
+    long[][] pointsAndOwners = new long[numPoints][];
+    for (int i = 0; i < nodeList.size(); i++) {
+      long[] hash = hashNode(nodeList.get(i), funnel);
+      long point = hash[0];
+      for (int j = 0; j < virtualNodes; j++) {
+        pointsAndOwners[i * virtualNodes + j] = new long[] {point, i};
+        point = mix64(point + hash[1]);
+      }
+    }
+    Arrays.sort(
+        pointsAndOwners,
+        new Comparator<long[]>() {
+          @Override
+          public int compare(long[] a, long[] b) {
+            int result = Long.compare(a[0], b[0]);
+            return (result != 0) ? result : Long.compare(a[1], b[1]);
+          }
+        });
+    this.points = new long[numPoints];
+    this.owners = new int[numPoints];
+    for (int i = 0; i < numPoints; i++) {
+      points[i] = pointsAndOwners[i][0];
+      owners[i] = (int) pointsAndOwners[i][1];
+    }
+  }
+
+  /**
+   * Creates a ring with 100 virtual nodes per node. See {@link #create(Iterable, Funnel, int,
+   * double)}.
+   */
+  public static <N> BoundedLoadRing<N> create(
+      Iterable<? extends N> nodes, Funnel<? super N> funnel, double loadFactor) {
+    return create(nodes, funnel, 100, loadFactor);
+  }
+
+  /**
+   * Creates a ring of the given nodes. Duplicate nodes are ignored.
+   *
+   * <p>More virtual nodes per node make the shares of the ring more even, at the cost of memory
+   * (twelve bytes per virtual node) and of slower construction; lookups take logarithmic time in
+   * the total number of virtual nodes. The paper recommends a {@code loadFactor} of 1.25, which
+   * keeps the number of hash codes diverted away from their owner low.
+   *
+   * @param nodes the nodes
+   * @param funnel the funnel used to hash the node identities
+   * @param virtualNodes the number of points at which each node is placed on the ring
+   * @param loadFactor the maximum ratio between the load of any node and the average load; must be
+   *     greater than 1.0
+   * @throws IllegalArgumentException if {@code nodes} is empty, {@code virtualNodes} is not
+   *     positive, or {@code loadFactor} is not greater than 1.0
+   */
+  public static <N> BoundedLoadRing<N> create(
+      Iterable<? extends N> nodes, Funnel<? super N> funnel, int virtualNodes, double loadFactor) {
+    return new BoundedLoadRing<N>(ImmutableSet.<N>copyOf(nodes), funnel, virtualNodes, loadFactor);
+  }
+
+  /**
+   * Returns the owner of the given hash code, ignoring loads: the node of the first point on the
+   * ring at or after {@code hash}.
+   */
+  @Override
+  public N nodeFor(long hash) {
+    return nodeList.get(owners[firstPointAtOrAfter(hash)]);
+  }
+
+  @Override
+  public ImmutableSet<N> nodes() {
+    return nodes;
+  }
+
+  /**
+   * Assigns the given hash code to a node whose load is within bounds, and increments the load of
+   * that node. Call {@link #release} with the returned node when the work has completed.
+   */
+  @CanIgnoreReturnValue
+  public N acquire(long hash) {
+    int start = firstPointAtOrAfter(hash);
+    long capacity = (long) Math.ceil(loadFactor * (totalLoad.get() + 1) / nodes.size());
+    for (int i = 0; i < points.length; i++) {
+      int node = owners[(start + i) % points.length];
+      long load;
+      while ((load = loads.get(node)) < capacity) {
+        if (loads.compareAndSet(node, load, load + 1)) {
+          totalLoad.incrementAndGet();
+          return nodeList.get(node);
+        }
+      }
+    }
+    // Only reachable when racing threads filled every node; fall back to the owner.
+    int node = owners[start];
+    loads.incrementAndGet(node);
+    totalLoad.incrementAndGet();
+    return nodeList.get(node);
+  }
+
+  /** Equivalent to {@code acquire(hashCode.padToLong())}. */
+  @CanIgnoreReturnValue
+  public N acquire(HashCode hashCode) {
+    return acquire(hashCode.padToLong());
+  }
+
+  /**
+   * Decrements the load of the given node, which was previously returned by {@link #acquire}.
+   *
+   * @throws IllegalArgumentException if {@code node} is not a node of this ring
+   * @throws IllegalStateException if the load of {@code node} is already zero
+   */
+  public void release(N node) {
+    int index = indexOf(node);
+    long load;
+    do {
+      load = loads.get(index);
+      checkState(load > 0, "load of %s is already 0", node);
+    } while (!loads.compareAndSet(index, load, load - 1));
+    totalLoad.decrementAndGet();
+  }
+
+  /**
+   * Returns the current load of the given node.
+   *
+   * @throws IllegalArgumentException if {@code node} is not a node of this ring
+   */
+  public long load(N node) {
+    return loads.get(indexOf(node));
+  }
+
+  /** Returns the sum of the loads of all nodes. */
+  public long totalLoad() {
+    return totalLoad.get();
+  }
+
+  /**
+   * Returns a ring with the same parameters as this one and {@code node} added. The nodes of this
+   * ring keep their current loads in the new ring.
+   */
+  public BoundedLoadRing<N> withNode(N node) {
+    checkNotNull(node);
+    return copyWith(ImmutableSet.<N>builder().addAll(nodes).add(node).build());
+  }
+
+  /**
+   * Returns a ring with the same parameters as this one and {@code node} removed. The remaining
+   * nodes keep their current loads in the new ring.
+   *
+   * @throws IllegalArgumentException if {@code node} is the only node of this ring
+   */
+  public BoundedLoadRing<N> withoutNode(N node) {
+    checkNotNull(node);
+    ImmutableSet.Builder<N> builder = ImmutableSet.builder();
+    for (N existing : nodes) {
+      if (!existing.equals(node)) {
+        builder.add(existing);
+      }
+    }
+    return copyWith(builder.build());
+  }
+
+  private BoundedLoadRing<N> copyWith(ImmutableSet<N> newNodes) {
+    BoundedLoadRing<N> ring = new BoundedLoadRing<N>(newNodes, funnel, virtualNodes, loadFactor);
+    for (int i = 0; i < ring.nodeList.size(); i++) {
+      Integer index = indices.get(ring.nodeList.get(i));
+      if (index != null) {
+        long load = loads.get(index);
+        ring.loads.set(i, load);
+        ring.totalLoad.addAndGet(load);
+      }
+    }
+    return ring;
+  }
+
+  private int indexOf(N node) {
+    Integer index = indices.get(node);
+    checkArgument(index != null, "%s is not a node of this ring", node);
+    return index;
+  }
+
+  private int firstPointAtOrAfter(long hash) {
+    int index = Arrays.binarySearch(points, hash);
+    if (index < 0) {
+      index = -index - 1;
+    } else {
+      // Several virtual nodes may share a position; use the first of them.
+      while (index > 0 && points[index - 1] == hash) {
+        index--;
+      }
+    }
+    return (index == points.length) ? 0 : index;
+  }
+
+  @Override
+  public String toString() {
+    return "BoundedLoadRing(" + nodes + ", " + virtualNodes + ", " + loadFactor + ")";
+  }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.math.LongMath;
+import com.google.common.primitives.Longs;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+
+/**
+ * Assigns hash codes to the members of a set of nodes, such that changing the set of nodes
+ * reassigns as few hash codes as possible. Typical uses are sharding a cache or routing requests
+ * across a group of servers whose membership changes over time.
+ *
+ * <p>Unlike {@link Hashing#consistentHash(long, int)}, which maps to bucket numbers and can only
+ * drop the most recently added bucket, a {@code ConsistentHasher} takes arbitrary node identities,
+ * which are hashed through a {@link Funnel}, and any node can be added or removed. Three strategies
+ * are available:
+ *
+ * <ul>
+ *   <li>{@link #weightedRendezvous}: each node receives a share of the hash codes proportional to
+ *       its weight, and changing the membership moves only the hash codes owned by the nodes that
+ *       left, or that the nodes that joined take over. A lookup takes time linear in the number of
+ *       nodes.
+ *   <li>{@link #maglev}: a precomputed lookup table, as described in <a
+ *       href="https://research.google.com/pubs/pub44824.html">Maglev: A Fast and Reliable Software
+ *       Network Load Balancer</a>, gives constant-time lookups and a near-perfect balance, at the
+ *       cost of slightly more movement than the minimum when membership changes.
+ *   <li>{@link BoundedLoadRing}: a hash ring with virtual nodes which, in addition to plain
+ *       lookups, can assign hash codes while keeping the load of every node within a constant
+ *       factor of the average.
+ * </ul>
+ *
+ * <p>Instances have a fixed set of nodes and are safe for use by multiple threads. To change the
+ * membership, create a new instance; {@link #movedFraction} reports how much of the hash space the
+ * change reassigned.
+ *
+ * <p>The assignment of a given hash code depends only on the node identities as seen through the
+ * funnel and on the parameters of the strategy, so independent processes which create an instance
+ * from the same nodes agree on every assignment. It is not guaranteed to be stable across Guava
+ * releases, however.
+ *
+ * @param <N> the type of the node identities
+ * @since NEXT
+ */
+@Beta
+public abstract class ConsistentHasher<N> {
+  /** Number of evenly spread hash codes sampled by the default {@link #movedFraction}. */
+  private static final int MOVEMENT_SAMPLES = 1 << 16;
+
+  /** The default size of {@link #maglev} lookup tables, a prime number. */
+  private static final int DEFAULT_MAGLEV_TABLE_SIZE = 65537;
+
+  ConsistentHasher() {}
+
+  /** Returns the node assigned to the given hash code. */
+  public abstract N nodeFor(long hash);
+
+  /**
+   * Returns the node assigned to the given hash code. This is equivalent to {@code
+   * nodeFor(hashCode.padToLong())}.
+   */
+  public N nodeFor(HashCode hashCode) {
+    return nodeFor(hashCode.padToLong());
+  }
+
+  /** Returns the nodes that hash codes are assigned to. */
+  public abstract ImmutableSet<N> nodes();
+
+  /**
+   * Returns the fraction of the hash space, between 0.0 and 1.0, that {@code previous} and this
+   * instance assign to different nodes. If this instance was created from the nodes of {@code
+   * previous} with some nodes added or removed, this is the fraction of keys that the membership
+   * change moved to another node; the ideal is the weight share of the nodes that left or joined.
+   *
+   * <p>Unless both instances are {@linkplain #maglev Maglev} tables of the same size, in which case
+   * the result is exact, this method compares the assignments of 65,536 evenly spread hash codes,
+   * and the result is an estimate.
+   */
+  public double movedFraction(ConsistentHasher<?> previous) {
+    checkNotNull(previous);
+    int moved = 0;
+    long hash = 0;
+    for (int i = 0; i < MOVEMENT_SAMPLES; i++) {
+      // A Weyl sequence covers the 64-bit hash space evenly.
+      hash += 0x9e3779b97f4a7c15L;
+      if (!nodeFor(hash).equals(previous.nodeFor(hash))) {
+        moved++;
+      }
+    }
+    return (double) moved / MOVEMENT_SAMPLES;
+  }
+
+  /**
+   * Returns a {@code ConsistentHasher} which assigns each hash code to the node with the highest
+   * weighted rendezvous score for it, also known as highest random weight hashing. Each node
+   * receives a share of the hash codes proportional to its weight.
+   *
+   * <p>Rendezvous hashing moves the minimum possible number of hash codes when nodes join or leave,
+   * or when their weights change: removing a node only reassigns the hash codes it owned, spread
+   * among the remaining nodes in proportion to their weights. A lookup computes a score for every
+   * node, so it takes time linear in the number of nodes; prefer {@link #maglev} for more than a
+   * few dozen nodes.
+   *
+   * @param weights the nodes and their weights, which must be positive and finite
+   * @param funnel the funnel used to hash the node identities
+   * @throws IllegalArgumentException if {@code weights} is empty or a weight is not positive and
+   *     finite
+   */
+  public static <N> ConsistentHasher<N> weightedRendezvous(
+      Map<? extends N, ? extends Number> weights, Funnel<? super N> funnel) {
+    return new WeightedRendezvousHasher<N>(ImmutableMap.<N, Number>copyOf(weights), funnel);
+  }
+
+  /**
+   * Returns a {@code ConsistentHasher} backed by a Maglev lookup table with 65,537 entries. See
+   * {@link #maglev(Collection, Funnel, int)}.
+   *
+   * @throws IllegalArgumentException if {@code nodes} is empty or has more than 65,537 elements
+   */
+  public static <N> ConsistentHasher<N> maglev(
+      Collection<? extends N> nodes, Funnel<? super N> funnel) {
+    return maglev(nodes, funnel, DEFAULT_MAGLEV_TABLE_SIZE);
+  }
+
+  /**
+   * Returns a {@code ConsistentHasher} backed by a Maglev lookup table, which is filled by letting
+   * the nodes take turns claiming entries in their own pseudorandom preference order.
+   *
+   * <p>Lookups take constant time. Every node owns either {@code floor(tableSize / nodes.size())}
+   * or {@code ceil(tableSize / nodes.size())} entries, so the larger the table is compared to the
+   * number of nodes, the closer to even the balance is; the Maglev paper recommends a table at
+   * least 100 times larger than the number of nodes. In exchange, a membership change moves a few
+   * more hash codes than strictly necessary.
+   *
+   * <p>The table is independent of the iteration order of {@code nodes}. Duplicate nodes are
+   * ignored.
+   *
+   * @param nodes the nodes
+   * @param funnel the funnel used to hash the node identities
+   * @param tableSize the number of entries in the lookup table, a prime number
+   * @throws IllegalArgumentException if {@code nodes} is empty, if {@code tableSize} is not prime,
+   *     or if there are more nodes than table entries
+   */
+  public static <N> ConsistentHasher<N> maglev(
+      Collection<? extends N> nodes, Funnel<? super N> funnel, int tableSize) {
+    return new MaglevHasher<N>(ImmutableSet.<N>copyOf(nodes), funnel, tableSize);
+  }
+
+  /** Hashes a node identity to 128 bits, returned as two longs. */
+  static <N> long[] hashNode(N node, Funnel<? super N> funnel) {
+    byte[] bytes = Hashing.murmur3_128().hashObject(node, funnel).getBytesInternal();
+    return new long[] {
+      Longs.fromBytes(
+          bytes[7], bytes[6], bytes[5], bytes[4], bytes[3], bytes[2], bytes[1], bytes[0]),
+      Longs.fromBytes(
+          bytes[15], bytes[14], bytes[13], bytes[12], bytes[11], bytes[10], bytes[9], bytes[8])
+    };
+  }
+
+  /** The finalization mix of MurmurHash3, a bijection with good avalanche behavior. */
+  static long mix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private static final class WeightedRendezvousHasher<N> extends ConsistentHasher<N> {
+    private final ImmutableSet<N> nodes;
+    private final Object[] nodeArray;
+    private final long[] nodeHashes;
+    private final double[] weights;
+
+    WeightedRendezvousHasher(ImmutableMap<N, Number> weightMap, Funnel<? super N> funnel) {
+      checkNotNull(funnel);
+      checkArgument(!weightMap.isEmpty(), "weights must not be empty");
+      this.nodes = weightMap.keySet();
+      this.nodeArray = new Object[weightMap.size()];
+      this.nodeHashes = new long[weightMap.size()];
+      this.weights = new double[weightMap.size()];
+      int i = 0;
+      for (Map.Entry<N, Number> entry : weightMap.entrySet()) {
+        double weight = entry.getValue().doubleValue();
+        checkArgument(
+            weight > 0 && !Double.isInfinite(weight),
+            "weight of %s (%s) must be positive and finite",
+            entry.getKey(),
+            weight);
+        nodeArray[i] = entry.getKey();
+        nodeHashes[i] = hashNode(entry.getKey(), funnel)[0];
+        weights[i] = weight;
+        i++;
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // nodeArray only contains Ns
+    public N nodeFor(long hash) {
+      int best = 0;
+      double bestScore = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < nodeArray.length; i++) {
+        // A uniform value in the open interval (0, 1), derived from both the key and the node
+        double uniform = ((mix64(hash ^ nodeHashes[i]) >>> 11) + 0.5) * 0x1.0p-53;
+        // The node with the highest -weight / ln(uniform) wins, which happens with probability
+        // proportional to its weight.
+        double score = weights[i] / -Math.log(uniform);
+        if (score > bestScore) {
+          best = i;
+          bestScore = score;
+        }
+      }
+      return (N) nodeArray[best];
+    }
+
+    @Override
+    public ImmutableSet<N> nodes() {
+      return nodes;
+    }
+
+    @Override
+    public String toString() {
+      return "ConsistentHasher.weightedRendezvous(" + nodes + ")";
+    }
+  }
+
+  private static final class MaglevHasher<N> extends ConsistentHasher<N> {
+    private final ImmutableSet<N> nodes;
+    /** The lookup table, which directly holds the node of each entry. */
+    private final Object[] table;
+
+    MaglevHasher(ImmutableSet<N> nodes, Funnel<? super N> funnel, int tableSize) {
+      checkNotNull(funnel);
+      checkArgument(!nodes.isEmpty(), "nodes must not be empty");
+      checkArgument(LongMath.isPrime(tableSize), "tableSize (%s) must be prime", tableSize);
+      checkArgument(
+          nodes.size() <= tableSize,
+          "number of nodes (%s) must be <= tableSize (%s)",
+          nodes.size(),
+          tableSize);
+      this.nodes = nodes;
+      this.table = populate(nodes, funnel, tableSize);
+    }
+
+    private static <N> Object[] populate(
+        ImmutableSet<N> nodes, Funnel<? super N> funnel, int tableSize) {
+      int n = nodes.size();
+      ImmutableList<N> nodeList = nodes.asList();
+      final long[][] hashes = new long[n][];
+      Integer[] order = new Integer[n];
+      for (int i = 0; i < n; i++) {
+        hashes[i] = hashNode(nodeList.get(i), funnel);
+        order[i] = i;
+      }
+      // Nodes take turns in the order of their hashes, so that the table does not depend on the
+      // iteration order of the set.
+      Arrays.sort(
+          order,
+          new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+              return Long.compare(hashes[a][0], hashes[b][0]);
+            }
+          });
+
+      // Each node's preference list is the permutation (offset + j * skip) mod tableSize.
+      long[] offsets = new long[n];
+      long[] skips = new long[n];
+      long[] next = new long[n];
+      for (int i = 0; i < n; i++) {
+        long[] hash = hashes[order[i]];
+        offsets[i] = (hash[0] >>> 1) % tableSize;
+        skips[i] = (hash[1] >>> 1) % (tableSize - 1) + 1;
+      }
+      Object[] table = new Object[tableSize];
+      int filled = 0;
+      while (true) {
+        for (int i = 0; i < n; i++) {
+          int entry;
+          do {
+            entry = (int) ((offsets[i] + next[i] * skips[i]) % tableSize);
+            next[i]++;
+          } while (table[entry] != null);
+          table[entry] = nodeList.get(order[i]);
+          if (++filled == tableSize) {
+            return table;
+          }
+        }
+      }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked") // table only contains Ns
+    public N nodeFor(long hash) {
+      return (N) table[(int) ((hash >>> 1) % table.length)];
+    }
+
+    @Override
+    public ImmutableSet<N> nodes() {
+      return nodes;
+    }
+
+    @Override
+    public double movedFraction(ConsistentHasher<?> previous) {
+      if (previous instanceof MaglevHasher) {
+        Object[] previousTable = ((MaglevHasher<?>) previous).table;
+        if (previousTable.length == table.length) {
+          // Every table entry covers the same share of the hash space, so the result is exact.
+          int moved = 0;
+          for (int i = 0; i < table.length; i++) {
+            if (!table[i].equals(previousTable[i])) {
+              moved++;
+            }
+          }
+          return (double) moved / table.length;
+        }
+      }
+      return super.movedFraction(previous);
+    }
+
+    @Override
+    public String toString() {
+      return "ConsistentHasher.maglev(" + nodes + ", " + table.length + ")";
+    }
+  }
+}
@@ -14,6 +14,12 @@
 
 package com.google.common.hash;
 
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import com.google.common.primitives.Longs;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
  * This class generates a CRC32C checksum, defined by RFC 3720, Section 12.1. The generator
  * polynomial for this checksum is {@code 0x11EDC6F41}.
@@ -33,6 +39,106 @@ final class Crc32cHashFunction extends AbstractHashFunction {
     return new Crc32cHasher();
   }
 
+  @Override
+  public long hashLongToLong(long input) {
+    int crc = ~0;
+    for (int i = 0; i < Longs.BYTES; i++, input >>>= 8) {
+      crc = update(crc, (byte) input);
+    }
+    return ~crc & 0xFFFFFFFFL;
+  }
+
+  @Override
+  public long hashBytesToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return ~update(~0, input, off, len) & 0xFFFFFFFFL;
+  }
+
+  @Override
+  public HashCode hashBytes(ByteBuffer input) {
+    return HashCode.fromInt(~update(~0, input));
+  }
+
+  @Override
+  public long hashUnencodedCharsToLong(CharSequence input) {
+    int crc = ~0;
+    for (int i = 0; i < input.length(); i++) {
+      char c = input.charAt(i);
+      crc = update(update(crc, (byte) c), (byte) (c >>> 8));
+    }
+    return ~crc & 0xFFFFFFFFL;
+  }
+
+  // Callers invert the CRC before the first byte and after the last, see Crc32cHasher.update.
+  private static int update(int crc, byte b) {
+    return (crc >>> 8) ^ Crc32cHasher.CRC_TABLE[(crc ^ b) & 0xFF];
+  }
+
+  private static int update(int crc, byte[] b, int off, int len) {
+    for (int i = off; i < off + len; i++) {
+      crc = update(crc, b[i]);
+    }
+    return crc;
+  }
+
+  /** Updates the CRC with the remaining bytes of {@code b}, leaving it at its limit. */
+  private static int update(int crc, ByteBuffer b) {
+    int position = b.position();
+    int limit = b.limit();
+    if (b.hasArray()) {
+      crc = update(crc, b.array(), b.arrayOffset() + position, limit - position);
+    } else {
+      // Read a direct buffer in place, eight little-endian bytes at a time, slicing by 8.
+      ByteOrder order = b.order();
+      b.order(ByteOrder.LITTLE_ENDIAN);
+      for (; position + Longs.BYTES <= limit; position += Longs.BYTES) {
+        crc = update(crc, b.getLong(position));
+      }
+      b.order(order);
+      for (; position < limit; position++) {
+        crc = update(crc, b.get(position));
+      }
+    }
+    b.position(limit);
+    return crc;
+  }
+
+  /**
+   * Updates the CRC with the eight bytes of {@code word}, least significant first. Each byte is
+   * looked up in its own {@linkplain #SLICING_TABLES slicing table}, so the eight lookups are
+   * independent of each other.
+   */
+  private static int update(int crc, long word) {
+    word ^= crc & 0xFFFFFFFFL;
+    int low = (int) word;
+    int high = (int) (word >>> 32);
+    int[] t = SLICING_TABLES;
+    return t[7 * 256 + (low & 0xFF)]
+        ^ t[6 * 256 + ((low >>> 8) & 0xFF)]
+        ^ t[5 * 256 + ((low >>> 16) & 0xFF)]
+        ^ t[4 * 256 + (low >>> 24)]
+        ^ t[3 * 256 + (high & 0xFF)]
+        ^ t[2 * 256 + ((high >>> 8) & 0xFF)]
+        ^ t[256 + ((high >>> 16) & 0xFF)]
+        ^ t[high >>> 24];
+  }
+
+  /**
+   * Eight tables of 256 entries: entry {@code i} of table {@code k} is the CRC update of byte
+   * {@code i} followed by {@code k} zero bytes. Table 0 is {@link Crc32cHasher#CRC_TABLE}.
+   */
+  private static final int[] SLICING_TABLES = createSlicingTables();
+
+  private static int[] createSlicingTables() {
+    int[] tables = new int[8 * 256];
+    System.arraycopy(Crc32cHasher.CRC_TABLE, 0, tables, 0, 256);
+    for (int i = 256; i < tables.length; i++) {
+      int previous = tables[i - 256];
+      tables[i] = (previous >>> 8) ^ Crc32cHasher.CRC_TABLE[previous & 0xFF];
+    }
+    return tables;
+  }
+
   @Override
   public String toString() {
     return "Hashing.crc32c()";
@@ -117,6 +223,16 @@ final class Crc32cHashFunction extends AbstractHashFunction {
       crc = ~((crc >>> 8) ^ CRC_TABLE[(crc ^ b) & 0xFF]);
     }
 
+    @Override
+    protected void update(byte[] b, int off, int len) {
+      crc = ~Crc32cHashFunction.update(~crc, b, off, len);
+    }
+
+    @Override
+    protected void update(ByteBuffer b) {
+      crc = ~Crc32cHashFunction.update(~crc, b);
+    }
+
     @Override
     public HashCode hash() {
       return HashCode.fromInt(crc);
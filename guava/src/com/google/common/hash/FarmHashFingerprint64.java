@@ -20,6 +20,10 @@ import static com.google.common.hash.LittleEndianByteArray.load64;
 import static java.lang.Long.rotateRight;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Chars;
+import com.google.common.primitives.Longs;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Implementation of FarmHash Fingerprint64, an open-source fingerprinting algorithm for strings.
@@ -52,6 +56,41 @@ final class FarmHashFingerprint64 extends AbstractNonStreamingHashFunction {
     return HashCode.fromLong(fingerprint(input, off, len));
   }
 
+  @Override
+  public long hashLongToLong(long input) {
+    // hashLength0to16 specialized to the eight little-endian bytes of input
+    long mul = K2 + Longs.BYTES * 2;
+    long a = input + K2;
+    long c = rotateRight(input, 37) * mul + a;
+    long d = (rotateRight(a, 25) + input) * mul;
+    return hashLength16(c, d, mul);
+  }
+
+  @Override
+  public long hashBytesToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return fingerprint(input, off, len);
+  }
+
+  @Override
+  public long hashUnencodedCharsToLong(CharSequence input) {
+    // Reads the chars of input as their little-endian bytes, without encoding them to an array.
+    return fingerprint(input, 0, input.length() * Chars.BYTES);
+  }
+
+  @Override
+  public HashCode hashBytes(ByteBuffer input) {
+    if (input.hasArray()) {
+      return super.hashBytes(input);
+    }
+    // Read a direct buffer in place, at absolute indexes of a little-endian view of it, without
+    // copying it to the heap.
+    ByteBuffer bytes = input.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    long hash = fingerprint(bytes, input.position(), input.remaining());
+    input.position(input.limit());
+    return HashCode.fromLong(hash);
+  }
+
   @Override
   public int bits() {
     return 64;
@@ -213,4 +252,290 @@ final class FarmHashFingerprint64 extends AbstractNonStreamingHashFunction {
         hashLength16(v[1], w[1], mul) + z,
         mul);
   }
+
+  // The functions above, reading a little-endian byte buffer at absolute indexes instead.
+
+  private static long fingerprint(ByteBuffer bytes, int offset, int length) {
+    if (length <= 32) {
+      if (length <= 16) {
+        return hashLength0to16(bytes, offset, length);
+      } else {
+        return hashLength17to32(bytes, offset, length);
+      }
+    } else if (length <= 64) {
+      return hashLength33To64(bytes, offset, length);
+    } else {
+      return hashLength65Plus(bytes, offset, length);
+    }
+  }
+
+  private static void weakHashLength32WithSeeds(
+      ByteBuffer bytes, int offset, long seedA, long seedB, long[] output) {
+    long part1 = bytes.getLong(offset);
+    long part2 = bytes.getLong(offset + 8);
+    long part3 = bytes.getLong(offset + 16);
+    long part4 = bytes.getLong(offset + 24);
+
+    seedA += part1;
+    seedB = rotateRight(seedB + seedA + part4, 21);
+    long c = seedA;
+    seedA += part2;
+    seedA += part3;
+    seedB += rotateRight(seedA, 44);
+    output[0] = seedA + part4;
+    output[1] = seedB + c;
+  }
+
+  private static long hashLength0to16(ByteBuffer bytes, int offset, int length) {
+    if (length >= 8) {
+      long mul = K2 + length * 2;
+      long a = bytes.getLong(offset) + K2;
+      long b = bytes.getLong(offset + length - 8);
+      long c = rotateRight(b, 37) * mul + a;
+      long d = (rotateRight(a, 25) + b) * mul;
+      return hashLength16(c, d, mul);
+    }
+    if (length >= 4) {
+      long mul = K2 + length * 2;
+      long a = bytes.getInt(offset) & 0xFFFFFFFFL;
+      return hashLength16(length + (a << 3), bytes.getInt(offset + length - 4) & 0xFFFFFFFFL, mul);
+    }
+    if (length > 0) {
+      byte a = bytes.get(offset);
+      byte b = bytes.get(offset + (length >> 1));
+      byte c = bytes.get(offset + (length - 1));
+      int y = (a & 0xFF) + ((b & 0xFF) << 8);
+      int z = length + ((c & 0xFF) << 2);
+      return shiftMix(y * K2 ^ z * K0) * K2;
+    }
+    return K2;
+  }
+
+  private static long hashLength17to32(ByteBuffer bytes, int offset, int length) {
+    long mul = K2 + length * 2;
+    long a = bytes.getLong(offset) * K1;
+    long b = bytes.getLong(offset + 8);
+    long c = bytes.getLong(offset + length - 8) * mul;
+    long d = bytes.getLong(offset + length - 16) * K2;
+    return hashLength16(
+        rotateRight(a + b, 43) + rotateRight(c, 30) + d, a + rotateRight(b + K2, 18) + c, mul);
+  }
+
+  private static long hashLength33To64(ByteBuffer bytes, int offset, int length) {
+    long mul = K2 + length * 2;
+    long a = bytes.getLong(offset) * K2;
+    long b = bytes.getLong(offset + 8);
+    long c = bytes.getLong(offset + length - 8) * mul;
+    long d = bytes.getLong(offset + length - 16) * K2;
+    long y = rotateRight(a + b, 43) + rotateRight(c, 30) + d;
+    long z = hashLength16(y, a + rotateRight(b + K2, 18) + c, mul);
+    long e = bytes.getLong(offset + 16) * mul;
+    long f = bytes.getLong(offset + 24);
+    long g = (y + bytes.getLong(offset + length - 32)) * mul;
+    long h = (z + bytes.getLong(offset + length - 24)) * mul;
+    return hashLength16(
+        rotateRight(e + f, 43) + rotateRight(g, 30) + h, e + rotateRight(f + a, 18) + g, mul);
+  }
+
+  private static long hashLength65Plus(ByteBuffer bytes, int offset, int length) {
+    final int seed = 81;
+    // For strings over 64 bytes we loop. Internal state consists of 56 bytes: v, w, x, y, and z.
+    long x = seed;
+    @SuppressWarnings("ConstantOverflow")
+    long y = seed * K1 + 113;
+    long z = shiftMix(y * K2 + 113) * K2;
+    long[] v = new long[2];
+    long[] w = new long[2];
+    x = x * K2 + bytes.getLong(offset);
+
+    // Set end so that after the loop we have 1 to 64 bytes left to process.
+    int end = offset + ((length - 1) / 64) * 64;
+    int last64offset = end + ((length - 1) & 63) - 63;
+    do {
+      x = rotateRight(x + y + v[0] + bytes.getLong(offset + 8), 37) * K1;
+      y = rotateRight(y + v[1] + bytes.getLong(offset + 48), 42) * K1;
+      x ^= w[1];
+      y += v[0] + bytes.getLong(offset + 40);
+      z = rotateRight(z + w[0], 33) * K1;
+      weakHashLength32WithSeeds(bytes, offset, v[1] * K1, x + w[0], v);
+      weakHashLength32WithSeeds(bytes, offset + 32, z + w[1], y + bytes.getLong(offset + 16), w);
+      long tmp = x;
+      x = z;
+      z = tmp;
+      offset += 64;
+    } while (offset != end);
+    long mul = K1 + ((z & 0xFF) << 1);
+    // Operate on the last 64 bytes of input.
+    offset = last64offset;
+    w[0] += ((length - 1) & 63);
+    v[0] += w[0];
+    w[0] += v[0];
+    x = rotateRight(x + y + v[0] + bytes.getLong(offset + 8), 37) * mul;
+    y = rotateRight(y + v[1] + bytes.getLong(offset + 48), 42) * mul;
+    x ^= w[1] * 9;
+    y += v[0] * 9 + bytes.getLong(offset + 40);
+    z = rotateRight(z + w[0], 33) * mul;
+    weakHashLength32WithSeeds(bytes, offset, v[1] * mul, x + w[0], v);
+    weakHashLength32WithSeeds(bytes, offset + 32, z + w[1], y + bytes.getLong(offset + 16), w);
+    return hashLength16(
+        hashLength16(v[0], w[0], mul) + shiftMix(y) * K0 + x,
+        hashLength16(v[1], w[1], mul) + z,
+        mul);
+  }
+
+  // The functions above, reading each char of a CharSequence as two little-endian bytes instead.
+
+  private static long fingerprint(CharSequence chars, int offset, int length) {
+    if (length <= 32) {
+      if (length <= 16) {
+        return hashLength0to16(chars, offset, length);
+      } else {
+        return hashLength17to32(chars, offset, length);
+      }
+    } else if (length <= 64) {
+      return hashLength33To64(chars, offset, length);
+    } else {
+      return hashLength65Plus(chars, offset, length);
+    }
+  }
+
+  private static void weakHashLength32WithSeeds(
+      CharSequence chars, int offset, long seedA, long seedB, long[] output) {
+    long part1 = loadChars64(chars, offset);
+    long part2 = loadChars64(chars, offset + 8);
+    long part3 = loadChars64(chars, offset + 16);
+    long part4 = loadChars64(chars, offset + 24);
+
+    seedA += part1;
+    seedB = rotateRight(seedB + seedA + part4, 21);
+    long c = seedA;
+    seedA += part2;
+    seedA += part3;
+    seedB += rotateRight(seedA, 44);
+    output[0] = seedA + part4;
+    output[1] = seedB + c;
+  }
+
+  private static long hashLength0to16(CharSequence chars, int offset, int length) {
+    if (length >= 8) {
+      long mul = K2 + length * 2;
+      long a = loadChars64(chars, offset) + K2;
+      long b = loadChars64(chars, offset + length - 8);
+      long c = rotateRight(b, 37) * mul + a;
+      long d = (rotateRight(a, 25) + b) * mul;
+      return hashLength16(c, d, mul);
+    }
+    if (length >= 4) {
+      long mul = K2 + length * 2;
+      long a = loadChars32(chars, offset) & 0xFFFFFFFFL;
+      long b = loadChars32(chars, offset + length - 4) & 0xFFFFFFFFL;
+      return hashLength16(length + (a << 3), b, mul);
+    }
+    if (length > 0) {
+      byte a = byteOfChars(chars, offset);
+      byte b = byteOfChars(chars, offset + (length >> 1));
+      byte c = byteOfChars(chars, offset + (length - 1));
+      int y = (a & 0xFF) + ((b & 0xFF) << 8);
+      int z = length + ((c & 0xFF) << 2);
+      return shiftMix(y * K2 ^ z * K0) * K2;
+    }
+    return K2;
+  }
+
+  private static long hashLength17to32(CharSequence chars, int offset, int length) {
+    long mul = K2 + length * 2;
+    long a = loadChars64(chars, offset) * K1;
+    long b = loadChars64(chars, offset + 8);
+    long c = loadChars64(chars, offset + length - 8) * mul;
+    long d = loadChars64(chars, offset + length - 16) * K2;
+    return hashLength16(
+        rotateRight(a + b, 43) + rotateRight(c, 30) + d, a + rotateRight(b + K2, 18) + c, mul);
+  }
+
+  private static long hashLength33To64(CharSequence chars, int offset, int length) {
+    long mul = K2 + length * 2;
+    long a = loadChars64(chars, offset) * K2;
+    long b = loadChars64(chars, offset + 8);
+    long c = loadChars64(chars, offset + length - 8) * mul;
+    long d = loadChars64(chars, offset + length - 16) * K2;
+    long y = rotateRight(a + b, 43) + rotateRight(c, 30) + d;
+    long z = hashLength16(y, a + rotateRight(b + K2, 18) + c, mul);
+    long e = loadChars64(chars, offset + 16) * mul;
+    long f = loadChars64(chars, offset + 24);
+    long g = (y + loadChars64(chars, offset + length - 32)) * mul;
+    long h = (z + loadChars64(chars, offset + length - 24)) * mul;
+    return hashLength16(
+        rotateRight(e + f, 43) + rotateRight(g, 30) + h, e + rotateRight(f + a, 18) + g, mul);
+  }
+
+  private static long hashLength65Plus(CharSequence chars, int offset, int length) {
+    final int seed = 81;
+    // For strings over 64 bytes we loop. Internal state consists of 56 bytes: v, w, x, y, and z.
+    long x = seed;
+    @SuppressWarnings("ConstantOverflow")
+    long y = seed * K1 + 113;
+    long z = shiftMix(y * K2 + 113) * K2;
+    long[] v = new long[2];
+    long[] w = new long[2];
+    x = x * K2 + loadChars64(chars, offset);
+
+    // Set end so that after the loop we have 1 to 64 bytes left to process.
+    int end = offset + ((length - 1) / 64) * 64;
+    int last64offset = end + ((length - 1) & 63) - 63;
+    do {
+      x = rotateRight(x + y + v[0] + loadChars64(chars, offset + 8), 37) * K1;
+      y = rotateRight(y + v[1] + loadChars64(chars, offset + 48), 42) * K1;
+      x ^= w[1];
+      y += v[0] + loadChars64(chars, offset + 40);
+      z = rotateRight(z + w[0], 33) * K1;
+      weakHashLength32WithSeeds(chars, offset, v[1] * K1, x + w[0], v);
+      weakHashLength32WithSeeds(
+          chars, offset + 32, z + w[1], y + loadChars64(chars, offset + 16), w);
+      long tmp = x;
+      x = z;
+      z = tmp;
+      offset += 64;
+    } while (offset != end);
+    long mul = K1 + ((z & 0xFF) << 1);
+    // Operate on the last 64 bytes of input.
+    offset = last64offset;
+    w[0] += ((length - 1) & 63);
+    v[0] += w[0];
+    w[0] += v[0];
+    x = rotateRight(x + y + v[0] + loadChars64(chars, offset + 8), 37) * mul;
+    y = rotateRight(y + v[1] + loadChars64(chars, offset + 48), 42) * mul;
+    x ^= w[1] * 9;
+    y += v[0] * 9 + loadChars64(chars, offset + 40);
+    z = rotateRight(z + w[0], 33) * mul;
+    weakHashLength32WithSeeds(chars, offset, v[1] * mul, x + w[0], v);
+    weakHashLength32WithSeeds(
+        chars, offset + 32, z + w[1], y + loadChars64(chars, offset + 16), w);
+    return hashLength16(
+        hashLength16(v[0], w[0], mul) + shiftMix(y) * K0 + x,
+        hashLength16(v[1], w[1], mul) + z,
+        mul);
+  }
+
+  /*
+   * The kernel only loads longs and ints at even offsets, since the input is an even number of bytes
+   * long, so these read whole chars.
+   */
+
+  private static long loadChars64(CharSequence chars, int offset) {
+    int index = offset >> 1;
+    return chars.charAt(index)
+        | (long) chars.charAt(index + 1) << 16
+        | (long) chars.charAt(index + 2) << 32
+        | (long) chars.charAt(index + 3) << 48;
+  }
+
+  private static int loadChars32(CharSequence chars, int offset) {
+    int index = offset >> 1;
+    return chars.charAt(index) | chars.charAt(index + 1) << 16;
+  }
+
+  /** Returns the byte at {@code offset} of the little-endian encoding of {@code chars}. */
+  private static byte byteOfChars(CharSequence chars, int offset) {
+    return (byte) (chars.charAt(offset >> 1) >>> ((offset & 1) << 3));
+  }
 }
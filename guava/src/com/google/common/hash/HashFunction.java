@@ -213,6 +213,42 @@ public interface HashFunction {
    */
   <T> HashCode hashObject(T instance, Funnel<? super T> funnel);
 
+  /**
+   * Shortcut for {@code hashLong(input).padToLong()}. Implementations that override this method
+   * compute the result without allocating a {@link Hasher} or a {@link HashCode}, which matters
+   * mostly in hot paths such as sharding or hash-table probing.
+   *
+   * @since NEXT
+   */
+  @Beta
+  default long hashLongToLong(long input) {
+    return hashLong(input).padToLong();
+  }
+
+  /**
+   * Shortcut for {@code hashBytes(input, off, len).padToLong()}. Implementations that override this
+   * method compute the result without allocating a {@link Hasher} or a {@link HashCode}.
+   *
+   * @throws IndexOutOfBoundsException if {@code off < 0} or {@code off + len > bytes.length} or
+   *     {@code len < 0}
+   * @since NEXT
+   */
+  @Beta
+  default long hashBytesToLong(byte[] input, int off, int len) {
+    return hashBytes(input, off, len).padToLong();
+  }
+
+  /**
+   * Shortcut for {@code hashUnencodedChars(input).padToLong()}. Implementations that override this
+   * method compute the result without allocating a {@link Hasher} or a {@link HashCode}.
+   *
+   * @since NEXT
+   */
+  @Beta
+  default long hashUnencodedCharsToLong(CharSequence input) {
+    return hashUnencodedChars(input).padToLong();
+  }
+
   /**
    * Returns the number of bits (a multiple of 32) that each hash code produced by this hash
    * function has.
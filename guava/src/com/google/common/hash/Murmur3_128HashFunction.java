@@ -25,8 +25,12 @@
 
 package com.google.common.hash;
 
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.hash.LittleEndianByteArray.load64;
 import static com.google.common.primitives.UnsignedBytes.toInt;
 
+import com.google.common.primitives.Chars;
+import com.google.common.primitives.Longs;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -62,6 +66,64 @@ final class Murmur3_128HashFunction extends AbstractHashFunction implements Seri
     return new Murmur3_128Hasher(seed);
   }
 
+  // The xxxToLong overrides below return the first 64 bits of the hash without allocating a Hasher.
+
+  @Override
+  public long hashLongToLong(long input) {
+    long h1 = seed ^ mixK1(input);
+    return finalMix(h1, seed, Longs.BYTES);
+  }
+
+  @Override
+  public long hashBytesToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    long h1 = seed;
+    long h2 = seed;
+    int end = off + len;
+    int i = off;
+    for (; i + CHUNK_SIZE <= end; i += CHUNK_SIZE) {
+      h1 = mixH1(h1, h2, load64(input, i));
+      h2 = mixH2(h2, h1, load64(input, i + 8));
+    }
+    long k1 = 0;
+    long k2 = 0;
+    for (int j = end - 1; j >= i + 8; j--) {
+      k2 = (k2 << 8) | toInt(input[j]);
+    }
+    for (int j = Math.min(end, i + 8) - 1; j >= i; j--) {
+      k1 = (k1 << 8) | toInt(input[j]);
+    }
+    // mixK1(0) == mixK2(0) == 0, so this is a no-op when there are no trailing bytes
+    h1 ^= mixK1(k1);
+    h2 ^= mixK2(k2);
+    return finalMix(h1, h2, len);
+  }
+
+  @Override
+  public long hashUnencodedCharsToLong(CharSequence input) {
+    long h1 = seed;
+    long h2 = seed;
+    int len = input.length();
+    int i = 0;
+    for (; i + 8 <= len; i += 8) {
+      h1 = mixH1(h1, h2, charsToLong(input, i, 4));
+      h2 = mixH2(h2, h1, charsToLong(input, i + 4, 4));
+    }
+    int remaining = len - i;
+    h1 ^= mixK1(charsToLong(input, i, Math.min(remaining, 4)));
+    h2 ^= mixK2(charsToLong(input, i + 4, remaining - 4));
+    return finalMix(h1, h2, Chars.BYTES * len);
+  }
+
+  /** Returns up to four chars starting at {@code start}, packed in little-endian order. */
+  private static long charsToLong(CharSequence input, int start, int count) {
+    long result = 0;
+    for (int i = count - 1; i >= 0; i--) {
+      result = (result << 16) | input.charAt(start + i);
+    }
+    return result;
+  }
+
   @Override
   public String toString() {
     return "Hashing.murmur3_128(" + seed + ")";
@@ -81,10 +143,64 @@ final class Murmur3_128HashFunction extends AbstractHashFunction implements Seri
     return getClass().hashCode() ^ seed;
   }
 
+  private static final int CHUNK_SIZE = 16;
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private static long mixH1(long h1, long h2, long k1) {
+    h1 ^= mixK1(k1);
+
+    h1 = Long.rotateLeft(h1, 27);
+    h1 += h2;
+    return h1 * 5 + 0x52dce729;
+  }
+
+  private static long mixH2(long h2, long h1, long k2) {
+    h2 ^= mixK2(k2);
+
+    h2 = Long.rotateLeft(h2, 31);
+    h2 += h1;
+    return h2 * 5 + 0x38495ab5;
+  }
+
+  /** Finalizes the state and returns the first 64 bits of the hash. */
+  private static long finalMix(long h1, long h2, int length) {
+    h1 ^= length;
+    h2 ^= length;
+
+    h1 += h2;
+    h2 += h1;
+
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+
+    return h1 + h2;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private static long mixK1(long k1) {
+    k1 *= C1;
+    k1 = Long.rotateLeft(k1, 31);
+    k1 *= C2;
+    return k1;
+  }
+
+  private static long mixK2(long k2) {
+    k2 *= C2;
+    k2 = Long.rotateLeft(k2, 33);
+    k2 *= C1;
+    return k2;
+  }
+
   private static final class Murmur3_128Hasher extends AbstractStreamingHasher {
-    private static final int CHUNK_SIZE = 16;
-    private static final long C1 = 0x87c37b91114253d5L;
-    private static final long C2 = 0x4cf5ad432745937fL;
     private long h1;
     private long h2;
     private int length;
@@ -105,17 +221,8 @@ final class Murmur3_128HashFunction extends AbstractHashFunction implements Seri
     }
 
     private void bmix64(long k1, long k2) {
-      h1 ^= mixK1(k1);
-
-      h1 = Long.rotateLeft(h1, 27);
-      h1 += h2;
-      h1 = h1 * 5 + 0x52dce729;
-
-      h2 ^= mixK2(k2);
-
-      h2 = Long.rotateLeft(h2, 31);
-      h2 += h1;
-      h2 = h2 * 5 + 0x38495ab5;
+      h1 = mixH1(h1, h2, k1);
+      h2 = mixH2(h2, h1, k2);
     }
 
     @Override
@@ -184,29 +291,6 @@ final class Murmur3_128HashFunction extends AbstractHashFunction implements Seri
               .putLong(h2)
               .array());
     }
-
-    private static long fmix64(long k) {
-      k ^= k >>> 33;
-      k *= 0xff51afd7ed558ccdL;
-      k ^= k >>> 33;
-      k *= 0xc4ceb9fe1a85ec53L;
-      k ^= k >>> 33;
-      return k;
-    }
-
-    private static long mixK1(long k1) {
-      k1 *= C1;
-      k1 = Long.rotateLeft(k1, 31);
-      k1 *= C2;
-      return k1;
-    }
-
-    private static long mixK2(long k2) {
-      k2 *= C2;
-      k2 = Long.rotateLeft(k2, 33);
-      k2 *= C1;
-      return k2;
-    }
   }
 
   private static final long serialVersionUID = 0L;
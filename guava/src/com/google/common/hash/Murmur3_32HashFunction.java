@@ -100,11 +100,20 @@ final class Murmur3_32HashFunction extends AbstractHashFunction implements Seria
     int k1 = mixK1(input);
     int h1 = mixH1(seed, k1);
 
-    return fmix(h1, Ints.BYTES);
+    return HashCode.fromInt(fmix(h1, Ints.BYTES));
   }
 
   @Override
   public HashCode hashLong(long input) {
+    return HashCode.fromInt(hashLongToInt(input));
+  }
+
+  @Override
+  public long hashLongToLong(long input) {
+    return hashLongToInt(input) & 0xFFFFFFFFL;
+  }
+
+  private int hashLongToInt(long input) {
     int low = (int) input;
     int high = (int) (input >>> 32);
 
@@ -119,6 +128,15 @@ final class Murmur3_32HashFunction extends AbstractHashFunction implements Seria
 
   @Override
   public HashCode hashUnencodedChars(CharSequence input) {
+    return HashCode.fromInt(hashUnencodedCharsToInt(input));
+  }
+
+  @Override
+  public long hashUnencodedCharsToLong(CharSequence input) {
+    return hashUnencodedCharsToInt(input) & 0xFFFFFFFFL;
+  }
+
+  private int hashUnencodedCharsToInt(CharSequence input) {
     int h1 = seed;
 
     // step through the CharSequence 2 chars at a time
@@ -201,7 +219,7 @@ final class Murmur3_32HashFunction extends AbstractHashFunction implements Seria
 
       int k1 = mixK1((int) buffer);
       h1 ^= k1;
-      return fmix(h1, len);
+      return HashCode.fromInt(fmix(h1, len));
     } else {
       return hashBytes(input.toString().getBytes(charset));
     }
@@ -210,6 +228,40 @@ final class Murmur3_32HashFunction extends AbstractHashFunction implements Seria
   @Override
   public HashCode hashBytes(byte[] input, int off, int len) {
     checkPositionIndexes(off, off + len, input.length);
+    return HashCode.fromInt(hashBytesToInt(input, off, len));
+  }
+
+  @Override
+  public long hashBytesToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return hashBytesToInt(input, off, len) & 0xFFFFFFFFL;
+  }
+
+  @Override
+  public HashCode hashBytes(ByteBuffer input) {
+    int len = input.remaining();
+    if (input.hasArray()) {
+      int hash = hashBytesToInt(input.array(), input.arrayOffset() + input.position(), len);
+      input.position(input.limit());
+      return HashCode.fromInt(hash);
+    }
+    // Read a direct buffer in place, through a little-endian view of it, without copying it to the
+    // heap.
+    ByteBuffer bytes = input.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    int h1 = seed;
+    while (bytes.remaining() >= CHUNK_SIZE) {
+      h1 = mixH1(h1, mixK1(bytes.getInt()));
+    }
+    int k1 = 0;
+    for (int shift = 0; bytes.hasRemaining(); shift += 8) {
+      k1 ^= toInt(bytes.get()) << shift;
+    }
+    input.position(input.limit());
+    h1 ^= mixK1(k1);
+    return HashCode.fromInt(fmix(h1, len));
+  }
+
+  private int hashBytesToInt(byte[] input, int off, int len) {
     int h1 = seed;
     int i;
     for (i = 0; i + CHUNK_SIZE <= len; i += CHUNK_SIZE) {
@@ -244,14 +296,14 @@ final class Murmur3_32HashFunction extends AbstractHashFunction implements Seria
   }
 
   // Finalization mix - force all bits of a hash block to avalanche
-  private static HashCode fmix(int h1, int length) {
+  private static int fmix(int h1, int length) {
     h1 ^= length;
     h1 ^= h1 >>> 16;
     h1 *= 0x85ebca6b;
     h1 ^= h1 >>> 13;
     h1 *= 0xc2b2ae35;
     h1 ^= h1 >>> 16;
-    return HashCode.fromInt(h1);
+    return h1;
   }
 
   @CanIgnoreReturnValue
@@ -384,7 +436,7 @@ final class Murmur3_32HashFunction extends AbstractHashFunction implements Seria
       checkState(!isDone);
       isDone = true;
       h1 ^= mixK1((int) buffer);
-      return fmix(h1, length);
+      return HashCode.fromInt(fmix(h1, length));
     }
   }
 
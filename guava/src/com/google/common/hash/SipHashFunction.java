@@ -20,7 +20,12 @@
 package com.google.common.hash;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.hash.LittleEndianByteArray.load64;
+import static com.google.common.primitives.UnsignedBytes.toInt;
 
+import com.google.common.primitives.Chars;
+import com.google.common.primitives.Longs;
 import java.io.Serializable;
 import java.nio.ByteBuffer;
 import org.checkerframework.checker.nullness.compatqual.NullableDecl;
@@ -71,7 +76,120 @@ final class SipHashFunction extends AbstractHashFunction implements Serializable
     return new SipHasher(c, d, k0, k1);
   }
 
-  // TODO(kak): Implement and benchmark the hashFoo() shortcuts.
+  @Override
+  public long hashLongToLong(long input) {
+    return hash(null, 0, null, input, Longs.BYTES);
+  }
+
+  @Override
+  public long hashBytesToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return hash(input, off, null, 0, len);
+  }
+
+  @Override
+  public long hashUnencodedCharsToLong(CharSequence input) {
+    return hash(null, 0, input, 0, Chars.BYTES * input.length());
+  }
+
+  /**
+   * Computes the hash of {@code length} bytes without allocating. The input is read from {@code
+   * bytes} starting at {@code off} if it is non-null, otherwise from the unencoded {@code chars} if
+   * they are non-null, otherwise it is the single little-endian word {@code value}.
+   */
+  private long hash(
+      @NullableDecl byte[] bytes,
+      int off,
+      @NullableDecl CharSequence chars,
+      long value,
+      int length) {
+    long v0 = 0x736f6d6570736575L ^ k0;
+    long v1 = 0x646f72616e646f6dL ^ k1;
+    long v2 = 0x6c7967656e657261L ^ k0;
+    long v3 = 0x7465646279746573L ^ k1;
+    int fullWords = length >>> 3;
+    // One iteration per full word, one for the final word and one for the finalization rounds.
+    for (int w = 0; w <= fullWords + 1; w++) {
+      long m;
+      int rounds;
+      if (w <= fullWords) {
+        m =
+            (w < fullWords)
+                ? word(bytes, off, chars, value, w)
+                : finalWord(bytes, off, chars, w, length);
+        rounds = c;
+        v3 ^= m;
+      } else {
+        m = 0;
+        rounds = d;
+        v2 ^= 0xFFL;
+      }
+      for (int i = 0; i < rounds; i++) {
+        v0 += v1;
+        v2 += v3;
+        v1 = Long.rotateLeft(v1, 13);
+        v3 = Long.rotateLeft(v3, 16);
+        v1 ^= v0;
+        v3 ^= v2;
+        v0 = Long.rotateLeft(v0, 32);
+        v2 += v1;
+        v0 += v3;
+        v1 = Long.rotateLeft(v1, 17);
+        v3 = Long.rotateLeft(v3, 21);
+        v1 ^= v2;
+        v3 ^= v0;
+        v2 = Long.rotateLeft(v2, 32);
+      }
+      v0 ^= m;
+    }
+    return v0 ^ v1 ^ v2 ^ v3;
+  }
+
+  /** Returns the {@code index}th little-endian 64-bit word of the input of {@link #hash}. */
+  private static long word(
+      @NullableDecl byte[] bytes,
+      int off,
+      @NullableDecl CharSequence chars,
+      long value,
+      int index) {
+    if (bytes != null) {
+      return load64(bytes, off + 8 * index);
+    } else if (chars != null) {
+      return charsToLong(chars, 4 * index, 4);
+    } else {
+      return value;
+    }
+  }
+
+  /**
+   * Returns the final word: the last 0 through 7 bytes of the input, followed by null bytes and
+   * ending with a byte encoding the length mod 256.
+   */
+  private static long finalWord(
+      @NullableDecl byte[] bytes,
+      int off,
+      @NullableDecl CharSequence chars,
+      int index,
+      int length) {
+    long m = 0;
+    if (bytes != null) {
+      for (int i = (length & 7) - 1; i >= 0; i--) {
+        m = (m << 8) | toInt(bytes[off + 8 * index + i]);
+      }
+    } else if (chars != null) {
+      m = charsToLong(chars, 4 * index, (length & 7) / Chars.BYTES);
+    }
+    return m ^ ((long) length << 56);
+  }
+
+  /** Returns up to four chars starting at {@code start}, packed in little-endian order. */
+  private static long charsToLong(CharSequence input, int start, int count) {
+    long result = 0;
+    for (int i = count - 1; i >= 0; i--) {
+      result = (result << 16) | input.charAt(start + i);
+    }
+    return result;
+  }
 
   @Override
   public String toString() {
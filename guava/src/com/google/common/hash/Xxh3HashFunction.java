@@ -0,0 +1,467 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+/*
+ * xxHash was written by Yann Collet, and is distributed under the BSD 2-Clause License.
+ *
+ * Source:
+ * https://github.com/Cyan4973/xxHash/blob/dev/xxhash.h
+ * (Modified to adapt to Guava coding conventions and to use the HashFunction interface)
+ */
+
+package com.google.common.hash;
+
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.hash.LittleEndianByteArray.load32;
+import static com.google.common.hash.LittleEndianByteArray.load64;
+import static com.google.common.hash.LittleEndianByteArray.store64;
+import static com.google.common.primitives.UnsignedBytes.toInt;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * Implementation of XXH3_64bits, the 64-bit variant of the XXH3 member of Yann Collet's xxHash
+ * family, using the portable scalar code path of the reference implementation.
+ *
+ * <p>Inputs of up to {@value #MIDSIZE_MAX} bytes are hashed by specialized routines for their
+ * length. Longer inputs are consumed in {@value #STRIPE_LEN}-byte stripes feeding eight
+ * accumulators, which are scrambled after every block of {@value #STRIPES_PER_BLOCK} stripes.
+ *
+ * <p>Note to maintainers: like {@link FarmHashFingerprint64}, this implementation relies on signed
+ * arithmetic being bit-wise equivalent to unsigned arithmetic; right shifts must be unsigned.
+ */
+final class Xxh3HashFunction extends AbstractHashFunction implements Serializable {
+  private static final long PRIME32_1 = 0x9E3779B1L;
+  private static final long PRIME32_2 = 0x85EBCA77L;
+  private static final long PRIME32_3 = 0xC2B2AE3DL;
+  private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+  private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+  private static final long PRIME64_3 = 0x165667B19E3779F9L;
+  private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+  private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+  private static final long PRIME_MX1 = 0x165667919E3779F9L;
+  private static final long PRIME_MX2 = 0x9FB21C651E98DF25L;
+
+  private static final int SECRET_SIZE = 192;
+  private static final int STRIPE_LEN = 64;
+  private static final int SECRET_CONSUME_RATE = 8;
+  private static final int STRIPES_PER_BLOCK = (SECRET_SIZE - STRIPE_LEN) / SECRET_CONSUME_RATE;
+  private static final int MIDSIZE_MAX = 240;
+  private static final int MIDSIZE_START_OFFSET = 3;
+  private static final int MIDSIZE_LAST_OFFSET = 17;
+  private static final int SECRET_SIZE_MIN = 136;
+  private static final int SECRET_LAST_ACC_START = 7;
+  private static final int SECRET_MERGE_ACCS_START = 11;
+
+  /** The default secret of the reference implementation, {@code XXH3_kSecret}. */
+  private static final byte[] DEFAULT_SECRET = {
+    (byte) 0xb8, (byte) 0xfe, (byte) 0x6c, (byte) 0x39, (byte) 0x23, (byte) 0xa4,
+    (byte) 0x4b, (byte) 0xbe, (byte) 0x7c, (byte) 0x01, (byte) 0x81, (byte) 0x2c,
+    (byte) 0xf7, (byte) 0x21, (byte) 0xad, (byte) 0x1c, (byte) 0xde, (byte) 0xd4,
+    (byte) 0x6d, (byte) 0xe9, (byte) 0x83, (byte) 0x90, (byte) 0x97, (byte) 0xdb,
+    (byte) 0x72, (byte) 0x40, (byte) 0xa4, (byte) 0xa4, (byte) 0xb7, (byte) 0xb3,
+    (byte) 0x67, (byte) 0x1f, (byte) 0xcb, (byte) 0x79, (byte) 0xe6, (byte) 0x4e,
+    (byte) 0xcc, (byte) 0xc0, (byte) 0xe5, (byte) 0x78, (byte) 0x82, (byte) 0x5a,
+    (byte) 0xd0, (byte) 0x7d, (byte) 0xcc, (byte) 0xff, (byte) 0x72, (byte) 0x21,
+    (byte) 0xb8, (byte) 0x08, (byte) 0x46, (byte) 0x74, (byte) 0xf7, (byte) 0x43,
+    (byte) 0x24, (byte) 0x8e, (byte) 0xe0, (byte) 0x35, (byte) 0x90, (byte) 0xe6,
+    (byte) 0x81, (byte) 0x3a, (byte) 0x26, (byte) 0x4c, (byte) 0x3c, (byte) 0x28,
+    (byte) 0x52, (byte) 0xbb, (byte) 0x91, (byte) 0xc3, (byte) 0x00, (byte) 0xcb,
+    (byte) 0x88, (byte) 0xd0, (byte) 0x65, (byte) 0x8b, (byte) 0x1b, (byte) 0x53,
+    (byte) 0x2e, (byte) 0xa3, (byte) 0x71, (byte) 0x64, (byte) 0x48, (byte) 0x97,
+    (byte) 0xa2, (byte) 0x0d, (byte) 0xf9, (byte) 0x4e, (byte) 0x38, (byte) 0x19,
+    (byte) 0xef, (byte) 0x46, (byte) 0xa9, (byte) 0xde, (byte) 0xac, (byte) 0xd8,
+    (byte) 0xa8, (byte) 0xfa, (byte) 0x76, (byte) 0x3f, (byte) 0xe3, (byte) 0x9c,
+    (byte) 0x34, (byte) 0x3f, (byte) 0xf9, (byte) 0xdc, (byte) 0xbb, (byte) 0xc7,
+    (byte) 0xc7, (byte) 0x0b, (byte) 0x4f, (byte) 0x1d, (byte) 0x8a, (byte) 0x51,
+    (byte) 0xe0, (byte) 0x4b, (byte) 0xcd, (byte) 0xb4, (byte) 0x59, (byte) 0x31,
+    (byte) 0xc8, (byte) 0x9f, (byte) 0x7e, (byte) 0xc9, (byte) 0xd9, (byte) 0x78,
+    (byte) 0x73, (byte) 0x64, (byte) 0xea, (byte) 0xc5, (byte) 0xac, (byte) 0x83,
+    (byte) 0x34, (byte) 0xd3, (byte) 0xeb, (byte) 0xc3, (byte) 0xc5, (byte) 0x81,
+    (byte) 0xa0, (byte) 0xff, (byte) 0xfa, (byte) 0x13, (byte) 0x63, (byte) 0xeb,
+    (byte) 0x17, (byte) 0x0d, (byte) 0xdd, (byte) 0x51, (byte) 0xb7, (byte) 0xf0,
+    (byte) 0xda, (byte) 0x49, (byte) 0xd3, (byte) 0x16, (byte) 0x55, (byte) 0x26,
+    (byte) 0x29, (byte) 0xd4, (byte) 0x68, (byte) 0x9e, (byte) 0x2b, (byte) 0x16,
+    (byte) 0xbe, (byte) 0x58, (byte) 0x7d, (byte) 0x47, (byte) 0xa1, (byte) 0xfc,
+    (byte) 0x8f, (byte) 0xf8, (byte) 0xb8, (byte) 0xd1, (byte) 0x7a, (byte) 0xd0,
+    (byte) 0x31, (byte) 0xce, (byte) 0x45, (byte) 0xcb, (byte) 0x3a, (byte) 0x8f,
+    (byte) 0x95, (byte) 0x16, (byte) 0x04, (byte) 0x28, (byte) 0xaf, (byte) 0xd7,
+    (byte) 0xfb, (byte) 0xca, (byte) 0xbb, (byte) 0x4b, (byte) 0x40, (byte) 0x7e
+  };
+
+  // must be initialized after DEFAULT_SECRET
+  static final HashFunction XXH3_64 = new Xxh3HashFunction(0);
+
+  private final long seed;
+
+  /** The secret for long inputs; derived from the seed, or {@link #DEFAULT_SECRET} if it is 0. */
+  private final transient byte[] secret;
+
+  Xxh3HashFunction(long seed) {
+    this.seed = seed;
+    this.secret = (seed == 0) ? DEFAULT_SECRET : customSecret(seed);
+  }
+
+  private static byte[] customSecret(long seed) {
+    byte[] secret = new byte[SECRET_SIZE];
+    for (int i = 0; i < SECRET_SIZE; i += 16) {
+      store64(secret, i, load64(DEFAULT_SECRET, i) + seed);
+      store64(secret, i + 8, load64(DEFAULT_SECRET, i + 8) - seed);
+    }
+    return secret;
+  }
+
+  @Override
+  public int bits() {
+    return 64;
+  }
+
+  @Override
+  public Hasher newHasher() {
+    return new Xxh3Hasher(seed, secret);
+  }
+
+  // The overrides below compute the hash directly, without allocating a Hasher.
+
+  @Override
+  public HashCode hashInt(int input) {
+    long unsigned = input & 0xFFFFFFFFL;
+    return HashCode.fromLong(hashLength4To8(unsigned, unsigned, 4, seed));
+  }
+
+  @Override
+  public HashCode hashLong(long input) {
+    return HashCode.fromLong(hashLongToLong(input));
+  }
+
+  @Override
+  public long hashLongToLong(long input) {
+    return hashLength4To8(input & 0xFFFFFFFFL, input >>> 32, 8, seed);
+  }
+
+  @Override
+  public HashCode hashBytes(byte[] input, int off, int len) {
+    return HashCode.fromLong(hashBytesToLong(input, off, len));
+  }
+
+  @Override
+  public long hashBytesToLong(byte[] input, int off, int len) {
+    checkPositionIndexes(off, off + len, input.length);
+    return hash64(input, off, len, seed, secret);
+  }
+
+  @Override
+  public String toString() {
+    return "Hashing.xxh3_64(" + seed + ")";
+  }
+
+  @Override
+  public boolean equals(@NullableDecl Object object) {
+    if (object instanceof Xxh3HashFunction) {
+      Xxh3HashFunction other = (Xxh3HashFunction) object;
+      return seed == other.seed;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (getClass().hashCode() ^ seed);
+  }
+
+  private Object readResolve() {
+    return new Xxh3HashFunction(seed);
+  }
+
+  @VisibleForTesting
+  static long hash64(byte[] input, int off, int len, long seed) {
+    return hash64(input, off, len, seed, (seed == 0) ? DEFAULT_SECRET : customSecret(seed));
+  }
+
+  private static long hash64(byte[] input, int off, int len, long seed, byte[] secret) {
+    if (len <= 16) {
+      if (len > 8) {
+        return hashLength9To16(input, off, len, seed);
+      } else if (len >= 4) {
+        long first4 = load32(input, off) & 0xFFFFFFFFL;
+        long last4 = load32(input, off + len - 4) & 0xFFFFFFFFL;
+        return hashLength4To8(first4, last4, len, seed);
+      } else if (len > 0) {
+        int c1 = toInt(input[off]);
+        int c2 = toInt(input[off + (len >> 1)]);
+        int c3 = toInt(input[off + len - 1]);
+        return hashLength1To3(c1, c2, c3, len, seed);
+      } else {
+        return xxh64Avalanche(seed ^ load64(DEFAULT_SECRET, 56) ^ load64(DEFAULT_SECRET, 64));
+      }
+    } else if (len <= 128) {
+      return hashLength17To128(input, off, len, seed);
+    } else if (len <= MIDSIZE_MAX) {
+      return hashLength129To240(input, off, len, seed);
+    } else {
+      return hashLong(input, off, len, secret);
+    }
+  }
+
+  private static long hashLength1To3(int c1, int c2, int c3, int len, long seed) {
+    long combined = ((c1 << 16) | (c2 << 24) | c3 | (len << 8)) & 0xFFFFFFFFL;
+    long bitflip =
+        ((load32(DEFAULT_SECRET, 0) ^ load32(DEFAULT_SECRET, 4)) & 0xFFFFFFFFL) + seed;
+    return xxh64Avalanche(combined ^ bitflip);
+  }
+
+  /**
+   * Hashes 4 to 8 bytes, given as the unsigned little-endian values of their first and last four
+   * bytes (which overlap if there are fewer than 8).
+   */
+  private static long hashLength4To8(long first4, long last4, int len, long seed) {
+    seed ^= (Integer.reverseBytes((int) seed) & 0xFFFFFFFFL) << 32;
+    long bitflip = (load64(DEFAULT_SECRET, 8) ^ load64(DEFAULT_SECRET, 16)) - seed;
+    long input64 = last4 + (first4 << 32);
+    return rrmxmx(input64 ^ bitflip, len);
+  }
+
+  private static long hashLength9To16(byte[] input, int off, int len, long seed) {
+    long bitflip1 = (load64(DEFAULT_SECRET, 24) ^ load64(DEFAULT_SECRET, 32)) + seed;
+    long bitflip2 = (load64(DEFAULT_SECRET, 40) ^ load64(DEFAULT_SECRET, 48)) - seed;
+    long inputLo = load64(input, off) ^ bitflip1;
+    long inputHi = load64(input, off + len - 8) ^ bitflip2;
+    long acc = len + Long.reverseBytes(inputLo) + inputHi + mul128Fold64(inputLo, inputHi);
+    return avalanche(acc);
+  }
+
+  private static long hashLength17To128(byte[] input, int off, int len, long seed) {
+    long acc = len * PRIME64_1;
+    if (len > 32) {
+      if (len > 64) {
+        if (len > 96) {
+          acc += mix16B(input, off + 48, 96, seed);
+          acc += mix16B(input, off + len - 64, 112, seed);
+        }
+        acc += mix16B(input, off + 32, 64, seed);
+        acc += mix16B(input, off + len - 48, 80, seed);
+      }
+      acc += mix16B(input, off + 16, 32, seed);
+      acc += mix16B(input, off + len - 32, 48, seed);
+    }
+    acc += mix16B(input, off, 0, seed);
+    acc += mix16B(input, off + len - 16, 16, seed);
+    return avalanche(acc);
+  }
+
+  private static long hashLength129To240(byte[] input, int off, int len, long seed) {
+    long acc = len * PRIME64_1;
+    int rounds = len / 16;
+    for (int i = 0; i < 8; i++) {
+      acc += mix16B(input, off + 16 * i, 16 * i, seed);
+    }
+    acc = avalanche(acc);
+    for (int i = 8; i < rounds; i++) {
+      acc += mix16B(input, off + 16 * i, 16 * (i - 8) + MIDSIZE_START_OFFSET, seed);
+    }
+    acc += mix16B(input, off + len - 16, SECRET_SIZE_MIN - MIDSIZE_LAST_OFFSET, seed);
+    return avalanche(acc);
+  }
+
+  private static long mix16B(byte[] input, int off, int secretOff, long seed) {
+    long inputLo = load64(input, off);
+    long inputHi = load64(input, off + 8);
+    return mul128Fold64(
+        inputLo ^ (load64(DEFAULT_SECRET, secretOff) + seed),
+        inputHi ^ (load64(DEFAULT_SECRET, secretOff + 8) - seed));
+  }
+
+  private static long hashLong(byte[] input, int off, int len, byte[] secret) {
+    long[] acc = initialAccumulators();
+    int blockLen = STRIPE_LEN * STRIPES_PER_BLOCK;
+    int blocks = (len - 1) / blockLen;
+    for (int n = 0; n < blocks; n++) {
+      int blockOff = off + n * blockLen;
+      for (int s = 0; s < STRIPES_PER_BLOCK; s++) {
+        accumulate512(acc, input, blockOff + s * STRIPE_LEN, secret, s * SECRET_CONSUME_RATE);
+      }
+      scramble(acc, secret);
+    }
+    int stripes = ((len - 1) - blockLen * blocks) / STRIPE_LEN;
+    int lastBlockOff = off + blocks * blockLen;
+    for (int s = 0; s < stripes; s++) {
+      accumulate512(acc, input, lastBlockOff + s * STRIPE_LEN, secret, s * SECRET_CONSUME_RATE);
+    }
+    accumulate512(
+        acc,
+        input,
+        off + len - STRIPE_LEN,
+        secret,
+        SECRET_SIZE - STRIPE_LEN - SECRET_LAST_ACC_START);
+    return mergeAccumulators(acc, secret, len * PRIME64_1);
+  }
+
+  private static long[] initialAccumulators() {
+    return new long[] {
+      PRIME32_3, PRIME64_1, PRIME64_2, PRIME64_3, PRIME64_4, PRIME32_2, PRIME64_5, PRIME32_1
+    };
+  }
+
+  private static void accumulate512(
+      long[] acc, byte[] input, int off, byte[] secret, int secretOff) {
+    for (int i = 0; i < 8; i++) {
+      long dataVal = load64(input, off + 8 * i);
+      long dataKey = dataVal ^ load64(secret, secretOff + 8 * i);
+      acc[i ^ 1] += dataVal;
+      acc[i] += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+    }
+  }
+
+  private static void scramble(long[] acc, byte[] secret) {
+    for (int i = 0; i < 8; i++) {
+      long key = load64(secret, SECRET_SIZE - STRIPE_LEN + 8 * i);
+      long a = acc[i];
+      a ^= a >>> 47;
+      a ^= key;
+      acc[i] = a * PRIME32_1;
+    }
+  }
+
+  private static long mergeAccumulators(long[] acc, byte[] secret, long start) {
+    long result = start;
+    for (int i = 0; i < 4; i++) {
+      int secretOff = SECRET_MERGE_ACCS_START + 16 * i;
+      long lo = acc[2 * i] ^ load64(secret, secretOff);
+      long hi = acc[2 * i + 1] ^ load64(secret, secretOff + 8);
+      result += mul128Fold64(lo, hi);
+    }
+    return avalanche(result);
+  }
+
+  /** Returns the XOR of the low and high halves of the unsigned 128-bit product of the inputs. */
+  private static long mul128Fold64(long x, long y) {
+    return (x * y) ^ multiplyHighUnsigned(x, y);
+  }
+
+  private static long multiplyHighUnsigned(long x, long y) {
+    long x0 = x & 0xFFFFFFFFL;
+    long x1 = x >>> 32;
+    long y0 = y & 0xFFFFFFFFL;
+    long y1 = y >>> 32;
+    long t = x1 * y0 + ((x0 * y0) >>> 32);
+    long w1 = (t & 0xFFFFFFFFL) + x0 * y1;
+    return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+  }
+
+  private static long avalanche(long hash) {
+    hash ^= hash >>> 37;
+    hash *= PRIME_MX1;
+    return hash ^ (hash >>> 32);
+  }
+
+  private static long rrmxmx(long hash, int len) {
+    hash ^= Long.rotateLeft(hash, 49) ^ Long.rotateLeft(hash, 24);
+    hash *= PRIME_MX2;
+    hash ^= (hash >>> 35) + len;
+    hash *= PRIME_MX2;
+    return hash ^ (hash >>> 28);
+  }
+
+  private static long xxh64Avalanche(long hash) {
+    hash ^= hash >>> 33;
+    hash *= PRIME64_2;
+    hash ^= hash >>> 29;
+    hash *= PRIME64_3;
+    return hash ^ (hash >>> 32);
+  }
+
+  /**
+   * Streams stripes into the accumulators as they arrive. A stripe is only accumulated once a later
+   * byte has been seen, because the reference implementation treats the stripe that ends the input
+   * differently; the first {@value #MIDSIZE_MAX} bytes are kept as well, so that short inputs can
+   * be handed to the length-specific routines once the total length is known.
+   */
+  private static final class Xxh3Hasher extends AbstractStreamingHasher {
+    private final long seed;
+    private final byte[] secret;
+    private final long[] acc = initialAccumulators();
+    private final byte[] head = new byte[MIDSIZE_MAX];
+    private byte[] pendingStripe = new byte[STRIPE_LEN];
+    private byte[] nextStripe = new byte[STRIPE_LEN];
+    private boolean hasPendingStripe;
+    private int stripesInBlock;
+    private long length;
+
+    Xxh3Hasher(long seed, byte[] secret) {
+      super(STRIPE_LEN);
+      this.seed = seed;
+      this.secret = secret;
+    }
+
+    @Override
+    protected void process(ByteBuffer bb) {
+      bb.get(nextStripe);
+      consume(nextStripe, STRIPE_LEN);
+      if (hasPendingStripe) {
+        accumulateStripe(pendingStripe);
+      }
+      byte[] tmp = pendingStripe;
+      pendingStripe = nextStripe;
+      nextStripe = tmp;
+      hasPendingStripe = true;
+    }
+
+    @Override
+    protected void processRemaining(ByteBuffer bb) {
+      int remaining = bb.remaining();
+      bb.get(nextStripe, 0, remaining);
+      consume(nextStripe, remaining);
+      if (hasPendingStripe) {
+        accumulateStripe(pendingStripe);
+        // the last stripe is made of the end of the pending stripe and the remaining bytes
+        System.arraycopy(nextStripe, 0, nextStripe, STRIPE_LEN - remaining, remaining);
+        System.arraycopy(pendingStripe, remaining, nextStripe, 0, STRIPE_LEN - remaining);
+        byte[] tmp = pendingStripe;
+        pendingStripe = nextStripe;
+        nextStripe = tmp;
+      }
+    }
+
+    private void consume(byte[] bytes, int len) {
+      if (length < MIDSIZE_MAX) {
+        System.arraycopy(bytes, 0, head, (int) length, Math.min(len, MIDSIZE_MAX - (int) length));
+      }
+      length += len;
+    }
+
+    private void accumulateStripe(byte[] stripe) {
+      accumulate512(acc, stripe, 0, secret, stripesInBlock * SECRET_CONSUME_RATE);
+      if (++stripesInBlock == STRIPES_PER_BLOCK) {
+        scramble(acc, secret);
+        stripesInBlock = 0;
+      }
+    }
+
+    @Override
+    protected HashCode makeHash() {
+      if (length <= MIDSIZE_MAX) {
+        return HashCode.fromLong(hash64(head, 0, (int) length, seed, secret));
+      }
+      // pendingStripe now holds the last STRIPE_LEN bytes of the input
+      accumulate512(
+          acc, pendingStripe, 0, secret, SECRET_SIZE - STRIPE_LEN - SECRET_LAST_ACC_START);
+      return HashCode.fromLong(mergeAccumulators(acc, secret, length * PRIME64_1));
+    }
+  }
+
+  private static final long serialVersionUID = 0L;
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Sets;
+import com.google.common.collect.UnmodifiableIterator;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * Sorts more elements than fit in memory. Elements {@linkplain #add added} to the sorter are
+ * buffered in memory until a configurable number of them is reached; the buffer is then sorted and
+ * written, with a {@link Serializer}, to a temporary file as a sorted "run". The {@link
+ * #sortedIterator} lazily merges the runs, and whatever is left in the buffer, reading each run
+ * sequentially, so that only one buffer of elements and a few elements of each run are ever held in
+ * memory:
+ *
+ * <pre>{@code
+ * try (ExternalSorter<Record> sorter =
+ *     ExternalSorter.orderedBy(Record.BY_KEY, Record.SERIALIZER)
+ *         .maximumElementsInMemory(1_000_000)
+ *         .create()) {
+ *   for (Record record : records) {
+ *     sorter.add(record);
+ *   }
+ *   Iterator<Record> sorted = sorter.sortedIterator();
+ *   ...
+ * }
+ * }</pre>
+ *
+ * <p>The runs are written through the {@link ByteSink} and read back through the {@link ByteSource}
+ * of their {@linkplain Files#asByteSink files}, using buffered streams. They are merged with
+ * {@link Iterators#mergeSorted}, which takes at most ceil(log2(k)) comparisons per element for k
+ * runs. If there are more runs than the {@linkplain Builder#maximumRunsPerMerge maximum number that
+ * may be merged at once}, which bounds the number of open files, consecutive runs are first merged
+ * into longer runs, each such pass reading and writing every element once more.
+ *
+ * <p>The sort is stable: elements that compare equal are returned in the order in which they were
+ * added.
+ *
+ * <p>Null elements are not supported. Instances of this class are not thread-safe. Closing the
+ * sorter deletes its temporary files, and closes the files opened by any of its iterators.
+ *
+ * @param <T> the type of the elements to sort
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class ExternalSorter<T> implements Closeable {
+
+  /**
+   * Writes elements to and reads them from the temporary files of an {@link ExternalSorter}. Each
+   * element is read back by a single call to {@link #read}, from the bytes written by the
+   * corresponding call to {@link #write}.
+   *
+   * @param <T> the type of the elements to serialize
+   * @since NEXT
+   */
+  @Beta
+  public interface Serializer<T> {
+    /** Writes {@code element} to {@code out}. */
+    void write(T element, DataOutput out) throws IOException;
+
+    /** Reads an element, written by {@link #write}, from {@code in}. */
+    T read(DataInput in) throws IOException;
+  }
+
+  private static final int DEFAULT_MAXIMUM_ELEMENTS_IN_MEMORY = 1 << 16;
+  private static final int DEFAULT_MAXIMUM_RUNS_PER_MERGE = 64;
+
+  /**
+   * Returns a builder for sorters that sort elements according to {@code comparator}, writing them
+   * to temporary files with {@code serializer}.
+   */
+  public static <T> Builder<T> orderedBy(
+      Comparator<? super T> comparator, Serializer<T> serializer) {
+    return new Builder<T>(comparator, serializer);
+  }
+
+  /**
+   * The builder class used in creation of external sorters. Instances of this class are obtained
+   * from {@link ExternalSorter#orderedBy}.
+   *
+   * @since NEXT
+   */
+  @Beta
+  public static final class Builder<T> {
+    private final Comparator<? super T> comparator;
+    private final Serializer<T> serializer;
+    private int maximumElementsInMemory = DEFAULT_MAXIMUM_ELEMENTS_IN_MEMORY;
+    private int maximumRunsPerMerge = DEFAULT_MAXIMUM_RUNS_PER_MERGE;
+    @NullableDecl private File directory;
+
+    private Builder(Comparator<? super T> comparator, Serializer<T> serializer) {
+      this.comparator = checkNotNull(comparator);
+      this.serializer = checkNotNull(serializer);
+    }
+
+    /**
+     * Configures the sorter to hold at most {@code maximumElementsInMemory} elements in memory
+     * before writing them to a temporary file. The sorted iterator additionally holds one element
+     * of each run it merges. The default is 65536.
+     */
+    @CanIgnoreReturnValue
+    public Builder<T> maximumElementsInMemory(int maximumElementsInMemory) {
+      checkArgument(maximumElementsInMemory > 0);
+      this.maximumElementsInMemory = maximumElementsInMemory;
+      return this;
+    }
+
+    /**
+     * Configures the sorter to merge at most {@code maximumRunsPerMerge} runs, and so to have at
+     * most that many temporary files open, at once. The default is 64.
+     *
+     * @throws IllegalArgumentException if {@code maximumRunsPerMerge < 2}
+     */
+    @CanIgnoreReturnValue
+    public Builder<T> maximumRunsPerMerge(int maximumRunsPerMerge) {
+      checkArgument(maximumRunsPerMerge >= 2);
+      this.maximumRunsPerMerge = maximumRunsPerMerge;
+      return this;
+    }
+
+    /**
+     * Configures the sorter to create its temporary files in {@code directory}, rather than in the
+     * default temporary-file directory.
+     */
+    @CanIgnoreReturnValue
+    public Builder<T> temporaryDirectory(File directory) {
+      this.directory = checkNotNull(directory);
+      return this;
+    }
+
+    /** Builds a new, empty sorter using the previously specified options. */
+    public ExternalSorter<T> create() {
+      return new ExternalSorter<T>(this);
+    }
+  }
+
+  private final Comparator<? super T> comparator;
+  private final Serializer<T> serializer;
+  private final int maximumElementsInMemory;
+  private final int maximumRunsPerMerge;
+  @NullableDecl private final File directory;
+
+  /** Every temporary file created so far, deleted on close. */
+  private final List<File> files = new ArrayList<>();
+
+  /** The streams opened to read runs that haven't been read to the end, closed on close. */
+  private final Set<DataInputStream> openStreams = Sets.newIdentityHashSet();
+
+  /** The runs written so far, in the order in which their elements were added. */
+  private List<Run> runs = new ArrayList<>();
+
+  private Object[] buffer = new Object[0];
+  private int bufferSize;
+
+  /** Whether {@link #sortedIterator} has been called, after which no element may be added. */
+  private boolean sorted;
+
+  private boolean closed;
+
+  private ExternalSorter(Builder<T> builder) {
+    this.comparator = builder.comparator;
+    this.serializer = builder.serializer;
+    this.maximumElementsInMemory = builder.maximumElementsInMemory;
+    this.maximumRunsPerMerge = builder.maximumRunsPerMerge;
+    this.directory = builder.directory;
+  }
+
+  /**
+   * Adds {@code element} to the elements to sort. If this fills the in-memory buffer, it is sorted
+   * and written to a temporary file.
+   *
+   * @throws IllegalStateException if {@link #sortedIterator} has already been called, or this
+   *     sorter has been closed
+   * @throws IOException if an I/O error occurs while writing the buffer
+   */
+  public void add(T element) throws IOException {
+    checkNotNull(element);
+    checkState(!sorted && !closed, "Elements can no longer be added");
+    if (bufferSize == buffer.length) {
+      if (bufferSize == maximumElementsInMemory) {
+        spill();
+      } else {
+        int newLength = (int) Math.min(Math.max(16, 2L * buffer.length), maximumElementsInMemory);
+        buffer = Arrays.copyOf(buffer, newLength);
+      }
+    }
+    buffer[bufferSize++] = element;
+  }
+
+  /**
+   * Adds each of {@code elements} to the elements to sort.
+   *
+   * @throws IllegalStateException if {@link #sortedIterator} has already been called, or this
+   *     sorter has been closed
+   * @throws IOException if an I/O error occurs while writing the buffer
+   */
+  public void addAll(Iterator<? extends T> elements) throws IOException {
+    while (elements.hasNext()) {
+      add(elements.next());
+    }
+  }
+
+  /**
+   * Adds each of {@code elements} to the elements to sort.
+   *
+   * @throws IllegalStateException if {@link #sortedIterator} has already been called, or this
+   *     sorter has been closed
+   * @throws IOException if an I/O error occurs while writing the buffer
+   */
+  public void addAll(Iterable<? extends T> elements) throws IOException {
+    addAll(elements.iterator());
+  }
+
+  /**
+   * Returns an iterator over all the elements added to this sorter, in sorted order. After this is
+   * first called, no more elements may be added; it may be called again to iterate over the
+   * elements once more, until this sorter is closed.
+   *
+   * <p>If there are more runs than may be merged at once, this first merges them into fewer,
+   * longer runs. The returned iterator then reads the runs lazily; it throws an {@link
+   * UncheckedIOException} if an I/O error occurs while reading them. It closes each run when it has
+   * read all of its elements; closing this sorter closes any run left open.
+   *
+   * @throws IllegalStateException if this sorter has been closed
+   * @throws IOException if an I/O error occurs while merging runs
+   */
+  public UnmodifiableIterator<T> sortedIterator() throws IOException {
+    checkState(!closed, "This sorter has been closed");
+    if (!sorted) {
+      sorted = true;
+      sortBuffer();
+      int bufferRuns = (bufferSize > 0) ? 1 : 0;
+      while (runs.size() + bufferRuns > maximumRunsPerMerge) {
+        mergePass();
+      }
+    }
+    List<Iterator<T>> iterators = new ArrayList<>(runs.size() + 1);
+    for (Run run : runs) {
+      iterators.add(new RunIterator(run));
+    }
+    // The buffer holds the elements added last, so it goes last for the merge to be stable.
+    iterators.add(bufferIterator());
+    return Iterators.mergeSorted(iterators, comparator);
+  }
+
+  /** Returns the number of runs written to temporary files. */
+  @VisibleForTesting
+  int runCount() {
+    return runs.size();
+  }
+
+  /**
+   * Deletes the temporary files of this sorter and closes any of them opened by its iterators.
+   *
+   * @throws IOException if an I/O error occurs while closing a file
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    runs = new ArrayList<>();
+    buffer = new Object[0];
+    bufferSize = 0;
+    Closer closer = Closer.create();
+    for (DataInputStream in : openStreams) {
+      closer.register(in);
+    }
+    openStreams.clear();
+    try {
+      closer.close();
+    } finally {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked") // the buffer only holds elements of type T
+  private void sortBuffer() {
+    Arrays.sort((T[]) buffer, 0, bufferSize, comparator);
+  }
+
+  @SuppressWarnings("unchecked") // the buffer only holds elements of type T
+  private Iterator<T> bufferIterator() {
+    return Arrays.asList((T[]) buffer).subList(0, bufferSize).iterator();
+  }
+
+  private void spill() throws IOException {
+    sortBuffer();
+    runs.add(writeRun(bufferIterator(), bufferSize));
+    Arrays.fill(buffer, null);
+    bufferSize = 0;
+  }
+
+  /**
+   * Replaces each group of {@link #maximumRunsPerMerge} consecutive runs by a single run holding
+   * their merged elements, deleting the old runs.
+   */
+  private void mergePass() throws IOException {
+    List<Run> merged = new ArrayList<>();
+    for (int from = 0; from < runs.size(); from += maximumRunsPerMerge) {
+      List<Run> group = runs.subList(from, Math.min(from + maximumRunsPerMerge, runs.size()));
+      if (group.size() == 1) {
+        merged.add(group.get(0));
+        continue;
+      }
+      List<Iterator<T>> iterators = new ArrayList<>(group.size());
+      long count = 0;
+      for (Run run : group) {
+        iterators.add(new RunIterator(run));
+        count += run.count;
+      }
+      try {
+        merged.add(writeRun(Iterators.mergeSorted(iterators, comparator), count));
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+      for (Run run : group) {
+        run.file.delete();
+      }
+    }
+    runs = merged;
+  }
+
+  private Run writeRun(Iterator<? extends T> elements, long count) throws IOException {
+    File file = File.createTempFile("sort", ".run", directory);
+    files.add(file);
+    Closer runCloser = Closer.create();
+    try {
+      DataOutputStream out =
+          runCloser.register(new DataOutputStream(Files.asByteSink(file).openBufferedStream()));
+      while (elements.hasNext()) {
+        serializer.write(elements.next(), out);
+      }
+      out.flush();
+    } catch (Throwable e) {
+      throw runCloser.rethrow(e);
+    } finally {
+      runCloser.close();
+    }
+    return new Run(file, count);
+  }
+
+  /** A temporary file holding {@code count} serialized elements, in sorted order. */
+  private static final class Run {
+    final File file;
+    final long count;
+
+    Run(File file, long count) {
+      this.file = file;
+      this.count = count;
+    }
+  }
+
+  /** Reads the elements of a run, opening its file on the first read and closing it at the end. */
+  private final class RunIterator extends AbstractIterator<T> {
+    private final Run run;
+    private long remaining;
+    @NullableDecl private DataInputStream in;
+
+    RunIterator(Run run) {
+      this.run = run;
+      this.remaining = run.count;
+    }
+
+    @Override
+    protected T computeNext() {
+      try {
+        if (remaining == 0) {
+          if (in != null) {
+            DataInputStream finished = in;
+            in = null;
+            openStreams.remove(finished);
+            finished.close();
+          }
+          return endOfData();
+        }
+        if (in == null) {
+          checkState(!closed, "This sorter has been closed");
+          ByteSource source = Files.asByteSource(run.file);
+          in = new DataInputStream(source.openBufferedStream());
+          openStreams.add(in);
+        }
+        remaining--;
+        return serializer.read(in);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
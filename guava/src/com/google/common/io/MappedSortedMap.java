@@ -0,0 +1,939 @@
+/*
+ * Copyright (C) 2018 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.common.collect.UnmodifiableIterator;
+import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.UnsignedBytes;
+import com.google.common.primitives.UnsignedLongs;
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedSet;
+import org.checkerframework.checker.nullness.compatqual.NullableDecl;
+
+/**
+ * A read-only {@link NavigableMap} from byte strings to byte strings, stored in a file and accessed
+ * through memory mapping. The map is written once, by a {@link Builder}, and may then be
+ * {@linkplain #map mapped} any number of times, by any number of processes:
+ *
+ * <pre>{@code
+ * try (MappedSortedMap.Builder builder = MappedSortedMap.builder(file)) {
+ *   for (Entry<byte[], byte[]> entry : sortedEntries) {
+ *     builder.put(entry.getKey(), entry.getValue());
+ *   }
+ *   builder.build();
+ * }
+ * ...
+ * MappedSortedMap map = MappedSortedMap.map(file);
+ * ByteBuffer value = map.get(ByteBuffer.wrap(key));
+ * }</pre>
+ *
+ * <p>Unlike an {@link com.google.common.collect.ImmutableSortedMap}, which holds a reference to
+ * every key and value, this map holds nothing in memory but the mappings of its file: its entries
+ * are paged in by the operating system as they are accessed, and the page cache holding them is
+ * shared by every process that maps the same file. Lookups are binary searches over an index block
+ * of entry offsets at the end of the file, touching O(log n) pages.
+ *
+ * <p>Keys are ordered lexicographically by their {@linkplain ByteBuffer#remaining remaining} bytes,
+ * each byte compared as an unsigned value; a key that is a prefix of another key is the lesser
+ * one. The keys, values and entries returned by the map are read-only {@linkplain ByteBuffer#slice
+ * slices} of the mapped file, so reading them copies nothing; any {@link ByteBuffer} with the same
+ * remaining bytes may be used to look them up. {@link #get} and {@link #containsKey} accept any
+ * object, returning {@code null} or {@code false} for objects that are not byte buffers, while the
+ * navigation methods throw {@link NullPointerException} and {@link ClassCastException} for such
+ * objects.
+ *
+ * <p>The map, its views and its submaps can't be modified, and like the maps of {@link
+ * com.google.common.collect.ImmutableSortedMap}, submaps are bounded by the indexes of their
+ * first and last entries rather than by the keys they were requested with. The map is safe for
+ * use by multiple threads, provided that its file is not modified while mapped. As with {@link
+ * Files#map}, the file remains mapped until the map is garbage collected.
+ *
+ * <p>The file holds, for each entry, the lengths of its key and value followed by their bytes. It
+ * is mapped in segments of at most 1 GiB, since a {@link ByteBuffer} holds at most 2 GiB, and the
+ * builder pads the file so that no entry straddles two segments; an entry may therefore hold at
+ * most 1 GiB of data. A map may hold at most {@link Integer#MAX_VALUE} entries.
+ *
+ * @since NEXT
+ */
+@Beta
+@GwtIncompatible
+public final class MappedSortedMap extends AbstractMap<ByteBuffer, ByteBuffer>
+    implements NavigableMap<ByteBuffer, ByteBuffer> {
+
+  /** Identifies, at the very end of a file, a map written by {@link Builder}. */
+  private static final int MAGIC = 0x4d534d01;
+
+  /** The number of bytes of the lengths of the key and value that precede each entry. */
+  private static final int ENTRY_HEADER_SIZE = 2 * Ints.BYTES;
+
+  /** The size of the footer: the index offset, the size, the segment shift, and the magic. */
+  private static final int FOOTER_SIZE = Longs.BYTES + 3 * Ints.BYTES;
+
+  private static final int DEFAULT_SEGMENT_SHIFT = 30;
+
+  private static final int MIN_SEGMENT_SHIFT = 4;
+
+  /** The zeros that pad the end of a segment, or of the entries before the index block. */
+  private static final byte[] PADDING = new byte[4096];
+
+  /**
+   * Compares the remaining bytes of two byte buffers lexicographically, as unsigned values, eight
+   * at a time where both buffers are big-endian.
+   */
+  private static final Ordering<ByteBuffer> KEY_ORDER =
+      new Ordering<ByteBuffer>() {
+        @Override
+        public int compare(ByteBuffer left, ByteBuffer right) {
+          return compareBytes(
+              left, left.position(), left.remaining(), right, right.position(), right.remaining());
+        }
+
+        @Override
+        public String toString() {
+          return "MappedSortedMap.keyOrder()";
+        }
+      };
+
+  private static int compareBytes(
+      ByteBuffer left,
+      int leftIndex,
+      int leftLength,
+      ByteBuffer right,
+      int rightIndex,
+      int rightLength) {
+    int minLength = Math.min(leftLength, rightLength);
+    int i = 0;
+    if (left.order() == ByteOrder.BIG_ENDIAN && right.order() == ByteOrder.BIG_ENDIAN) {
+      for (; i + Longs.BYTES <= minLength; i += Longs.BYTES) {
+        long leftLong = left.getLong(leftIndex + i);
+        long rightLong = right.getLong(rightIndex + i);
+        if (leftLong != rightLong) {
+          return UnsignedLongs.compare(leftLong, rightLong);
+        }
+      }
+    }
+    for (; i < minLength; i++) {
+      int result = UnsignedBytes.compare(left.get(leftIndex + i), right.get(rightIndex + i));
+      if (result != 0) {
+        return result;
+      }
+    }
+    return leftLength - rightLength;
+  }
+
+  /**
+   * Returns the order of the keys of every {@code MappedSortedMap}: lexicographic, by remaining
+   * bytes, comparing bytes as unsigned values. This is the order in which keys must be {@linkplain
+   * Builder#put put} into a builder.
+   */
+  public static Comparator<ByteBuffer> keyOrder() {
+    return KEY_ORDER;
+  }
+
+  /**
+   * Returns a builder that writes a map to {@code file}, replacing any existing content. The file
+   * is complete, and may be mapped, once {@link Builder#build} returns.
+   */
+  public static Builder builder(File file) throws IOException {
+    return new Builder(file, DEFAULT_SEGMENT_SHIFT);
+  }
+
+  @VisibleForTesting
+  static Builder builder(File file, int segmentShift) throws IOException {
+    checkArgument(segmentShift >= MIN_SEGMENT_SHIFT && segmentShift <= DEFAULT_SEGMENT_SHIFT);
+    return new Builder(file, segmentShift);
+  }
+
+  /**
+   * Writes the entries of a {@link MappedSortedMap} to a file. Entries must be {@linkplain #put
+   * put} in strictly increasing {@linkplain MappedSortedMap#keyOrder key order}; they are written
+   * to the file as they are put, and only their offsets are buffered, in a temporary file beside
+   * the map's file, until {@link #build} appends them to the map's file as its index block. To
+   * write a map from unsorted entries, sort them first, for instance with an {@link
+   * ExternalSorter}.
+   *
+   * <p>Closing a builder whose {@code build} method hasn't completed deletes the partially written
+   * file. Instances of this class are obtained from {@link MappedSortedMap#builder}, and are not
+   * thread-safe.
+   *
+   * @since NEXT
+   */
+  @Beta
+  public static final class Builder implements Closeable {
+    private final File file;
+    private final File indexFile;
+    private final int segmentShift;
+    private final long segmentSize;
+    private final DataOutputStream out;
+    private final DataOutputStream index;
+
+    /** The number of bytes written to {@link #out}. */
+    private long position;
+
+    private int size;
+    @NullableDecl private byte[] lastKey;
+    private boolean built;
+    private boolean closed;
+
+    private Builder(File file, int segmentShift) throws IOException {
+      this.file = checkNotNull(file);
+      this.segmentShift = segmentShift;
+      this.segmentSize = 1L << segmentShift;
+      this.indexFile =
+          File.createTempFile("MappedSortedMap", ".index", file.getAbsoluteFile().getParentFile());
+      Closer closer = Closer.create();
+      try {
+        this.index =
+            closer.register(
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile))));
+        this.out =
+            closer.register(
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file))));
+      } catch (Throwable e) {
+        try {
+          throw closer.rethrow(e);
+        } finally {
+          // Close the index stream, if it was opened, before deleting its file.
+          closer.close();
+          indexFile.delete();
+        }
+      }
+    }
+
+    /**
+     * Writes an entry with the given key and value to the file.
+     *
+     * @throws IllegalArgumentException if {@code key} is not greater than the key of the
+     *     previously put entry, or if the key and value together hold more than 1 GiB
+     * @throws IllegalStateException if the builder has been built or closed
+     */
+    @CanIgnoreReturnValue
+    public Builder put(byte[] key, byte[] value) throws IOException {
+      return put(key, 0, key.length, value, 0, value.length);
+    }
+
+    /**
+     * Writes an entry with the remaining bytes of the given key and value to the file, without
+     * changing the positions of the buffers.
+     *
+     * @throws IllegalArgumentException if {@code key} is not greater than the key of the
+     *     previously put entry, or if the key and value together hold more than 1 GiB
+     * @throws IllegalStateException if the builder has been built or closed
+     */
+    @CanIgnoreReturnValue
+    public Builder put(ByteBuffer key, ByteBuffer value) throws IOException {
+      return put(toArray(key), toArray(value));
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.duplicate().get(bytes);
+      return bytes;
+    }
+
+    private Builder put(
+        byte[] key, int keyOffset, int keyLength, byte[] value, int valueOffset, int valueLength)
+        throws IOException {
+      checkState(!closed, "Builder has been closed");
+      checkState(size < Integer.MAX_VALUE, "A MappedSortedMap holds at most 2^31 - 1 entries");
+      long entrySize = (long) ENTRY_HEADER_SIZE + keyLength + valueLength;
+      checkArgument(
+          entrySize <= segmentSize, "Entry of %s bytes exceeds %s bytes", entrySize, segmentSize);
+      checkArgument(
+          lastKey == null
+              || compareBytes(
+                      ByteBuffer.wrap(lastKey),
+                      0,
+                      lastKey.length,
+                      ByteBuffer.wrap(key),
+                      keyOffset,
+                      keyLength)
+                  < 0,
+          "Keys must be put in strictly increasing order");
+      long segmentRemaining = segmentSize - (position & (segmentSize - 1));
+      if (entrySize > segmentRemaining) {
+        pad(segmentRemaining);
+      }
+      index.writeLong(position);
+      out.writeInt(keyLength);
+      out.writeInt(valueLength);
+      out.write(key, keyOffset, keyLength);
+      out.write(value, valueOffset, valueLength);
+      position += entrySize;
+      size++;
+      lastKey = key.clone();
+      return this;
+    }
+
+    private void pad(long count) throws IOException {
+      for (long remaining = count; remaining > 0; remaining -= PADDING.length) {
+        out.write(PADDING, 0, (int) Math.min(remaining, PADDING.length));
+      }
+      position += count;
+    }
+
+    /**
+     * Appends the index block to the file, closes the builder, and returns a map of the file.
+     *
+     * @throws IllegalStateException if the builder has been built or closed
+     */
+    public MappedSortedMap build() throws IOException {
+      checkState(!closed, "Builder has been closed");
+      pad(-position & (Longs.BYTES - 1));
+      long indexOffset = position;
+      index.close();
+      Files.asByteSource(indexFile).copyTo(out);
+      out.writeLong(indexOffset);
+      out.writeInt(size);
+      out.writeInt(segmentShift);
+      out.writeInt(MAGIC);
+      out.close();
+      built = true;
+      close();
+      return map(file);
+    }
+
+    /**
+     * Closes the builder, deleting its temporary index file, and the map's file unless {@link
+     * #build} has completed. Does nothing if the builder is already closed.
+     */
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      Closer closer = Closer.create();
+      closer.register(out);
+      closer.register(index);
+      try {
+        closer.close();
+      } finally {
+        indexFile.delete();
+        if (!built) {
+          file.delete();
+        }
+      }
+    }
+  }
+
+  /**
+   * Maps {@code file}, which must have been written by a {@link Builder}, into memory, and returns
+   * a map of its entries.
+   *
+   * @throws IOException if an I/O error occurs, or if the file was not written by a builder
+   */
+  public static MappedSortedMap map(File file) throws IOException {
+    checkNotNull(file);
+    Closer closer = Closer.create();
+    try {
+      RandomAccessFile raf = closer.register(new RandomAccessFile(file, "r"));
+      FileChannel channel = raf.getChannel();
+      long length = channel.size();
+      if (length < FOOTER_SIZE) {
+        throw new IOException("Not a MappedSortedMap file: " + file);
+      }
+      ByteBuffer footer = ByteBuffer.allocate(FOOTER_SIZE);
+      while (footer.hasRemaining()) {
+        if (channel.read(footer, length - FOOTER_SIZE + footer.position()) < 0) {
+          throw new IOException("Unexpected end of file: " + file);
+        }
+      }
+      long indexOffset = footer.getLong(0);
+      int size = footer.getInt(Longs.BYTES);
+      int segmentShift = footer.getInt(Longs.BYTES + Ints.BYTES);
+      if (footer.getInt(Longs.BYTES + 2 * Ints.BYTES) != MAGIC
+          || size < 0
+          || segmentShift < MIN_SEGMENT_SHIFT
+          || segmentShift > DEFAULT_SEGMENT_SHIFT
+          || indexOffset < 0
+          || indexOffset + (long) size * Longs.BYTES != length - FOOTER_SIZE) {
+        throw new IOException("Not a MappedSortedMap file: " + file);
+      }
+      long segmentSize = 1L << segmentShift;
+      ByteBuffer[] segments = new ByteBuffer[Ints.checkedCast(((length - 1) >> segmentShift) + 1)];
+      for (int i = 0; i < segments.length; i++) {
+        long start = (long) i << segmentShift;
+        segments[i] = channel.map(MapMode.READ_ONLY, start, Math.min(segmentSize, length - start));
+      }
+      return new MappedSortedMap(segments, segmentShift, indexOffset, 0, size, false);
+    } catch (Throwable e) {
+      throw closer.rethrow(e);
+    } finally {
+      closer.close();
+    }
+  }
+
+  /** The consecutive, read-only, big-endian mappings of the file. */
+  private final ByteBuffer[] segments;
+
+  private final int segmentShift;
+  private final long indexOffset;
+
+  /** The index of the first entry of this (sub)map, in ascending order. */
+  private final int fromIndex;
+
+  /** The index after that of the last entry of this (sub)map, in ascending order. */
+  private final int toIndex;
+
+  private final boolean descending;
+
+  @NullableDecl private transient EntrySet entrySet;
+  @NullableDecl private transient KeySet keySet;
+
+  private MappedSortedMap(
+      ByteBuffer[] segments,
+      int segmentShift,
+      long indexOffset,
+      int fromIndex,
+      int toIndex,
+      boolean descending) {
+    this.segments = segments;
+    this.segmentShift = segmentShift;
+    this.indexOffset = indexOffset;
+    this.fromIndex = fromIndex;
+    this.toIndex = toIndex;
+    this.descending = descending;
+  }
+
+  private MappedSortedMap withRange(int fromIndex, int toIndex, boolean descending) {
+    if (fromIndex == this.fromIndex && toIndex == this.toIndex && descending == this.descending) {
+      return this;
+    }
+    return new MappedSortedMap(
+        segments, segmentShift, indexOffset, fromIndex, Math.max(fromIndex, toIndex), descending);
+  }
+
+  // Access to the entries of the file, by their index in ascending order.
+
+  private long entryOffset(int index) {
+    long position = indexOffset + (long) index * Longs.BYTES;
+    return segments[(int) (position >>> segmentShift)].getLong(segmentIndex(position));
+  }
+
+  private int segmentIndex(long position) {
+    return (int) (position & ((1L << segmentShift) - 1));
+  }
+
+  private ByteBuffer keyAt(int index) {
+    long offset = entryOffset(index);
+    ByteBuffer segment = segments[(int) (offset >>> segmentShift)];
+    int entryIndex = segmentIndex(offset);
+    return slice(segment, entryIndex + ENTRY_HEADER_SIZE, segment.getInt(entryIndex));
+  }
+
+  private ByteBuffer valueAt(int index) {
+    long offset = entryOffset(index);
+    ByteBuffer segment = segments[(int) (offset >>> segmentShift)];
+    int entryIndex = segmentIndex(offset);
+    int keyLength = segment.getInt(entryIndex);
+    return slice(
+        segment,
+        entryIndex + ENTRY_HEADER_SIZE + keyLength,
+        segment.getInt(entryIndex + Ints.BYTES));
+  }
+
+  private Entry<ByteBuffer, ByteBuffer> entryAt(int index) {
+    return Maps.immutableEntry(keyAt(index), valueAt(index));
+  }
+
+  private static ByteBuffer slice(ByteBuffer segment, int index, int length) {
+    ByteBuffer duplicate = segment.duplicate();
+    duplicate.position(index);
+    duplicate.limit(index + length);
+    return duplicate.slice();
+  }
+
+  /**
+   * Searches the entries of this submap for {@code key}, returning the index of its entry if there
+   * is one, and otherwise {@code -1 - i}, where {@code i} is the index of the first entry with a
+   * greater key.
+   */
+  private int search(ByteBuffer key) {
+    int keyIndex = key.position();
+    int keyLength = key.remaining();
+    int low = fromIndex;
+    int high = toIndex - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      long offset = entryOffset(mid);
+      ByteBuffer segment = segments[(int) (offset >>> segmentShift)];
+      int entryIndex = segmentIndex(offset);
+      int result =
+          compareBytes(
+              key,
+              keyIndex,
+              keyLength,
+              segment,
+              entryIndex + ENTRY_HEADER_SIZE,
+              segment.getInt(entryIndex));
+      if (result < 0) {
+        high = mid - 1;
+      } else if (result > 0) {
+        low = mid + 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1 - low;
+  }
+
+  /** Returns the index of the first entry with a key greater than, or equal to if inclusive. */
+  private int ascendingCeilingIndex(Object key, boolean inclusive) {
+    int index = search((ByteBuffer) checkNotNull(key));
+    return (index >= 0) ? (inclusive ? index : index + 1) : -1 - index;
+  }
+
+  /** Returns the index of the last entry with a key less than, or equal to if inclusive. */
+  private int ascendingFloorIndex(Object key, boolean inclusive) {
+    int index = search((ByteBuffer) checkNotNull(key));
+    return (index >= 0) ? (inclusive ? index : index - 1) : -2 - index;
+  }
+
+  /**
+   * Returns the index of the first entry, in the order of this map, after {@code key}, or at it if
+   * inclusive; or -1 if there is none.
+   */
+  private int nextIndex(Object key, boolean inclusive) {
+    int index =
+        descending ? ascendingFloorIndex(key, inclusive) : ascendingCeilingIndex(key, inclusive);
+    return (index >= fromIndex && index < toIndex) ? index : -1;
+  }
+
+  /**
+   * Returns the index of the last entry, in the order of this map, before {@code key}, or at it if
+   * inclusive; or -1 if there is none.
+   */
+  private int previousIndex(Object key, boolean inclusive) {
+    int index =
+        descending ? ascendingCeilingIndex(key, inclusive) : ascendingFloorIndex(key, inclusive);
+    return (index >= fromIndex && index < toIndex) ? index : -1;
+  }
+
+  @NullableDecl
+  private Entry<ByteBuffer, ByteBuffer> entryOrNull(int index) {
+    return (index < 0) ? null : entryAt(index);
+  }
+
+  @NullableDecl
+  private ByteBuffer keyOrNull(int index) {
+    return (index < 0) ? null : keyAt(index);
+  }
+
+  private int firstIndex() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return descending ? toIndex - 1 : fromIndex;
+  }
+
+  private int lastIndex() {
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return descending ? fromIndex : toIndex - 1;
+  }
+
+  @Override
+  public int size() {
+    return toIndex - fromIndex;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return toIndex == fromIndex;
+  }
+
+  @Override
+  @NullableDecl
+  public ByteBuffer get(@NullableDecl Object key) {
+    if (!(key instanceof ByteBuffer)) {
+      return null;
+    }
+    int index = search((ByteBuffer) key);
+    return (index < 0) ? null : valueAt(index);
+  }
+
+  @Override
+  public boolean containsKey(@NullableDecl Object key) {
+    return key instanceof ByteBuffer && search((ByteBuffer) key) >= 0;
+  }
+
+  @Override
+  public Comparator<? super ByteBuffer> comparator() {
+    return descending ? KEY_ORDER.reverse() : KEY_ORDER;
+  }
+
+  @Override
+  public ByteBuffer firstKey() {
+    return keyAt(firstIndex());
+  }
+
+  @Override
+  public ByteBuffer lastKey() {
+    return keyAt(lastIndex());
+  }
+
+  @Override
+  @NullableDecl
+  public Entry<ByteBuffer, ByteBuffer> firstEntry() {
+    return isEmpty() ? null : entryAt(firstIndex());
+  }
+
+  @Override
+  @NullableDecl
+  public Entry<ByteBuffer, ByteBuffer> lastEntry() {
+    return isEmpty() ? null : entryAt(lastIndex());
+  }
+
+  /**
+   * Guaranteed to throw an exception and leave the map unmodified.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public Entry<ByteBuffer, ByteBuffer> pollFirstEntry() {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Guaranteed to throw an exception and leave the map unmodified.
+   *
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public Entry<ByteBuffer, ByteBuffer> pollLastEntry() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  @NullableDecl
+  public Entry<ByteBuffer, ByteBuffer> lowerEntry(ByteBuffer key) {
+    return entryOrNull(previousIndex(key, false));
+  }
+
+  @Override
+  @NullableDecl
+  public ByteBuffer lowerKey(ByteBuffer key) {
+    return keyOrNull(previousIndex(key, false));
+  }
+
+  @Override
+  @NullableDecl
+  public Entry<ByteBuffer, ByteBuffer> floorEntry(ByteBuffer key) {
+    return entryOrNull(previousIndex(key, true));
+  }
+
+  @Override
+  @NullableDecl
+  public ByteBuffer floorKey(ByteBuffer key) {
+    return keyOrNull(previousIndex(key, true));
+  }
+
+  @Override
+  @NullableDecl
+  public Entry<ByteBuffer, ByteBuffer> ceilingEntry(ByteBuffer key) {
+    return entryOrNull(nextIndex(key, true));
+  }
+
+  @Override
+  @NullableDecl
+  public ByteBuffer ceilingKey(ByteBuffer key) {
+    return keyOrNull(nextIndex(key, true));
+  }
+
+  @Override
+  @NullableDecl
+  public Entry<ByteBuffer, ByteBuffer> higherEntry(ByteBuffer key) {
+    return entryOrNull(nextIndex(key, false));
+  }
+
+  @Override
+  @NullableDecl
+  public ByteBuffer higherKey(ByteBuffer key) {
+    return keyOrNull(nextIndex(key, false));
+  }
+
+  /**
+   * Returns the submap of the entries from {@code fromKey} to {@code toKey}, in the order of this
+   * map.
+   *
+   * @throws IllegalArgumentException if {@code fromKey} is greater than {@code toKey} in the order
+   *     of this map
+   */
+  @Override
+  public MappedSortedMap subMap(
+      ByteBuffer fromKey, boolean fromInclusive, ByteBuffer toKey, boolean toInclusive) {
+    checkNotNull(fromKey);
+    checkNotNull(toKey);
+    checkArgument(
+        comparator().compare(fromKey, toKey) <= 0,
+        "expected fromKey <= toKey but %s > %s",
+        fromKey,
+        toKey);
+    return headMap(toKey, toInclusive).tailMap(fromKey, fromInclusive);
+  }
+
+  @Override
+  public MappedSortedMap subMap(ByteBuffer fromKey, ByteBuffer toKey) {
+    return subMap(fromKey, true, toKey, false);
+  }
+
+  @Override
+  public MappedSortedMap headMap(ByteBuffer toKey, boolean inclusive) {
+    return descending
+        ? withRange(Math.max(fromIndex, ascendingCeilingIndex(toKey, inclusive)), toIndex, true)
+        : withRange(fromIndex, Math.min(toIndex, ascendingFloorIndex(toKey, inclusive) + 1), false);
+  }
+
+  @Override
+  public MappedSortedMap headMap(ByteBuffer toKey) {
+    return headMap(toKey, false);
+  }
+
+  @Override
+  public MappedSortedMap tailMap(ByteBuffer fromKey, boolean inclusive) {
+    return descending
+        ? withRange(fromIndex, Math.min(toIndex, ascendingFloorIndex(fromKey, inclusive) + 1), true)
+        : withRange(Math.max(fromIndex, ascendingCeilingIndex(fromKey, inclusive)), toIndex, false);
+  }
+
+  @Override
+  public MappedSortedMap tailMap(ByteBuffer fromKey) {
+    return tailMap(fromKey, true);
+  }
+
+  @Override
+  public MappedSortedMap descendingMap() {
+    return withRange(fromIndex, toIndex, !descending);
+  }
+
+  @Override
+  public Set<Entry<ByteBuffer, ByteBuffer>> entrySet() {
+    EntrySet result = entrySet;
+    return (result == null) ? entrySet = new EntrySet() : result;
+  }
+
+  @Override
+  public NavigableSet<ByteBuffer> keySet() {
+    return navigableKeySet();
+  }
+
+  @Override
+  public NavigableSet<ByteBuffer> navigableKeySet() {
+    KeySet result = keySet;
+    return (result == null) ? keySet = new KeySet() : result;
+  }
+
+  @Override
+  public NavigableSet<ByteBuffer> descendingKeySet() {
+    return descendingMap().navigableKeySet();
+  }
+
+  /** Iterates over the entries of this map, in its order, as given by {@link #output}. */
+  private abstract class Itr<T> extends UnmodifiableIterator<T> {
+    private int next = descending ? toIndex - 1 : fromIndex;
+
+    abstract T output(int index);
+
+    @Override
+    public boolean hasNext() {
+      return next >= fromIndex && next < toIndex;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int index = next;
+      next += descending ? -1 : 1;
+      return output(index);
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<ByteBuffer, ByteBuffer>> {
+    @Override
+    public Iterator<Entry<ByteBuffer, ByteBuffer>> iterator() {
+      return new Itr<Entry<ByteBuffer, ByteBuffer>>() {
+        @Override
+        Entry<ByteBuffer, ByteBuffer> output(int index) {
+          return entryAt(index);
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return MappedSortedMap.this.size();
+    }
+
+    @Override
+    public boolean contains(@NullableDecl Object object) {
+      if (!(object instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> entry = (Entry<?, ?>) object;
+      ByteBuffer value = get(entry.getKey());
+      return value != null && value.equals(entry.getValue());
+    }
+  }
+
+  private final class KeySet extends AbstractSet<ByteBuffer> implements NavigableSet<ByteBuffer> {
+    @Override
+    public Iterator<ByteBuffer> iterator() {
+      return new Itr<ByteBuffer>() {
+        @Override
+        ByteBuffer output(int index) {
+          return keyAt(index);
+        }
+      };
+    }
+
+    @Override
+    public Iterator<ByteBuffer> descendingIterator() {
+      return descendingSet().iterator();
+    }
+
+    @Override
+    public int size() {
+      return MappedSortedMap.this.size();
+    }
+
+    @Override
+    public boolean contains(@NullableDecl Object object) {
+      return containsKey(object);
+    }
+
+    @Override
+    public Comparator<? super ByteBuffer> comparator() {
+      return MappedSortedMap.this.comparator();
+    }
+
+    @Override
+    public ByteBuffer first() {
+      return firstKey();
+    }
+
+    @Override
+    public ByteBuffer last() {
+      return lastKey();
+    }
+
+    @Override
+    @NullableDecl
+    public ByteBuffer lower(ByteBuffer key) {
+      return lowerKey(key);
+    }
+
+    @Override
+    @NullableDecl
+    public ByteBuffer floor(ByteBuffer key) {
+      return floorKey(key);
+    }
+
+    @Override
+    @NullableDecl
+    public ByteBuffer ceiling(ByteBuffer key) {
+      return ceilingKey(key);
+    }
+
+    @Override
+    @NullableDecl
+    public ByteBuffer higher(ByteBuffer key) {
+      return higherKey(key);
+    }
+
+    @Override
+    public ByteBuffer pollFirst() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public ByteBuffer pollLast() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NavigableSet<ByteBuffer> descendingSet() {
+      return descendingKeySet();
+    }
+
+    @Override
+    public NavigableSet<ByteBuffer> subSet(
+        ByteBuffer fromElement,
+        boolean fromInclusive,
+        ByteBuffer toElement,
+        boolean toInclusive) {
+      return subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+    }
+
+    @Override
+    public SortedSet<ByteBuffer> subSet(ByteBuffer fromElement, ByteBuffer toElement) {
+      return subMap(fromElement, toElement).navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<ByteBuffer> headSet(ByteBuffer toElement, boolean inclusive) {
+      return headMap(toElement, inclusive).navigableKeySet();
+    }
+
+    @Override
+    public SortedSet<ByteBuffer> headSet(ByteBuffer toElement) {
+      return headMap(toElement).navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<ByteBuffer> tailSet(ByteBuffer fromElement, boolean inclusive) {
+      return tailMap(fromElement, inclusive).navigableKeySet();
+    }
+
+    @Override
+    public SortedSet<ByteBuffer> tailSet(ByteBuffer fromElement) {
+      return tailMap(fromElement).navigableKeySet();
+    }
+  }
+}
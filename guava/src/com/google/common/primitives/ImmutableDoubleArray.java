@@ -350,6 +350,15 @@ public final class ImmutableDoubleArray implements Serializable {
     this.end = end;
   }
 
+  /**
+   * Returns an immutable array of the first {@code length} values of {@code array}, without copying
+   * them. The caller must never modify those values afterwards; {@link DoubleArrayList} copies its
+   * backing array before overwriting any values that it shared this way.
+   */
+  static ImmutableDoubleArray wrap(double[] array, int length) {
+    return (length == 0) ? EMPTY : new ImmutableDoubleArray(array, 0, length);
+  }
+
   /** Returns the number of values in this array. */
   public int length() {
     return end - start;
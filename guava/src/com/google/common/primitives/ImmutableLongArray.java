@@ -349,6 +349,15 @@ public final class ImmutableLongArray implements Serializable {
     this.end = end;
   }
 
+  /**
+   * Returns an immutable array of the first {@code length} values of {@code array}, without copying
+   * them. The caller must never modify those values afterwards; {@link LongArrayList} copies its
+   * backing array before overwriting any values that it shared this way.
+   */
+  static ImmutableLongArray wrap(long[] array, int length) {
+    return (length == 0) ? EMPTY : new ImmutableLongArray(array, 0, length);
+  }
+
   /** Returns the number of values in this array. */
   public int length() {
     return end - start;